@@ -0,0 +1,86 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An exception thrown to indicate that a bulk storage operation failed for
+ * some of its subjects.
+ * <p>
+ * The message identifies the subject of each failure, up to a reasonable
+ * limit. The failure for every subject is available from
+ * {@link #getFailures()}, and is also added as a suppressed exception.
+ *
+ * @author Carl Harris
+ */
+public class BulkOperationException extends KeyStorageException {
+
+  private static final int MAX_REPORTED_FAILURES = 10;
+
+  private final Map<String, KeyStorageException> failures;
+
+  /**
+   * Constructs a new instance.
+   * @param operation verb that describes the operation (e.g. {@code store})
+   * @param subjects plural noun that describes the subjects of the operation
+   *    (e.g. {@code keys})
+   * @param failures map of subject identifiers to the corresponding failures
+   * @param count total number of subjects
+   */
+  public BulkOperationException(String operation, String subjects,
+      Map<String, KeyStorageException> failures, int count) {
+    super(message(operation, subjects, failures, count));
+    this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    this.failures.values().forEach(this::addSuppressed);
+  }
+
+  /**
+   * Gets the failures of the operation.
+   * @return map of subject identifiers to the corresponding failures, in the
+   *    order in which the subjects were presented to the operation
+   */
+  public Map<String, KeyStorageException> getFailures() {
+    return failures;
+  }
+
+  private static String message(String operation, String subjects,
+      Map<String, KeyStorageException> failures, int count) {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("failed to ").append(operation).append(' ')
+        .append(failures.size())
+        .append(" of ").append(count).append(' ').append(subjects)
+        .append(": ");
+    int reported = 0;
+    for (final String id : failures.keySet()) {
+      if (reported == MAX_REPORTED_FAILURES) {
+        sb.append(", ...");
+        break;
+      }
+      if (reported++ > 0) {
+        sb.append(", ");
+      }
+      sb.append(id);
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Default implementations of the bulk operations of {@link MutableKeyStorage}
+ * for providers that do not support them natively.
+ *
+ * @author Carl Harris
+ */
+final class BulkOperations {
+
+  private BulkOperations() { }
+
+  /**
+   * Stores each of the given keys in turn.
+   * @param storage the subject storage
+   * @param keys map of key identifiers to the corresponding subject keys
+   *    and metadata
+   * @throws BulkOperationException if any key cannot be stored
+   * @see MutableKeyStorage#storeAll(Map)
+   */
+  static void storeAll(MutableKeyStorage storage,
+      Map<String, KeyWithMetadata> keys) throws KeyStorageException {
+    final Map<String, KeyStorageException> failures = new LinkedHashMap<>();
+    for (final Map.Entry<String, KeyWithMetadata> entry : keys.entrySet()) {
+      try {
+        storage.store(entry.getKey(), entry.getValue());
+      }
+      catch (KeyStorageException ex) {
+        failures.put(entry.getKey(), ex);
+      }
+    }
+    if (!failures.isEmpty()) {
+      throw new BulkOperationException("store", "keys", failures,
+          keys.size());
+    }
+  }
+
+  /**
+   * Deletes each of the given keys in turn.
+   * @param storage the subject storage
+   * @param ids identifiers of the keys to delete
+   * @throws BulkOperationException if any key cannot be deleted
+   * @see MutableKeyStorage#deleteAll(Collection)
+   */
+  static void deleteAll(MutableKeyStorage storage, Collection<String> ids)
+      throws KeyStorageException {
+    final Map<String, KeyStorageException> failures = new LinkedHashMap<>();
+    for (final String id : ids) {
+      try {
+        storage.delete(id);
+      }
+      catch (KeyStorageException ex) {
+        failures.put(id, ex);
+      }
+    }
+    if (!failures.isEmpty()) {
+      throw new BulkOperationException("delete", "keys", failures,
+          ids.size());
+    }
+  }
+
+}
@@ -43,6 +43,12 @@ public interface KeyPairStorage {
    */
   String CA_FILE_NAME = "cacerts.pem";
 
+  /**
+   * Name of the file or file-like object used to store a private key
+   * together with its certificate chain
+   */
+  String BUNDLE_FILE_NAME = "bundle.pem";
+
   /**
    * Retrieves the key pair with the given identifier.
    * @param id identifier of the key pair to retrieve
@@ -79,6 +79,52 @@ public final class KeyPairStorageLocator {
     }
   }
 
+  /**
+   * Gets a new mutable key pair storage instance from the specified provider.
+   * @param provider provider name; e.g. {@code LOCAL}
+   * @param configuration configuration properties
+   * @return key pair storage instance
+   * @throws NoSuchProviderException if there exists no provider with the
+   *    given name that supports the mutable interface
+   * @throws ProviderConfigurationException if the provider reports an
+   *    error in creating and configuring the storage instance
+   */
+  public static MutableKeyPairStorage getMutableInstance(
+      String provider, Properties configuration)
+      throws NoSuchProviderException, ProviderConfigurationException {
+    return getMutableInstance(provider, configuration,
+        () -> ServiceLoader.load(KeyPairStorageProvider.class));
+  }
+
+  /**
+   * Gets a new mutable key pair storage instance from the specified provider.
+   * @param provider provider name; e.g. {@code LOCAL}
+   * @param configuration configuration properties
+   * @param loader a supplier for a service loader
+   * @return key pair storage instance
+   * @throws NoSuchProviderException if there exists no provider with the
+   *    given name that supports the mutable interface
+   * @throws ProviderConfigurationException if the provider reports an
+   *    error in creating and configuring the storage instance
+   */
+  public static MutableKeyPairStorage getMutableInstance(
+      String provider, Properties configuration,
+      Supplier<ServiceLoader<KeyPairStorageProvider>> loader)
+      throws NoSuchProviderException, ProviderConfigurationException {
+    try {
+      return (MutableKeyPairStorage) getProviderInstance(loader,
+              p -> p.getName().equals(provider) && p.isMutable())
+          .orElseThrow(() -> new NoSuchProviderException(provider))
+          .getInstance(configuration);
+    }
+    catch (NoSuchProviderException | ProviderConfigurationException ex) {
+      throw ex;
+    }
+    catch (Exception ex) {
+      throw new ProviderConfigurationException(ex.toString(), ex);
+    }
+  }
+
   /**
    * Finds a registered service provider.
    * @param loader a supplier for a service loader
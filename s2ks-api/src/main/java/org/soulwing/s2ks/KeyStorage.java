@@ -19,6 +19,7 @@
 package org.soulwing.s2ks;
 
 import java.security.Key;
+import java.util.stream.Stream;
 
 /**
  * A key storage provider.
@@ -60,5 +61,56 @@ public interface KeyStorage {
       throws NoSuchKeyException, KeyUnwrapException,
       MetadataUnwrapException, KeyStorageException;
 
+  /**
+   * Tests whether a key exists in storage.
+   * <p>
+   * The bundled providers neither read nor unwrap the stored key, so this
+   * is much less costly than {@link #retrieve(String)} when only the
+   * existence of the key is of interest. The default implementation
+   * retrieves the key using {@link #retrieve(String)}.
+   *
+   * @param id unique identifier of the subject key
+   * @return {@code true} if a key with the given identifier exists
+   * @throws KeyStorageException if the underlying storage mechanism cannot
+   *    determine whether the key exists
+   */
+  default boolean exists(String id) throws KeyStorageException {
+    try {
+      retrieve(id);
+      return true;
+    }
+    catch (NoSuchKeyException ex) {
+      return false;
+    }
+    catch (KeyUnwrapException ex) {
+      return true;
+    }
+  }
+
+  /**
+   * Enumerates the identifiers of the keys in storage.
+   * <p>
+   * Identifiers are produced in ascending lexicographic order of the names
+   * under which the keys are stored. This is the order of the identifiers
+   * themselves, except that an identifier may follow another identifier of
+   * which it is a prefix; e.g. {@code key} may follow {@code key-1}. The
+   * order is the same each time the keys are enumerated. The returned
+   * stream may hold resources of the underlying storage mechanism, and
+   * should be closed when no longer needed. An error that occurs in reading
+   * from storage while the stream is being consumed is reported as an
+   * {@link java.io.UncheckedIOException}.
+   * <p>
+   * Enumeration is an optional operation; the default implementation
+   * throws {@link KeyStorageException}.
+   *
+   * @param prefix prefix that each identifier must start with; an empty
+   *    string enumerates all keys
+   * @return stream of key identifiers
+   * @throws KeyStorageException if the underlying storage mechanism cannot
+   *    begin the enumeration, or does not support enumeration
+   */
+  default Stream<String> ids(String prefix) throws KeyStorageException {
+    throw new KeyStorageException("not supported");
+  }
 
 }
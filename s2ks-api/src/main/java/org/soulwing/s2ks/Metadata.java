@@ -96,4 +96,32 @@ public interface Metadata {
    */
   <T> T get(String name, Class<? extends T> type);
 
+  /**
+   * Gets a numeric metadata property value as a primitive {@code long}.
+   * @param name name of the property to retrieve
+   * @param defaultValue value to return if there is no property with the
+   *    given name
+   * @return property value, coerced to {@code long}, or {@code defaultValue}
+   * @throws ClassCastException if the value associated with the given name
+   *    is not a number
+   */
+  default long getLong(String name, long defaultValue) {
+    final Long value = get(name, Long.class);
+    return value != null ? value : defaultValue;
+  }
+
+  /**
+   * Gets a boolean metadata property value as a primitive {@code boolean}.
+   * @param name name of the property to retrieve
+   * @param defaultValue value to return if there is no property with the
+   *    given name
+   * @return property value or {@code defaultValue}
+   * @throws ClassCastException if the value associated with the given name
+   *    is not a boolean
+   */
+  default boolean getBoolean(String name, boolean defaultValue) {
+    final Boolean value = get(name, Boolean.class);
+    return value != null ? value : defaultValue;
+  }
+
 }
@@ -0,0 +1,68 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks;
+
+/**
+ * A {@link KeyPairStorage} that provides the ability to store new key pairs
+ * at runtime.
+ * <p>
+ * Each key pair is written as a single bundle that contains the encrypted
+ * private key and its certificate chain, so that a reader never observes a
+ * private key together with a certificate from a different key pair.
+ *
+ * @author Carl Harris
+ */
+public interface MutableKeyPairStorage extends KeyPairStorage {
+
+  /**
+   * Stores a key pair, replacing any existing key pair with the same
+   * identifier.
+   * <p>
+   * Any separate private key, certificate, and CA certificate files for the
+   * key pair are deleted once the bundle has been written.
+   *
+   * @param keyPair the subject key pair; it must specify an identifier and
+   *    at least one certificate, the first of which must be the certificate
+   *    for the private key
+   * @throws IllegalArgumentException if the key pair has no identifier or
+   *    certificate, or if the private key does not match the public key of
+   *    the first certificate
+   * @throws KeyStorageException if the private key cannot be encrypted,
+   *    the key pair cannot be written to persistent storage, or its separate
+   *    files cannot be deleted
+   */
+  void storeKeyPair(KeyPairInfo keyPair) throws KeyStorageException;
+
+  /**
+   * Stores each of the given key pairs, replacing any existing key pairs
+   * with the same identifiers.
+   * <p>
+   * Key pairs are stored concurrently. A failure to store one key pair does
+   * not prevent the others from being stored.
+   *
+   * @param keyPairs the key pairs to store
+   * @throws BulkOperationException if any key pair cannot be stored; the
+   *    exception for each key pair that was not stored is available from
+   *    {@link BulkOperationException#getFailures()}
+   * @throws KeyStorageException if the import is interrupted
+   */
+  void importKeyPairs(Iterable<KeyPairInfo> keyPairs)
+      throws KeyStorageException;
+
+}
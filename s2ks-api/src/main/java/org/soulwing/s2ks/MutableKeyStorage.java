@@ -19,6 +19,8 @@
 package org.soulwing.s2ks;
 
 import java.security.Key;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * A {@link KeyStorage} provider that provides the ability to store
@@ -58,4 +60,59 @@ public interface MutableKeyStorage extends KeyStorage {
   void store(String id, KeyWithMetadata keyWithMetadata)
       throws KeyWrapException, KeyStorageException;
 
+  /**
+   * Stores each of the given keys and associated metadata, replacing any
+   * existing keys and metadata with the same identifiers.
+   * <p>
+   * A failure to store one key does not prevent the others from being
+   * stored. The default implementation stores each key in turn using
+   * {@link #store(String, KeyWithMetadata)}; the bundled providers wrap and
+   * write the keys concurrently.
+   *
+   * @param keys map of key identifiers to the corresponding subject keys
+   *    and metadata
+   * @throws BulkOperationException if any key cannot be stored; the
+   *    exception for each key that was not stored is available from
+   *    {@link BulkOperationException#getFailures()}
+   * @throws KeyStorageException if the operation cannot be attempted
+   */
+  default void storeAll(Map<String, KeyWithMetadata> keys)
+      throws KeyStorageException {
+    BulkOperations.storeAll(this, keys);
+  }
+
+  /**
+   * Deletes the key and associated metadata with the given identifier, if
+   * such a key exists.
+   * <p>
+   * Deletion is an optional operation; the default implementation throws
+   * {@link KeyStorageException}.
+   *
+   * @param id identifier for the subject key
+   * @throws KeyStorageException if the underlying storage mechanism cannot
+   *    successfully delete the key from persistent storage, or does not
+   *    support deletion
+   */
+  default void delete(String id) throws KeyStorageException {
+    throw new KeyStorageException("not supported");
+  }
+
+  /**
+   * Deletes each of the keys with the given identifiers, along with their
+   * associated metadata, ignoring any identifier for which no key exists.
+   * <p>
+   * A failure to delete one key does not prevent the others from being
+   * deleted. The default implementation deletes each key in turn using
+   * {@link #delete(String)}.
+   *
+   * @param ids identifiers of the keys to delete
+   * @throws BulkOperationException if any key cannot be deleted; the
+   *    exception for each key that was not deleted is available from
+   *    {@link BulkOperationException#getFailures()}
+   * @throws KeyStorageException if the operation cannot be attempted
+   */
+  default void deleteAll(Collection<String> ids) throws KeyStorageException {
+    BulkOperations.deleteAll(this, ids);
+  }
+
 }
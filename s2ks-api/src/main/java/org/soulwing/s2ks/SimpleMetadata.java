@@ -18,25 +18,42 @@
  */
 package org.soulwing.s2ks;
 
-import java.util.Collections;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
- * An immutable metadata value holder backed by a map.
+ * An immutable metadata value holder.
+ * <p>
+ * Properties are held in a pair of arrays ordered by name, so that lookups
+ * need no auxiliary map and two instances can be compared element by element.
+ * The hash code is computed once, when the instance is built, and is
+ * consistent with the hash code of the map returned by {@link #toMap()}.
  *
  * @author Carl Harris
  */
 public final class SimpleMetadata implements Metadata {
 
+  private static final String[] NO_NAMES = new String[0];
+  private static final Object[] NO_VALUES = new Object[0];
+
   private static final SimpleMetadata EMPTY =
-      new SimpleMetadata(Collections.emptyMap());
+      new SimpleMetadata(NO_NAMES, NO_VALUES);
 
-  private final Map<String, Object> delegate;
+  private final String[] names;
+  private final Object[] values;
+  private final int hashCode;
+  private final Set<String> nameSet;
 
-  private SimpleMetadata(Map<String, Object> delegate) {
-    this.delegate = delegate;
+  private SimpleMetadata(String[] names, Object[] values) {
+    this.names = names;
+    this.values = values;
+    this.hashCode = hashCode(names, values);
+    this.nameSet = new NameSet();
   }
 
   /**
@@ -44,38 +61,49 @@ public final class SimpleMetadata implements Metadata {
    */
   public static class Builder implements Metadata.Builder {
 
-    private Map<String, Object> metadata = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 4;
+
+    private String[] names = NO_NAMES;
+    private Object[] values = NO_VALUES;
+    private int size;
 
     private Builder() { }
 
     @Override
     public Metadata.Builder set(String name, Object value) {
-      if (value instanceof String) {
-        metadata.put(name, value);
-      }
-      else if (value instanceof Integer) {
-        metadata.put(name, value);
-      }
-      else if (value instanceof Long) {
-        metadata.put(name, value);
-      }
-      else if (value instanceof Boolean) {
-        metadata.put(name, value);
-      }
-      else if (value instanceof Double) {
-        metadata.put(name, value);
-      }
-      else {
+      if (!(value instanceof String
+          || value instanceof Integer
+          || value instanceof Long
+          || value instanceof Boolean
+          || value instanceof Double)) {
         throw new IllegalArgumentException(
             "value type must be string, boolean, integer, long, or double; "
                 + "not " + value.getClass().getSimpleName());
       }
+      final int index = Arrays.binarySearch(names, 0, size, name);
+      if (index >= 0) {
+        values[index] = value;
+        return this;
+      }
+      final int insert = -(index + 1);
+      if (size == names.length) {
+        final int capacity = Math.max(INITIAL_CAPACITY, 2 * size);
+        names = Arrays.copyOf(names, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+      System.arraycopy(names, insert, names, insert + 1, size - insert);
+      System.arraycopy(values, insert, values, insert + 1, size - insert);
+      names[insert] = name;
+      values[insert] = value;
+      size++;
       return this;
     }
 
     @Override
     public Metadata build() {
-      return new SimpleMetadata(metadata);
+      if (size == 0) return EMPTY;
+      return new SimpleMetadata(Arrays.copyOf(names, size),
+          Arrays.copyOf(values, size));
     }
 
   }
@@ -98,22 +126,26 @@ public final class SimpleMetadata implements Metadata {
 
   @Override
   public boolean isEmpty() {
-    return delegate.isEmpty();
+    return names.length == 0;
   }
 
   @Override
   public Set<String> names() {
-    return delegate.keySet();
+    return nameSet;
   }
 
   @Override
   public Map<String, Object> toMap() {
-    return new HashMap<>(delegate);
+    final Map<String, Object> map = new HashMap<>();
+    for (int i = 0; i < names.length; i++) {
+      map.put(names[i], values[i]);
+    }
+    return map;
   }
 
   @Override
   public <T> T get(String name, Class<? extends T> type) {
-    Object value = delegate.get(name);
+    Object value = valueOf(name);
     if (Number.class.isAssignableFrom(type)
         && value instanceof Number
         && !type.isInstance(value)) {
@@ -130,16 +162,97 @@ public final class SimpleMetadata implements Metadata {
     return type.cast(value);
   }
 
+  @Override
+  public long getLong(String name, long defaultValue) {
+    final Object value = valueOf(name);
+    if (value == null) return defaultValue;
+    if (value instanceof Number) return ((Number) value).longValue();
+    throw new ClassCastException("property `" + name + "` is not a number");
+  }
+
+  @Override
+  public boolean getBoolean(String name, boolean defaultValue) {
+    final Object value = valueOf(name);
+    if (value == null) return defaultValue;
+    return (Boolean) value;
+  }
+
+  private Object valueOf(String name) {
+    final int index = Arrays.binarySearch(names, name);
+    return index >= 0 ? values[index] : null;
+  }
+
   @Override
   public int hashCode() {
-    return toMap().hashCode();
+    return hashCode;
   }
 
   @Override
   public boolean equals(Object obj) {
-    return obj == this
-        || (obj instanceof Metadata
-            && ((Metadata) obj).toMap().equals(toMap()));
+    if (obj == this) return true;
+    if (obj instanceof SimpleMetadata) {
+      final SimpleMetadata that = (SimpleMetadata) obj;
+      return this.hashCode == that.hashCode
+          && Arrays.equals(this.names, that.names)
+          && Arrays.equals(this.values, that.values);
+    }
+    return obj instanceof Metadata
+        && ((Metadata) obj).toMap().equals(toMap());
+  }
+
+  @Override
+  public String toString() {
+    return toMap().toString();
+  }
+
+  /**
+   * Computes a hash code in the same manner as {@link Map#hashCode()}.
+   * @param names property names
+   * @param values property values
+   * @return hash code
+   */
+  private static int hashCode(String[] names, Object[] values) {
+    int hashCode = 0;
+    for (int i = 0; i < names.length; i++) {
+      hashCode += names[i].hashCode() ^ values[i].hashCode();
+    }
+    return hashCode;
+  }
+
+  /**
+   * An unmodifiable view of the property names.
+   */
+  private class NameSet extends AbstractSet<String> {
+
+    @Override
+    public int size() {
+      return names.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return o instanceof String
+          && Arrays.binarySearch(names, (String) o) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<String>() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return index < names.length;
+        }
+
+        @Override
+        public String next() {
+          if (index >= names.length) throw new NoSuchElementException();
+          return names[index++];
+        }
+      };
+    }
+
   }
 
 }
@@ -35,6 +35,16 @@ public interface KeyPairStorageProvider {
    */
   String getName();
 
+  /**
+   * Tests whether this provider supports the
+   * {@link org.soulwing.s2ks.MutableKeyPairStorage} interface.
+   * @return {@code true} if this provider supports the mutable API; the
+   *    default implementation returns {@code false}
+   */
+  default boolean isMutable() {
+    return false;
+  }
+
   /**
    * Gets a key pair storage instance from this provider.
    * @param configuration configuration properties
@@ -0,0 +1,99 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.spi;
+
+/**
+ * A listener that receives timings and counts from key storage
+ * implementations.
+ * <p>
+ * Each measurement identifies its <em>source</em>, which is the simple name
+ * of the reporting implementation class (e.g. {@code AwsKeyStorage} or
+ * {@code KmsMasterKeyService}), and thereby its provider. Timings are
+ * reported for each complete operation (e.g. {@code retrieve}) with the
+ * outcome of that operation, and for each stage of a successful
+ * operation (e.g. {@code retrieve.unwrap}).
+ * <p>
+ * The default listener is discovered using the {@link java.util.ServiceLoader}
+ * mechanism; when no listener is registered, measurements are discarded.
+ * A listener may be invoked concurrently by many threads and must not block;
+ * it is typically an adapter to a metrics library of the application's
+ * choosing.
+ *
+ * @author Carl Harris
+ */
+@FunctionalInterface
+public interface MetricsListener {
+
+  /**
+   * An enumeration of operation outcomes.
+   */
+  enum Outcome {
+    /** the operation completed successfully */
+    SUCCESS,
+    /** the subject of the operation does not exist */
+    NOT_FOUND,
+    /** the operation failed */
+    FAILURE
+  }
+
+  /**
+   * Records the elapsed time of an operation or a stage of an operation.
+   * @param source simple name of the reporting class
+   * @param stage name of the operation or stage
+   * @param outcome outcome of the operation or stage
+   * @param elapsedNanos elapsed time in nanoseconds
+   */
+  void recordTime(String source, String stage, Outcome outcome,
+      long elapsedNanos);
+
+  /**
+   * Records a count associated with an operation; e.g. the number of bytes
+   * transferred.
+   * <p>
+   * The default implementation discards the count.
+   *
+   * @param source simple name of the reporting class
+   * @param name name of the counter
+   * @param count amount by which to increase the counter
+   */
+  default void recordCount(String source, String name, long count) {
+  }
+
+  /**
+   * Gets a listener that discards all measurements.
+   * @return no-op listener
+   */
+  static MetricsListener noop() {
+    return MetricsListeners.NOOP;
+  }
+
+  /**
+   * Gets the default listener.
+   * <p>
+   * The default listener delegates to every listener registered using the
+   * {@link java.util.ServiceLoader} mechanism, or discards all measurements
+   * if there are none.
+   *
+   * @return default listener
+   */
+  static MetricsListener getDefault() {
+    return MetricsListeners.Default.INSTANCE;
+  }
+
+}
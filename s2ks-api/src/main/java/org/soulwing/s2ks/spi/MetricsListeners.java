@@ -0,0 +1,85 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Static support for {@link MetricsListener}.
+ *
+ * @author Carl Harris
+ */
+final class MetricsListeners {
+
+  static final MetricsListener NOOP = (source, stage, outcome, elapsed) -> { };
+
+  private MetricsListeners() { }
+
+  /**
+   * A holder for the default listener, which is discovered on first use.
+   */
+  static class Default {
+    static final MetricsListener INSTANCE =
+        of(ServiceLoader.load(MetricsListener.class));
+  }
+
+  /**
+   * Creates a listener that delegates to each of the given listeners.
+   * @param listeners the subject listeners
+   * @return listener
+   */
+  static MetricsListener of(Iterable<MetricsListener> listeners) {
+    final List<MetricsListener> delegates = new ArrayList<>();
+    listeners.forEach(delegates::add);
+    if (delegates.isEmpty()) return NOOP;
+    if (delegates.size() == 1) return delegates.get(0);
+    return new Composite(delegates.toArray(new MetricsListener[0]));
+  }
+
+  /**
+   * A listener that delegates to several listeners.
+   */
+  private static class Composite implements MetricsListener {
+
+    private final MetricsListener[] delegates;
+
+    Composite(MetricsListener[] delegates) {
+      this.delegates = delegates;
+    }
+
+    @Override
+    public void recordTime(String source, String stage, Outcome outcome,
+        long elapsedNanos) {
+      for (final MetricsListener delegate : delegates) {
+        delegate.recordTime(source, stage, outcome, elapsedNanos);
+      }
+    }
+
+    @Override
+    public void recordCount(String source, String name, long count) {
+      for (final MetricsListener delegate : delegates) {
+        delegate.recordCount(source, name, count);
+      }
+    }
+
+  }
+
+}
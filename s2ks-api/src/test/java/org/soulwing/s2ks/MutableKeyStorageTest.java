@@ -0,0 +1,187 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.security.Key;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the default methods of {@link MutableKeyStorage} and
+ * {@link KeyStorage}.
+ *
+ * @author Carl Harris
+ */
+public class MutableKeyStorageTest {
+
+  private static final KeyWithMetadata KEY = new KeyWithMetadata(
+      new SecretKeySpec(new byte[16], "AES"), SimpleMetadata.empty());
+
+  private final MapKeyStorage storage = new MapKeyStorage();
+
+  @Test
+  public void testStoreAll() throws Exception {
+    final Map<String, KeyWithMetadata> keys = new LinkedHashMap<>();
+    keys.put("a", KEY);
+    keys.put("b", KEY);
+    storage.storeAll(keys);
+    assertThat(storage.keys, is(equalTo(keys)));
+  }
+
+  @Test
+  public void testStoreAllWhenSomeFail() throws Exception {
+    final Map<String, KeyWithMetadata> keys = new LinkedHashMap<>();
+    keys.put("a", KEY);
+    keys.put(MapKeyStorage.FAILING_ID, KEY);
+    keys.put("b", KEY);
+    try {
+      storage.storeAll(keys);
+      fail("expected BulkOperationException");
+    }
+    catch (BulkOperationException ex) {
+      assertThat(ex.getMessage(), is(equalTo(
+          "failed to store 1 of 3 keys: " + MapKeyStorage.FAILING_ID)));
+      assertThat(ex.getSuppressed(), is(arrayWithSize(1)));
+      assertThat(ex.getFailures().keySet(),
+          contains(MapKeyStorage.FAILING_ID));
+    }
+    assertThat(storage.keys.get("b"), is(sameInstance(KEY)));
+  }
+
+  @Test
+  public void testDeleteAllWhenSomeFail() throws Exception {
+    storage.store("a", KEY);
+    storage.store("b", KEY);
+    try {
+      storage.deleteAll(Arrays.asList("a", MapKeyStorage.FAILING_ID, "b"));
+      fail("expected BulkOperationException");
+    }
+    catch (BulkOperationException ex) {
+      assertThat(ex.getMessage(), is(equalTo(
+          "failed to delete 1 of 3 keys: " + MapKeyStorage.FAILING_ID)));
+      assertThat(ex.getSuppressed(), is(arrayWithSize(1)));
+      assertThat(ex.getFailures().keySet(),
+          contains(MapKeyStorage.FAILING_ID));
+    }
+    assertThat(storage.keys.isEmpty(), is(true));
+  }
+
+  @Test(expected = KeyStorageException.class)
+  public void testDeleteWhenNotSupported() throws Exception {
+    new MutableKeyStorage() {
+      @Override
+      public Key retrieve(String id) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public KeyWithMetadata retrieveWithMetadata(String id) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void store(String id, Key key) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void store(String id, KeyWithMetadata keyWithMetadata) {
+        throw new UnsupportedOperationException();
+      }
+    }.delete("a");
+  }
+
+  @Test
+  public void testExists() throws Exception {
+    storage.store("a", KEY);
+    assertThat(storage.exists("a"), is(true));
+    assertThat(storage.exists("b"), is(false));
+  }
+
+  @Test(expected = KeyStorageException.class)
+  public void testExistsWhenStorageFails() throws Exception {
+    storage.exists(MapKeyStorage.FAILING_ID);
+  }
+
+  /**
+   * A storage that implements only the required methods, and that fails
+   * every operation on a particular key.
+   */
+  static class MapKeyStorage implements MutableKeyStorage {
+
+    static final String FAILING_ID = "failing";
+
+    final Map<String, KeyWithMetadata> keys = new HashMap<>();
+
+    @Override
+    public Key retrieve(String id) throws KeyStorageException {
+      return retrieveWithMetadata(id).getKey();
+    }
+
+    @Override
+    public KeyWithMetadata retrieveWithMetadata(String id)
+        throws KeyStorageException {
+      check(id);
+      final KeyWithMetadata keyWithMetadata = keys.get(id);
+      if (keyWithMetadata == null) {
+        throw new NoSuchKeyException(id);
+      }
+      return keyWithMetadata;
+    }
+
+    @Override
+    public void store(String id, Key key) throws KeyStorageException {
+      store(id, new KeyWithMetadata(key, SimpleMetadata.empty()));
+    }
+
+    @Override
+    public void store(String id, KeyWithMetadata keyWithMetadata)
+        throws KeyStorageException {
+      check(id);
+      keys.put(id, keyWithMetadata);
+    }
+
+    @Override
+    public void delete(String id) throws KeyStorageException {
+      check(id);
+      keys.remove(id);
+    }
+
+    private void check(String id) throws KeyStorageException {
+      if (id.equals(FAILING_ID)) {
+        throw new KeyStorageException("failed");
+      }
+    }
+
+  }
+
+}
@@ -131,4 +131,91 @@ public class SimpleMetadataTest {
     assertThat(a, is(not(equalTo(c))));
   }
 
+  @Test
+  public void testEqualsAndHashCodeIgnoreOrder() throws Exception {
+    final Metadata a = SimpleMetadata.builder()
+        .set("a", 1).set("b", true).set("c", "value").build();
+    final Metadata b = SimpleMetadata.builder()
+        .set("c", "value").set("a", 1).set("b", true).build();
+
+    assertThat(a, is(equalTo(b)));
+    assertThat(a.hashCode(), is(equalTo(b.hashCode())));
+    assertThat(a.hashCode(), is(equalTo(a.toMap().hashCode())));
+  }
+
+  @Test
+  public void testSetReplacesExistingValue() throws Exception {
+    final Metadata metadata = SimpleMetadata.builder()
+        .set("name", "value")
+        .set("name", "otherValue")
+        .build();
+
+    assertThat(metadata.names().size(), is(equalTo(1)));
+    assertThat(metadata.get("name", String.class),
+        is(equalTo("otherValue")));
+  }
+
+  @Test
+  public void testBuilderReuseDoesNotAffectBuiltInstance() throws Exception {
+    final SimpleMetadata.Builder builder = SimpleMetadata.builder();
+    final Metadata metadata = builder.set("name", "value").build();
+    builder.set("name", "otherValue").set("other", 1);
+
+    assertThat(metadata.names(), containsInAnyOrder("name"));
+    assertThat(metadata.get("name", String.class), is(equalTo("value")));
+  }
+
+  @Test
+  public void testManyProperties() throws Exception {
+    final SimpleMetadata.Builder builder = SimpleMetadata.builder();
+    for (int i = 99; i >= 0; i--) {
+      builder.set("name" + i, i);
+    }
+    final Metadata metadata = builder.build();
+
+    assertThat(metadata.names().size(), is(equalTo(100)));
+    for (int i = 0; i < 100; i++) {
+      assertThat(metadata.names().contains("name" + i), is(true));
+      assertThat(metadata.get("name" + i, Integer.class), is(equalTo(i)));
+    }
+  }
+
+  @Test
+  public void testGetLong() throws Exception {
+    final Metadata metadata = SimpleMetadata.builder()
+        .set("long", 2L)
+        .set("int", 1)
+        .build();
+
+    assertThat(metadata.getLong("long", -1L), is(equalTo(2L)));
+    assertThat(metadata.getLong("int", -1L), is(equalTo(1L)));
+    assertThat(metadata.getLong("missing", -1L), is(equalTo(-1L)));
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void testGetLongWhenNotNumber() throws Exception {
+    SimpleMetadata.builder()
+        .set("name", "string")
+        .build()
+        .getLong("name", 0L);
+  }
+
+  @Test
+  public void testGetBoolean() throws Exception {
+    final Metadata metadata = SimpleMetadata.builder()
+        .set("boolean", true)
+        .build();
+
+    assertThat(metadata.getBoolean("boolean", false), is(true));
+    assertThat(metadata.getBoolean("missing", true), is(true));
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void testGetBooleanWhenNotBoolean() throws Exception {
+    SimpleMetadata.builder()
+        .set("name", 1)
+        .build()
+        .getBoolean("name", false);
+  }
+
 }
\ No newline at end of file
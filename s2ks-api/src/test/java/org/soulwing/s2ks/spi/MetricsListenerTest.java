@@ -0,0 +1,90 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.spi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetricsListener}.
+ *
+ * @author Carl Harris
+ */
+public class MetricsListenerTest {
+
+  @Test
+  public void testGetDefault() throws Exception {
+    assertThat(MetricsListener.getDefault(), is(not(nullValue())));
+    assertThat(MetricsListener.getDefault(),
+        is(sameInstance(MetricsListener.getDefault())));
+  }
+
+  @Test
+  public void testOfNone() throws Exception {
+    assertThat(MetricsListeners.of(Collections.emptyList()),
+        is(sameInstance(MetricsListener.noop())));
+  }
+
+  @Test
+  public void testOfOne() throws Exception {
+    final MetricsListener listener = (source, stage, outcome, elapsed) -> { };
+    assertThat(MetricsListeners.of(Collections.singletonList(listener)),
+        is(sameInstance(listener)));
+  }
+
+  @Test
+  public void testOfSeveral() throws Exception {
+    final List<String> events = new ArrayList<>();
+    final MetricsListener listener = MetricsListeners.of(Arrays.asList(
+        recorder("a", events), recorder("b", events)));
+
+    listener.recordTime("source", "stage", MetricsListener.Outcome.SUCCESS, 1L);
+    listener.recordCount("source", "counter", 2L);
+
+    assertThat(events, contains(
+        "a:stage:SUCCESS", "b:stage:SUCCESS", "a:counter=2", "b:counter=2"));
+  }
+
+  private static MetricsListener recorder(String name, List<String> events) {
+    return new MetricsListener() {
+      @Override
+      public void recordTime(String source, String stage, Outcome outcome,
+          long elapsedNanos) {
+        events.add(name + ":" + stage + ":" + outcome);
+      }
+
+      @Override
+      public void recordCount(String source, String counter, long count) {
+        events.add(name + ":" + counter + "=" + count);
+      }
+    };
+  }
+
+}
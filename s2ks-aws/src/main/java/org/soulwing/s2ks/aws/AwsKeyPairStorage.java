@@ -18,106 +18,249 @@
  */
 package org.soulwing.s2ks.aws;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.nio.file.Paths;
-import javax.json.Json;
-import javax.json.JsonObject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.soulwing.s2ks.KeyPairStorage;
 import org.soulwing.s2ks.KeyStorageException;
-import org.soulwing.s2ks.base.AbstractKeyPairStorage;
+import org.soulwing.s2ks.base.AbstractMutableKeyPairStorage;
 import org.soulwing.s2ks.base.CertificateLoader;
+import org.soulwing.s2ks.base.CertificateWriter;
 import org.soulwing.s2ks.base.PrivateKeyLoader;
-import com.amazonaws.AmazonClientException;
+import org.soulwing.s2ks.base.PrivateKeyWriter;
+import org.soulwing.s2ks.base.VersionedInputStream;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
-import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
-import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
 
 /**
- * A {@link org.soulwing.s2ks.KeyPairStorage} implementation that uses AWS S3 and the AWS
- * Secrets manager.
+ * A {@link org.soulwing.s2ks.MutableKeyPairStorage} implementation that uses
+ * AWS S3 and the AWS Secrets manager.
+ * <p>
+ * A bundle is written using a single S3 PUT, which replaces the bundle
+ * atomically. Private keys are encrypted using the password for the key pair
+ * obtained from the secret, so the secret must contain the password before
+ * a key pair is stored.
+ * <p>
+ * The passwords contained in the secret are cached, as described in
+ * {@link SecretPasswordCache}.
  *
  * @author Carl Harris
  */
-class AwsKeyPairStorage extends AbstractKeyPairStorage {
+class AwsKeyPairStorage extends AbstractMutableKeyPairStorage {
 
   static final String PASSWORD_KEY = "password";
+  static final String BUNDLE_CONTENT_TYPE = "text/plain";
 
-  private final AWSSecretsManager secretsClient;
+  private final SecretPasswordCache passwordCache;
   private final AmazonS3 s3Client;
 
-  private final String secretId;
   private final String bucketName;
   private final String prefix;
 
   AwsKeyPairStorage(
       PrivateKeyLoader privateKeyLoader,
       CertificateLoader certificateLoader,
+      PrivateKeyWriter privateKeyWriter,
+      CertificateWriter certificateWriter,
       AWSSecretsManager secretsClient,
       AmazonS3 s3Client,
       String secretId,
       String bucketName,
       String prefix) {
-    super(privateKeyLoader, certificateLoader);
-    this.secretsClient = secretsClient;
+    this(privateKeyLoader, certificateLoader, privateKeyWriter,
+        certificateWriter,
+        new SecretPasswordCache(secretsClient, secretId,
+            SecretPasswordCache.DEFAULT_VERSION_STAGE,
+            SecretPasswordCache.DEFAULT_TTL),
+        s3Client, bucketName, prefix);
+  }
+
+  AwsKeyPairStorage(
+      PrivateKeyLoader privateKeyLoader,
+      CertificateLoader certificateLoader,
+      PrivateKeyWriter privateKeyWriter,
+      CertificateWriter certificateWriter,
+      SecretPasswordCache passwordCache,
+      AmazonS3 s3Client,
+      String bucketName,
+      String prefix) {
+    super(privateKeyLoader, certificateLoader, privateKeyWriter,
+        certificateWriter);
+    this.passwordCache = passwordCache;
     this.s3Client = s3Client;
-    this.secretId = secretId;
     this.bucketName = bucketName;
     this.prefix = prefix;
   }
 
   @Override
   protected char[] getPassword(String id) throws KeyStorageException {
-    final GetSecretValueResult result = getSecretValue();
+    return passwordCache.getPassword(id);
+  }
 
-    // FIXME: using a JSON-P reader puts the password onto the heap in a string
-    // which cannot be easily evicted; need to make a stream parser for JSON
-    // that allows string values to be copied into a character array which
-    // can be subsequently wiped
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The version of a key pair is determined by the ETag of its bundle or
+   * of each of its separate objects. The metadata of the separate objects
+   * is requested only when the bundle does not exist, except for a key pair
+   * that was stored as separate objects when it was last retrieved, for
+   * which the metadata of all of the objects is requested concurrently
+   * using the executor of this storage.
+   */
+  @Override
+  protected Object getVersion(String id)
+      throws KeyStorageException, IOException {
+    final Executor executor = getExecutor();
+    final String bundlePath =
+        Paths.get(prefix, id, KeyPairStorage.BUNDLE_FILE_NAME).toString();
+    final boolean separate = isStoredAsSeparateFiles(id);
+    if (!separate) {
+      final String bundle = getETag(bundlePath, false);
+      if (bundle != null) {
+        return Collections.singletonList(bundle);
+      }
+    }
+    final CompletableFuture<String> bundleETag = separate ?
+        getETag(bundlePath, false, executor) :
+        CompletableFuture.completedFuture(null);
+    final CompletableFuture<String> keyETag = getETag(
+        Paths.get(prefix, id, KeyPairStorage.KEY_FILE_NAME).toString(),
+        true, executor);
+    final CompletableFuture<String> certETag = getETag(
+        Paths.get(prefix, id, KeyPairStorage.CERT_FILE_NAME).toString(),
+        true, executor);
+    final CompletableFuture<String> caETag = getETag(
+        Paths.get(prefix, id, KeyPairStorage.CA_FILE_NAME).toString(),
+        false, executor);
+    final String bundle = join(bundleETag);
+    if (bundle != null) {
+      return Collections.singletonList(bundle);
+    }
+    return Arrays.asList(join(keyETag), join(certETag), join(caETag));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Each stream reports the ETag returned with the object it reads, so
+   * that a key pair retrieved on a cache miss needs no separate metadata
+   * requests.
+   */
+  @Override
+  protected boolean hasStreamVersions() {
+    return true;
+  }
+
+  private CompletableFuture<String> getETag(String path, boolean required,
+      Executor executor) {
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    final Runnable task = () -> {
+      try {
+        future.complete(getETag(path, required));
+      }
+      catch (KeyStorageException | IOException | RuntimeException ex) {
+        future.completeExceptionally(ex);
+      }
+    };
+    try {
+      executor.execute(task);
+    }
+    catch (RejectedExecutionException ex) {
+      task.run();
+    }
+    return future;
+  }
 
-    final JsonObject secret =
-        Json.createReader(new StringReader(result.getSecretString())).readObject();
+  private static String join(CompletableFuture<String> future)
+      throws KeyStorageException, IOException {
+    try {
+      return future.join();
+    }
+    catch (CompletionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof KeyStorageException) {
+        throw (KeyStorageException) cause;
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw ex;
+    }
+  }
 
-    return getPassword(id, secret);
+  private String getETag(String path, boolean required)
+      throws KeyStorageException, IOException {
+    try {
+      final ObjectMetadata metadata =
+          s3Client.getObjectMetadata(bucketName, path);
+      return metadata.getETag();
+    }
+    catch (AmazonS3Exception ex) {
+      if (ex.getStatusCode() == 404) {
+        if (required) {
+          throw new FileNotFoundException(path);
+        }
+        return null;
+      }
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
   }
 
-  private char[] getPassword(String id, JsonObject secret)
+  @Override
+  protected void writeBundle(String id, byte[] content)
       throws KeyStorageException {
-    // if there's a secret for the given key ID, use it
-    final JsonObject keySecret = secret.getJsonObject(id);
-    if (keySecret != null) {
-      secret = keySecret;
+    final ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setContentType(BUNDLE_CONTENT_TYPE);
+    metadata.setContentLength(content.length);
+    try {
+      s3Client.putObject(bucketName,
+          Paths.get(prefix, id, KeyPairStorage.BUNDLE_FILE_NAME).toString(),
+          new ByteArrayInputStream(content), metadata);
     }
-    final String password = secret.getString(PASSWORD_KEY, null);
-    if (password == null) {
-      throw new KeyStorageException("secret for key `" + id
-          + "` does not contain `" + PASSWORD_KEY + "` key");
+    catch (AmazonS3Exception ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
     }
-    return password.toCharArray();
   }
 
-  /**
-   * Gets the value of the AWS secret.
-   * @return AWS secret value for the specified {@link #secretId}
-   * @throws KeyStorageException if an error occurs in retrieving the secret
-   */
-  private GetSecretValueResult getSecretValue() throws KeyStorageException {
-    final GetSecretValueRequest request = new GetSecretValueRequest();
-    request.setSecretId(secretId);
+  @Override
+  protected void deleteSeparateFiles(String id) throws KeyStorageException {
+    final DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName)
+        .withKeys(
+            Paths.get(prefix, id, KeyPairStorage.KEY_FILE_NAME).toString(),
+            Paths.get(prefix, id, KeyPairStorage.CERT_FILE_NAME).toString(),
+            Paths.get(prefix, id, KeyPairStorage.CA_FILE_NAME).toString())
+        .withQuiet(true);
     try {
-      return secretsClient.getSecretValue(request);
+      s3Client.deleteObjects(request);
     }
-    catch (AmazonClientException ex) {
-      throw new KeyStorageException(ex);
+    catch (AmazonS3Exception ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
     }
   }
 
+  @Override
+  protected InputStream openBundleStream(String id)
+      throws KeyStorageException, IOException {
+    return openStreamToS3Object(
+        Paths.get(prefix, id, KeyPairStorage.BUNDLE_FILE_NAME).toString());
+  }
+
   @Override
   protected InputStream openPrivateKeyStream(String id)
       throws KeyStorageException, IOException {
@@ -143,7 +286,8 @@ class AwsKeyPairStorage extends AbstractKeyPairStorage {
       throws KeyStorageException, IOException {
     try {
       final S3Object object = s3Client.getObject(bucketName, path);
-      return object.getObjectContent();
+      return new VersionedInputStream(object.getObjectContent(),
+          object.getObjectMetadata().getETag());
     }
     catch (AmazonS3Exception ex) {
       if ("NoSuchKey".equals(ex.getErrorCode())) {
@@ -18,18 +18,24 @@
  */
 package org.soulwing.s2ks.aws;
 
+import java.time.Duration;
 import java.util.Properties;
 
 import org.soulwing.s2ks.KeyPairStorage;
 import org.soulwing.s2ks.ProviderConfigurationException;
 import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyWriter;
 import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateWriter;
 import org.soulwing.s2ks.spi.KeyPairStorageProvider;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 
 /**
  * A {@link KeyPairStorageProvider} that provides storage on AWS.
+ * <p>
+ * The storage instances it provides implement
+ * {@link org.soulwing.s2ks.MutableKeyPairStorage}.
  *
  * @author Carl Harris
  */
@@ -40,12 +46,23 @@ public class AwsKeyPairStorageProvider implements KeyPairStorageProvider {
   static final String SECRET_ID = "secretId";
   static final String S3_BUCKET_NAME = "s3BucketName";
   static final String S3_PREFIX = "s3Prefix";
+  static final String SECRET_VERSION_STAGE = "secretVersionStage";
+  static final String SECRET_CACHE_TTL = "secretCacheTtl";
+  static final String CACHE_KEY_PAIRS = "cacheKeyPairs";
+  static final String CHANGE_CHECK_INTERVAL = "changeCheckInterval";
+
+  static final long DEFAULT_CHANGE_CHECK_INTERVAL = 10;
 
   @Override
   public String getName() {
     return PROVIDER_NAME;
   }
 
+  @Override
+  public boolean isMutable() {
+    return true;
+  }
+
   @Override
   public KeyPairStorage getInstance(Properties configuration)
       throws ProviderConfigurationException {
@@ -61,14 +78,48 @@ public class AwsKeyPairStorageProvider implements KeyPairStorageProvider {
       throw new ProviderConfigurationException("must set S3 bucket name");
     }
 
-    return new AwsKeyPairStorage(
+    final SecretPasswordCache passwordCache = new SecretPasswordCache(
+        AWSSecretsManagerClientBuilder.standard().build(),
+        secretId,
+        configuration.getProperty(SECRET_VERSION_STAGE,
+            SecretPasswordCache.DEFAULT_VERSION_STAGE),
+        getSeconds(configuration, SECRET_CACHE_TTL,
+            SecretPasswordCache.DEFAULT_TTL));
+
+    final AwsKeyPairStorage storage = new AwsKeyPairStorage(
         BcEncryptedPrivateKeyLoader.getInstance(),
         BcPemCertificateLoader.getInstance(),
-        AWSSecretsManagerClientBuilder.standard().build(),
+        BcEncryptedPrivateKeyWriter.getInstance(),
+        BcPemCertificateWriter.getInstance(),
+        passwordCache,
         AmazonS3ClientBuilder.standard().build(),
-        secretId,
         bucketName,
         prefix);
+
+    if (Boolean.parseBoolean(
+        configuration.getProperty(CACHE_KEY_PAIRS, "true"))) {
+      storage.setChangeCheckInterval(Duration.ofSeconds(
+          getSeconds(configuration, CHANGE_CHECK_INTERVAL,
+              DEFAULT_CHANGE_CHECK_INTERVAL)));
+    }
+    return storage;
+  }
+
+  private static long getSeconds(Properties configuration, String name,
+      long defaultValue) throws ProviderConfigurationException {
+    final String value = configuration.getProperty(name);
+    if (value == null) return defaultValue;
+    try {
+      final long seconds = Long.parseLong(value.trim());
+      if (seconds < 0) {
+        throw new NumberFormatException();
+      }
+      return seconds;
+    }
+    catch (NumberFormatException ex) {
+      throw new ProviderConfigurationException(
+          "`" + name + "` must be a non-negative number of seconds");
+    }
   }
 
 
@@ -21,8 +21,13 @@ package org.soulwing.s2ks.aws;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.Key;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.soulwing.s2ks.KeyStorageException;
 import org.soulwing.s2ks.KeyUnwrapException;
 import org.soulwing.s2ks.KeyWrapException;
 import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
@@ -38,6 +43,7 @@ import org.soulwing.s2ks.base.MetadataRecognizer;
 import org.soulwing.s2ks.base.MetadataWrapOperator;
 import org.soulwing.s2ks.base.StorageService;
 import org.soulwing.s2ks.base.WrapperKeyResponse;
+import org.soulwing.s2ks.spi.MetricsListener;
 
 /**
  * A {@link org.soulwing.s2ks.MutableKeyStorage} implementation that uses
@@ -69,6 +75,25 @@ public class AwsKeyStorage extends AbstractMutableKeyStorage {
     this.masterKeyService = masterKeyService;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The listener is also given to the KMS master key service and the S3
+   * storage service used by this storage, which report the time taken by
+   * each request to AWS.
+   */
+  @Override
+  public void setMetricsListener(MetricsListener metricsListener) {
+    super.setMetricsListener(metricsListener);
+    if (masterKeyService instanceof KmsMasterKeyService) {
+      ((KmsMasterKeyService) masterKeyService)
+          .setMetricsListener(metricsListener);
+    }
+    if (storageService instanceof S3StorageService) {
+      ((S3StorageService) storageService).setMetricsListener(metricsListener);
+    }
+  }
+
   @Override
   protected String idToPath(String id, String suffix) {
     return storageService.idToPath(id, suffix);
@@ -80,6 +105,17 @@ public class AwsKeyStorage extends AbstractMutableKeyStorage {
     return storageService.getContentStream(path);
   }
 
+  @Override
+  protected boolean contentExists(String path) throws IOException {
+    return storageService.exists(path);
+  }
+
+  @Override
+  protected Stream<String> listIds(String prefix, String suffix)
+      throws IOException {
+    return storageService.listIds(prefix, suffix);
+  }
+
   @Override
   protected Key getWrapperKey(List<KeyDescriptor> descriptors)
       throws KeyUnwrapException {
@@ -95,6 +131,27 @@ public class AwsKeyStorage extends AbstractMutableKeyStorage {
             new KeyUnwrapException("cannot find wrapper key descriptor"));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation compares the KMS master key ID recorded in the
+   * wrapper key descriptor to the master key of this storage instance.
+   * Since KMS decrypts a data key without regard to the configured master
+   * key, this is the only way to determine which master key wrapped a key.
+   */
+  @Override
+  protected Optional<Boolean> checkMasterKey(List<KeyDescriptor> descriptors)
+      throws KeyStorageException {
+    final String keyId =
+        findWrapperKey(descriptors).getMetadata().get(MASTER_KEY_ID_HEADER);
+    if (keyId == null
+        || !(masterKeyService instanceof KmsMasterKeyService)) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        ((KmsMasterKeyService) masterKeyService).isMasterKey(keyId));
+  }
+
   @Override
   protected KeyDescriptor getSubjectKey(List<KeyDescriptor> descriptors)
       throws KeyUnwrapException {
@@ -122,4 +179,26 @@ public class AwsKeyStorage extends AbstractMutableKeyStorage {
     storageService.storeContent(blobs, path);
   }
 
+  @Override
+  protected Map<String, IOException> storeContents(
+      Map<String, List<Blob>> contents) {
+    return storageService.storeContents(contents);
+  }
+
+  @Override
+  protected boolean createContent(List<Blob> blobs, String path)
+      throws IOException {
+    return storageService.createContent(blobs, path);
+  }
+
+  @Override
+  protected void deleteContent(String path) throws IOException {
+    storageService.delete(path);
+  }
+
+  @Override
+  protected Map<String, IOException> deleteContents(Collection<String> paths) {
+    return storageService.deleteAll(paths);
+  }
+
 }
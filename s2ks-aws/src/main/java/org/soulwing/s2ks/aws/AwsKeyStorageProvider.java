@@ -19,12 +19,14 @@
 package org.soulwing.s2ks.aws;
 
 import java.util.Properties;
+import java.util.function.Supplier;
 
 import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.ProviderConfigurationException;
 import org.soulwing.s2ks.aes.AesWrapOperator;
 import org.soulwing.s2ks.base.MasterKeyService;
 import org.soulwing.s2ks.base.StorageService;
-import org.soulwing.s2ks.metadata.JwtMetadataWrapOperator;
+import org.soulwing.s2ks.metadata.MetadataFormat;
 import org.soulwing.s2ks.pem.PemBlobEncoder;
 import org.soulwing.s2ks.pem.PemKeyEncoder;
 import org.soulwing.s2ks.pem.PemMetadataEncoder;
@@ -51,6 +53,7 @@ public class AwsKeyStorageProvider implements KeyStorageProvider {
   static final String KMS_DATA_KEY_SPEC = "kmsDataKeySpec";
   static final String S3_BUCKET_NAME = "s3BucketName";
   static final String S3_PREFIX = "s3Prefix";
+  static final String METADATA_FORMAT = "metadataFormat";
 
 
   @Override
@@ -65,46 +68,62 @@ public class AwsKeyStorageProvider implements KeyStorageProvider {
 
   @Override
   public KeyStorage getInstance(Properties properties) throws Exception {
+    return getInstance(properties,
+        () -> AWSKMSClientBuilder.standard().build(),
+        () -> AmazonS3ClientBuilder.standard().build());
+  }
+
+  /**
+   * Creates a storage instance that uses clients obtained from the given
+   * suppliers, which are invoked only after the configuration properties
+   * have been validated.
+   * @param properties provider configuration properties
+   * @param kmsClient supplier for the KMS client
+   * @param s3Client supplier for the S3 client
+   * @return storage instance
+   * @throws ProviderConfigurationException if the properties are invalid
+   */
+  KeyStorage getInstance(Properties properties, Supplier<AWSKMS> kmsClient,
+      Supplier<AmazonS3> s3Client) throws ProviderConfigurationException {
+    final MetadataFormat metadataFormat =
+        MetadataFormat.fromProperty(properties, METADATA_FORMAT);
+    final String masterKeyId =
+        getRequiredProperty(KMS_MASTER_KEY_ID, properties);
+    final String bucketName =
+        getRequiredProperty(S3_BUCKET_NAME, properties);
     return new AwsKeyStorage(
         PemBlobEncoder.getInstance(),
         AesWrapOperator.getInstance(),
         PemKeyEncoder.getInstance(),
-        JwtMetadataWrapOperator.getInstance(),
+        metadataFormat.getOperator(),
         PemMetadataEncoder.getInstance(),
         PemMetadataRecognizer.getInstance(),
-        newMasterKeyService(properties),
-        newStorageService(properties));
+        newMasterKeyService(properties, masterKeyId, kmsClient.get()),
+        newStorageService(properties, bucketName, s3Client.get()));
   }
 
-  private MasterKeyService newMasterKeyService(Properties properties) {
-    final String masterKeyId =
-        getRequiredProperty(KMS_MASTER_KEY_ID, properties);
-
+  private MasterKeyService newMasterKeyService(Properties properties,
+      String masterKeyId, AWSKMS kmsClient) {
     final DataKeySpec dataKeySpec = DataKeySpec.valueOf(
         properties.getProperty(KMS_DATA_KEY_SPEC,
             DEFAULT_DATA_KEY_SPEC.name()));
 
-    final AWSKMS kmsClient = AWSKMSClientBuilder.standard().build();
-
     return new KmsMasterKeyService(kmsClient, masterKeyId, dataKeySpec);
   }
 
-  private StorageService newStorageService(Properties properties) {
-
-    final String bucketName =
-        getRequiredProperty(S3_BUCKET_NAME, properties);
+  private StorageService newStorageService(Properties properties,
+      String bucketName, AmazonS3 s3Client) {
     final String prefix = properties.getProperty(S3_PREFIX, "");
 
-    final AmazonS3 s3Client = AmazonS3ClientBuilder.standard().build();
-
     return new S3StorageService(s3Client, bucketName, prefix,
         PemBlobEncoder.getInstance());
   }
 
-  private String getRequiredProperty(String name, Properties properties) {
+  private String getRequiredProperty(String name, Properties properties)
+      throws ProviderConfigurationException {
     final String value = properties.getProperty(name);
     if (value != null) return value;
-    throw new IllegalArgumentException(
+    throw new ProviderConfigurationException(
         "the `" + name + "` property is required");
   }
 
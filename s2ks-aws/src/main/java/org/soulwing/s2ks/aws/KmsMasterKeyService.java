@@ -23,14 +23,19 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.soulwing.s2ks.base.EncryptionKey;
+import org.soulwing.s2ks.KeyStorageException;
 import org.soulwing.s2ks.KeyUnwrapException;
 import org.soulwing.s2ks.KeyWrapException;
 import org.soulwing.s2ks.base.MasterKeyService;
+import org.soulwing.s2ks.base.StageTimer;
+import org.soulwing.s2ks.jfr.StorageEventType;
+import org.soulwing.s2ks.spi.MetricsListener;
 import com.amazonaws.services.kms.AWSKMS;
 import com.amazonaws.services.kms.model.AWSKMSException;
 import com.amazonaws.services.kms.model.DataKeySpec;
 import com.amazonaws.services.kms.model.DecryptRequest;
 import com.amazonaws.services.kms.model.DecryptResult;
+import com.amazonaws.services.kms.model.DescribeKeyRequest;
 import com.amazonaws.services.kms.model.GenerateDataKeyRequest;
 import com.amazonaws.services.kms.model.GenerateDataKeyResult;
 
@@ -41,10 +46,23 @@ import com.amazonaws.services.kms.model.GenerateDataKeyResult;
  */
 class KmsMasterKeyService implements MasterKeyService {
 
+  static final String GENERATE_DATA_KEY = "kms.generateDataKey";
+  static final String GENERATE_DATA_KEY_BYTES = "kms.generateDataKey.bytes";
+  static final String DECRYPT = "kms.decrypt";
+  static final String DECRYPT_BYTES = "kms.decrypt.bytes";
+
+  private static final String METRICS_SOURCE =
+      KmsMasterKeyService.class.getSimpleName();
+
   private final AWSKMS kmsClient;
   private final String masterKeyId;
   private final DataKeySpec dataKeySpec;
 
+  private volatile MetricsListener metricsListener =
+      MetricsListener.getDefault();
+
+  private volatile String masterKeyArn;
+
   public KmsMasterKeyService(AWSKMS kmsClient, String masterKeyId,
       DataKeySpec dataKeySpec) {
     this.kmsClient = kmsClient;
@@ -52,13 +70,24 @@ class KmsMasterKeyService implements MasterKeyService {
     this.dataKeySpec = dataKeySpec;
   }
 
+  void setMetricsListener(MetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+  }
+
   @Override
   public EncryptionKey newEncryptionKey() throws KeyWrapException {
-    try {
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE,
+                 GENERATE_DATA_KEY, StorageEventType.KMS_GENERATE_DATA_KEY,
+                 masterKeyId)) {
       final GenerateDataKeyRequest keyRequest = new GenerateDataKeyRequest();
       keyRequest.setKeyId(masterKeyId);
       keyRequest.setKeySpec(dataKeySpec);
       final GenerateDataKeyResult result = kmsClient.generateDataKey(keyRequest);
+      timer.count(GENERATE_DATA_KEY_BYTES,
+          result.getCiphertextBlob().remaining());
+      timer.succeeded();
+      masterKeyArn = result.getKeyId();
       return new KmsEncryptionKey(toByteArray(result.getPlaintext()),
           toByteArray(result.getCiphertextBlob()), result.getKeyId());
     }
@@ -69,10 +98,15 @@ class KmsMasterKeyService implements MasterKeyService {
 
   @Override
   public SecretKey decryptKey(byte[] cipherText) throws KeyUnwrapException {
-    try {
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, DECRYPT,
+                 StorageEventType.KMS_DECRYPT, null)) {
       final DecryptRequest request = new DecryptRequest();
       request.setCiphertextBlob(ByteBuffer.wrap(cipherText));
       final DecryptResult result = kmsClient.decrypt(request);
+      timer.keyId(result.getKeyId());
+      timer.count(DECRYPT_BYTES, cipherText.length);
+      timer.succeeded();
       return new SecretKeySpec(toByteArray(result.getPlaintext()),
           KmsEncryptionKey.ALGORITHM);
     }
@@ -81,6 +115,39 @@ class KmsMasterKeyService implements MasterKeyService {
     }
   }
 
+  /**
+   * Tests whether a master key ID recorded for an encryption key identifies
+   * the master key of this service.
+   * <p>
+   * The recorded ID is the key ARN reported by KMS when the encryption key
+   * was generated, while the configured ID may be a key ID, a key ARN, or an
+   * alias. An alias is resolved to its key ARN using KMS, once.
+   *
+   * @param keyId recorded master key ID
+   * @return {@code true} if {@code keyId} identifies the master key
+   * @throws KeyStorageException if an alias cannot be resolved
+   */
+  boolean isMasterKey(String keyId) throws KeyStorageException {
+    if (keyId.equals(masterKeyId)
+        || keyId.endsWith(":key/" + masterKeyId)) {
+      return true;
+    }
+    if (!masterKeyId.contains("alias/")) return false;
+    String arn = masterKeyArn;
+    if (arn == null) {
+      try {
+        arn = kmsClient.describeKey(
+            new DescribeKeyRequest().withKeyId(masterKeyId))
+            .getKeyMetadata().getArn();
+        masterKeyArn = arn;
+      }
+      catch (AWSKMSException ex) {
+        throw new KeyStorageException(ex.toString(), ex);
+      }
+    }
+    return keyId.equals(arn);
+  }
+
   private static byte[] toByteArray(ByteBuffer content) {
     final byte[] buf = new byte[content.remaining()];
     content.get(buf);
@@ -23,16 +23,42 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.soulwing.s2ks.base.Blob;
 import org.soulwing.s2ks.base.BlobEncoder;
+import org.soulwing.s2ks.base.DaemonThreadFactory;
+import org.soulwing.s2ks.base.StageTimer;
 import org.soulwing.s2ks.base.StorageService;
+import org.soulwing.s2ks.jfr.StorageEventType;
+import org.soulwing.s2ks.spi.MetricsListener;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 
 /**
  * A {@link StorageService} implemented using AWS S3.
@@ -41,11 +67,39 @@ import com.amazonaws.services.s3.model.S3Object;
  */
 class S3StorageService implements StorageService {
 
+  /**
+   * The stage that times a {@code GetObject} request. The object content is
+   * read lazily by the caller from the returned stream, so this stage
+   * measures the time to receive the response headers (i.e. time to first
+   * byte), not the time to transfer the content.
+   */
+  static final String GET_OBJECT = "s3.getObject";
+  static final String GET_OBJECT_BYTES = "s3.getObject.bytes";
+  static final String HEAD_OBJECT = "s3.headObject";
+  static final String PUT_OBJECT = "s3.putObject";
+  static final String PUT_OBJECT_BYTES = "s3.putObject.bytes";
+  static final String LIST_OBJECTS = "s3.listObjects";
+  static final String DELETE_OBJECT = "s3.deleteObject";
+  static final String DELETE_OBJECTS = "s3.deleteObjects";
+
+  static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+  static final String IF_NONE_MATCH = "If-None-Match";
+
+  static final int DEFAULT_PUT_PARALLELISM = 16;
+
+  private static final String METRICS_SOURCE =
+      S3StorageService.class.getSimpleName();
+
   private final AmazonS3 s3Client;
   private final String bucketName;
   private final String prefix;
   private final BlobEncoder blobEncoder;
 
+  private volatile MetricsListener metricsListener =
+      MetricsListener.getDefault();
+  private int putParallelism = DEFAULT_PUT_PARALLELISM;
+
   public S3StorageService(AmazonS3 s3Client, String bucketName, String prefix,
       BlobEncoder blobEncoder) {
     this.s3Client = s3Client;
@@ -54,43 +108,326 @@ class S3StorageService implements StorageService {
     this.blobEncoder = blobEncoder;
   }
 
+  void setMetricsListener(MetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+  }
+
+  void setPutParallelism(int putParallelism) {
+    this.putParallelism = putParallelism;
+  }
+
   @Override
   public String idToPath(String id, String suffix) {
     return Paths.get(prefix, id + suffix).toString();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The {@value #GET_OBJECT} stage reported for this request ends when the
+   * response headers are received; the time taken to read the returned
+   * stream is not included.
+   */
   @Override
   public InputStream getContentStream(String path) throws IOException {
-    try {
-      final S3Object s3Object = s3Client.getObject(bucketName, path);
-      return s3Object.getObjectContent();
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, GET_OBJECT,
+                 StorageEventType.S3_GET_OBJECT, path)) {
+      try {
+        final S3Object s3Object = s3Client.getObject(bucketName, path);
+        timer.count(GET_OBJECT_BYTES,
+            s3Object.getObjectMetadata().getContentLength());
+        timer.succeeded();
+        return s3Object.getObjectContent();
+      }
+      catch (AmazonS3Exception ex) {
+        if ("NoSuchKey".equals(ex.getErrorCode())) {
+          timer.notFound();
+          throw new FileNotFoundException();
+        }
+        throw new IOException(ex.getMessage(), ex);
+      }
     }
-    catch (AmazonS3Exception ex) {
-      if ("NoSuchKey".equals(ex.getErrorCode())) {
-        throw new FileNotFoundException();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation issues a {@code HeadObject} request, which retrieves
+   * only the metadata of the object.
+   */
+  @Override
+  public boolean exists(String path) throws IOException {
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, HEAD_OBJECT)) {
+      try {
+        s3Client.getObjectMetadata(bucketName, path);
+        timer.succeeded();
+        return true;
+      }
+      catch (AmazonS3Exception ex) {
+        if (ex.getStatusCode() == 404) {
+          timer.notFound();
+          return false;
+        }
+        throw new IOException(ex.getMessage(), ex);
       }
-      throw new IOException(ex.getMessage(), ex);
     }
   }
 
   @Override
   public void storeContent(List<Blob> blobs, String path) throws IOException {
+    final ObjectMetadata metadata = newMetadata(blobs);
+    final byte[] content = encode(blobs);
+    final ByteArrayInputStream inputStream = new ByteArrayInputStream(content);
+
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, PUT_OBJECT,
+                 StorageEventType.S3_PUT_OBJECT, path)) {
+      s3Client.putObject(bucketName, path, inputStream, metadata);
+      timer.count(PUT_OBJECT_BYTES, content.length);
+      timer.succeeded();
+    }
+    catch (AmazonS3Exception ex) {
+      throw new IOException(ex.getMessage(), ex);
+    }
+
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation issues a conditional {@code PutObject} request with
+   * {@code If-None-Match: *}, which S3 rejects if the object exists.
+   */
+  @Override
+  public boolean createContent(List<Blob> blobs, String path)
+      throws IOException {
+    final byte[] content = encode(blobs);
+    final PutObjectRequest request = new PutObjectRequest(bucketName, path,
+        new ByteArrayInputStream(content), newMetadata(blobs));
+    request.putCustomRequestHeader(IF_NONE_MATCH, "*");
+
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, PUT_OBJECT,
+                 StorageEventType.S3_PUT_OBJECT, path)) {
+      try {
+        s3Client.putObject(request);
+        timer.count(PUT_OBJECT_BYTES, content.length);
+        timer.succeeded();
+        return true;
+      }
+      catch (AmazonS3Exception ex) {
+        // 409 indicates a concurrent conditional write of the same object
+        if (ex.getStatusCode() == 412 || ex.getStatusCode() == 409) {
+          return false;
+        }
+        throw new IOException(ex.getMessage(), ex);
+      }
+    }
+  }
+
+  private ObjectMetadata newMetadata(List<Blob> blobs) {
     final ObjectMetadata metadata = new ObjectMetadata();
     metadata.setContentType(blobs.get(0).getContentType());
     metadata.setContentLength(blobs.stream().mapToInt(Blob::size).sum());
+    return metadata;
+  }
 
+  private byte[] encode(List<Blob> blobs) throws IOException {
     final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
     blobEncoder.encode(blobs, outputStream);
+    return outputStream.toByteArray();
+  }
 
-    final ByteArrayInputStream inputStream =
-        new ByteArrayInputStream(outputStream.toByteArray());
-
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation puts objects concurrently, with at most
+   * {@value #DEFAULT_PUT_PARALLELISM} requests outstanding at any time by
+   * default.
+   */
+  @Override
+  public Map<String, IOException> storeContents(
+      Map<String, List<Blob>> contents) {
+    final int parallelism = putParallelism;
+    final Semaphore permits = new Semaphore(parallelism);
+    final Map<String, IOException> failures =
+        Collections.synchronizedMap(new LinkedHashMap<>());
     try {
-      s3Client.putObject(bucketName, path, inputStream, metadata);
+      contents.forEach((path, blobs) -> {
+        permits.acquireUninterruptibly();
+        try {
+          PutExecutor.INSTANCE.execute(() -> {
+            try {
+              storeContent(blobs, path);
+            }
+            catch (IOException ex) {
+              failures.put(path, ex);
+            }
+            catch (RuntimeException ex) {
+              failures.put(path, new IOException(ex.getMessage(), ex));
+            }
+            finally {
+              permits.release();
+            }
+          });
+        }
+        catch (RejectedExecutionException ex) {
+          failures.put(path, new IOException(ex.getMessage(), ex));
+          permits.release();
+        }
+      });
+    }
+    finally {
+      permits.acquireUninterruptibly(parallelism);
+    }
+    return failures;
+  }
+
+  @Override
+  public void delete(String path) throws IOException {
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, DELETE_OBJECT)) {
+      s3Client.deleteObject(bucketName, path);
+      timer.succeeded();
     }
     catch (AmazonS3Exception ex) {
       throw new IOException(ex.getMessage(), ex);
     }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation uses multi-object delete requests, each of which
+   * deletes up to {@value #MAX_DELETE_BATCH_SIZE} objects. When an entire
+   * request fails, each object in the batch is reported as a failure.
+   */
+  @Override
+  public Map<String, IOException> deleteAll(Collection<String> paths) {
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    final List<String> batch = new ArrayList<>(
+        Math.min(paths.size(), MAX_DELETE_BATCH_SIZE));
+    for (final String path : paths) {
+      batch.add(path);
+      if (batch.size() == MAX_DELETE_BATCH_SIZE) {
+        deleteBatch(batch, failures);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      deleteBatch(batch, failures);
+    }
+    return failures;
+  }
+
+  private void deleteBatch(List<String> paths,
+      Map<String, IOException> failures) {
+    final DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName)
+        .withKeys(paths.toArray(new String[0]))
+        .withQuiet(true);
+    try (final StageTimer timer =
+             StageTimer.start(metricsListener, METRICS_SOURCE, DELETE_OBJECTS)) {
+      s3Client.deleteObjects(request);
+      timer.succeeded();
+    }
+    catch (MultiObjectDeleteException ex) {
+      ex.getErrors().forEach(error -> failures.put(error.getKey(),
+          new IOException(error.getCode() + ": " + error.getMessage(), ex)));
+    }
+    catch (RuntimeException ex) {
+      paths.forEach(path ->
+          failures.put(path, new IOException(ex.getMessage(), ex)));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation lists the objects in the bucket lazily, requesting
+   * each page of object keys as the stream is consumed. S3 lists object keys
+   * in ascending order of their UTF-8 encoding, which matches the natural
+   * order of the path names for identifiers that contain no supplementary
+   * characters. Because each object key ends with the suffix, an ID may
+   * follow an ID that it is a prefix of; e.g. {@code key-1.pem} is listed
+   * before {@code key.pem}.
+   */
+  @Override
+  public Stream<String> listIds(String idPrefix, String suffix) {
+    final String root = Paths.get(prefix).toString();
+    final String rootPrefix = root.isEmpty() ? root : root + "/";
+    final Iterator<String> keys =
+        new ObjectKeyIterator(rootPrefix + idPrefix);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys,
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL),
+        false)
+        .map(key -> key.substring(rootPrefix.length()))
+        .filter(name -> name.endsWith(suffix))
+        .map(name -> name.substring(0, name.length() - suffix.length()));
+  }
+
+  /**
+   * An iterator over the keys of the objects with a given prefix, which
+   * requests each page of the listing on demand.
+   */
+  private class ObjectKeyIterator implements Iterator<String> {
+
+    private final String keyPrefix;
+
+    private Iterator<S3ObjectSummary> page = Collections.emptyIterator();
+    private String continuationToken;
+    private boolean lastPage;
+
+    ObjectKeyIterator(String keyPrefix) {
+      this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!page.hasNext() && !lastPage) {
+        nextPage();
+      }
+      return page.hasNext();
+    }
+
+    @Override
+    public String next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.next().getKey();
+    }
+
+    private void nextPage() {
+      final ListObjectsV2Request request = new ListObjectsV2Request()
+          .withBucketName(bucketName)
+          .withPrefix(keyPrefix)
+          .withContinuationToken(continuationToken);
+      try (final StageTimer timer =
+               StageTimer.start(metricsListener, METRICS_SOURCE, LIST_OBJECTS)) {
+        final ListObjectsV2Result result = s3Client.listObjectsV2(request);
+        page = result.getObjectSummaries().iterator();
+        continuationToken = result.getNextContinuationToken();
+        lastPage = !result.isTruncated();
+        timer.succeeded();
+      }
+      catch (AmazonS3Exception ex) {
+        throw new UncheckedIOException(new IOException(ex.getMessage(), ex));
+      }
+    }
+
+  }
+
+  /**
+   * A holder for the executor used to put objects concurrently, which is
+   * created on first use.
+   */
+  private static class PutExecutor {
+
+    static final ExecutorService INSTANCE =
+        Executors.newCachedThreadPool(
+            new DaemonThreadFactory("s2ks-s3-put-"));
 
   }
 
@@ -0,0 +1,264 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.soulwing.s2ks.KeyStorageException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+
+/**
+ * A cache for the passwords contained in an AWS secret.
+ * <p>
+ * The secret is retrieved and parsed when first needed, and the passwords
+ * it contains are retained for a configurable time to live. When the time
+ * to live expires, the secret is retrieved again using the configured
+ * version stage. If the version ID of the retrieved secret is unchanged,
+ * the previously parsed passwords are retained; otherwise, the new secret
+ * is parsed and the previously cached passwords are wiped. A time to live
+ * of zero disables caching, so that the secret is retrieved for each
+ * password.
+ * <p>
+ * The secret is never retrieved while the lock for the cache is held. At
+ * most one retrieval is in progress at a time; while it is in progress,
+ * other callers receive a password from the expired passwords, if any, or
+ * else wait for the retrieval to complete. If a retrieval fails, the
+ * expired passwords are retained and used until a subsequent retrieval
+ * succeeds.
+ *
+ * @author Carl Harris
+ */
+final class SecretPasswordCache {
+
+  static final String DEFAULT_VERSION_STAGE = "AWSCURRENT";
+
+  static final long DEFAULT_TTL = 300;
+
+  private final AWSSecretsManager secretsClient;
+  private final String secretId;
+  private final String versionStage;
+  private final long ttl;
+  private final LongSupplier clock;
+
+  private SecretPasswords passwords;
+  private String versionId;
+  private long expiresAt;
+  private long generation;
+  private CompletableFuture<Void> refreshing;
+
+  /**
+   * Constructs a new instance.
+   * @param secretsClient Secrets Manager client
+   * @param secretId ID of the secret
+   * @param versionStage version stage to retrieve
+   * @param ttl time to live for the cached secret in seconds
+   */
+  SecretPasswordCache(AWSSecretsManager secretsClient, String secretId,
+      String versionStage, long ttl) {
+    this(secretsClient, secretId, versionStage, ttl, System::nanoTime);
+  }
+
+  SecretPasswordCache(AWSSecretsManager secretsClient, String secretId,
+      String versionStage, long ttl, LongSupplier clock) {
+    if (ttl < 0) {
+      throw new IllegalArgumentException("time to live must be non-negative");
+    }
+    this.secretsClient = secretsClient;
+    this.secretId = secretId;
+    this.versionStage = versionStage;
+    this.ttl = TimeUnit.SECONDS.toNanos(ttl);
+    this.clock = clock;
+  }
+
+  /**
+   * Gets the password for a key pair.
+   * @param id key pair ID
+   * @return password; the caller is responsible for wiping the returned
+   *    array
+   * @throws KeyStorageException if the secret cannot be retrieved or parsed,
+   *    or if it does not contain a password for the key pair
+   */
+  char[] getPassword(String id) throws KeyStorageException {
+    if (ttl == 0) {
+      final SecretPasswords passwords = parse(getSecretValue());
+      try {
+        return getPassword(passwords, id);
+      }
+      finally {
+        passwords.destroy();
+      }
+    }
+    while (true) {
+      final CompletableFuture<Void> pending;
+      final boolean leader;
+      final String knownVersionId;
+      final long knownGeneration;
+      synchronized (this) {
+        if (passwords != null
+            && (clock.getAsLong() - expiresAt < 0 || refreshing != null)) {
+          return getPassword(passwords, id);
+        }
+        leader = refreshing == null;
+        if (leader) {
+          refreshing = new CompletableFuture<>();
+        }
+        pending = refreshing;
+        knownVersionId = versionId;
+        knownGeneration = generation;
+      }
+      if (!leader) {
+        await(pending);
+        continue;
+      }
+      try {
+        refresh(knownVersionId, knownGeneration);
+        pending.complete(null);
+      }
+      catch (KeyStorageException | RuntimeException ex) {
+        synchronized (this) {
+          refreshing = null;
+          if (passwords != null) {
+            pending.complete(null);
+            return getPassword(passwords, id);
+          }
+        }
+        pending.completeExceptionally(ex);
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Discards the cached secret, wiping any passwords it contains.
+   * <p>
+   * A retrieval that is in progress does not replace the cached secret
+   * when it completes.
+   */
+  synchronized void invalidate() {
+    generation++;
+    if (passwords != null) {
+      passwords.destroy();
+      passwords = null;
+    }
+    versionId = null;
+  }
+
+  /**
+   * Retrieves the secret, and replaces the cached passwords if its version
+   * has changed, unless the cache was invalidated after the retrieval began.
+   * The lock for this cache must not be held by the caller.
+   * @param knownVersionId version ID of the cached passwords
+   * @param knownGeneration invalidation generation observed before the
+   *    retrieval began
+   * @throws KeyStorageException if the secret cannot be retrieved or parsed
+   */
+  private void refresh(String knownVersionId, long knownGeneration)
+      throws KeyStorageException {
+    final GetSecretValueResult result = getSecretValue();
+    SecretPasswords parsed = null;
+    if (knownVersionId == null || result.getVersionId() == null
+        || !result.getVersionId().equals(knownVersionId)) {
+      parsed = parse(result);
+    }
+    synchronized (this) {
+      refreshing = null;
+      if (knownGeneration == generation) {
+        if (parsed != null) {
+          if (passwords != null) {
+            passwords.destroy();
+          }
+          passwords = parsed;
+          versionId = result.getVersionId();
+          parsed = null;
+        }
+        expiresAt = clock.getAsLong() + ttl;
+      }
+    }
+    if (parsed != null) {
+      parsed.destroy();
+    }
+  }
+
+  private static void await(CompletableFuture<Void> pending)
+      throws KeyStorageException {
+    try {
+      pending.join();
+    }
+    catch (CompletionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof KeyStorageException) {
+        throw (KeyStorageException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw ex;
+    }
+  }
+
+  private static char[] getPassword(SecretPasswords passwords, String id)
+      throws KeyStorageException {
+    final char[] password = passwords.getPassword(id);
+    if (password == null) {
+      throw new KeyStorageException("secret for key `" + id
+          + "` does not contain `" + AwsKeyPairStorage.PASSWORD_KEY
+          + "` key");
+    }
+    return password;
+  }
+
+  private SecretPasswords parse(GetSecretValueResult result)
+      throws KeyStorageException {
+    if (result.getSecretString() == null) {
+      throw new KeyStorageException("secret `" + secretId
+          + "` does not contain a string value");
+    }
+    try {
+      return SecretPasswordParser.parse(result.getSecretString());
+    }
+    catch (IllegalArgumentException ex) {
+      throw new KeyStorageException("secret `" + secretId
+          + "` is not a valid JSON object: " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Gets the value of the AWS secret.
+   * @return AWS secret value for the specified {@link #secretId}
+   * @throws KeyStorageException if an error occurs in retrieving the secret
+   */
+  private GetSecretValueResult getSecretValue() throws KeyStorageException {
+    final GetSecretValueRequest request = new GetSecretValueRequest();
+    request.setSecretId(secretId);
+    request.setVersionStage(versionStage);
+    try {
+      return secretsClient.getSecretValue(request);
+    }
+    catch (AmazonClientException ex) {
+      throw new KeyStorageException(ex);
+    }
+  }
+
+}
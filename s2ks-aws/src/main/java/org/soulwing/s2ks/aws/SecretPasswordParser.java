@@ -0,0 +1,274 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import java.util.Arrays;
+
+/**
+ * A streaming parser that extracts passwords from the JSON representation
+ * of an AWS secret.
+ * <p>
+ * The secret is expected to be a JSON object. A {@code password} member of
+ * the top-level object is the default password. A member whose value is an
+ * object is an entry for the key pair whose ID is the member name, and the
+ * {@code password} member of that object is the password for the key pair.
+ * All other members are ignored.
+ * <p>
+ * Password values are decoded directly into character arrays, so that no
+ * immutable copies of a password are created on the heap; any intermediate
+ * buffers are wiped.
+ *
+ * @author Carl Harris
+ */
+final class SecretPasswordParser {
+
+  private static final int INITIAL_BUFFER_SIZE = 32;
+
+  private final CharSequence json;
+  private int pos;
+
+  private SecretPasswordParser(CharSequence json) {
+    this.json = json;
+  }
+
+  /**
+   * Parses the given JSON secret.
+   * @param json JSON representation of the secret
+   * @return passwords contained in the secret
+   * @throws IllegalArgumentException if {@code json} is not a valid JSON
+   *    object
+   */
+  static SecretPasswords parse(CharSequence json) {
+    final SecretPasswords passwords = new SecretPasswords();
+    try {
+      new SecretPasswordParser(json).parseSecret(passwords);
+      return passwords;
+    }
+    catch (RuntimeException ex) {
+      passwords.destroy();
+      throw ex;
+    }
+  }
+
+  private void parseSecret(SecretPasswords passwords) {
+    expect('{');
+    if (!consume('}')) {
+      do {
+        final String name = readName();
+        if (peek() == '{') {
+          passwords.setPassword(name, parseKeyPairEntry());
+        }
+        else if (AwsKeyPairStorage.PASSWORD_KEY.equals(name)
+            && peek() == '"') {
+          passwords.setDefaultPassword(readChars());
+        }
+        else {
+          skipValue();
+        }
+      }
+      while (consume(','));
+      expect('}');
+    }
+    skipWhitespace();
+    if (pos != json.length()) {
+      throw error("unexpected content after secret");
+    }
+  }
+
+  private char[] parseKeyPairEntry() {
+    char[] password = null;
+    try {
+      expect('{');
+      if (consume('}')) return null;
+      do {
+        final String name = readName();
+        if (AwsKeyPairStorage.PASSWORD_KEY.equals(name) && peek() == '"') {
+          if (password != null) {
+            Arrays.fill(password, (char) 0);
+          }
+          password = readChars();
+        }
+        else {
+          skipValue();
+        }
+      }
+      while (consume(','));
+      expect('}');
+      return password;
+    }
+    catch (RuntimeException ex) {
+      if (password != null) {
+        Arrays.fill(password, (char) 0);
+      }
+      throw ex;
+    }
+  }
+
+  private String readName() {
+    final char[] name = readChars();
+    expect(':');
+    return new String(name);
+  }
+
+  private void skipValue() {
+    final char c = peek();
+    if (c == '"') {
+      Arrays.fill(readChars(), (char) 0);
+    }
+    else if (c == '{' || c == '[') {
+      skipStructure();
+    }
+    else {
+      final int start = pos;
+      while (pos < json.length() && isLiteralChar(json.charAt(pos))) {
+        pos++;
+      }
+      if (pos == start) {
+        throw error("expected a value");
+      }
+    }
+  }
+
+  private void skipStructure() {
+    final char close = json.charAt(pos) == '{' ? '}' : ']';
+    pos++;
+    if (consume(close)) return;
+    do {
+      if (close == '}') {
+        readName();
+      }
+      skipValue();
+    }
+    while (consume(','));
+    expect(close);
+  }
+
+  /**
+   * Reads a string value into a character array.
+   * @return decoded characters of the string
+   */
+  private char[] readChars() {
+    expect('"');
+    char[] buf = new char[INITIAL_BUFFER_SIZE];
+    int length = 0;
+    try {
+      while (true) {
+        if (pos >= json.length()) {
+          throw error("unterminated string");
+        }
+        char c = json.charAt(pos++);
+        if (c == '"') break;
+        if (c == '\\') {
+          c = readEscape();
+        }
+        else if (c < 0x20) {
+          throw error("control character in string");
+        }
+        if (length == buf.length) {
+          final char[] larger = Arrays.copyOf(buf, 2 * buf.length);
+          Arrays.fill(buf, (char) 0);
+          buf = larger;
+        }
+        buf[length++] = c;
+      }
+      return Arrays.copyOf(buf, length);
+    }
+    finally {
+      Arrays.fill(buf, (char) 0);
+    }
+  }
+
+  private char readEscape() {
+    if (pos >= json.length()) {
+      throw error("unterminated escape");
+    }
+    final char c = json.charAt(pos++);
+    switch (c) {
+      case '"':
+      case '\\':
+      case '/':
+        return c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        if (pos + 4 > json.length()) {
+          throw error("unterminated escape");
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+          final int digit = Character.digit(json.charAt(pos++), 16);
+          if (digit < 0) {
+            throw error("invalid unicode escape");
+          }
+          value = (value << 4) | digit;
+        }
+        return (char) value;
+      default:
+        throw error("invalid escape");
+    }
+  }
+
+  private char peek() {
+    skipWhitespace();
+    if (pos >= json.length()) {
+      throw error("unexpected end of secret");
+    }
+    return json.charAt(pos);
+  }
+
+  private boolean consume(char c) {
+    skipWhitespace();
+    if (pos < json.length() && json.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char c) {
+    if (!consume(c)) {
+      throw error("expected '" + c + "'");
+    }
+  }
+
+  private void skipWhitespace() {
+    while (pos < json.length()) {
+      final char c = json.charAt(pos);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') break;
+      pos++;
+    }
+  }
+
+  private static boolean isLiteralChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.';
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(message + " at offset " + pos);
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The passwords contained in an AWS secret, indexed by key pair ID.
+ * <p>
+ * Passwords are held in character arrays, which are wiped when the
+ * instance is destroyed. Callers receive a copy of a password, which they
+ * are responsible for wiping.
+ *
+ * @author Carl Harris
+ */
+final class SecretPasswords {
+
+  private final Map<String, char[]> passwords = new HashMap<>();
+
+  private char[] defaultPassword;
+
+  /**
+   * Sets the password that applies to any key pair that does not have its
+   * own entry in the secret.
+   * @param password the password to set; this instance takes ownership of
+   *    the array
+   */
+  void setDefaultPassword(char[] password) {
+    wipe(defaultPassword);
+    defaultPassword = password;
+  }
+
+  /**
+   * Sets the password for a specific key pair.
+   * @param id key pair ID
+   * @param password the password to set (may be {@code null} if the entry
+   *    for the key pair has no password); this instance takes ownership of
+   *    the array
+   */
+  void setPassword(String id, char[] password) {
+    wipe(passwords.put(id, password));
+  }
+
+  /**
+   * Tests whether the secret contains an entry for the given key pair ID.
+   * @param id key pair ID
+   * @return {@code true} if there is an entry for {@code id}
+   */
+  boolean contains(String id) {
+    return passwords.containsKey(id);
+  }
+
+  /**
+   * Gets the password for a key pair.
+   * @param id key pair ID
+   * @return copy of the password for the key pair, or the default password
+   *    if the secret has no entry for the key pair; {@code null} if the
+   *    applicable entry has no password
+   */
+  char[] getPassword(String id) {
+    final char[] password =
+        passwords.containsKey(id) ? passwords.get(id) : defaultPassword;
+    return password != null ? password.clone() : null;
+  }
+
+  /**
+   * Wipes all passwords held by this instance.
+   */
+  void destroy() {
+    passwords.values().forEach(SecretPasswords::wipe);
+    passwords.clear();
+    wipe(defaultPassword);
+    defaultPassword = null;
+  }
+
+  private static void wipe(char[] password) {
+    if (password != null) {
+      Arrays.fill(password, (char) 0);
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import org.soulwing.s2ks.MutableKeyPairStorage;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.aes.AesWrapOperator;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyWriter;
+import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateWriter;
+import org.soulwing.s2ks.metadata.JwtMetadataWrapOperator;
+import org.soulwing.s2ks.pem.PemBlobEncoder;
+import org.soulwing.s2ks.pem.PemKeyEncoder;
+import org.soulwing.s2ks.pem.PemMetadataEncoder;
+import org.soulwing.s2ks.pem.PemMetadataRecognizer;
+import com.amazonaws.services.kms.AWSKMS;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+
+/**
+ * Factory methods for AWS storage instances that use caller-supplied
+ * clients, such as the in-memory fakes in the
+ * {@code org.soulwing.s2ks.aws.fake} package.
+ * <p>
+ * The instances are configured as the corresponding providers would
+ * configure them, so that tests and benchmarks exercise the same code paths
+ * as an application, without requiring access to AWS.
+ *
+ * @author Carl Harris
+ */
+public final class AwsFakes {
+
+  public static final String MASTER_KEY_ID = "alias/s2ks-fake";
+
+  private AwsFakes() { }
+
+  /**
+   * Creates key storage that uses the given KMS and S3 clients.
+   * @param kmsClient KMS client
+   * @param s3Client S3 client
+   * @param bucketName name of the S3 bucket
+   * @param prefix prefix for S3 object keys
+   * @return key storage
+   */
+  public static MutableKeyStorage newKeyStorage(AWSKMS kmsClient,
+      AmazonS3 s3Client, String bucketName, String prefix) {
+    return newKeyStorage(kmsClient, s3Client, bucketName, prefix,
+        MASTER_KEY_ID);
+  }
+
+  /**
+   * Creates key storage that uses the given KMS and S3 clients and KMS
+   * master key.
+   * @param kmsClient KMS client
+   * @param s3Client S3 client
+   * @param bucketName name of the S3 bucket
+   * @param prefix prefix for S3 object keys
+   * @param masterKeyId ID of the KMS master key
+   * @return key storage
+   */
+  public static MutableKeyStorage newKeyStorage(AWSKMS kmsClient,
+      AmazonS3 s3Client, String bucketName, String prefix,
+      String masterKeyId) {
+    return new AwsKeyStorage(
+        PemBlobEncoder.getInstance(),
+        AesWrapOperator.getInstance(),
+        PemKeyEncoder.getInstance(),
+        JwtMetadataWrapOperator.getInstance(),
+        PemMetadataEncoder.getInstance(),
+        PemMetadataRecognizer.getInstance(),
+        new KmsMasterKeyService(kmsClient, masterKeyId,
+            AwsKeyStorageProvider.DEFAULT_DATA_KEY_SPEC),
+        new S3StorageService(s3Client, bucketName, prefix,
+            PemBlobEncoder.getInstance()));
+  }
+
+  /**
+   * Creates key pair storage that uses the given Secrets Manager and S3
+   * clients.
+   * @param secretsClient Secrets Manager client
+   * @param s3Client S3 client
+   * @param secretId ID of the secret that holds private key passwords
+   * @param bucketName name of the S3 bucket
+   * @param prefix prefix for S3 object keys
+   * @return key pair storage
+   */
+  public static MutableKeyPairStorage newKeyPairStorage(
+      AWSSecretsManager secretsClient, AmazonS3 s3Client, String secretId,
+      String bucketName, String prefix) {
+    return new AwsKeyPairStorage(
+        BcEncryptedPrivateKeyLoader.getInstance(),
+        BcPemCertificateLoader.getInstance(),
+        BcEncryptedPrivateKeyWriter.getInstance(),
+        BcPemCertificateWriter.getInstance(),
+        secretsClient, s3Client, secretId, bucketName, prefix);
+  }
+
+}
@@ -0,0 +1,759 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Key;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.json.Json;
+
+import org.junit.Test;
+import org.soulwing.s2ks.KeyPairInfo;
+import org.soulwing.s2ks.KeyPairStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.KeyWrapException;
+import org.soulwing.s2ks.MutableKeyPairStorage;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.base.AbstractKeyPairStorage;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+import org.soulwing.s2ks.aws.fake.FakeKms;
+import org.soulwing.s2ks.aws.fake.FakeS3;
+import org.soulwing.s2ks.aws.fake.FakeSecretsManager;
+import org.soulwing.s2ks.aws.fake.FaultInjector;
+import org.soulwing.s2ks.aws.fake.LatencyModel;
+import org.soulwing.s2ks.transfer.KeyMigrator;
+import org.soulwing.s2ks.transfer.KeyRewrapper;
+import org.soulwing.s2ks.transfer.TransferResult;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueRequest;
+
+/**
+ * Tests for AWS storage running against the in-memory fakes provided by
+ * {@link AwsFakes}.
+ *
+ * @author Carl Harris
+ */
+public class AwsFakesTest {
+
+  private static final String ID = "id";
+  private static final String BUCKET_NAME = "bucketName";
+  private static final String PREFIX = "prefix";
+  private static final String SECRET_ID = "secretId";
+
+  @Test
+  public void testStoreAndRetrieve() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final MutableKeyStorage storage =
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    final Key key = KeyUtil.ecKeyPair().getPrivate();
+
+    storage.store(ID, new KeyWithMetadata(key,
+        SimpleMetadata.builder().set("name", "value").build()));
+    assertThat(s3.size(), is(equalTo(1)));
+
+    final KeyWithMetadata actual = storage.retrieveWithMetadata(ID);
+    assertThat(actual.getKey(), is(equalTo(key)));
+    assertThat(actual.getMetadata().get("name", String.class),
+        is(equalTo("value")));
+  }
+
+  @Test
+  public void testMetricsListenerReceivesAwsStages() throws Exception {
+    final AwsKeyStorage storage = (AwsKeyStorage) AwsFakes.newKeyStorage(
+        new FakeKms(), new FakeS3(), BUCKET_NAME, PREFIX);
+    final List<String> stages = new ArrayList<>();
+    storage.setMetricsListener(
+        (source, stage, outcome, elapsedNanos) -> stages.add(stage));
+
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.retrieve(ID);
+
+    assertThat(stages.contains(KmsMasterKeyService.GENERATE_DATA_KEY),
+        is(true));
+    assertThat(stages.contains(KmsMasterKeyService.DECRYPT), is(true));
+    assertThat(stages.contains(S3StorageService.PUT_OBJECT), is(true));
+    assertThat(stages.contains(S3StorageService.GET_OBJECT), is(true));
+  }
+
+  @Test
+  public void testExistsDoesNotUseKms() throws Exception {
+    final FaultInjector kmsFaults = FaultInjector.none();
+    final FaultInjector s3Faults = FaultInjector.none();
+    final MutableKeyStorage storage = AwsFakes.newKeyStorage(
+        new FakeKms(kmsFaults), new FakeS3(s3Faults), BUCKET_NAME, PREFIX);
+    storage.store(ID, KeyUtil.aesKey(256));
+    final long kmsRequests = kmsFaults.getRequestCount();
+    final long s3Requests = s3Faults.getRequestCount();
+
+    assertThat(storage.exists(ID), is(true));
+    assertThat(storage.exists("other"), is(false));
+    assertThat(kmsFaults.getRequestCount(), is(equalTo(kmsRequests)));
+    assertThat(s3Faults.getRequestCount(), is(equalTo(s3Requests + 2)));
+  }
+
+  @Test
+  public void testVersionedStoreAndRetrieve() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final AbstractMutableKeyStorage storage = (AbstractMutableKeyStorage)
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    final Key legacyKey = KeyUtil.aesKey(256);
+    storage.store(ID, legacyKey);
+    storage.setVersioned(true);
+    assertThat(storage.retrieve(ID), is(equalTo(legacyKey)));
+
+    final Key key1 = KeyUtil.aesKey(256);
+    final Key key2 = KeyUtil.aesKey(256);
+    storage.store(ID, key1);
+    storage.store(ID, key2);
+
+    assertThat(storage.resolveVersion(ID), is(equalTo(ID + "@v2")));
+    assertThat(storage.retrieve(ID), is(equalTo(key2)));
+    assertThat(storage.retrieve(ID + "@v1"), is(equalTo(key1)));
+    assertThat(storage.exists(ID), is(true));
+    assertThat(s3.doesObjectExist(BUCKET_NAME,
+        PREFIX + "/" + ID + ".version"), is(true));
+    try (final Stream<String> ids = storage.ids(ID)) {
+      assertThat(ids.collect(Collectors.toList()), is(equalTo(
+          Arrays.asList(ID, ID + "@v1", ID + "@v2"))));
+    }
+  }
+
+  @Test
+  public void testVersionPointerIsCached() throws Exception {
+    final FaultInjector s3Faults = FaultInjector.none();
+    final FakeS3 s3 = new FakeS3(s3Faults);
+    final AbstractMutableKeyStorage writer = (AbstractMutableKeyStorage)
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    final AbstractMutableKeyStorage reader = (AbstractMutableKeyStorage)
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    writer.setVersioned(true);
+    reader.setVersioned(true);
+    reader.setVersionPointerTtl(Duration.ofHours(1));
+    writer.store(ID, KeyUtil.aesKey(256));
+
+    assertThat(reader.resolveVersion(ID), is(equalTo(ID + "@v1")));
+    writer.store(ID, KeyUtil.aesKey(256));
+    final long requests = s3Faults.getRequestCount();
+    assertThat(reader.resolveVersion(ID), is(equalTo(ID + "@v1")));
+    assertThat(s3Faults.getRequestCount(), is(equalTo(requests)));
+    assertThat(writer.resolveVersion(ID), is(equalTo(ID + "@v2")));
+
+    reader.setVersionPointerTtl(Duration.ZERO);
+    assertThat(reader.resolveVersion(ID), is(equalTo(ID + "@v2")));
+    assertThat(reader.resolveVersion(ID), is(equalTo(ID + "@v2")));
+    assertThat(s3Faults.getRequestCount(), is(equalTo(requests + 3)));
+  }
+
+  @Test
+  public void testVersionedDelete() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final AbstractMutableKeyStorage storage = (AbstractMutableKeyStorage)
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.setVersioned(true);
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.store("other", KeyUtil.aesKey(256));
+
+    storage.delete(ID);
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.exists("other"), is(true));
+    try (final Stream<String> ids = storage.ids("")) {
+      assertThat(ids.collect(Collectors.toList()),
+          is(equalTo(Arrays.asList("other@v1"))));
+    }
+  }
+
+  @Test
+  public void testVersionedStoreAfterDeleteUsesNewVersion() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final AbstractMutableKeyStorage storage = (AbstractMutableKeyStorage)
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    storage.setVersioned(true);
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.delete(ID);
+    assertThat(storage.exists(ID), is(false));
+    assertThat(s3.doesObjectExist(BUCKET_NAME,
+        PREFIX + "/" + ID + ".version"), is(true));
+
+    final Key key = KeyUtil.aesKey(256);
+    storage.store(ID, key);
+    assertThat(storage.resolveVersion(ID), is(equalTo(ID + "@v3")));
+    assertThat(storage.retrieve(ID), is(equalTo(key)));
+    assertThat(storage.exists(ID + "@v1"), is(false));
+  }
+
+  @Test
+  public void testVersionedStoreSkipsVersionCreatedByOtherWriter()
+      throws Exception {
+    final FakeKms kms = new FakeKms();
+    final FakeS3 s3 = new FakeS3();
+    final AbstractMutableKeyStorage storage = (AbstractMutableKeyStorage)
+        AwsFakes.newKeyStorage(kms, s3, BUCKET_NAME, PREFIX);
+    storage.setVersioned(true);
+    storage.store(ID, KeyUtil.aesKey(256));
+    // another writer has created the next version, but not yet its pointer
+    final Key otherKey = KeyUtil.aesKey(256);
+    final MutableKeyStorage other =
+        AwsFakes.newKeyStorage(kms, s3, BUCKET_NAME, PREFIX);
+    other.store(ID + "@v2", otherKey);
+
+    final Key key = KeyUtil.aesKey(256);
+    storage.store(ID, key);
+    assertThat(storage.resolveVersion(ID), is(equalTo(ID + "@v3")));
+    assertThat(storage.retrieve(ID), is(equalTo(key)));
+    assertThat(storage.retrieve(ID + "@v2"), is(equalTo(otherKey)));
+  }
+
+  @Test(expected = NoSuchKeyException.class)
+  public void testRetrieveWhenNotFound() throws Exception {
+    AwsFakes.newKeyStorage(new FakeKms(), new FakeS3(), BUCKET_NAME, PREFIX)
+        .retrieve(ID);
+  }
+
+  @Test
+  public void testIds() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final MutableKeyStorage storage =
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    storage.store("b", KeyUtil.aesKey(256));
+    storage.store("a/2", KeyUtil.aesKey(256));
+    storage.store("a/1", KeyUtil.aesKey(256));
+    s3.putObject(BUCKET_NAME, PREFIX + "/other.txt", "other");
+    s3.putObject(BUCKET_NAME, "elsewhere/c.pem", "other");
+
+    try (final Stream<String> ids = storage.ids("")) {
+      assertThat(ids.collect(Collectors.toList()),
+          is(equalTo(Arrays.asList("a/1", "a/2", "b"))));
+    }
+    try (final Stream<String> ids = storage.ids("a/")) {
+      assertThat(ids.collect(Collectors.toList()),
+          is(equalTo(Arrays.asList("a/1", "a/2"))));
+    }
+  }
+
+  @Test
+  public void testIdsAcrossPages() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final MutableKeyStorage storage =
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    for (int i = 0; i < 2500; i++) {
+      s3.putObject(BUCKET_NAME, String.format("%s/%04d.pem", PREFIX, i), "");
+    }
+
+    try (final Stream<String> ids = storage.ids("")) {
+      final List<String> actual = ids.collect(Collectors.toList());
+      assertThat(actual, hasSize(2500));
+      assertThat(actual.get(0), is(equalTo("0000")));
+      assertThat(actual.get(2499), is(equalTo("2499")));
+      assertThat(actual.stream().sorted().collect(Collectors.toList()),
+          is(equalTo(actual)));
+    }
+  }
+
+  @Test
+  public void testStoreAll() throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    final FakeS3 s3 = new FakeS3(faults);
+    final MutableKeyStorage storage =
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    final Map<String, KeyWithMetadata> keys = new LinkedHashMap<>();
+    for (int i = 0; i < 50; i++) {
+      keys.put("key" + i, new KeyWithMetadata(KeyUtil.aesKey(256),
+          SimpleMetadata.builder().set("index", i).build()));
+    }
+
+    faults.failNext(1);
+    try {
+      storage.storeAll(keys);
+      fail("expected KeyStorageException");
+    }
+    catch (KeyStorageException ex) {
+      assertThat(ex.getMessage(), containsString("1 of 50 keys"));
+      assertThat(ex.getSuppressed(), arrayWithSize(1));
+    }
+    assertThat(s3.size(), is(equalTo(49)));
+
+    storage.storeAll(keys);
+    assertThat(s3.size(), is(equalTo(50)));
+    final KeyWithMetadata actual = storage.retrieveWithMetadata("key42");
+    assertThat(actual.getKey(), is(equalTo(keys.get("key42").getKey())));
+    assertThat(actual.getMetadata().get("index", Integer.class),
+        is(equalTo(42)));
+  }
+
+  @Test
+  public void testDeleteAll() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final MutableKeyStorage storage =
+        AwsFakes.newKeyStorage(new FakeKms(), s3, BUCKET_NAME, PREFIX);
+    final Map<String, KeyWithMetadata> keys = new LinkedHashMap<>();
+    for (int i = 0; i < 1500; i++) {
+      keys.put(String.format("key%04d", i), new KeyWithMetadata(
+          KeyUtil.aesKey(128), SimpleMetadata.empty()));
+    }
+    storage.storeAll(keys);
+    storage.delete("key0000");
+    assertThat(s3.size(), is(equalTo(1499)));
+
+    final List<String> ids = new ArrayList<>(keys.keySet());
+    storage.deleteAll(ids.subList(0, 1400));
+    try (final Stream<String> remaining = storage.ids("")) {
+      assertThat(remaining.collect(Collectors.toList()),
+          is(equalTo(ids.subList(1400, 1500))));
+    }
+  }
+
+  @Test
+  public void testMigrateFromLocalReusesDataKeys() throws Exception {
+    final Path directory = Files.createTempDirectory(
+        AwsFakesTest.class.getSimpleName());
+    try {
+      final Properties properties = new Properties();
+      properties.setProperty("password", "secret");
+      properties.setProperty("storageDirectory", directory.toString());
+      final MutableKeyStorage source =
+          KeyStorageLocator.getMutableInstance("LOCAL", properties);
+      for (int i = 0; i < 25; i++) {
+        source.store("key" + i, KeyUtil.aesKey(256));
+      }
+
+      final FaultInjector faults = FaultInjector.none();
+      final MutableKeyStorage target = AwsFakes.newKeyStorage(
+          new FakeKms(faults), new FakeS3(), BUCKET_NAME, PREFIX);
+      ((AbstractMutableKeyStorage) target).setWrapperKeyReuse(10);
+      final TransferResult result = KeyMigrator.builder()
+          .source(source)
+          .target(target)
+          .build()
+          .run();
+
+      assertThat(result.getProcessed(), is(equalTo(25L)));
+      assertThat(faults.getRequestCount(), is(equalTo(3L)));
+      assertThat(target.retrieve("key7"),
+          is(equalTo(source.retrieve("key7"))));
+    }
+    finally {
+      try (final Stream<Path> paths = Files.walk(directory)) {
+        paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+          try {
+            Files.delete(path);
+          }
+          catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      }
+    }
+  }
+
+  @Test
+  public void testMigrateResumesInS3ListingOrder() throws Exception {
+    final MutableKeyStorage source = AwsFakes.newKeyStorage(
+        new FakeKms(), new FakeS3(), BUCKET_NAME, PREFIX);
+    for (final String id : Arrays.asList("a", "a-b", "b")) {
+      source.store(id, KeyUtil.aesKey(128));
+    }
+    try (final Stream<String> ids = source.ids("")) {
+      assertThat(ids.collect(Collectors.toList()),
+          is(equalTo(Arrays.asList("a-b", "a", "b"))));
+    }
+
+    final Path directory = Files.createTempDirectory(
+        AwsFakesTest.class.getSimpleName());
+    final Path checkpoint = directory.resolve("checkpoint.properties");
+    try {
+      Files.write(checkpoint, Collections.singletonList("position=a-b"));
+
+      final MutableKeyStorage target = AwsFakes.newKeyStorage(
+          new FakeKms(), new FakeS3(), BUCKET_NAME, PREFIX);
+      final TransferResult result = KeyMigrator.builder()
+          .source(source)
+          .target(target)
+          .checkpoint(checkpoint)
+          .build()
+          .run();
+
+      assertThat(result.getProcessed(), is(equalTo(2L)));
+      assertThat(target.exists("a"), is(true));
+      assertThat(target.exists("b"), is(true));
+      assertThat(target.exists("a-b"), is(false));
+      assertThat(Files.exists(checkpoint), is(false));
+    }
+    finally {
+      Files.deleteIfExists(checkpoint);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  public void testRewrapRunAgainSkipsRewrappedKeys() throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    final FakeKms kms = new FakeKms(faults);
+    final FakeS3 s3 = new FakeS3();
+    final MutableKeyStorage source = AwsFakes.newKeyStorage(
+        kms, s3, BUCKET_NAME, PREFIX, "alias/old");
+    final Map<String, Key> keys = new LinkedHashMap<>();
+    for (int i = 0; i < 10; i++) {
+      final Key key = KeyUtil.aesKey(128);
+      source.store("key" + i, key);
+      keys.put("key" + i, key);
+    }
+
+    final MutableKeyStorage target = AwsFakes.newKeyStorage(
+        kms, s3, BUCKET_NAME, PREFIX, "alias/new");
+    final TransferResult first = KeyRewrapper.builder()
+        .source(source)
+        .target(target)
+        .build()
+        .run();
+    assertThat(first.getProcessed(), is(equalTo(10L)));
+
+    final long requestCount = faults.getRequestCount();
+    final TransferResult second = KeyRewrapper.builder()
+        .source(source)
+        .target(target)
+        .build()
+        .run();
+    assertThat(second.getProcessed(), is(equalTo(0L)));
+    assertThat(second.getSkipped(), is(equalTo(10L)));
+    assertThat(faults.getRequestCount() - requestCount,
+        is(lessThan(2L)));
+    for (final Map.Entry<String, Key> entry : keys.entrySet()) {
+      assertThat(target.retrieve(entry.getKey()),
+          is(equalTo(entry.getValue())));
+    }
+  }
+
+  @Test
+  public void testStoreWhenKmsFails() throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    final MutableKeyStorage storage = AwsFakes.newKeyStorage(
+        new FakeKms(faults), new FakeS3(), BUCKET_NAME, PREFIX);
+
+    faults.failNext(1);
+    try {
+      storage.store(ID, KeyUtil.aesKey(256));
+      fail("expected KeyWrapException");
+    }
+    catch (KeyWrapException ex) {
+      assertThat(faults.getFailedCount(), is(equalTo(1L)));
+    }
+    storage.store(ID, KeyUtil.aesKey(256));
+    assertThat(faults.getRequestCount(), is(equalTo(2L)));
+  }
+
+  @Test
+  public void testRetrieveWhenS3Throttled() throws Exception {
+    final FaultInjector faults = FaultInjector.builder()
+        .throttleAbove(1)
+        .build();
+    final MutableKeyStorage storage = AwsFakes.newKeyStorage(
+        new FakeKms(), new FakeS3(faults), BUCKET_NAME, PREFIX);
+
+    storage.store(ID, KeyUtil.aesKey(256));
+    try {
+      storage.retrieve(ID);
+      fail("expected KeyStorageException");
+    }
+    catch (KeyStorageException ex) {
+      assertThat(ex.getCause(), is(not(nullValue())));
+    }
+    assertThat(faults.getThrottledCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  public void testLatency() throws Exception {
+    final Duration delay = Duration.ofMillis(20);
+    final FaultInjector faults = FaultInjector.builder()
+        .latency(LatencyModel.fixed(delay))
+        .build();
+    final MutableKeyStorage storage = AwsFakes.newKeyStorage(
+        new FakeKms(faults), new FakeS3(faults), BUCKET_NAME, PREFIX);
+
+    final long start = System.nanoTime();
+    storage.store(ID, KeyUtil.aesKey(256));
+    final long elapsed = System.nanoTime() - start;
+    assertThat(elapsed, is(greaterThanOrEqualTo(2 * delay.toNanos())));
+  }
+
+  @Test
+  public void testRetrieveKeyPair() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    putResource(s3, KeyPairStorage.KEY_FILE_NAME);
+    putResource(s3, KeyPairStorage.CERT_FILE_NAME);
+    putResource(s3, KeyPairStorage.CA_FILE_NAME);
+
+    final KeyPairInfo kpi = AwsFakes.newKeyPairStorage(
+        secrets, s3, SECRET_ID, BUCKET_NAME, PREFIX).retrieveKeyPair(ID);
+
+    assertThat(kpi.getPrivateKey(), is(not(nullValue())));
+    assertThat(kpi.getCertificates(), hasSize(greaterThanOrEqualTo(2)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairFromBundle() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    s3.putObject(BUCKET_NAME,
+        Paths.get(PREFIX, ID, KeyPairStorage.BUNDLE_FILE_NAME).toString(),
+        readResource(KeyPairStorage.KEY_FILE_NAME)
+            + readResource(KeyPairStorage.CERT_FILE_NAME)
+            + readResource(KeyPairStorage.CA_FILE_NAME));
+
+    final AbstractKeyPairStorage storage = (AbstractKeyPairStorage)
+        AwsFakes.newKeyPairStorage(secrets, s3, SECRET_ID, BUCKET_NAME,
+            PREFIX);
+    storage.setChangeCheckInterval(Duration.ZERO);
+
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getPrivateKey(), is(not(nullValue())));
+    assertThat(kpi.getCertificates(), hasSize(greaterThanOrEqualTo(2)));
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+    assertThat(storage.retrieveCertificates(ID),
+        is(equalTo(kpi.getCertificates())));
+  }
+
+  @Test
+  public void testStoreKeyPair() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    putResource(s3, KeyPairStorage.KEY_FILE_NAME);
+    putResource(s3, KeyPairStorage.CERT_FILE_NAME);
+
+    final MutableKeyPairStorage storage = AwsFakes.newKeyPairStorage(
+        secrets, s3, SECRET_ID, BUCKET_NAME, PREFIX);
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    final List<X509Certificate> certificates =
+        Collections.singletonList(KeyUtil.certificate(KeyUtil.ecKeyPair()));
+    final KeyPairInfo other = KeyPairInfo.builder()
+        .id(ID)
+        .privateKey(KeyUtil.ecKeyPair().getPrivate())
+        .certificates(certificates)
+        .build();
+    storage.storeKeyPair(other);
+
+    final KeyPairInfo actual = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getPrivateKey().getAlgorithm(), is(equalTo("RSA")));
+    assertThat(actual.getPrivateKey().getAlgorithm(), startsWith("EC"));
+    assertThat(actual.getCertificates(), is(equalTo(certificates)));
+    assertThat(s3.doesObjectExist(BUCKET_NAME,
+        Paths.get(PREFIX, ID, KeyPairStorage.KEY_FILE_NAME).toString()),
+        is(false));
+    assertThat(s3.doesObjectExist(BUCKET_NAME,
+        Paths.get(PREFIX, ID, KeyPairStorage.CERT_FILE_NAME).toString()),
+        is(false));
+  }
+
+  @Test
+  public void testRetrieveKeyPairVersionCheckLatency() throws Exception {
+    final Duration delay = Duration.ofMillis(100);
+    final FaultInjector faults = FaultInjector.builder()
+        .latency(LatencyModel.fixed(delay))
+        .build();
+    final FakeS3 s3 = new FakeS3(faults);
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    putResource(s3, KeyPairStorage.KEY_FILE_NAME);
+    putResource(s3, KeyPairStorage.CERT_FILE_NAME);
+    putResource(s3, KeyPairStorage.CA_FILE_NAME);
+
+    final AbstractKeyPairStorage storage = (AbstractKeyPairStorage)
+        AwsFakes.newKeyPairStorage(secrets, s3, SECRET_ID, BUCKET_NAME,
+            PREFIX);
+    storage.setChangeCheckInterval(Duration.ZERO);
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+
+    final long requests = faults.getRequestCount();
+    final long start = System.nanoTime();
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+    final long elapsed = System.nanoTime() - start;
+    assertThat(faults.getRequestCount() - requests, is(equalTo(4L)));
+    assertThat(elapsed, is(lessThan(3 * delay.toNanos())));
+  }
+
+  @Test
+  public void testRetrieveBundledKeyPairRequestsOnlyBundle()
+      throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    final FakeS3 s3 = new FakeS3(faults);
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    s3.putObject(BUCKET_NAME,
+        Paths.get(PREFIX, ID, KeyPairStorage.BUNDLE_FILE_NAME).toString(),
+        readResource(KeyPairStorage.KEY_FILE_NAME)
+            + readResource(KeyPairStorage.CERT_FILE_NAME));
+
+    final AbstractKeyPairStorage storage = (AbstractKeyPairStorage)
+        AwsFakes.newKeyPairStorage(secrets, s3, SECRET_ID, BUCKET_NAME,
+            PREFIX);
+    long requests = faults.getRequestCount();
+    storage.retrieveKeyPair(ID);
+    assertThat(faults.getRequestCount() - requests, is(equalTo(1L)));
+
+    storage.setChangeCheckInterval(Duration.ZERO);
+    requests = faults.getRequestCount();
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(faults.getRequestCount() - requests, is(equalTo(1L)));
+    requests = faults.getRequestCount();
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+    assertThat(faults.getRequestCount() - requests, is(equalTo(1L)));
+  }
+
+  @Test
+  public void testRetrieveSeparateKeyPairWhenCachedRequestsOnlyObjects()
+      throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    final FakeS3 s3 = new FakeS3(faults);
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    putResource(s3, KeyPairStorage.KEY_FILE_NAME);
+    putResource(s3, KeyPairStorage.CERT_FILE_NAME);
+
+    final AbstractKeyPairStorage storage = (AbstractKeyPairStorage)
+        AwsFakes.newKeyPairStorage(secrets, s3, SECRET_ID, BUCKET_NAME,
+            PREFIX);
+    storage.setChangeCheckInterval(Duration.ZERO);
+    long requests = faults.getRequestCount();
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    // bundle, private key, certificate, and CA certificates
+    assertThat(faults.getRequestCount() - requests, is(equalTo(4L)));
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenCached() throws Exception {
+    final FakeS3 s3 = new FakeS3();
+    final FakeSecretsManager secrets = new FakeSecretsManager();
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add(AwsKeyPairStorage.PASSWORD_KEY, "secret")
+            .build().toString()));
+    putResource(s3, KeyPairStorage.KEY_FILE_NAME);
+    putResource(s3, KeyPairStorage.CERT_FILE_NAME);
+
+    final AbstractKeyPairStorage storage = (AbstractKeyPairStorage)
+        AwsFakes.newKeyPairStorage(secrets, s3, SECRET_ID, BUCKET_NAME,
+            PREFIX);
+    storage.setChangeCheckInterval(Duration.ZERO);
+
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getCertificates(), hasSize(1));
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+
+    putResource(s3, KeyPairStorage.CA_FILE_NAME);
+    final KeyPairInfo updated = storage.retrieveKeyPair(ID);
+    assertThat(updated, is(not(sameInstance(kpi))));
+    assertThat(updated.getCertificates(), hasSize(greaterThanOrEqualTo(2)));
+
+    s3.deleteObject(BUCKET_NAME,
+        Paths.get(PREFIX, ID, KeyPairStorage.KEY_FILE_NAME).toString());
+    try {
+      storage.retrieveKeyPair(ID);
+      fail("expected NoSuchKeyException");
+    }
+    catch (NoSuchKeyException ex) {
+      assert true;
+    }
+  }
+
+  private void putResource(FakeS3 s3, String name) throws IOException {
+    s3.putObject(BUCKET_NAME, Paths.get(PREFIX, ID, name).toString(),
+        readResource(name));
+  }
+
+  private String readResource(String name) throws IOException {
+    try (InputStream inputStream = getClass().getResourceAsStream(name)) {
+      final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      int count;
+      while ((count = inputStream.read(buf)) != -1) {
+        outputStream.write(buf, 0, count);
+      }
+      return new String(outputStream.toByteArray(),
+          StandardCharsets.US_ASCII);
+    }
+  }
+
+}
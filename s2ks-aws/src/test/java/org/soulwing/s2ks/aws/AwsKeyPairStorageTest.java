@@ -31,6 +31,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
@@ -54,7 +55,9 @@ import org.soulwing.s2ks.NoSuchKeyException;
 import org.soulwing.s2ks.base.CertificateLoader;
 import org.soulwing.s2ks.base.PrivateKeyLoader;
 import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyWriter;
 import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateWriter;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
@@ -114,12 +117,17 @@ public class AwsKeyPairStorageTest {
   public void setUp() throws Exception {
     storage = new AwsKeyPairStorage(
         privateKeyLoader, certificateLoader,
+        BcEncryptedPrivateKeyWriter.getInstance(),
+        BcPemCertificateWriter.getInstance(),
         secretsClient, s3Client, SECRET_ID, BUCKET_NAME, PREFIX);
+    // mock objects must be invoked from the test thread
+    storage.setExecutor(Runnable::run);
   }
 
   @Test
   public void testRetrieve() throws Exception {
     context.checking(secretsManagerExpectations(null));
+    context.checking(s3BundleExpectations(null));
     context.checking(s3KeyFileExpectations(null));
     context.checking(privateKeyExpectations(null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, null));
@@ -131,11 +139,27 @@ public class AwsKeyPairStorageTest {
     assertThat(kpi.getPrivateKey(), is(sameInstance(keyPair.getPrivate())));
   }
 
+  @Test
+  public void testRetrieveFromBundle() throws Exception {
+    context.checking(secretsManagerExpectations(null));
+    context.checking(s3BundleExpectations(
+        "-----BEGIN CERTIFICATE-----".getBytes(StandardCharsets.US_ASCII)));
+    context.checking(privateKeyExpectations(null));
+    context.checking(certificateExpectations(KeyPairStorage.CERT_FILE_NAME, null));
+    final KeyPairInfo kpi = storage.retrieveKeyPair(KEY_PAIR_ID);
+    assertThat(kpi.getPrivateKey(), is(sameInstance(keyPair.getPrivate())));
+    assertThat(kpi.getCertificates(),
+        is(equalTo(loadCerts(KeyPairStorage.CERT_FILE_NAME))));
+  }
+
   @Test
   public void testRetrieveWhenPrivateKeyIOException() throws Exception {
     final IOException ex = new IOException();
     context.checking(secretsManagerExpectations(null));
+    context.checking(s3BundleExpectations(null));
     context.checking(s3KeyFileExpectations(null));
+    context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, null));
+    context.checking(s3CertFileExpectations(KeyPairStorage.CA_FILE_NAME, null));
     context.checking(privateKeyExpectations(ex));
 
     expectedException.expect(KeyStorageException.class);
@@ -147,6 +171,7 @@ public class AwsKeyPairStorageTest {
   public void testRetrieveWhenS3Exception() throws Exception {
     final AmazonS3Exception ex = new AmazonS3Exception("error");
     context.checking(secretsManagerExpectations(null));
+    context.checking(s3BundleExpectations(null));
     context.checking(s3KeyFileExpectations(ex));
 
     expectedException.expect(KeyStorageException.class);
@@ -211,6 +236,24 @@ public class AwsKeyPairStorageTest {
     };
   }
 
+  private Expectations s3BundleExpectations(byte[] content) throws Exception {
+    final AmazonS3Exception ex = new AmazonS3Exception("error");
+    ex.setErrorCode("NoSuchKey");
+    final S3Object object = new S3Object();
+    if (content != null) {
+      object.setObjectContent(new ByteArrayInputStream(content));
+    }
+
+    return new Expectations() {
+      {
+        oneOf(s3Client).getObject(BUCKET_NAME,
+            Paths.get(PREFIX, KEY_PAIR_ID, KeyPairStorage.BUNDLE_FILE_NAME)
+                .toString());
+        will(content == null ? throwException(ex) : returnValue(object));
+      }
+    };
+  }
+
   private Expectations privateKeyExpectations(Throwable ex) throws Exception {
     return new Expectations() {
       {
@@ -223,6 +266,7 @@ public class AwsKeyPairStorageTest {
 
   @Test
   public void testFindCertificateChain() throws Exception {
+    context.checking(s3BundleExpectations(null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, null));
     context.checking(certificateExpectations(KeyPairStorage.CERT_FILE_NAME, null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CA_FILE_NAME, null));
@@ -235,6 +279,7 @@ public class AwsKeyPairStorageTest {
   public void testFindCertificateChainWhenNoCacerts() throws Exception {
     final AmazonS3Exception ex = new AmazonS3Exception("error");
     ex.setErrorCode("NoSuchKey");
+    context.checking(s3BundleExpectations(null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, null));
     context.checking(certificateExpectations(KeyPairStorage.CERT_FILE_NAME, null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CA_FILE_NAME, ex));
@@ -245,7 +290,9 @@ public class AwsKeyPairStorageTest {
   @Test
   public void testFindCertificateChainWhenCertificateIOException() throws Exception {
     final IOException ex = new IOException();
+    context.checking(s3BundleExpectations(null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, null));
+    context.checking(s3CertFileExpectations(KeyPairStorage.CA_FILE_NAME, null));
     context.checking(certificateExpectations(KeyPairStorage.CERT_FILE_NAME, ex));
     expectedException.expect(KeyStorageException.class);
     expectedException.expectCause(is(sameInstance(ex)));
@@ -256,6 +303,7 @@ public class AwsKeyPairStorageTest {
   public void testFindCertificateChainWhenCertNotFound() throws Exception {
     final AmazonS3Exception ex = new AmazonS3Exception("error");
     ex.setErrorCode("NoSuchKey");
+    context.checking(s3BundleExpectations(null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, ex));
 
     expectedException.expect(NoSuchKeyException.class);
@@ -267,6 +315,7 @@ public class AwsKeyPairStorageTest {
   @Test
   public void testFindCertificateChainWhenS3Exception() throws Exception {
     final AmazonS3Exception ex = new AmazonS3Exception("error");
+    context.checking(s3BundleExpectations(null));
     context.checking(s3CertFileExpectations(KeyPairStorage.CERT_FILE_NAME, ex));
 
     expectedException.expect(KeyStorageException.class);
@@ -321,6 +370,8 @@ public class AwsKeyPairStorageTest {
     final AwsKeyPairStorage storage = new AwsKeyPairStorage(
         BcEncryptedPrivateKeyLoader.getInstance(),
         BcPemCertificateLoader.getInstance(),
+        BcEncryptedPrivateKeyWriter.getInstance(),
+        BcPemCertificateWriter.getInstance(),
         AWSSecretsManagerClientBuilder.standard().build(),
         AmazonS3ClientBuilder.standard().build(),
         System.getenv("SECRET_ID"),
@@ -0,0 +1,116 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.ProviderConfigurationException;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.aws.fake.FakeKms;
+import org.soulwing.s2ks.aws.fake.FakeS3;
+import org.soulwing.s2ks.base.Blob;
+import org.soulwing.s2ks.metadata.MetadataFormat;
+import org.soulwing.s2ks.pem.PemBlobEncoder;
+import org.soulwing.s2ks.pem.PemMetadataEncoder;
+
+/**
+ * Tests for the configuration properties of the
+ * {@link AwsKeyStorageProvider}, using in-memory AWS clients.
+ *
+ * @author Carl Harris
+ */
+public class AwsKeyStorageProviderPropertiesTest {
+
+  private static final String BUCKET_NAME = "bucket";
+  private static final String ID = "id";
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private final FakeS3 s3 = new FakeS3();
+
+  private final Properties properties = new Properties();
+
+  private final AwsKeyStorageProvider provider = new AwsKeyStorageProvider();
+
+  @Before
+  public void setUp() throws Exception {
+    properties.setProperty(AwsKeyStorageProvider.KMS_MASTER_KEY_ID,
+        AwsFakes.MASTER_KEY_ID);
+    properties.setProperty(AwsKeyStorageProvider.S3_BUCKET_NAME, BUCKET_NAME);
+  }
+
+  @Test
+  public void testDefaultMetadataFormat() throws Exception {
+    assertThat(isCompact(storeWithProperties()), is(false));
+  }
+
+  @Test
+  public void testCompactMetadataFormat() throws Exception {
+    properties.setProperty(AwsKeyStorageProvider.METADATA_FORMAT,
+        MetadataFormat.COMPACT.name());
+    assertThat(isCompact(storeWithProperties()), is(true));
+  }
+
+  @Test
+  public void testInvalidMetadataFormat() throws Exception {
+    properties.setProperty(AwsKeyStorageProvider.METADATA_FORMAT, "XML");
+    expectedException.expect(ProviderConfigurationException.class);
+    expectedException.expectMessage(AwsKeyStorageProvider.METADATA_FORMAT);
+    provider.getInstance(properties, FakeKms::new, () -> s3);
+  }
+
+  @Test
+  public void testWhenNoMasterKeyId() throws Exception {
+    properties.remove(AwsKeyStorageProvider.KMS_MASTER_KEY_ID);
+    expectedException.expect(ProviderConfigurationException.class);
+    expectedException.expectMessage(AwsKeyStorageProvider.KMS_MASTER_KEY_ID);
+    provider.getInstance(properties, FakeKms::new, () -> s3);
+  }
+
+  private byte[] storeWithProperties() throws Exception {
+    final MutableKeyStorage storage = (MutableKeyStorage)
+        provider.getInstance(properties, FakeKms::new, () -> s3);
+    storage.store(ID, new KeyWithMetadata(KeyUtil.aesKey(256),
+        SimpleMetadata.builder().set("name", "value").build()));
+    final List<Blob> blobs;
+    try (final InputStream inputStream = s3.getObject(BUCKET_NAME,
+        ID + ".pem").getObjectContent()) {
+      blobs = PemBlobEncoder.getInstance().decode(inputStream);
+    }
+    return PemMetadataEncoder.getInstance().decode(blobs.get(blobs.size() - 1));
+  }
+
+  private static boolean isCompact(byte[] metadata) {
+    return metadata[0] == (byte) 0xa5 && metadata[1] == 'M';
+  }
+
+}
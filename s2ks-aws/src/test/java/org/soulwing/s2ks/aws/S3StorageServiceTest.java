@@ -19,6 +19,8 @@
 package org.soulwing.s2ks.aws;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
@@ -29,8 +31,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.jmock.Expectations;
 import org.jmock.api.Invocation;
@@ -43,11 +52,18 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.soulwing.s2ks.base.Blob;
 import org.soulwing.s2ks.base.BlobEncoder;
+import org.soulwing.s2ks.spi.MetricsListener;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 
 /**
  * Unit tests for {@link S3StorageService}.
@@ -78,6 +94,9 @@ public class S3StorageServiceTest {
   @Mock
   private Blob blob1, blob2;
 
+  @Mock
+  private MetricsListener metricsListener;
+
   private S3StorageService storageService;
 
   @Before
@@ -91,6 +110,60 @@ public class S3StorageServiceTest {
     assertThat(storageService.idToPath(ID, SUFFIX), is(equalTo(PATH)));
   }
 
+  @Test
+  public void testListIds() throws Exception {
+    final ListObjectsV2Result page1 = listResult("token",
+        PREFIX + "/a" + SUFFIX, PREFIX + "/a.other");
+    final ListObjectsV2Result page2 = listResult(null,
+        PREFIX + "/a/b" + SUFFIX);
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).listObjectsV2(with(listRequest(null)));
+        will(returnValue(page1));
+        oneOf(s3Client).listObjectsV2(with(listRequest("token")));
+        will(returnValue(page2));
+      }
+    });
+
+    final List<String> ids = storageService.listIds("a", SUFFIX)
+        .collect(Collectors.toList());
+    assertThat(ids, is(equalTo(Arrays.asList("a", "a/b"))));
+  }
+
+  @Test
+  public void testListIdsWhenListingFails() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).listObjectsV2(with(listRequest(null)));
+        will(throwException(new AmazonS3Exception("error")));
+      }
+    });
+
+    expectedException.expect(UncheckedIOException.class);
+    storageService.listIds("a", SUFFIX).count();
+  }
+
+  private static Matcher<ListObjectsV2Request> listRequest(
+      String continuationToken) {
+    return allOf(
+        hasProperty("bucketName", equalTo(BUCKET_NAME)),
+        hasProperty("prefix", equalTo(PREFIX + "/a")),
+        hasProperty("continuationToken", equalTo(continuationToken)));
+  }
+
+  private static ListObjectsV2Result listResult(String nextContinuationToken,
+      String... keys) {
+    final ListObjectsV2Result result = new ListObjectsV2Result();
+    for (final String key : keys) {
+      final S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setKey(key);
+      result.getObjectSummaries().add(summary);
+    }
+    result.setNextContinuationToken(nextContinuationToken);
+    result.setTruncated(nextContinuationToken != null);
+    return result;
+  }
+
   @Test
   public void testGetContentStream() throws Exception {
     final S3Object object = new S3Object();
@@ -109,6 +182,50 @@ public class S3StorageServiceTest {
         is(sameInstance(inputStream)));
   }
 
+  @Test
+  public void testGetContentStreamReportsMetrics() throws Exception {
+    final S3Object object = new S3Object();
+    object.getObjectMetadata().setContentLength(42L);
+    object.setObjectContent(new S3ObjectInputStream(
+        new ByteArrayInputStream(new byte[42]), null));
+
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).getObject(BUCKET_NAME, PATH);
+        will(returnValue(object));
+        oneOf(metricsListener).recordCount("S3StorageService",
+            S3StorageService.GET_OBJECT_BYTES, 42L);
+        oneOf(metricsListener).recordTime(with("S3StorageService"),
+            with(S3StorageService.GET_OBJECT),
+            with(MetricsListener.Outcome.SUCCESS), with(any(Long.class)));
+      }
+    });
+
+    storageService.setMetricsListener(metricsListener);
+    storageService.getContentStream(PATH);
+  }
+
+  @Test
+  public void testGetContentStreamWhenNotFoundReportsMetrics()
+      throws Exception {
+    final AmazonS3Exception ex = new AmazonS3Exception("some error");
+    ex.setErrorCode("NoSuchKey");
+
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).getObject(BUCKET_NAME, PATH);
+        will(throwException(ex));
+        oneOf(metricsListener).recordTime(with("S3StorageService"),
+            with(S3StorageService.GET_OBJECT),
+            with(MetricsListener.Outcome.NOT_FOUND), with(any(Long.class)));
+      }
+    });
+
+    storageService.setMetricsListener(metricsListener);
+    expectedException.expect(FileNotFoundException.class);
+    storageService.getContentStream(PATH);
+  }
+
   @Test(expected = FileNotFoundException.class)
   public void testGetContentStreamWhenNotFound() throws Exception {
     final AmazonS3Exception ex = new AmazonS3Exception("some error");
@@ -205,4 +322,125 @@ public class S3StorageServiceTest {
     storageService.storeContent(Arrays.asList(blob1, blob2), PATH);
   }
 
+  @Test
+  public void testExists() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).getObjectMetadata(BUCKET_NAME, PATH);
+        will(returnValue(new ObjectMetadata()));
+      }
+    });
+
+    assertThat(storageService.exists(PATH), is(true));
+  }
+
+  @Test
+  public void testExistsWhenNotFound() throws Exception {
+    final AmazonS3Exception ex = new AmazonS3Exception("Not Found");
+    ex.setStatusCode(404);
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).getObjectMetadata(BUCKET_NAME, PATH);
+        will(throwException(ex));
+      }
+    });
+
+    assertThat(storageService.exists(PATH), is(false));
+  }
+
+  @Test
+  public void testExistsWhenS3Exception() throws Exception {
+    final AmazonS3Exception ex = new AmazonS3Exception("Forbidden");
+    ex.setStatusCode(403);
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).getObjectMetadata(BUCKET_NAME, PATH);
+        will(throwException(ex));
+      }
+    });
+
+    expectedException.expect(IOException.class);
+    expectedException.expectCause(is(sameInstance(ex)));
+    storageService.exists(PATH);
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).deleteObject(BUCKET_NAME, PATH);
+      }
+    });
+
+    storageService.delete(PATH);
+  }
+
+  @Test
+  public void testDeleteAllInBatches() throws Exception {
+    final List<String> paths = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      paths.add(PREFIX + "/" + i + SUFFIX);
+    }
+    final List<Integer> batchSizes = new ArrayList<>();
+    context.checking(new Expectations() {
+      {
+        exactly(3).of(s3Client).deleteObjects(with(
+            Matchers.<DeleteObjectsRequest>allOf(
+                hasProperty("bucketName", equalTo(BUCKET_NAME)),
+                hasProperty("quiet", equalTo(true)))));
+        will(new CustomAction("record batch") {
+          @Override
+          public Object invoke(Invocation invocation) throws Throwable {
+            final DeleteObjectsRequest request =
+                (DeleteObjectsRequest) invocation.getParameter(0);
+            batchSizes.add(request.getKeys().size());
+            return new DeleteObjectsResult(Collections.emptyList());
+          }
+        });
+      }
+    });
+
+    assertThat(storageService.deleteAll(paths).isEmpty(), is(true));
+    assertThat(batchSizes, contains(1000, 1000, 500));
+  }
+
+  @Test
+  public void testDeleteAllWhenSomeObjectsFail() throws Exception {
+    final MultiObjectDeleteException.DeleteError error =
+        new MultiObjectDeleteException.DeleteError();
+    error.setKey(PATH);
+    error.setCode("AccessDenied");
+    error.setMessage("Access Denied");
+    final MultiObjectDeleteException ex = new MultiObjectDeleteException(
+        Collections.singletonList(error), Collections.emptyList());
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).deleteObjects(with(any(DeleteObjectsRequest.class)));
+        will(throwException(ex));
+      }
+    });
+
+    final Map<String, IOException> failures =
+        storageService.deleteAll(Arrays.asList("other", PATH));
+    assertThat(failures.keySet(), contains(PATH));
+    assertThat(failures.get(PATH).getMessage(),
+        is(equalTo("AccessDenied: Access Denied")));
+  }
+
+  @Test
+  public void testDeleteAllWhenRequestFails() throws Exception {
+    final AmazonS3Exception ex = new AmazonS3Exception("S3 message");
+    context.checking(new Expectations() {
+      {
+        oneOf(s3Client).deleteObjects(with(any(DeleteObjectsRequest.class)));
+        will(throwException(ex));
+      }
+    });
+
+    final Map<String, IOException> failures =
+        storageService.deleteAll(Arrays.asList("other", PATH));
+    assertThat(failures.keySet(), contains("other", PATH));
+    assertThat(failures.get(PATH).getCause(), is(sameInstance(ex)));
+  }
+
 }
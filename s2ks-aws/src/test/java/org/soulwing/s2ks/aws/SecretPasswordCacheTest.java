@@ -0,0 +1,258 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hamcrest.Matchers;
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.aws.fake.FakeSecretsManager;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.AWSSecretsManagerException;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueRequest;
+
+/**
+ * Unit tests for {@link SecretPasswordCache}.
+ *
+ * @author Carl Harris
+ */
+public class SecretPasswordCacheTest {
+
+  private static final String SECRET_ID = "secretId";
+  private static final String VERSION_STAGE = "versionStage";
+  private static final long TTL = 60;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  @Mock
+  private AWSSecretsManager secretsClient;
+
+  private long now;
+
+  private SecretPasswordCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new SecretPasswordCache(secretsClient, SECRET_ID, VERSION_STAGE,
+        TTL, () -> now);
+  }
+
+  @Test
+  public void testGetPasswordWhenCached() throws Exception {
+    context.checking(secretExpectations("v1", "one"));
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+    now += TimeUnit.SECONDS.toNanos(TTL) - 1;
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordWhenExpiredAndVersionUnchanged()
+      throws Exception {
+    context.checking(secretExpectations("v1", "one"));
+    context.checking(secretExpectations("v1", "ignored"));
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+    now += TimeUnit.SECONDS.toNanos(TTL);
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordWhenExpiredAndVersionChanged() throws Exception {
+    context.checking(secretExpectations("v1", "one"));
+    context.checking(secretExpectations("v2", "two"));
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+    now += TimeUnit.SECONDS.toNanos(TTL);
+    assertThat(cache.getPassword("id"), is(equalTo("two".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordWhenInvalidated() throws Exception {
+    context.checking(secretExpectations("v1", "one"));
+    context.checking(secretExpectations("v1", "one"));
+    cache.getPassword("id");
+    cache.invalidate();
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordWhenCachingDisabled() throws Exception {
+    cache = new SecretPasswordCache(secretsClient, SECRET_ID, VERSION_STAGE,
+        0, () -> now);
+    context.checking(secretExpectations("v1", "one"));
+    context.checking(secretExpectations("v1", "one"));
+    cache.getPassword("id");
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordReturnsCopy() throws Exception {
+    context.checking(secretExpectations("v1", "one"));
+    final char[] password = cache.getPassword("id");
+    password[0] = 0;
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordWhenNoPassword() throws Exception {
+    context.checking(secretExpectations("v1", "{}"));
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectMessage(AwsKeyPairStorage.PASSWORD_KEY);
+    cache.getPassword("id");
+  }
+
+  @Test
+  public void testGetPasswordWhenInvalidJson() throws Exception {
+    context.checking(secretExpectations("v1", "{"));
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectMessage(SECRET_ID);
+    cache.getPassword("id");
+  }
+
+  @Test
+  public void testGetPasswordWhenSecretsManagerException() throws Exception {
+    final AWSSecretsManagerException ex =
+        new AWSSecretsManagerException("error");
+    context.checking(new Expectations() {
+      {
+        oneOf(secretsClient).getSecretValue(
+            with(any(GetSecretValueRequest.class)));
+        will(throwException(ex));
+      }
+    });
+
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectCause(Matchers.sameInstance(ex));
+    cache.getPassword("id");
+  }
+
+  @Test
+  public void testGetPasswordWhenRefreshFails() throws Exception {
+    context.checking(secretExpectations("v1", "one"));
+    context.checking(new Expectations() {
+      {
+        oneOf(secretsClient).getSecretValue(
+            with(any(GetSecretValueRequest.class)));
+        will(throwException(new AWSSecretsManagerException("error")));
+      }
+    });
+    context.checking(secretExpectations("v2", "two"));
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+    now += TimeUnit.SECONDS.toNanos(TTL);
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+    assertThat(cache.getPassword("id"), is(equalTo("two".toCharArray())));
+  }
+
+  @Test
+  public void testGetPasswordDuringRefresh() throws Exception {
+    final AtomicBoolean block = new AtomicBoolean();
+    final CountDownLatch retrieving = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final FakeSecretsManager secrets = new FakeSecretsManager() {
+      @Override
+      public GetSecretValueResult getSecretValue(
+          GetSecretValueRequest request) {
+        if (block.compareAndSet(true, false)) {
+          retrieving.countDown();
+          awaitQuietly(release);
+        }
+        return super.getSecretValue(request);
+      }
+    };
+    putSecret(secrets, "one");
+    cache = new SecretPasswordCache(secrets, SECRET_ID,
+        SecretPasswordCache.DEFAULT_VERSION_STAGE, TTL, () -> now);
+    assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+
+    putSecret(secrets, "two");
+    now += TimeUnit.SECONDS.toNanos(TTL);
+    block.set(true);
+    final CompletableFuture<char[]> refreshed = CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return cache.getPassword("id");
+          }
+          catch (KeyStorageException ex) {
+            throw new CompletionException(ex);
+          }
+        });
+    try {
+      assertThat(retrieving.await(10, TimeUnit.SECONDS), is(true));
+      assertThat(cache.getPassword("id"), is(equalTo("one".toCharArray())));
+    }
+    finally {
+      release.countDown();
+    }
+    assertThat(refreshed.get(10, TimeUnit.SECONDS),
+        is(equalTo("two".toCharArray())));
+    assertThat(cache.getPassword("id"), is(equalTo("two".toCharArray())));
+  }
+
+  private static void putSecret(FakeSecretsManager secrets, String password) {
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString("{\"password\":\"" + password + "\"}"));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Expectations secretExpectations(String versionId, String password) {
+    final GetSecretValueResult result = new GetSecretValueResult()
+        .withVersionId(versionId)
+        .withSecretString(password.startsWith("{") ?
+            password : "{\"password\":\"" + password + "\"}");
+    return new Expectations() {
+      {
+        oneOf(secretsClient).getSecretValue(with(Matchers.allOf(
+            Matchers.<GetSecretValueRequest>hasProperty("secretId",
+                equalTo(SECRET_ID)),
+            Matchers.<GetSecretValueRequest>hasProperty("versionStage",
+                equalTo(VERSION_STAGE)))));
+        will(returnValue(result));
+      }
+    };
+  }
+
+}
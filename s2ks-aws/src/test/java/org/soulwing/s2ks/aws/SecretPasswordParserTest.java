@@ -0,0 +1,133 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Unit tests for {@link SecretPasswordParser}.
+ *
+ * @author Carl Harris
+ */
+public class SecretPasswordParserTest {
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void testParseDefaultPassword() throws Exception {
+    final SecretPasswords passwords =
+        SecretPasswordParser.parse("{ \"password\" : \"secret\" }");
+    assertThat(passwords.getPassword("id"),
+        is(equalTo("secret".toCharArray())));
+  }
+
+  @Test
+  public void testParseKeyPairPasswords() throws Exception {
+    final SecretPasswords passwords = SecretPasswordParser.parse(
+        "{\"password\":\"default\","
+            + "\"key-1\":{\"password\":\"one\",\"note\":\"x\"},"
+            + "\"key-2\":{\"password\":\"two\"}}");
+    assertThat(passwords.getPassword("key-1"),
+        is(equalTo("one".toCharArray())));
+    assertThat(passwords.getPassword("key-2"),
+        is(equalTo("two".toCharArray())));
+    assertThat(passwords.getPassword("key-3"),
+        is(equalTo("default".toCharArray())));
+  }
+
+  @Test
+  public void testParseKeyPairEntryWithoutPassword() throws Exception {
+    final SecretPasswords passwords = SecretPasswordParser.parse(
+        "{\"password\":\"default\",\"key-1\":{}}");
+    assertThat(passwords.contains("key-1"), is(true));
+    assertThat(passwords.getPassword("key-1"), is(nullValue()));
+  }
+
+  @Test
+  public void testParseEscapes() throws Exception {
+    final SecretPasswords passwords = SecretPasswordParser.parse(
+        "{\"password\":\"a\\\"b\\\\c\\/d\\n\\u00e9\\uD83D\\uDE00\"}");
+    assertThat(new String(passwords.getPassword("id")),
+        is(equalTo("a\"b\\c/d\né😀")));
+  }
+
+  @Test
+  public void testParseLongPassword() throws Exception {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append((char) ('a' + i % 26));
+    }
+    final SecretPasswords passwords = SecretPasswordParser.parse(
+        "{\"password\":\"" + sb + "\"}");
+    assertThat(new String(passwords.getPassword("id")),
+        is(equalTo(sb.toString())));
+  }
+
+  @Test
+  public void testParseSkipsOtherValues() throws Exception {
+    final SecretPasswords passwords = SecretPasswordParser.parse(
+        "{\"n\":-1.5e3,\"b\":true,\"z\":null,\"a\":[1,{\"x\":[]},\"s\"],"
+            + "\"password\":\"secret\"}");
+    assertThat(passwords.getPassword("id"),
+        is(equalTo("secret".toCharArray())));
+  }
+
+  @Test
+  public void testParseEmptyObject() throws Exception {
+    assertThat(SecretPasswordParser.parse(" {} ").getPassword("id"),
+        is(nullValue()));
+  }
+
+  @Test
+  public void testDestroy() throws Exception {
+    final SecretPasswords passwords = SecretPasswordParser.parse(
+        "{\"password\":\"default\",\"key-1\":{\"password\":\"one\"}}");
+    passwords.destroy();
+    assertThat(passwords.getPassword("key-1"), is(nullValue()));
+    assertThat(passwords.getPassword("id"), is(nullValue()));
+  }
+
+  @Test
+  public void testParseWhenNotAnObject() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    SecretPasswordParser.parse("[\"password\"]");
+  }
+
+  @Test
+  public void testParseWhenUnterminatedString() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("unterminated string");
+    SecretPasswordParser.parse("{\"password\":\"secret}");
+  }
+
+  @Test
+  public void testParseWhenTrailingContent() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    SecretPasswordParser.parse("{}}");
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws.fake;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.kms.AbstractAWSKMS;
+import com.amazonaws.services.kms.model.AWSKMSException;
+import com.amazonaws.services.kms.model.DataKeySpec;
+import com.amazonaws.services.kms.model.DecryptRequest;
+import com.amazonaws.services.kms.model.DecryptResult;
+import com.amazonaws.services.kms.model.DescribeKeyRequest;
+import com.amazonaws.services.kms.model.DescribeKeyResult;
+import com.amazonaws.services.kms.model.GenerateDataKeyRequest;
+import com.amazonaws.services.kms.model.GenerateDataKeyResult;
+import com.amazonaws.services.kms.model.InvalidCiphertextException;
+import com.amazonaws.services.kms.model.KMSInternalException;
+import com.amazonaws.services.kms.model.KeyMetadata;
+
+/**
+ * An in-memory stand-in for the AWS KMS client.
+ * <p>
+ * Data keys are encrypted using AES-GCM under a master key that exists only
+ * in this instance; the ciphertext blob carries the ID of the requested
+ * master key, so that it can be reported on decryption, as the real service
+ * does. Only the operations used by S2KS are supported.
+ *
+ * @author Carl Harris
+ */
+public class FakeKms extends AbstractAWSKMS {
+
+  private static final String SERVICE_NAME = "AWSKMS";
+  private static final String CIPHER = "AES/GCM/NoPadding";
+  private static final int IV_LENGTH = 12;
+  private static final int TAG_LENGTH = 128;
+
+  private final SecureRandom random = new SecureRandom();
+  private final SecretKey masterKey;
+  private final FaultInjector faults;
+
+  /**
+   * Constructs a new instance that imposes no latency or faults.
+   */
+  public FakeKms() {
+    this(FaultInjector.none());
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param faults fault injector to apply to every request
+   */
+  public FakeKms(FaultInjector faults) {
+    this.faults = faults;
+    try {
+      final KeyGenerator kg = KeyGenerator.getInstance("AES");
+      kg.init(256);
+      this.masterKey = kg.generateKey();
+    }
+    catch (GeneralSecurityException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  @Override
+  public GenerateDataKeyResult generateDataKey(GenerateDataKeyRequest request) {
+    beforeRequest();
+    final byte[] plainText = new byte[dataKeyLength(request)];
+    random.nextBytes(plainText);
+    return new GenerateDataKeyResult()
+        .withKeyId(request.getKeyId())
+        .withPlaintext(ByteBuffer.wrap(plainText))
+        .withCiphertextBlob(ByteBuffer.wrap(
+            encrypt(request.getKeyId(), plainText)));
+  }
+
+  @Override
+  public DecryptResult decrypt(DecryptRequest request) {
+    beforeRequest();
+    final ByteBuffer blob = request.getCiphertextBlob().duplicate();
+    final byte[] cipherText = new byte[blob.remaining()];
+    blob.get(cipherText);
+    try (DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(cipherText))) {
+      final String keyId = in.readUTF();
+      final byte[] iv = new byte[IV_LENGTH];
+      in.readFully(iv);
+      final byte[] encrypted = new byte[in.available()];
+      in.readFully(encrypted);
+      final Cipher cipher = Cipher.getInstance(CIPHER);
+      cipher.init(Cipher.DECRYPT_MODE, masterKey,
+          new GCMParameterSpec(TAG_LENGTH, iv));
+      cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+      return new DecryptResult()
+          .withKeyId(keyId)
+          .withPlaintext(ByteBuffer.wrap(cipher.doFinal(encrypted)));
+    }
+    catch (IOException | GeneralSecurityException ex) {
+      throw serviceException(new InvalidCiphertextException(ex.toString()),
+          "InvalidCiphertextException", 400);
+    }
+  }
+
+  @Override
+  public DescribeKeyResult describeKey(DescribeKeyRequest request) {
+    beforeRequest();
+    return new DescribeKeyResult().withKeyMetadata(new KeyMetadata()
+        .withKeyId(request.getKeyId())
+        .withArn(request.getKeyId()));
+  }
+
+  private byte[] encrypt(String keyId, byte[] plainText) {
+    try {
+      final byte[] iv = new byte[IV_LENGTH];
+      random.nextBytes(iv);
+      final Cipher cipher = Cipher.getInstance(CIPHER);
+      cipher.init(Cipher.ENCRYPT_MODE, masterKey,
+          new GCMParameterSpec(TAG_LENGTH, iv));
+      cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+      final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(bos);
+      out.writeUTF(keyId);
+      out.write(iv);
+      out.write(cipher.doFinal(plainText));
+      out.flush();
+      return bos.toByteArray();
+    }
+    catch (IOException | GeneralSecurityException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private static int dataKeyLength(GenerateDataKeyRequest request) {
+    if (request.getNumberOfBytes() != null) {
+      return request.getNumberOfBytes();
+    }
+    return DataKeySpec.AES_128.toString().equals(request.getKeySpec()) ?
+        16 : 32;
+  }
+
+  private void beforeRequest() {
+    faults.beforeRequest(
+        () -> serviceException(new AWSKMSException("Rate exceeded"),
+            "ThrottlingException", 400),
+        () -> serviceException(new KMSInternalException("injected failure"),
+            "KMSInternalException", 500));
+  }
+
+  private static <T extends AmazonServiceException> T serviceException(
+      T ex, String errorCode, int statusCode) {
+    ex.setServiceName(SERVICE_NAME);
+    ex.setErrorCode(errorCode);
+    ex.setStatusCode(statusCode);
+    ex.setErrorType(statusCode >= 500 ?
+        AmazonServiceException.ErrorType.Service :
+        AmazonServiceException.ErrorType.Client);
+    return ex;
+  }
+
+}
@@ -0,0 +1,332 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws.fake;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+/**
+ * An in-memory stand-in for the AWS S3 client.
+ * <p>
+ * Objects are held in a map keyed by bucket name and object key; any bucket
+ * name is accepted. Each stored object is assigned an ETag computed from its
+ * content, as the real service does for objects that are not uploaded in
+ * parts. Only the operations used by S2KS are supported.
+ *
+ * @author Carl Harris
+ */
+public class FakeS3 extends AbstractAmazonS3 {
+
+  private static final String SERVICE_NAME = "Amazon S3";
+
+  private static final int MAX_KEYS = 1000;
+
+  private final NavigableMap<String, StoredObject> objects =
+      new ConcurrentSkipListMap<>();
+  private final FaultInjector faults;
+
+  /**
+   * Constructs a new instance that imposes no latency or faults.
+   */
+  public FakeS3() {
+    this(FaultInjector.none());
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param faults fault injector to apply to every request
+   */
+  public FakeS3(FaultInjector faults) {
+    this.faults = faults;
+  }
+
+  @Override
+  public S3Object getObject(String bucketName, String key) {
+    beforeRequest();
+    final StoredObject stored = find(bucketName, key);
+    if (stored == null) {
+      throw serviceException("The specified key does not exist.",
+          "NoSuchKey", 404);
+    }
+    final S3Object object = new S3Object();
+    object.setBucketName(bucketName);
+    object.setKey(key);
+    object.setObjectMetadata(stored.metadata());
+    object.setObjectContent(new S3ObjectInputStream(
+        new ByteArrayInputStream(stored.content), null));
+    return object;
+  }
+
+  @Override
+  public S3Object getObject(GetObjectRequest request) {
+    return getObject(request.getBucketName(), request.getKey());
+  }
+
+  @Override
+  public ObjectMetadata getObjectMetadata(String bucketName, String key) {
+    beforeRequest();
+    final StoredObject stored = find(bucketName, key);
+    if (stored == null) {
+      throw serviceException("Not Found", "404 Not Found", 404);
+    }
+    return stored.metadata();
+  }
+
+  @Override
+  public boolean doesObjectExist(String bucketName, String key) {
+    beforeRequest();
+    return find(bucketName, key) != null;
+  }
+
+  @Override
+  public PutObjectResult putObject(String bucketName, String key,
+      InputStream input, ObjectMetadata metadata) {
+    beforeRequest();
+    final StoredObject stored = new StoredObject(readFully(input),
+        metadata != null ? metadata.getContentType() : null);
+    objects.put(path(bucketName, key), stored);
+    final PutObjectResult result = new PutObjectResult();
+    result.setETag(stored.eTag);
+    result.setMetadata(stored.metadata());
+    return result;
+  }
+
+  @Override
+  public PutObjectResult putObject(String bucketName, String key,
+      String content) {
+    final ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setContentType("text/plain");
+    return putObject(bucketName, key, new ByteArrayInputStream(
+        content.getBytes(StandardCharsets.UTF_8)), metadata);
+  }
+
+  @Override
+  public PutObjectResult putObject(PutObjectRequest request) {
+    if (request.getInputStream() == null) {
+      throw new UnsupportedOperationException("only stream content is supported");
+    }
+    final Map<String, String> headers = request.getCustomRequestHeaders();
+    if (headers == null || !"*".equals(headers.get("If-None-Match"))) {
+      return putObject(request.getBucketName(), request.getKey(),
+          request.getInputStream(), request.getMetadata());
+    }
+    beforeRequest();
+    final StoredObject stored = new StoredObject(
+        readFully(request.getInputStream()),
+        request.getMetadata() != null
+            ? request.getMetadata().getContentType() : null);
+    if (objects.putIfAbsent(
+        path(request.getBucketName(), request.getKey()), stored) != null) {
+      throw serviceException(
+          "At least one of the pre-conditions you specified did not hold",
+          "PreconditionFailed", 412);
+    }
+    final PutObjectResult result = new PutObjectResult();
+    result.setETag(stored.eTag);
+    result.setMetadata(stored.metadata());
+    return result;
+  }
+
+  @Override
+  public void deleteObject(String bucketName, String key) {
+    beforeRequest();
+    objects.remove(path(bucketName, key));
+  }
+
+  @Override
+  public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+    beforeRequest();
+    if (request.getKeys().size() > MAX_KEYS) {
+      throw serviceException("The XML you provided was not well-formed.",
+          "MalformedXML", 400);
+    }
+    final List<DeleteObjectsResult.DeletedObject> deleted = new ArrayList<>();
+    for (final DeleteObjectsRequest.KeyVersion keyVersion : request.getKeys()) {
+      objects.remove(path(request.getBucketName(), keyVersion.getKey()));
+      if (!request.getQuiet()) {
+        final DeleteObjectsResult.DeletedObject object =
+            new DeleteObjectsResult.DeletedObject();
+        object.setKey(keyVersion.getKey());
+        deleted.add(object);
+      }
+    }
+    return new DeleteObjectsResult(deleted);
+  }
+
+  @Override
+  public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+    beforeRequest();
+    final String bucketPrefix = path(request.getBucketName(), "");
+    final String prefix = bucketPrefix
+        + (request.getPrefix() != null ? request.getPrefix() : "");
+    final String start = request.getContinuationToken() != null ?
+        path(request.getBucketName(), request.getContinuationToken()) : prefix;
+    final int maxKeys = request.getMaxKeys() != null ?
+        Math.min(request.getMaxKeys(), MAX_KEYS) : MAX_KEYS;
+
+    final ListObjectsV2Result result = new ListObjectsV2Result();
+    result.setBucketName(request.getBucketName());
+    result.setPrefix(request.getPrefix());
+    result.setContinuationToken(request.getContinuationToken());
+    final Iterator<Map.Entry<String, StoredObject>> entries =
+        objects.tailMap(start, request.getContinuationToken() == null)
+            .entrySet().iterator();
+    while (entries.hasNext()) {
+      final Map.Entry<String, StoredObject> entry = entries.next();
+      if (!entry.getKey().startsWith(prefix)) break;
+      if (result.getKeyCount() == maxKeys) {
+        result.setTruncated(true);
+        break;
+      }
+      final S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setBucketName(request.getBucketName());
+      summary.setKey(entry.getKey().substring(bucketPrefix.length()));
+      summary.setSize(entry.getValue().content.length);
+      summary.setETag(entry.getValue().eTag);
+      summary.setLastModified(entry.getValue().lastModified);
+      result.getObjectSummaries().add(summary);
+      result.setKeyCount(result.getKeyCount() + 1);
+    }
+    if (result.isTruncated()) {
+      result.setNextContinuationToken(
+          result.getObjectSummaries().get(maxKeys - 1).getKey());
+    }
+    return result;
+  }
+
+  /**
+   * Gets the number of objects stored in this fake.
+   * @return object count
+   */
+  public int size() {
+    return objects.size();
+  }
+
+  private StoredObject find(String bucketName, String key) {
+    return objects.get(path(bucketName, key));
+  }
+
+  private static String path(String bucketName, String key) {
+    return bucketName + "/" + key;
+  }
+
+  private static byte[] readFully(InputStream input) {
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      int count;
+      while ((count = input.read(buf)) != -1) {
+        out.write(buf, 0, count);
+      }
+      return out.toByteArray();
+    }
+    catch (IOException ex) {
+      throw new SdkClientException(ex);
+    }
+  }
+
+  private void beforeRequest() {
+    faults.beforeRequest(
+        () -> serviceException("Please reduce your request rate.",
+            "SlowDown", 503),
+        () -> serviceException("We encountered an internal error.",
+            "InternalError", 500));
+  }
+
+  private static AmazonS3Exception serviceException(String message,
+      String errorCode, int statusCode) {
+    final AmazonS3Exception ex = new AmazonS3Exception(message);
+    ex.setServiceName(SERVICE_NAME);
+    ex.setErrorCode(errorCode);
+    ex.setStatusCode(statusCode);
+    ex.setErrorType(statusCode >= 500 ?
+        AmazonServiceException.ErrorType.Service :
+        AmazonServiceException.ErrorType.Client);
+    return ex;
+  }
+
+  /**
+   * An immutable stored object.
+   */
+  private static class StoredObject {
+
+    final byte[] content;
+    final String contentType;
+    final String eTag;
+    final Date lastModified = new Date();
+
+    StoredObject(byte[] content, String contentType) {
+      this.content = content;
+      this.contentType = contentType;
+      this.eTag = md5Hex(content);
+    }
+
+    ObjectMetadata metadata() {
+      final ObjectMetadata metadata = new ObjectMetadata();
+      metadata.setContentLength(content.length);
+      metadata.setContentType(contentType);
+      metadata.setHeader("ETag", eTag);
+      metadata.setLastModified(lastModified);
+      return metadata;
+    }
+
+    private static String md5Hex(byte[] content) {
+      try {
+        final StringBuilder sb = new StringBuilder();
+        for (final byte b : MessageDigest.getInstance("MD5").digest(content)) {
+          sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+      }
+      catch (NoSuchAlgorithmException ex) {
+        throw new RuntimeException(ex);
+      }
+    }
+
+  }
+
+}
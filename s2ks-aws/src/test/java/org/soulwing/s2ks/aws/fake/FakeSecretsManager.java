@@ -0,0 +1,143 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws.fake;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.secretsmanager.AbstractAWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.AWSSecretsManagerException;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.InternalServiceErrorException;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+
+/**
+ * An in-memory stand-in for the AWS Secrets Manager client.
+ * <p>
+ * Only the current version of each secret is retained; each put assigns a
+ * new version ID, so that clients that track secret versions observe a
+ * change. Only the operations used by S2KS are supported.
+ *
+ * @author Carl Harris
+ */
+public class FakeSecretsManager extends AbstractAWSSecretsManager {
+
+  static final String CURRENT_STAGE = "AWSCURRENT";
+
+  private static final String SERVICE_NAME = "AWSSecretsManager";
+
+  private final Map<String, SecretVersion> secrets = new ConcurrentHashMap<>();
+  private final FaultInjector faults;
+
+  /**
+   * Constructs a new instance that imposes no latency or faults.
+   */
+  public FakeSecretsManager() {
+    this(FaultInjector.none());
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param faults fault injector to apply to every request
+   */
+  public FakeSecretsManager(FaultInjector faults) {
+    this.faults = faults;
+  }
+
+  @Override
+  public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+    beforeRequest();
+    final SecretVersion secret = secrets.get(request.getSecretId());
+    if (secret == null
+        || (request.getVersionId() != null
+            && !request.getVersionId().equals(secret.versionId))
+        || (request.getVersionStage() != null
+            && !CURRENT_STAGE.equals(request.getVersionStage()))) {
+      throw serviceException(
+          new ResourceNotFoundException("Secrets Manager can't find the "
+              + "specified secret."), "ResourceNotFoundException", 400);
+    }
+    return new GetSecretValueResult()
+        .withARN(arn(request.getSecretId()))
+        .withName(request.getSecretId())
+        .withVersionId(secret.versionId)
+        .withVersionStages(Collections.singletonList(CURRENT_STAGE))
+        .withSecretString(secret.secretString)
+        .withCreatedDate(secret.createdDate);
+  }
+
+  @Override
+  public PutSecretValueResult putSecretValue(PutSecretValueRequest request) {
+    beforeRequest();
+    final SecretVersion secret = new SecretVersion(request.getSecretString());
+    secrets.put(request.getSecretId(), secret);
+    return new PutSecretValueResult()
+        .withARN(arn(request.getSecretId()))
+        .withName(request.getSecretId())
+        .withVersionId(secret.versionId)
+        .withVersionStages(CURRENT_STAGE);
+  }
+
+  private static String arn(String secretId) {
+    return "arn:aws:secretsmanager:us-east-1:000000000000:secret:" + secretId;
+  }
+
+  private void beforeRequest() {
+    faults.beforeRequest(
+        () -> serviceException(new AWSSecretsManagerException("Rate exceeded"),
+            "ThrottlingException", 400),
+        () -> serviceException(
+            new InternalServiceErrorException("injected failure"),
+            "InternalServiceError", 500));
+  }
+
+  private static <T extends AmazonServiceException> T serviceException(
+      T ex, String errorCode, int statusCode) {
+    ex.setServiceName(SERVICE_NAME);
+    ex.setErrorCode(errorCode);
+    ex.setStatusCode(statusCode);
+    ex.setErrorType(statusCode >= 500 ?
+        AmazonServiceException.ErrorType.Service :
+        AmazonServiceException.ErrorType.Client);
+    return ex;
+  }
+
+  /**
+   * An immutable version of a secret.
+   */
+  private static class SecretVersion {
+
+    final String versionId = UUID.randomUUID().toString();
+    final Date createdDate = new Date();
+    final String secretString;
+
+    SecretVersion(String secretString) {
+      this.secretString = secretString;
+    }
+
+  }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws.fake;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.amazonaws.AbortedException;
+
+/**
+ * Imposes latency, throttling, and failures on requests to a fake AWS
+ * service.
+ * <p>
+ * Each request is first delayed according to the configured
+ * {@link LatencyModel}. It is then subject to throttling when the configured
+ * request rate is exceeded, and to failure at the configured probability, or
+ * when failures have been explicitly requested using {@link #failNext(int)}.
+ * An injector is thread safe, and may be shared by several fake services
+ * to model a shared request budget.
+ *
+ * @author Carl Harris
+ */
+public final class FaultInjector {
+
+  private final LatencyModel latency;
+  private final double requestsPerSecond;
+  private final double failureProbability;
+
+  private final AtomicInteger pendingFailures = new AtomicInteger();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong throttledCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private double tokens;
+  private long lastRefill = System.nanoTime();
+
+  /**
+   * A builder that produces a {@link FaultInjector}.
+   */
+  public static class Builder {
+
+    private LatencyModel latency = LatencyModel.none();
+    private double requestsPerSecond = Double.POSITIVE_INFINITY;
+    private double failureProbability;
+
+    private Builder() { }
+
+    /**
+     * Specifies the latency model for requests.
+     * @param latency latency model
+     * @return this builder
+     */
+    public Builder latency(LatencyModel latency) {
+      this.latency = latency;
+      return this;
+    }
+
+    /**
+     * Specifies the sustained request rate above which requests are
+     * throttled. Bursts of up to one second's worth of requests are allowed.
+     * @param requestsPerSecond maximum request rate
+     * @return this builder
+     */
+    public Builder throttleAbove(double requestsPerSecond) {
+      if (requestsPerSecond <= 0) {
+        throw new IllegalArgumentException("request rate must be positive");
+      }
+      this.requestsPerSecond = requestsPerSecond;
+      return this;
+    }
+
+    /**
+     * Specifies the probability that any given request fails.
+     * @param failureProbability probability in the range 0 to 1
+     * @return this builder
+     */
+    public Builder failureProbability(double failureProbability) {
+      if (failureProbability < 0 || failureProbability > 1) {
+        throw new IllegalArgumentException(
+            "probability must be in the range 0 to 1");
+      }
+      this.failureProbability = failureProbability;
+      return this;
+    }
+
+    /**
+     * Builds a fault injector in accordance with the configuration of this
+     * builder.
+     * @return fault injector
+     */
+    public FaultInjector build() {
+      return new FaultInjector(this);
+    }
+
+  }
+
+  private FaultInjector(Builder builder) {
+    this.latency = builder.latency;
+    this.requestsPerSecond = builder.requestsPerSecond;
+    this.failureProbability = builder.failureProbability;
+    this.tokens = requestsPerSecond;
+  }
+
+  /**
+   * Gets a builder for a new fault injector.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Gets a fault injector that imposes no latency and no faults.
+   * @return fault injector
+   */
+  public static FaultInjector none() {
+    return builder().build();
+  }
+
+  /**
+   * Causes the next requests to fail, regardless of the configured
+   * failure probability.
+   * @param count number of requests that should fail
+   */
+  public void failNext(int count) {
+    pendingFailures.addAndGet(count);
+  }
+
+  /**
+   * Gets the number of requests seen by this injector.
+   * @return request count
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Gets the number of requests that were throttled.
+   * @return throttled request count
+   */
+  public long getThrottledCount() {
+    return throttledCount.get();
+  }
+
+  /**
+   * Gets the number of requests that were failed.
+   * @return failed request count
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Applies latency and faults to a request.
+   * @param throttled supplier for the exception that signals throttling
+   * @param failed supplier for the exception that signals a service failure
+   */
+  void beforeRequest(Supplier<? extends RuntimeException> throttled,
+      Supplier<? extends RuntimeException> failed) {
+    requestCount.incrementAndGet();
+    delay();
+    if (!acquirePermit()) {
+      throttledCount.incrementAndGet();
+      throw throttled.get();
+    }
+    if (shouldFail()) {
+      failedCount.incrementAndGet();
+      throw failed.get();
+    }
+  }
+
+  private void delay() {
+    final long nanos = latency.nextDelayNanos(ThreadLocalRandom.current());
+    if (nanos <= 0) return;
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new AbortedException(ex);
+    }
+  }
+
+  private synchronized boolean acquirePermit() {
+    if (Double.isInfinite(requestsPerSecond)) return true;
+    final long now = System.nanoTime();
+    tokens = Math.min(requestsPerSecond,
+        tokens + (now - lastRefill) * requestsPerSecond / 1e9);
+    lastRefill = now;
+    if (tokens < 1) return false;
+    tokens--;
+    return true;
+  }
+
+  private boolean shouldFail() {
+    int pending;
+    while ((pending = pendingFailures.get()) > 0) {
+      if (pendingFailures.compareAndSet(pending, pending - 1)) return true;
+    }
+    return failureProbability > 0
+        && ThreadLocalRandom.current().nextDouble() < failureProbability;
+  }
+
+}
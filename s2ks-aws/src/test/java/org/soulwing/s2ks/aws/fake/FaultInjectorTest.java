@@ -0,0 +1,107 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws.fake;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.time.Duration;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link FaultInjector} and {@link LatencyModel}.
+ *
+ * @author Carl Harris
+ */
+public class FaultInjectorTest {
+
+  @Test
+  public void testNone() throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    for (int i = 0; i < 100; i++) {
+      request(faults);
+    }
+    assertThat(faults.getRequestCount(), is(equalTo(100L)));
+    assertThat(faults.getThrottledCount(), is(equalTo(0L)));
+    assertThat(faults.getFailedCount(), is(equalTo(0L)));
+  }
+
+  @Test
+  public void testFailNext() throws Exception {
+    final FaultInjector faults = FaultInjector.none();
+    faults.failNext(2);
+    assertThat(request(faults), is(equalTo("failed")));
+    assertThat(request(faults), is(equalTo("failed")));
+    assertThat(request(faults), is(equalTo("ok")));
+    assertThat(faults.getFailedCount(), is(equalTo(2L)));
+  }
+
+  @Test
+  public void testFailureProbability() throws Exception {
+    final FaultInjector faults = FaultInjector.builder()
+        .failureProbability(1.0)
+        .build();
+    assertThat(request(faults), is(equalTo("failed")));
+  }
+
+  @Test
+  public void testThrottle() throws Exception {
+    final FaultInjector faults = FaultInjector.builder()
+        .throttleAbove(10)
+        .build();
+    for (int i = 0; i < 20; i++) {
+      request(faults);
+    }
+    assertThat(faults.getThrottledCount(), is(greaterThanOrEqualTo(9L)));
+    assertThat(faults.getThrottledCount(), is(lessThanOrEqualTo(10L)));
+  }
+
+  @Test
+  public void testLatencyModels() throws Exception {
+    final Random random = new Random(0);
+    assertThat(LatencyModel.none().nextDelayNanos(random), is(equalTo(0L)));
+    assertThat(LatencyModel.fixed(Duration.ofMillis(1))
+        .nextDelayNanos(random), is(equalTo(1000000L)));
+    for (int i = 0; i < 100; i++) {
+      final long delay = LatencyModel.uniform(Duration.ofMillis(1),
+          Duration.ofMillis(2)).nextDelayNanos(random);
+      assertThat(delay, is(greaterThanOrEqualTo(1000000L)));
+      assertThat(delay, is(lessThanOrEqualTo(2000000L)));
+    }
+    assertThat(LatencyModel.logNormal(Duration.ofMillis(1), 0.0)
+        .nextDelayNanos(random), is(equalTo(1000000L)));
+  }
+
+  private static String request(FaultInjector faults) {
+    try {
+      faults.beforeRequest(() -> new IllegalStateException("throttled"),
+          () -> new IllegalStateException("failed"));
+      return "ok";
+    }
+    catch (IllegalStateException ex) {
+      return ex.getMessage();
+    }
+  }
+
+}
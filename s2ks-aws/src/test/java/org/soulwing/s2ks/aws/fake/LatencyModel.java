@@ -0,0 +1,85 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.aws.fake;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * A model for the latency of requests to a fake AWS service.
+ *
+ * @author Carl Harris
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+  /**
+   * Gets the delay to impose on the next request.
+   * @param random source of randomness
+   * @return delay in nanoseconds
+   */
+  long nextDelayNanos(Random random);
+
+  /**
+   * Gets a model that imposes no delay.
+   * @return latency model
+   */
+  static LatencyModel none() {
+    return random -> 0;
+  }
+
+  /**
+   * Gets a model that imposes the same delay on every request.
+   * @param delay the delay to impose
+   * @return latency model
+   */
+  static LatencyModel fixed(Duration delay) {
+    final long nanos = delay.toNanos();
+    return random -> nanos;
+  }
+
+  /**
+   * Gets a model whose delay is uniformly distributed over a range.
+   * @param min minimum delay
+   * @param max maximum delay
+   * @return latency model
+   */
+  static LatencyModel uniform(Duration min, Duration max) {
+    final long minNanos = min.toNanos();
+    final long range = max.toNanos() - minNanos;
+    if (range < 0) {
+      throw new IllegalArgumentException("max must not be less than min");
+    }
+    return random -> minNanos + (long) (random.nextDouble() * range);
+  }
+
+  /**
+   * Gets a model whose delay is log-normally distributed; a long-tailed
+   * distribution typical of network services.
+   * @param median median delay
+   * @param sigma standard deviation of the natural logarithm of the delay;
+   *    larger values produce a longer tail
+   * @return latency model
+   */
+  static LatencyModel logNormal(Duration median, double sigma) {
+    final double mu = Math.log(median.toNanos());
+    return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.s2ks.KeyPairInfo;
+import org.soulwing.s2ks.KeyPairStorage;
+import org.soulwing.s2ks.aws.AwsFakes;
+import org.soulwing.s2ks.aws.fake.FakeS3;
+import org.soulwing.s2ks.aws.fake.FakeSecretsManager;
+import org.soulwing.s2ks.aws.fake.FaultInjector;
+import org.soulwing.s2ks.aws.fake.LatencyModel;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueRequest;
+
+/**
+ * End-to-end benchmarks for AWS key pair storage, running against in-memory
+ * fakes of Secrets Manager and S3 with a log-normal request latency.
+ * <p>
+ * The key pair is the encrypted RSA private key and certificates used by
+ * the tests of the AWS module.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AwsKeyPairStorageBenchmark {
+
+  private static final String RESOURCE_PATH = "/org/soulwing/s2ks/aws/";
+  private static final String BUCKET_NAME = "benchmark";
+  private static final String PREFIX = "key-pairs";
+  private static final String SECRET_ID = "benchmark";
+  private static final String ID = "key-pair";
+
+  @Param({ "0", "5" })
+  private int medianLatencyMillis;
+
+  private KeyPairStorage storage;
+
+  @Setup
+  public void setUp() throws Exception {
+    final FaultInjector faults = FaultInjector.builder()
+        .latency(medianLatencyMillis > 0 ?
+            LatencyModel.logNormal(Duration.ofMillis(medianLatencyMillis), 0.5)
+            : LatencyModel.none())
+        .build();
+    final FakeS3 s3 = new FakeS3(faults);
+    final FakeSecretsManager secrets = new FakeSecretsManager(faults);
+    secrets.putSecretValue(new PutSecretValueRequest()
+        .withSecretId(SECRET_ID)
+        .withSecretString(Json.createObjectBuilder()
+            .add("password", "secret")
+            .build().toString()));
+    putResource(s3, KeyPairStorage.KEY_FILE_NAME);
+    putResource(s3, KeyPairStorage.CERT_FILE_NAME);
+    putResource(s3, KeyPairStorage.CA_FILE_NAME);
+    storage = AwsFakes.newKeyPairStorage(secrets, s3, SECRET_ID,
+        BUCKET_NAME, PREFIX);
+  }
+
+  @Benchmark
+  public KeyPairInfo retrieveKeyPair() throws Exception {
+    return storage.retrieveKeyPair(ID);
+  }
+
+  private static void putResource(FakeS3 s3, String name) throws IOException {
+    try (InputStream inputStream = AwsKeyPairStorageBenchmark.class
+        .getResourceAsStream(RESOURCE_PATH + name)) {
+      final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      int count;
+      while ((count = inputStream.read(buf)) != -1) {
+        outputStream.write(buf, 0, count);
+      }
+      s3.putObject(BUCKET_NAME, Paths.get(PREFIX, ID, name).toString(),
+          new String(outputStream.toByteArray(), StandardCharsets.US_ASCII));
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.aws.AwsFakes;
+import org.soulwing.s2ks.aws.fake.FakeKms;
+import org.soulwing.s2ks.aws.fake.FakeS3;
+import org.soulwing.s2ks.aws.fake.FaultInjector;
+import org.soulwing.s2ks.aws.fake.LatencyModel;
+
+/**
+ * End-to-end benchmarks for AWS key storage, running against in-memory
+ * fakes of KMS and S3 with a log-normal request latency.
+ * <p>
+ * Use the JMH {@code -t} option to measure behavior under concurrency.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AwsKeyStorageBenchmark {
+
+  private static final String BUCKET_NAME = "benchmark";
+  private static final String PREFIX = "keys";
+  private static final String RETRIEVE_ID = "retrieve";
+  private static final String STORE_ID = "store";
+
+  @Param({ "RSA", "EC", "AES" })
+  private KeyType keyType;
+
+  @Param({ "0", "5" })
+  private int medianLatencyMillis;
+
+  private MutableKeyStorage storage;
+  private KeyWithMetadata keyWithMetadata;
+
+  @Setup
+  public void setUp() throws Exception {
+    final FaultInjector faults = FaultInjector.builder()
+        .latency(medianLatencyMillis > 0 ?
+            LatencyModel.logNormal(Duration.ofMillis(medianLatencyMillis), 0.5)
+            : LatencyModel.none())
+        .build();
+    storage = AwsFakes.newKeyStorage(new FakeKms(faults), new FakeS3(faults),
+        BUCKET_NAME, PREFIX);
+    keyWithMetadata = new KeyWithMetadata(keyType.generate(),
+        BenchmarkMetadata.create());
+    storage.store(RETRIEVE_ID, keyWithMetadata);
+  }
+
+  @Benchmark
+  public KeyWithMetadata retrieve() throws Exception {
+    return storage.retrieveWithMetadata(RETRIEVE_ID);
+  }
+
+  @Benchmark
+  public void store() throws Exception {
+    storage.store(STORE_ID, keyWithMetadata);
+  }
+
+}
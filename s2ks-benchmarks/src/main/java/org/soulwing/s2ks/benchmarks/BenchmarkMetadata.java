@@ -0,0 +1,48 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.SimpleMetadata;
+
+/**
+ * A factory for representative metadata used in benchmarks.
+ *
+ * @author Carl Harris
+ */
+class BenchmarkMetadata {
+
+  /**
+   * Creates metadata with a few properties of each supported type.
+   * @return metadata
+   */
+  static Metadata create() {
+    final long now = System.currentTimeMillis() / 1000;
+    return SimpleMetadata.builder()
+        .set("purpose", "benchmark")
+        .set("owner", "s2ks")
+        .set("version", 1)
+        .set("nbf", now)
+        .set("exp", now + 86400)
+        .set("enabled", true)
+        .set("weight", 0.5)
+        .build();
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmarks jar.
+ * <p>
+ * Accepts the same command line options as the standard JMH runner, and
+ * adds the GC profiler to every run, so that allocation rates are reported
+ * alongside timings.
+ *
+ * @author Carl Harris
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    final CommandLineOptions cli = new CommandLineOptions(args);
+    if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+        || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+      Main.main(args);
+      return;
+    }
+    new Runner(new OptionsBuilder()
+        .parent(cli)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import java.security.Key;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import javax.crypto.KeyGenerator;
+
+/**
+ * An enumeration of the types of subject keys used in benchmarks.
+ *
+ * @author Carl Harris
+ */
+public enum KeyType {
+
+  RSA {
+    @Override
+    public Key generate() throws NoSuchAlgorithmException {
+      final KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+      kpg.initialize(2048);
+      return kpg.generateKeyPair().getPrivate();
+    }
+  },
+
+  EC {
+    @Override
+    public Key generate() throws NoSuchAlgorithmException {
+      final KeyPairGenerator kpg = KeyPairGenerator.getInstance("EC");
+      kpg.initialize(256);
+      return kpg.generateKeyPair().getPrivate();
+    }
+  },
+
+  AES {
+    @Override
+    public Key generate() throws NoSuchAlgorithmException {
+      final KeyGenerator kg = KeyGenerator.getInstance("AES");
+      kg.init(256);
+      return kg.generateKey();
+    }
+  };
+
+  /**
+   * Generates a new key of this type.
+   * @return key
+   * @throws NoSuchAlgorithmException if the key algorithm is not supported
+   */
+  public abstract Key generate() throws NoSuchAlgorithmException;
+
+}
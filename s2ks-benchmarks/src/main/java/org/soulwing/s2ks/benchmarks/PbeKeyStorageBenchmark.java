@@ -0,0 +1,107 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.pbe.PbeKeyStorage;
+
+/**
+ * End-to-end benchmarks for {@link PbeKeyStorage}, as configured by the
+ * local storage provider, using a temporary storage directory.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PbeKeyStorageBenchmark {
+
+  private static final String PROVIDER = "LOCAL";
+  private static final String RETRIEVE_ID = "retrieve";
+  private static final String STORE_ID = "store";
+
+  @Param({ "RSA", "EC", "AES" })
+  private KeyType keyType;
+
+  private Path directory;
+  private MutableKeyStorage storage;
+  private KeyWithMetadata keyWithMetadata;
+
+  @Setup
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("s2ks-benchmark");
+    final Properties properties = new Properties();
+    properties.setProperty("password", "benchmark");
+    properties.setProperty("storageDirectory", directory.toString());
+    storage = KeyStorageLocator.getMutableInstance(PROVIDER, properties);
+    keyWithMetadata = new KeyWithMetadata(keyType.generate(),
+        BenchmarkMetadata.create());
+    storage.store(RETRIEVE_ID, keyWithMetadata);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+        try {
+          Files.delete(path);
+        }
+        catch (IOException ex) {
+          throw new RuntimeException(ex);
+        }
+      });
+    }
+  }
+
+  @Benchmark
+  public KeyWithMetadata retrieve() throws Exception {
+    return storage.retrieveWithMetadata(RETRIEVE_ID);
+  }
+
+  @Benchmark
+  public void store() throws Exception {
+    storage.store(STORE_ID, keyWithMetadata);
+  }
+
+}
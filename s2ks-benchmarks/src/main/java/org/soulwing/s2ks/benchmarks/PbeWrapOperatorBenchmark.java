@@ -0,0 +1,78 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.s2ks.base.KeyDescriptor;
+import org.soulwing.s2ks.pbe.PbeKeyFactory;
+import org.soulwing.s2ks.pbe.PbeWrapOperator;
+
+/**
+ * Benchmarks for {@link PbeWrapOperator}.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PbeWrapOperatorBenchmark {
+
+  @Param({ "RSA", "EC", "AES" })
+  private KeyType keyType;
+
+  private final PbeWrapOperator operator = PbeWrapOperator.getInstance();
+
+  private Key subjectKey;
+  private Key wrapperKey;
+  private KeyDescriptor descriptor;
+
+  @Setup
+  public void setUp() throws Exception {
+    subjectKey = keyType.generate();
+    wrapperKey = PbeKeyFactory.generateKey("benchmark".toCharArray());
+    descriptor = operator.wrap(subjectKey, wrapperKey);
+  }
+
+  @Benchmark
+  public KeyDescriptor wrap() throws Exception {
+    return operator.wrap(subjectKey, wrapperKey);
+  }
+
+  @Benchmark
+  public Key unwrap() throws Exception {
+    return operator.unwrap(descriptor, wrapperKey);
+  }
+
+}
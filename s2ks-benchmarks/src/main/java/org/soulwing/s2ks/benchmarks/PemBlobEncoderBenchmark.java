@@ -0,0 +1,98 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.base.Blob;
+import org.soulwing.s2ks.metadata.JwtMetadataWrapOperator;
+import org.soulwing.s2ks.pbe.PbeKeyFactory;
+import org.soulwing.s2ks.pbe.PbeWrapOperator;
+import org.soulwing.s2ks.pem.PemBlobEncoder;
+import org.soulwing.s2ks.pem.PemKeyEncoder;
+import org.soulwing.s2ks.pem.PemMetadataEncoder;
+
+/**
+ * Benchmarks for {@link PemBlobEncoder}.
+ * <p>
+ * The blobs are those that would be stored for a wrapped subject key of
+ * the given type, along with its signed metadata.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PemBlobEncoderBenchmark {
+
+  @Param({ "RSA", "EC", "AES" })
+  private KeyType keyType;
+
+  private final PemBlobEncoder encoder = PemBlobEncoder.getInstance();
+
+  private List<Blob> blobs;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws Exception {
+    final Key subjectKey = keyType.generate();
+    final Key wrapperKey =
+        PbeKeyFactory.generateKey("benchmark".toCharArray());
+    final byte[] metadata = JwtMetadataWrapOperator.getInstance().wrap(
+        new KeyWithMetadata(subjectKey, BenchmarkMetadata.create()));
+    blobs = Arrays.asList(
+        PemKeyEncoder.getInstance().encode(
+            PbeWrapOperator.getInstance().wrap(subjectKey, wrapperKey)),
+        PemMetadataEncoder.getInstance().encode(metadata));
+    encoded = encode();
+  }
+
+  @Benchmark
+  public byte[] encode() throws Exception {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    encoder.encode(blobs, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  @Benchmark
+  public List<Blob> decode() throws Exception {
+    return encoder.decode(new ByteArrayInputStream(encoded));
+  }
+
+}
@@ -18,29 +18,96 @@
  */
 package org.soulwing.s2ks.base;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.soulwing.s2ks.KeyPairInfo;
 import org.soulwing.s2ks.KeyPairStorage;
 import org.soulwing.s2ks.KeyStorageException;
 import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.spi.MetricsListener;
 
 /**
  * An abstract base for {@link KeyPairStorage} implementations.
+ * <p>
+ * The password, private key, certificate, and CA certificates for a key pair
+ * are fetched concurrently using an {@link Executor}, so that the time
+ * needed to retrieve a key pair is roughly that of the slowest of these
+ * fetches. By default, a shared pool of daemon threads is used; an executor
+ * that runs each task in the calling thread (e.g. {@code Runnable::run})
+ * restores sequential fetching. When any fetch fails, fetches that have not
+ * yet started are skipped.
+ * <p>
+ * A key pair may instead be stored as a single {@linkplain
+ * #openBundleStream(String) bundle} that contains the private key followed
+ * by the certificate chain, so that it can be fetched in a single request.
+ * The bundle is always fetched, and takes precedence over separate files.
+ * The private key, certificate, and CA certificates are fetched from their
+ * separate files only when the bundle turns out to be absent, except for a
+ * key pair that was found stored as separate files when it was last
+ * retrieved, for which they are fetched concurrently with the bundle, and
+ * are ignored if the bundle now exists.
+ * <p>
+ * When a change check interval is set, retrieved key pairs are cached, so
+ * that the private key need not be decrypted and the certificates need not
+ * be parsed on each retrieval. A cached key pair is used until a check
+ * reveals that its stored {@linkplain #getVersion(String) version} has
+ * changed. At most one check is made for a key pair in each interval, and
+ * while a check is in progress, other callers receive the cached key pair.
+ * When a key pair is not in the cache, its version is checked before it is
+ * retrieved, unless the storage {@linkplain #hasStreamVersions() reports}
+ * the versions of the objects it reads, in which case the key pair is
+ * cached with the versions of the objects from which it was retrieved.
  *
  * @author Carl Harris
  */
 public abstract class AbstractKeyPairStorage implements KeyPairStorage {
 
+  static final String RETRIEVE_KEY_PAIR = "retrieveKeyPair";
+  static final String RETRIEVE_CERTIFICATES = "retrieveCertificates";
+
+  private static final int INITIAL_BUFFER_SIZE = 4096;
+
+  // marks the absence of CA certificates, as distinct from an empty file
+  private static final byte[] NO_CA_CERTIFICATES = new byte[0];
+
+  private static final byte[] CERTIFICATE_BEGIN =
+      "-----BEGIN CERTIFICATE-----".getBytes(StandardCharsets.US_ASCII);
+
+  private final String metricsSource = getClass().getSimpleName();
+
   private final PrivateKeyLoader privateKeyLoader;
   private final CertificateLoader certificateLoader;
+  private final ConcurrentMap<String, CachedKeyPair> cache =
+      new ConcurrentHashMap<>();
+  private final Set<String> separateFiles = ConcurrentHashMap.newKeySet();
+
+  private volatile MetricsListener metricsListener =
+      MetricsListener.getDefault();
+
+  private volatile Executor executor;
+  private volatile long changeCheckInterval = -1;
 
   protected AbstractKeyPairStorage(
       PrivateKeyLoader privateKeyLoader,
@@ -49,16 +116,162 @@ public abstract class AbstractKeyPairStorage implements KeyPairStorage {
     this.certificateLoader = certificateLoader;
   }
 
+  /**
+   * Gets the listener to which timings for storage operations are reported.
+   * @return metrics listener
+   */
+  public MetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  /**
+   * Sets the listener to which timings for storage operations are reported.
+   * @param metricsListener metrics listener; replaces the default listener
+   *    obtained from {@link MetricsListener#getDefault()}
+   */
+  public void setMetricsListener(MetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+  }
+
+  /**
+   * Gets the executor used to fetch the components of a key pair.
+   * @return executor
+   */
+  public Executor getExecutor() {
+    final Executor executor = this.executor;
+    return executor != null ? executor : DefaultExecutor.INSTANCE;
+  }
+
+  /**
+   * Sets the executor used to fetch the components of a key pair.
+   * @param executor executor; replaces the default shared pool of daemon
+   *    threads
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Gets the minimum interval between checks for changes to a cached key
+   * pair.
+   * @return change check interval or {@code null} if key pairs are not
+   *    cached
+   */
+  public Duration getChangeCheckInterval() {
+    final long interval = changeCheckInterval;
+    return interval >= 0 ? Duration.ofNanos(interval) : null;
+  }
+
+  /**
+   * Sets the minimum interval between checks for changes to a cached key
+   * pair.
+   * @param interval change check interval; {@code null} disables caching
+   *    and discards any cached key pairs
+   */
+  public void setChangeCheckInterval(Duration interval) {
+    if (interval != null && interval.isNegative()) {
+      throw new IllegalArgumentException("interval must not be negative");
+    }
+    this.changeCheckInterval = interval != null ? interval.toNanos() : -1;
+    if (interval == null) {
+      invalidateAll();
+    }
+  }
+
+  /**
+   * Discards the cached key pair with the given ID, if any.
+   * @param id key pair ID
+   */
+  public void invalidate(String id) {
+    cache.remove(id);
+    separateFiles.remove(id);
+  }
+
+  /**
+   * Discards all cached key pairs.
+   */
+  public void invalidateAll() {
+    cache.clear();
+    separateFiles.clear();
+  }
+
+  /**
+   * Tests whether a key pair was stored as separate files, rather than as a
+   * bundle, when it was last retrieved.
+   * <p>
+   * A subclass can use this to decide whether to look for the separate
+   * files of a key pair concurrently with its bundle, or only once the
+   * bundle is known to be absent.
+   *
+   * @param id key pair ID
+   * @return {@code true} if the key pair was last found as separate files
+   */
+  protected boolean isStoredAsSeparateFiles(String id) {
+    return separateFiles.contains(id);
+  }
+
   @Override
   public KeyPairInfo retrieveKeyPair(String id) throws KeyStorageException {
-    char[] password = null;
+    final long interval = changeCheckInterval;
+    if (interval < 0) {
+      return loadKeyPair(id, new FetchedVersions());
+    }
+    final CachedKeyPair cached = cache.get(id);
+    if (cached != null && isCurrent(id, cached, interval)) {
+      return cached.keyPair;
+    }
+    final boolean streamVersions = hasStreamVersions();
+    final Object checkedVersion = streamVersions ? null : currentVersion(id);
+    final FetchedVersions fetchedVersions = new FetchedVersions();
+    final KeyPairInfo keyPair = loadKeyPair(id, fetchedVersions);
+    final Object version = streamVersions ?
+        fetchedVersions.toVersion() : checkedVersion;
+    if (version != null && changeCheckInterval >= 0) {
+      cache.put(id, new CachedKeyPair(keyPair, version,
+          System.nanoTime() + interval));
+    }
+    else {
+      cache.remove(id);
+    }
+    return keyPair;
+  }
+
+  /**
+   * Tests whether a cached key pair is current.
+   * <p>
+   * If the change check interval for the cached key pair has not elapsed,
+   * or if another thread is already checking, the cached key pair is
+   * assumed to be current. If the check fails for a reason other than the
+   * absence of the key pair, the cached key pair is assumed to be current
+   * and the check is retried after the next interval.
+   *
+   * @param id key pair ID
+   * @param cached the cached key pair
+   * @param interval change check interval
+   * @return {@code true} if the cached key pair can be used
+   */
+  private boolean isCurrent(String id, CachedKeyPair cached, long interval) {
+    final long now = System.nanoTime();
+    final long nextCheck = cached.nextCheck.get();
+    if (now - nextCheck < 0
+        || !cached.nextCheck.compareAndSet(nextCheck, now + interval)) {
+      return true;
+    }
+    try {
+      return cached.version.equals(getVersion(id));
+    }
+    catch (FileNotFoundException ex) {
+      cache.remove(id, cached);
+      return false;
+    }
+    catch (IOException | KeyStorageException ex) {
+      return true;
+    }
+  }
+
+  private Object currentVersion(String id) throws KeyStorageException {
     try {
-      password = getPassword(id);
-      return KeyPairInfo.builder()
-          .id(id)
-          .privateKey(loadPrivateKey(id, password))
-          .certificates(loadCertificates(id))
-          .build();
+      return getVersion(id);
     }
     catch (FileNotFoundException ex) {
       throw new NoSuchKeyException(id);
@@ -66,9 +279,80 @@ public abstract class AbstractKeyPairStorage implements KeyPairStorage {
     catch (IOException ex) {
       throw new KeyStorageException(ex);
     }
-    finally {
-      if (password != null) {
-        Arrays.fill(password, (char) 0);
+  }
+
+  private KeyPairInfo loadKeyPair(String id, FetchedVersions versions)
+      throws KeyStorageException {
+    try (final StageTimer timer = startTimer(RETRIEVE_KEY_PAIR)) {
+      final FetchGroup group = new FetchGroup(getExecutor());
+      final CompletableFuture<char[]> password =
+          group.submit(() -> getPassword(id));
+      final CompletableFuture<byte[]> bundle =
+          group.submit(() -> readBundle(id, versions));
+      final FetchGroup files = group.speculative();
+      // for a key pair last found as separate files, the files are fetched
+      // alongside the bundle, so that it doesn't wait for the bundle fetch
+      final SeparateFiles early =
+          separateFiles.contains(id) ?
+              fetchSeparateFiles(files, id, versions) : null;
+      CompletableFuture<byte[]> keyData = null;
+      SeparateFiles fetched = early;
+      try {
+        final byte[] bundleData = bundle.join();
+        final CompletableFuture<PrivateKey> privateKey;
+        final CompletableFuture<List<X509Certificate>> certificates;
+        if (bundleData != null) {
+          final int offset = certificatesOffset(bundleData);
+          final byte[] key = Arrays.copyOf(bundleData, offset);
+          keyData = CompletableFuture.completedFuture(key);
+          privateKey = group.submitAfter(password, keyData,
+              () -> loadPrivateKey(key, password.join()));
+          certificates =
+              group.submit(() -> loadCertificates(bundleData, offset));
+        }
+        else {
+          group.throwFailure();
+          final SeparateFiles separate = early != null ?
+              early : fetchSeparateFiles(files, id, versions);
+          fetched = separate;
+          privateKey = group.submitAfter(password, separate.keyData,
+              () -> loadPrivateKey(files.join(separate.keyData),
+                  password.join()));
+          certificates = group.submitAfter(separate.certData,
+              separate.caData,
+              () -> loadCertificates(files.join(separate.certData),
+                  files.join(separate.caData)));
+        }
+        group.await();
+        rememberLayout(id, bundleData == null);
+        versions.bundled = bundleData != null;
+        timer.succeeded();
+        return KeyPairInfo.builder()
+            .id(id)
+            .privateKey(privateKey.join())
+            .certificates(certificates.join())
+            .build();
+      }
+      catch (FileNotFoundException ex) {
+        timer.notFound();
+        separateFiles.remove(id);
+        throw new NoSuchKeyException(id);
+      }
+      catch (IOException ex) {
+        throw new KeyStorageException(ex);
+      }
+      finally {
+        group.awaitQuietly();
+        files.awaitQuietly();
+        final char[] chars = password.getNow(null);
+        if (chars != null) {
+          Arrays.fill(chars, (char) 0);
+        }
+        wipe(bundle);
+        wipe(keyData);
+        if (fetched != null) {
+          wipe(fetched.keyData);
+        }
       }
     }
   }
@@ -76,40 +360,262 @@ public abstract class AbstractKeyPairStorage implements KeyPairStorage {
   @Override
   public List<X509Certificate> retrieveCertificates(String id)
       throws KeyStorageException {
-    try {
-      return loadCertificates(id);
+    final long interval = changeCheckInterval;
+    final CachedKeyPair cached = interval >= 0 ? cache.get(id) : null;
+    if (cached != null && isCurrent(id, cached, interval)) {
+      return new ArrayList<>(cached.keyPair.getCertificates());
     }
-    catch (FileNotFoundException ex) {
-      throw new NoSuchKeyException(id);
+    final FetchGroup group = new FetchGroup(getExecutor());
+    try (final StageTimer timer = startTimer(RETRIEVE_CERTIFICATES)) {
+      final CompletableFuture<byte[]> bundle =
+          group.submit(() -> readBundle(id, null));
+      final FetchGroup files = group.speculative();
+      final SeparateFiles early = separateFiles.contains(id) ?
+          fetchSeparateCertificates(files, id) : null;
+      try {
+        final byte[] bundleData = bundle.join();
+        final List<X509Certificate> certificates;
+        if (bundleData != null) {
+          certificates =
+              loadCertificates(bundleData, certificatesOffset(bundleData));
+        }
+        else {
+          group.throwFailure();
+          final SeparateFiles separate = early != null ?
+              early : fetchSeparateCertificates(files, id);
+          certificates = loadCertificates(files.join(separate.certData),
+              files.join(separate.caData));
+        }
+        rememberLayout(id, bundleData == null);
+        timer.succeeded();
+        return certificates;
+      }
+      catch (FileNotFoundException ex) {
+        timer.notFound();
+        separateFiles.remove(id);
+        throw new NoSuchKeyException(id);
+      }
+      catch (IOException ex) {
+        throw new KeyStorageException(ex);
+      }
+      finally {
+        group.awaitQuietly();
+        files.awaitQuietly();
+        wipe(bundle);
+      }
     }
-    catch (IOException ex) {
-      throw new KeyStorageException(ex);
+  }
+
+  private SeparateFiles fetchSeparateFiles(FetchGroup files, String id,
+      FetchedVersions versions) {
+    return new SeparateFiles(
+        files.submit(() -> readPrivateKey(id, versions)),
+        files.submit(() -> readCertificates(id, versions)),
+        files.submit(() -> readCACertificates(id, versions)));
+  }
+
+  private SeparateFiles fetchSeparateCertificates(FetchGroup files,
+      String id) {
+    return new SeparateFiles(null,
+        files.submit(() -> readCertificates(id, null)),
+        files.submit(() -> readCACertificates(id, null)));
+  }
+
+  private void rememberLayout(String id, boolean separate) {
+    if (separate) {
+      separateFiles.add(id);
+    }
+    else {
+      separateFiles.remove(id);
+    }
+  }
+
+  private StageTimer startTimer(String operation) {
+    return StageTimer.start(metricsListener, metricsSource, operation);
+  }
+
+  private byte[] readBundle(String id, FetchedVersions versions)
+      throws IOException, KeyStorageException {
+    try (final InputStream inputStream = openBundleStream(id)) {
+      if (versions != null) {
+        versions.bundle = versionOf(inputStream);
+      }
+      return readFully(inputStream);
+    }
+    catch (FileNotFoundException ex) {
+      assert true;  // bundle is optional
+      return null;
     }
   }
 
-  private PrivateKey loadPrivateKey(String id, char[] password)
+  private byte[] readPrivateKey(String id, FetchedVersions versions)
       throws IOException, KeyStorageException {
     try (final InputStream inputStream = openPrivateKeyStream(id)) {
-      return privateKeyLoader.load(inputStream, password);
+      versions.privateKey = versionOf(inputStream);
+      return readFully(inputStream);
     }
   }
 
-  private List<X509Certificate> loadCertificates(String id)
+  private PrivateKey loadPrivateKey(byte[] keyData, char[] password)
+      throws IOException, KeyStorageException {
+    try {
+      return privateKeyLoader.load(new ByteArrayInputStream(keyData),
+          password);
+    }
+    finally {
+      Arrays.fill(keyData, (byte) 0);
+    }
+  }
+
+  private byte[] readCertificates(String id, FetchedVersions versions)
       throws IOException, KeyStorageException {
-    final List<X509Certificate> certs = new ArrayList<>();
     try (final InputStream inputStream = openCertificateStream(id)) {
-      certs.addAll(certificateLoader.load(inputStream));
+      if (versions != null) {
+        versions.certificate = versionOf(inputStream);
+      }
+      return readFully(inputStream);
     }
+  }
 
+  private byte[] readCACertificates(String id, FetchedVersions versions)
+      throws IOException, KeyStorageException {
     try (final InputStream inputStream = openCACertificateStream(id)) {
-      certs.addAll(certificateLoader.load(inputStream));
+      if (versions != null) {
+        versions.caCertificates = versionOf(inputStream);
+      }
+      return readFully(inputStream);
     }
     catch (FileNotFoundException ex) {
       assert true;  // CA certificate stream is optional
+      return NO_CA_CERTIFICATES;
     }
+  }
+
+  private List<X509Certificate> loadCertificates(byte[] certData,
+      byte[] caData) throws IOException, KeyStorageException {
+    final List<X509Certificate> certificates =
+        certificateLoader.load(new ByteArrayInputStream(certData));
+    if (caData == NO_CA_CERTIFICATES) {
+      return certificates;
+    }
+    return concat(certificates,
+        certificateLoader.load(new ByteArrayInputStream(caData)));
+  }
+
+  private List<X509Certificate> loadCertificates(byte[] bundleData,
+      int offset) throws IOException, KeyStorageException {
+    return certificateLoader.load(new ByteArrayInputStream(bundleData,
+        offset, bundleData.length - offset));
+  }
+
+  private static List<X509Certificate> concat(
+      List<X509Certificate> certificates,
+      List<X509Certificate> caCertificates) {
+    final List<X509Certificate> certs =
+        new ArrayList<>(certificates.size() + caCertificates.size());
+    certs.addAll(certificates);
+    certs.addAll(caCertificates);
     return certs;
   }
 
+  /**
+   * Finds the start of the certificate chain in a key pair bundle.
+   * @param bundleData bundle content
+   * @return offset of the first PEM-encoded certificate in {@code bundleData}
+   * @throws IOException if the bundle contains no certificate
+   */
+  private static int certificatesOffset(byte[] bundleData)
+      throws IOException {
+    final int last = bundleData.length - CERTIFICATE_BEGIN.length;
+    for (int i = 0; i <= last; i++) {
+      int j = 0;
+      while (j < CERTIFICATE_BEGIN.length
+          && bundleData[i + j] == CERTIFICATE_BEGIN[j]) {
+        j++;
+      }
+      if (j == CERTIFICATE_BEGIN.length) return i;
+    }
+    throw new IOException("key pair bundle contains no certificate");
+  }
+
+  private static Object versionOf(InputStream inputStream) {
+    return inputStream instanceof VersionedInputStream ?
+        ((VersionedInputStream) inputStream).getVersion() : null;
+  }
+
+  private static void wipe(CompletableFuture<byte[]> future) {
+    final byte[] data = future != null ? future.getNow(null) : null;
+    if (data != null) {
+      Arrays.fill(data, (byte) 0);
+    }
+  }
+
+  /**
+   * Reads the entire content of a stream, clearing any intermediate buffers
+   * so that no copies of sensitive content remain.
+   * @param inputStream the subject stream
+   * @return stream content
+   * @throws IOException if an I/O error occurs
+   */
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+    int length = 0;
+    int count;
+    while ((count = inputStream.read(buf, length, buf.length - length)) != -1) {
+      length += count;
+      if (length == buf.length) {
+        final byte[] larger = Arrays.copyOf(buf, 2 * buf.length);
+        Arrays.fill(buf, (byte) 0);
+        buf = larger;
+      }
+    }
+    final byte[] content = Arrays.copyOf(buf, length);
+    Arrays.fill(buf, (byte) 0);
+    return content;
+  }
+
+  /**
+   * Gets a token that represents the stored version of a key pair.
+   * <p>
+   * Tokens are compared using {@link Object#equals(Object)}; a token that is
+   * unequal to the token obtained when a key pair was cached indicates that
+   * the stored key pair has changed. This method is invoked only when key
+   * pairs are cached, and must be much less costly than retrieving the key
+   * pair. The default implementation returns {@code null}.
+   *
+   * @param id ID of the key pair
+   * @return version token or {@code null} if the version of the key pair
+   *    cannot be determined, in which case the key pair is not cached
+   * @throws FileNotFoundException if the key pair does not exist
+   * @throws KeyStorageException if an unexpected error occurs
+   * @throws IOException if an I/O error occurs
+   */
+  protected Object getVersion(String id)
+      throws FileNotFoundException, KeyStorageException, IOException {
+    return null;
+  }
+
+  /**
+   * Tests whether the streams opened by this storage report the versions
+   * of the objects they read.
+   * <p>
+   * A storage that returns {@code true} opens each stream as a
+   * {@link VersionedInputStream}, and its {@link #getVersion(String)}
+   * returns a list that contains the version of the bundle, or else the
+   * versions of the private key, certificate, and CA certificates, the last
+   * of which is {@code null} if there are no CA certificates. A key pair
+   * retrieved on a cache miss is then cached with the versions of the
+   * objects from which it was read, and {@link #getVersion(String)} is used
+   * only to check whether a cached key pair has changed. The default
+   * implementation returns {@code false}, so that the version of a key pair
+   * is checked before it is retrieved.
+   *
+   * @return {@code true} if streams report versions
+   */
+  protected boolean hasStreamVersions() {
+    return false;
+  }
+
   /**
    * Gets the password to use to decrypt stored private keys.
    * @return password
@@ -120,6 +626,29 @@ public abstract class AbstractKeyPairStorage implements KeyPairStorage {
   protected abstract char[] getPassword(String id)
       throws KeyStorageException, IOException;
 
+  /**
+   * Open an input stream to read the bundle for a key pair.
+   * <p>
+   * A bundle contains the encrypted private key followed by the PEM-encoded
+   * certificate chain, starting with the certificate for the private key.
+   * Storage implementations that support bundles typically store each
+   * bundle in a file or file-like object named
+   * {@link KeyPairStorage#BUNDLE_FILE_NAME}. The default implementation
+   * throws {@link FileNotFoundException}, so that key pairs are always read
+   * from separate files.
+   *
+   * @param id ID of the key pair to be read
+   * @return input stream
+   * @throws FileNotFoundException if there is no bundle for the key pair
+   * @throws KeyStorageException if an unexpected error occurs in opening the
+   *    stream
+   * @throws IOException if an I/O error occurs
+   */
+  protected InputStream openBundleStream(String id)
+      throws FileNotFoundException, KeyStorageException, IOException {
+    throw new FileNotFoundException(id);
+  }
+
   /**
    * Open an input stream to read the private key data.
    * @param id ID of the key to be read
@@ -160,4 +689,247 @@ public abstract class AbstractKeyPairStorage implements KeyPairStorage {
   protected abstract InputStream openCACertificateStream(String id)
       throws FileNotFoundException, KeyStorageException, IOException;
 
+  /**
+   * A cached key pair.
+   */
+  private static final class CachedKeyPair {
+
+    final KeyPairInfo keyPair;
+    final Object version;
+    final AtomicLong nextCheck;
+
+    CachedKeyPair(KeyPairInfo keyPair, Object version, long nextCheck) {
+      this.keyPair = keyPair;
+      this.version = version;
+      this.nextCheck = new AtomicLong(nextCheck);
+    }
+
+  }
+
+  /**
+   * The fetches of the separate files of a key pair.
+   */
+  private static final class SeparateFiles {
+
+    final CompletableFuture<byte[]> keyData;
+    final CompletableFuture<byte[]> certData;
+    final CompletableFuture<byte[]> caData;
+
+    SeparateFiles(CompletableFuture<byte[]> keyData,
+        CompletableFuture<byte[]> certData,
+        CompletableFuture<byte[]> caData) {
+      this.keyData = keyData;
+      this.certData = certData;
+      this.caData = caData;
+    }
+
+  }
+
+  /**
+   * The versions of the objects read in retrieving a key pair.
+   */
+  private static final class FetchedVersions {
+
+    volatile boolean bundled;
+    volatile Object bundle;
+    volatile Object privateKey;
+    volatile Object certificate;
+    volatile Object caCertificates;
+
+    /**
+     * Gets the version of the retrieved key pair, in the form described
+     * for {@link AbstractKeyPairStorage#hasStreamVersions()}.
+     * @return version token or {@code null} if the version of an object
+     *    that was read is unknown
+     */
+    Object toVersion() {
+      if (bundled) {
+        return bundle != null ? Collections.singletonList(bundle) : null;
+      }
+      if (privateKey == null || certificate == null) return null;
+      return Arrays.asList(privateKey, certificate, caCertificates);
+    }
+
+  }
+
+  /**
+   * A fetch of some component of a key pair.
+   * @param <T> fetched type
+   */
+  @FunctionalInterface
+  private interface Fetch<T> {
+    T call() throws IOException, KeyStorageException;
+  }
+
+  /**
+   * A group of concurrent fetches that fails as a whole when any of its
+   * fetches fails.
+   */
+  private static final class FetchGroup {
+
+    private final List<CompletableFuture<?>> futures = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private final Executor executor;
+    private final FetchGroup parent;
+
+    FetchGroup(Executor executor) {
+      this(executor, null);
+    }
+
+    private FetchGroup(Executor executor, FetchGroup parent) {
+      this.executor = executor;
+      this.parent = parent;
+    }
+
+    /**
+     * Creates a group for fetches whose results may turn out to be
+     * unnecessary.
+     * <p>
+     * The fetches of the new group are skipped when this group fails, but
+     * a failure of the new group does not cause this group to fail.
+     *
+     * @return fetch group
+     */
+    FetchGroup speculative() {
+      return new FetchGroup(executor, this);
+    }
+
+    /**
+     * Submits a fetch for execution.
+     * @param fetch the fetch to submit
+     * @param <T> fetched type
+     * @return future result of the fetch, which completes with {@code null}
+     *    if the fetch fails or is skipped
+     */
+    <T> CompletableFuture<T> submit(Fetch<T> fetch) {
+      final CompletableFuture<T> future = new CompletableFuture<>();
+      futures.add(future);
+      try {
+        executor.execute(() -> run(fetch, future));
+      }
+      catch (RejectedExecutionException ex) {
+        rejected(future, ex);
+      }
+      return future;
+    }
+
+    /**
+     * Submits a fetch for execution after other fetches have completed.
+     * @param first a prerequisite fetch
+     * @param second another prerequisite fetch
+     * @param fetch the fetch to submit
+     * @param <T> fetched type
+     * @return future result of the fetch, which completes with {@code null}
+     *    if the fetch fails or is skipped
+     */
+    <T> CompletableFuture<T> submitAfter(CompletableFuture<?> first,
+        CompletableFuture<?> second, Fetch<T> fetch) {
+      final CompletableFuture<T> future = new CompletableFuture<>();
+      futures.add(future);
+      CompletableFuture.allOf(first, second)
+          .thenRunAsync(() -> run(fetch, future), executor)
+          .whenComplete((result, ex) -> {
+            if (ex != null) {
+              rejected(future, ex instanceof CompletionException ?
+                  ex.getCause() : ex);
+            }
+          });
+      return future;
+    }
+
+    /**
+     * Records the failure of a fetch that could not be run, and completes
+     * its future so that the group does not wait for it.
+     * @param future future result of the fetch
+     * @param ex the cause of the failure
+     */
+    private void rejected(CompletableFuture<?> future, Throwable ex) {
+      failure.compareAndSet(null,
+          new KeyStorageException("cannot run fetch: " + ex, ex));
+      future.complete(null);
+    }
+
+    private <T> void run(Fetch<T> fetch, CompletableFuture<T> future) {
+      if (isFailed()) {
+        future.complete(null);
+        return;
+      }
+      try {
+        future.complete(fetch.call());
+      }
+      catch (Throwable ex) {
+        failure.compareAndSet(null, ex);
+        future.complete(null);
+      }
+    }
+
+    /**
+     * Waits for all fetches in this group to complete.
+     * @throws IOException if a fetch failed with an I/O error
+     * @throws KeyStorageException if a fetch failed with a storage error
+     */
+    void await() throws IOException, KeyStorageException {
+      awaitQuietly();
+      throwFailure();
+    }
+
+    /**
+     * Waits for a fetch in this group to complete.
+     * @param future future result of the fetch
+     * @param <T> fetched type
+     * @return result of the fetch
+     * @throws IOException if a fetch in this group failed with an I/O error
+     *    before the given fetch produced a result
+     * @throws KeyStorageException if a fetch in this group failed with a
+     *    storage error before the given fetch produced a result
+     */
+    <T> T join(CompletableFuture<T> future)
+        throws IOException, KeyStorageException {
+      final T result = future.join();
+      if (result == null) {
+        throwFailure();
+      }
+      return result;
+    }
+
+    private boolean isFailed() {
+      return failure.get() != null || parent != null && parent.isFailed();
+    }
+
+    /**
+     * Throws the failure of this group, if any.
+     * @throws IOException if a fetch failed with an I/O error
+     * @throws KeyStorageException if a fetch failed with a storage error
+     */
+    void throwFailure() throws IOException, KeyStorageException {
+      final Throwable ex = failure.get();
+      if (ex == null) return;
+      if (ex instanceof IOException) throw (IOException) ex;
+      if (ex instanceof KeyStorageException) throw (KeyStorageException) ex;
+      if (ex instanceof RuntimeException) throw (RuntimeException) ex;
+      if (ex instanceof Error) throw (Error) ex;
+      throw new KeyStorageException(ex);
+    }
+
+    /**
+     * Waits for all fetches in this group to complete, ignoring failures.
+     */
+    void awaitQuietly() {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+          .join();
+    }
+
+  }
+
+  /**
+   * A holder for the default executor, which is created on first use.
+   */
+  private static class DefaultExecutor {
+
+    static final ExecutorService INSTANCE = Executors.newCachedThreadPool(
+        new DaemonThreadFactory("s2ks-key-pair-fetch-"));
+
+  }
+
 }
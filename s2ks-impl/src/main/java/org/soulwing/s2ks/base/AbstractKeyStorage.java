@@ -19,9 +19,16 @@
 package org.soulwing.s2ks.base;import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import org.soulwing.s2ks.KeyStorage;
 import org.soulwing.s2ks.KeyStorageException;
@@ -31,13 +38,68 @@ import org.soulwing.s2ks.Metadata;
 import org.soulwing.s2ks.MetadataUnwrapException;
 import org.soulwing.s2ks.NoSuchKeyException;
 import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.jfr.StorageEvent;
+import org.soulwing.s2ks.jfr.StorageEventType;
+import org.soulwing.s2ks.spi.MetricsListener;
 
 /**
  * An abstract base for {@link KeyStorage} implementations.
+ * <p>
+ * When a {@linkplain #setNegativeLookupTtl(Duration) negative lookup TTL} is
+ * set, the IDs of keys found not to exist by {@link #retrieve(String)} or
+ * {@link #exists(String)} are remembered for that interval, and further
+ * lookups of the same IDs are answered without consulting storage. A key
+ * that is stored or deleted using this instance is forgotten immediately.
+ * At most {@linkplain #setNegativeLookupLimit(int) a limited number} of
+ * absent keys are remembered, since the IDs that are looked up may be
+ * supplied by untrusted callers.
+ * <p>
+ * A storage instance can be configured to be {@linkplain #setVersioned(boolean)
+ * versioned}, in which case each key is stored under a version ID of the form
+ * {@code id@vN}, and a small pointer object records the current version of
+ * the key. Retrieving a key by its ID retrieves its current version; a
+ * specific version can be retrieved using its version ID. Because a version
+ * is never overwritten, and a version ID is never reused, even after the key
+ * is deleted, a cache can hold a version indefinitely, while the
+ * pointer, which does change, is {@linkplain #setVersionPointerTtl(Duration)
+ * cached briefly} and then read again from storage.
+ *
  * @author Carl Harris
  */
 public abstract class AbstractKeyStorage implements KeyStorage {
 
+  static final String RETRIEVE = "retrieve";
+  static final String RETRIEVE_OPEN = "retrieve.open";
+  static final String RETRIEVE_DECODE = "retrieve.decode";
+  static final String RETRIEVE_WRAPPER_KEY = "retrieve.wrapperKey";
+  static final String RETRIEVE_UNWRAP = "retrieve.unwrap";
+  static final String RETRIEVE_METADATA = "retrieve.metadata";
+  static final String RETRIEVE_BYTES = "retrieve.bytes";
+  static final String EXISTS = "exists";
+  static final String RESOLVE = "resolve";
+
+  /**
+   * Separator between a key ID and its version number in a version ID.
+   */
+  public static final String VERSION_SEPARATOR = "@v";
+
+  /**
+   * Default maximum number of absent keys that are remembered.
+   */
+  public static final int DEFAULT_NEGATIVE_LOOKUP_LIMIT = 10000;
+
+  /**
+   * Default interval for which the current version of a key is cached.
+   */
+  public static final Duration DEFAULT_VERSION_POINTER_TTL =
+      Duration.ofSeconds(5);
+
+  static final String VERSION_POINTER_SUFFIX = ".version";
+  static final String VERSION_POINTER_ALGORITHM = "VERSION";
+  static final String VERSION_DELETED_HEADER = "Deleted";
+
+  private final String metricsSource = getClass().getSimpleName();
+
   private final BlobEncoder blobEncoder;
   final KeyEncoder keyEncoder;
   final KeyWrapOperator keyWrapOperator;
@@ -45,6 +107,21 @@ public abstract class AbstractKeyStorage implements KeyStorage {
   final MetadataEncoder metadataEncoder;
   final MetadataRecognizer metadataRecognizer;
 
+  private volatile MetricsListener metricsListener =
+      MetricsListener.getDefault();
+
+  private final ConcurrentMap<String, Long> missingKeys =
+      new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+  private volatile long negativeLookupTtl = -1;
+  private volatile int negativeLookupLimit = DEFAULT_NEGATIVE_LOOKUP_LIMIT;
+
+  private final ConcurrentMap<String, VersionPointer> versionPointers =
+      new ConcurrentHashMap<>();
+  private volatile boolean versioned;
+  private volatile long versionPointerTtl =
+      DEFAULT_VERSION_POINTER_TTL.toNanos();
+
   protected AbstractKeyStorage(
       BlobEncoder blobEncoder,
       KeyWrapOperator keyWrapOperator,
@@ -68,6 +145,343 @@ public abstract class AbstractKeyStorage implements KeyStorage {
     return blobEncoder;
   }
 
+  /**
+   * Gets the listener to which timings for storage operations are reported.
+   * @return metrics listener
+   */
+  public MetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  /**
+   * Sets the listener to which timings for storage operations are reported.
+   * @param metricsListener metrics listener; replaces the default listener
+   *    obtained from {@link MetricsListener#getDefault()}
+   */
+  public void setMetricsListener(MetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+  }
+
+  /**
+   * Starts a timer for an operation on this storage instance.
+   * @param operation name of the operation
+   * @return timer
+   */
+  StageTimer startTimer(String operation) {
+    return StageTimer.start(metricsListener, metricsSource, operation);
+  }
+
+  /**
+   * Starts a timer for an operation on this storage instance that is also
+   * recorded as a storage event.
+   * @param operation name of the operation
+   * @param eventType type of event to record
+   * @param id identifier of the subject key
+   * @return timer
+   */
+  StageTimer startTimer(String operation, StorageEventType eventType,
+      String id) {
+    return StageTimer.start(metricsListener, metricsSource, operation,
+        eventType, id);
+  }
+
+  /**
+   * Gets the interval for which the absence of a key is remembered.
+   * @return negative lookup TTL or {@code null} if absent keys are not
+   *    remembered
+   */
+  public Duration getNegativeLookupTtl() {
+    final long ttl = negativeLookupTtl;
+    return ttl >= 0 ? Duration.ofNanos(ttl) : null;
+  }
+
+  /**
+   * Sets the interval for which the absence of a key is remembered.
+   * <p>
+   * Keys stored by other storage instances or processes are not observed
+   * until the interval elapses.
+   *
+   * @param ttl negative lookup TTL; {@code null} (the default) disables
+   *    negative lookups and forgets any absent keys
+   */
+  public void setNegativeLookupTtl(Duration ttl) {
+    if (ttl != null && ttl.isNegative()) {
+      throw new IllegalArgumentException("TTL must not be negative");
+    }
+    this.negativeLookupTtl = ttl != null ? ttl.toNanos() : -1;
+    if (ttl == null) {
+      missingKeys.clear();
+    }
+  }
+
+  /**
+   * Gets the maximum number of absent keys that are remembered.
+   * @return number of keys
+   */
+  public int getNegativeLookupLimit() {
+    return negativeLookupLimit;
+  }
+
+  /**
+   * Sets the maximum number of absent keys that are remembered.
+   * <p>
+   * When the limit is reached, absent keys whose TTL has elapsed are
+   * forgotten; if none has elapsed, a newly found absent key is not
+   * remembered.
+   *
+   * @param limit number of keys; defaults to
+   *    {@value #DEFAULT_NEGATIVE_LOOKUP_LIMIT}
+   */
+  public void setNegativeLookupLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative");
+    }
+    this.negativeLookupLimit = limit;
+  }
+
+  /**
+   * Tests whether this storage instance stores versioned keys.
+   * @return {@code true} if keys are versioned
+   */
+  public boolean isVersioned() {
+    return versioned;
+  }
+
+  /**
+   * Sets whether this storage instance stores versioned keys.
+   * <p>
+   * Keys stored before versioning was enabled remain readable by their IDs
+   * until a new version is stored. Keys stored while versioning is enabled
+   * are not readable by their IDs after versioning is disabled, except by
+   * their version IDs.
+   *
+   * @param versioned {@code true} to store and resolve versioned keys;
+   *    the default is {@code false}
+   */
+  public void setVersioned(boolean versioned) {
+    this.versioned = versioned;
+    if (!versioned) {
+      versionPointers.clear();
+    }
+  }
+
+  /**
+   * Gets the interval for which the current version of a key is cached.
+   * @return version pointer TTL
+   */
+  public Duration getVersionPointerTtl() {
+    return Duration.ofNanos(versionPointerTtl);
+  }
+
+  /**
+   * Sets the interval for which the current version of a key is cached.
+   * <p>
+   * A new version stored by another storage instance or process is not
+   * observed until the interval elapses.
+   *
+   * @param ttl version pointer TTL; {@link Duration#ZERO} reads the pointer
+   *    from storage for every lookup; the default is
+   *    {@link #DEFAULT_VERSION_POINTER_TTL}
+   */
+  public void setVersionPointerTtl(Duration ttl) {
+    if (ttl == null || ttl.isNegative()) {
+      throw new IllegalArgumentException("TTL must not be negative");
+    }
+    this.versionPointerTtl = ttl.toNanos();
+    versionPointers.clear();
+  }
+
+  /**
+   * Resolves a key ID to the ID of the current version of the key.
+   * <p>
+   * When this storage instance is not versioned, when {@code id} is already
+   * a version ID, or when no version of the key has been stored, the given
+   * ID is returned unchanged.
+   *
+   * @param id ID of the subject key
+   * @return version ID of the current version of the key, or {@code id}
+   * @throws KeyStorageException if the version pointer cannot be read
+   */
+  public String resolveVersion(String id) throws KeyStorageException {
+    if (!versioned || isVersionId(id)) return id;
+    final VersionPointer cached = versionPointers.get(id);
+    if (cached != null && cached.expiry - System.nanoTime() > 0) {
+      return cached.resolve(id);
+    }
+    final long generation = invalidations.get();
+    try (final StageTimer timer = startTimer(RESOLVE)) {
+      timer.keyId(id);
+      final VersionPointer pointer = new VersionPointer(readVersion(id),
+          System.nanoTime() + versionPointerTtl);
+      if (versionPointerTtl > 0) {
+        versionPointers.put(id, pointer);
+        if (invalidations.get() != generation) {
+          versionPointers.remove(id, pointer);
+        }
+      }
+      timer.succeeded();
+      return pointer.resolve(id);
+    }
+  }
+
+  /**
+   * Tests whether the given ID is a version ID.
+   * @param id the subject ID
+   * @return {@code true} if {@code id} is of the form {@code id@vN}
+   */
+  public static boolean isVersionId(String id) {
+    return versionOf(id) > 0;
+  }
+
+  /**
+   * Gets the version ID for the given version of a key.
+   * @param id ID of the subject key
+   * @param version version number
+   * @return version ID
+   */
+  public static String versionId(String id, int version) {
+    return id + VERSION_SEPARATOR + version;
+  }
+
+  /**
+   * Gets the ID of the key of which the given ID is a version.
+   * @param id key ID or version ID
+   * @return key ID
+   */
+  public static String baseId(String id) {
+    if (!isVersionId(id)) return id;
+    return id.substring(0, id.lastIndexOf(VERSION_SEPARATOR));
+  }
+
+  /**
+   * Gets the version number in a version ID.
+   * @param id the subject ID
+   * @return version number or {@code 0} if {@code id} is not a version ID
+   */
+  static int versionOf(String id) {
+    final int index = id.lastIndexOf(VERSION_SEPARATOR);
+    final int start = index + VERSION_SEPARATOR.length();
+    if (index <= 0 || start == id.length() || id.charAt(start) == '0') {
+      return 0;
+    }
+    for (int i = start; i < id.length(); i++) {
+      if (!Character.isDigit(id.charAt(i))) return 0;
+    }
+    try {
+      return Integer.parseInt(id.substring(start));
+    }
+    catch (NumberFormatException ex) {
+      return 0;
+    }
+  }
+
+  /**
+   * Gets the current version number of a key.
+   * <p>
+   * The version pointer of the key is read from storage, whether or not this
+   * storage instance is versioned.
+   *
+   * @param id ID of the subject key
+   * @return version number or {@code 0} if no version has been stored, or
+   *    the key has been deleted
+   * @throws KeyStorageException if the version pointer cannot be read
+   */
+  public int getCurrentVersion(String id) throws KeyStorageException {
+    return readVersion(id);
+  }
+
+  /**
+   * Reads the current version number of a key from its version pointer.
+   * @param id ID of the subject key
+   * @return version number or {@code 0} if no version has been stored, or
+   *    the key has been deleted
+   * @throws KeyStorageException if the pointer cannot be read or decoded
+   */
+  int readVersion(String id) throws KeyStorageException {
+    final KeyDescriptor pointer = readVersionPointer(id);
+    if (pointer == null || isDeleted(pointer)) return 0;
+    return pointerVersion(id, pointer);
+  }
+
+  /**
+   * Reads the latest version number of a key from its version pointer,
+   * including a version that has since been deleted.
+   * @param id ID of the subject key
+   * @return version number or {@code 0} if no version has been stored
+   * @throws KeyStorageException if the pointer cannot be read or decoded
+   */
+  int readLatestVersion(String id) throws KeyStorageException {
+    final KeyDescriptor pointer = readVersionPointer(id);
+    return pointer != null ? pointerVersion(id, pointer) : 0;
+  }
+
+  private KeyDescriptor readVersionPointer(String id)
+      throws KeyStorageException {
+    final String path = idToPath(id, VERSION_POINTER_SUFFIX);
+    try (final InputStream contentStream = getContentStream(path)) {
+      final List<Blob> blobs = blobEncoder.decode(contentStream);
+      if (blobs.size() != 1) {
+        throw new DecodingException("version pointer must contain one object");
+      }
+      final KeyDescriptor descriptor = keyEncoder.decode(blobs.get(0));
+      if (!VERSION_POINTER_ALGORITHM.equals(descriptor.getAlgorithm())) {
+        throw new DecodingException("`" + descriptor.getAlgorithm()
+            + "` is not a version pointer");
+      }
+      return descriptor;
+    }
+    catch (FileNotFoundException ex) {
+      return null;
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
+
+  private static boolean isDeleted(KeyDescriptor pointer) {
+    return Boolean.parseBoolean(
+        pointer.getMetadata().get(VERSION_DELETED_HEADER));
+  }
+
+  private static int pointerVersion(String id, KeyDescriptor pointer)
+      throws DecodingException {
+    try {
+      final int version = Integer.parseInt(new String(
+          pointer.getKeyData(), StandardCharsets.US_ASCII));
+      if (version <= 0) {
+        throw new DecodingException("invalid version " + version);
+      }
+      return version;
+    }
+    catch (NumberFormatException ex) {
+      throw new DecodingException("invalid version pointer for key " + id);
+    }
+  }
+
+  /**
+   * Encodes the version pointer for a key.
+   * <p>
+   * The pointer is encoded like a key descriptor, so that it can be stored
+   * using the same encoders as keys; its content is the decimal version
+   * number. A pointer for a deleted key retains the latest version number,
+   * so that it is not reused.
+   *
+   * @param version version number of the latest version
+   * @param deleted {@code true} if the key has been deleted
+   * @return blob to be stored as the version pointer
+   * @throws EncodingException if the pointer cannot be encoded
+   */
+  Blob encodeVersion(int version, boolean deleted) throws EncodingException {
+    final KeyDescriptor.Builder builder = KeyDescriptor.builder()
+        .algorithm(VERSION_POINTER_ALGORITHM)
+        .type(KeyDescriptor.Type.SECRET);
+    if (deleted) {
+      builder.metadata(VERSION_DELETED_HEADER, Boolean.TRUE.toString());
+    }
+    return keyEncoder.encode(builder.build(
+        Integer.toString(version).getBytes(StandardCharsets.US_ASCII)));
+  }
+
   @Override
   public final Key retrieve(String id) throws KeyStorageException {
     return retrieveWithMetadata(id).getKey();
@@ -76,18 +490,100 @@ public abstract class AbstractKeyStorage implements KeyStorage {
   @Override
   public KeyWithMetadata retrieveWithMetadata(String id)
       throws KeyStorageException {
-    final String path = idToPath(id, keyEncoder.getPathSuffix());
-    try (final InputStream contentStream = getContentStream(path)) {
-      final List<Blob> blobs = new ArrayList<>(blobEncoder.decode(contentStream));
-      final Blob metadataBlob = extractMetadataBlob(blobs);
-      final List<KeyDescriptor> descriptors = toDescriptors(blobs);
-      final Key wrapperKey = getWrapperKey(descriptors);
-      final Key subjectKey =
-          keyWrapOperator.unwrap(getSubjectKey(descriptors), wrapperKey);
+    try (final StageTimer timer =
+             startTimer(RETRIEVE, StorageEventType.KEY_RETRIEVE, id)) {
+      if (isKnownMissing(id)) {
+        timer.notFound();
+        throw new NoSuchKeyException(id);
+      }
+      final long generation = invalidations.get();
+      final String path =
+          idToPath(resolveVersion(id), keyEncoder.getPathSuffix());
+      try (final InputStream contentStream = getContentStream(path)) {
+        timer.lap(RETRIEVE_OPEN);
+        final List<Blob> blobs =
+            new ArrayList<>(blobEncoder.decode(contentStream));
+        final Blob metadataBlob = extractMetadataBlob(blobs);
+        final List<KeyDescriptor> descriptors = toDescriptors(blobs);
+        timer.lap(RETRIEVE_DECODE);
+        final Key wrapperKey = getWrapperKey(descriptors);
+        timer.lap(RETRIEVE_WRAPPER_KEY);
+        final KeyDescriptor subjectDescriptor = getSubjectKey(descriptors);
+        final Key subjectKey =
+            keyWrapOperator.unwrap(subjectDescriptor, wrapperKey);
+        timer.lap(RETRIEVE_UNWRAP);
+        timer.count(RETRIEVE_BYTES, subjectDescriptor.getKeyDataLength());
 
-      final Metadata metadata = unwrapMetadata(subjectKey, metadataBlob);
+        final Metadata metadata =
+            unwrapMetadata(id, subjectKey, metadataBlob);
+        timer.lap(RETRIEVE_METADATA);
+
+        timer.succeeded();
+        return new KeyWithMetadata(subjectKey, metadata);
+      }
+      catch (FileNotFoundException ex) {
+        timer.notFound();
+        recordMissing(id, generation);
+        throw new NoSuchKeyException(id);
+      }
+      catch (IOException ex) {
+        throw new KeyStorageException(ex.getMessage(), ex);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation tests for the presence of the stored content for the
+   * key, without reading it, and so never needs a wrapper key. For a
+   * versioned key, the content of the current version is tested.
+   */
+  @Override
+  public boolean exists(String id) throws KeyStorageException {
+    if (isKnownMissing(id)) return false;
+    final long generation = invalidations.get();
+    try (final StageTimer timer = startTimer(EXISTS)) {
+      final String path =
+          idToPath(resolveVersion(id), keyEncoder.getPathSuffix());
+      if (contentExists(path)) {
+        timer.succeeded();
+        return true;
+      }
+      timer.notFound();
+      recordMissing(id, generation);
+      return false;
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
 
-      return new KeyWithMetadata(subjectKey, metadata);
+  /**
+   * Determines whether the stored content of a key records that the key was
+   * wrapped using the master key of this storage instance.
+   * <p>
+   * The content is read and decoded, but the key is not unwrapped. Unlike
+   * an attempt to unwrap the key, which for some wrap algorithms succeeds
+   * by chance when the wrong master key is used, the answer is reliable when
+   * it is present.
+   *
+   * @param id ID of the subject key
+   * @return {@code true} if the content records the master key of this
+   *    storage instance, {@code false} if it records a different master
+   *    key, or empty if the content does not record a master key
+   * @throws NoSuchKeyException if the key does not exist
+   * @throws KeyStorageException if the content cannot be read or decoded
+   */
+  public Optional<Boolean> isWrappedWithMasterKey(String id)
+      throws KeyStorageException {
+    final String path =
+        idToPath(resolveVersion(id), keyEncoder.getPathSuffix());
+    try (final InputStream contentStream = getContentStream(path)) {
+      final List<Blob> blobs =
+          new ArrayList<>(blobEncoder.decode(contentStream));
+      extractMetadataBlob(blobs);
+      return checkMasterKey(toDescriptors(blobs));
     }
     catch (FileNotFoundException ex) {
       throw new NoSuchKeyException(id);
@@ -97,8 +593,65 @@ public abstract class AbstractKeyStorage implements KeyStorage {
     }
   }
 
+  @Override
+  public Stream<String> ids(String prefix) throws KeyStorageException {
+    try {
+      return listIds(prefix, keyEncoder.getPathSuffix());
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Forgets that the key with the given ID was found not to exist, and
+   * forgets its cached current version.
+   * @param id ID of the subject key
+   */
+  void forgetLookups(String id) {
+    invalidations.incrementAndGet();
+    missingKeys.remove(id);
+    versionPointers.remove(id);
+  }
+
+  /**
+   * Tests whether the key with the given ID was recently found not to exist.
+   * @param id ID of the subject key
+   * @return {@code true} if the key is known not to exist
+   */
+  private boolean isKnownMissing(String id) {
+    if (negativeLookupTtl < 0) return false;
+    final Long expiry = missingKeys.get(id);
+    if (expiry == null) return false;
+    if (expiry - System.nanoTime() > 0) return true;
+    missingKeys.remove(id, expiry);
+    return false;
+  }
+
+  /**
+   * Remembers that the key with the given ID was found not to exist, unless
+   * any key was stored or deleted since the lookup began, or the limit on
+   * the number of absent keys has been reached.
+   * @param id ID of the subject key
+   * @param generation invalidation count observed before the lookup began
+   */
+  private void recordMissing(String id, long generation) {
+    final long ttl = negativeLookupTtl;
+    if (ttl < 0) return;
+    final long now = System.nanoTime();
+    if (missingKeys.size() >= negativeLookupLimit) {
+      missingKeys.values().removeIf(expiry -> expiry - now <= 0);
+      if (missingKeys.size() >= negativeLookupLimit) return;
+    }
+    missingKeys.put(id, now + ttl);
+    if (invalidations.get() != generation) {
+      missingKeys.remove(id);
+    }
+  }
+
   /**
    * Unwraps the metadata contained in a blob.
+   * @param id identifier of the subject key
    * @param key key for the unwrap operation
    * @param blob blob containing the subject metadata (can be null if there
    *    was no metadata for the retrieved key
@@ -106,11 +659,24 @@ public abstract class AbstractKeyStorage implements KeyStorage {
    * @throws MetadataUnwrapException
    * @throws DecodingException
    */
-  private Metadata unwrapMetadata(Key key, Blob blob)
+  private Metadata unwrapMetadata(String id, Key key, Blob blob)
       throws MetadataUnwrapException, DecodingException {
 
     if (blob == null) return SimpleMetadata.empty();
-    return metadataWrapOperator.unwrap(key, metadataEncoder.decode(blob));
+    final StorageEvent event =
+        StorageEvent.begin(StorageEventType.METADATA_VERIFY);
+    MetricsListener.Outcome outcome = MetricsListener.Outcome.FAILURE;
+    try {
+      final byte[] encoded = metadataEncoder.decode(blob);
+      event.setKeyId(id);
+      event.addBytes(encoded.length);
+      final Metadata metadata = metadataWrapOperator.unwrap(key, encoded);
+      outcome = MetricsListener.Outcome.SUCCESS;
+      return metadata;
+    }
+    finally {
+      event.commit(metricsSource, outcome);
+    }
   }
 
   /**
@@ -163,6 +729,37 @@ public abstract class AbstractKeyStorage implements KeyStorage {
   protected abstract InputStream getContentStream(String path)
       throws IOException;
 
+  /**
+   * Enumerates the IDs of the keys whose virtual paths end with the given
+   * suffix, in ascending lexicographic order of their virtual paths.
+   * <p>
+   * The default implementation does not support enumeration.
+   *
+   * @param prefix prefix that each ID must start with
+   * @param suffix suffix for path
+   * @return stream of IDs
+   * @throws IOException if an error occurs in starting the enumeration, or
+   *    if enumeration is not supported
+   */
+  protected Stream<String> listIds(String prefix, String suffix)
+      throws IOException {
+    throw new IOException("not supported");
+  }
+
+  /**
+   * Tests whether there is content for a key at the given virtual path,
+   * without reading it.
+   * <p>
+   * An implementation backed by a {@link StorageService} typically
+   * delegates to {@link StorageService#exists(String)}.
+   *
+   * @param path virtual path for the subject key
+   * @return {@code true} if content exists at {@code path}
+   * @throws IOException if an error occurs in determining whether the
+   *    content exists
+   */
+  protected abstract boolean contentExists(String path) throws IOException;
+
   /**
    * Gets the wrapper key to use to load the subject key from the specified
    * collection of blobs.
@@ -190,4 +787,43 @@ public abstract class AbstractKeyStorage implements KeyStorage {
   protected abstract KeyDescriptor getSubjectKey(List<KeyDescriptor> descriptors)
       throws KeyUnwrapException, KeyStorageException;
 
+  /**
+   * Determines whether the descriptors of a stored key record that the key
+   * was wrapped using the master key of this storage instance.
+   * <p>
+   * The default implementation returns an empty result, for storage that
+   * does not record the master key.
+   *
+   * @param descriptors list of descriptors in the order in which they
+   *    appeared in the content input stream
+   * @return {@code true} if the descriptors record the master key of this
+   *    storage instance, {@code false} if they record a different master
+   *    key, or empty if they do not record a master key
+   * @throws KeyStorageException if an error occurs in identifying the
+   *    master key
+   */
+  protected Optional<Boolean> checkMasterKey(List<KeyDescriptor> descriptors)
+      throws KeyStorageException {
+    return Optional.empty();
+  }
+
+  /**
+   * A cached version pointer.
+   */
+  private static final class VersionPointer {
+
+    final int version;
+    final long expiry;
+
+    VersionPointer(int version, long expiry) {
+      this.version = version;
+      this.expiry = expiry;
+    }
+
+    String resolve(String id) {
+      return version > 0 ? versionId(id, version) : id;
+    }
+
+  }
+
 }
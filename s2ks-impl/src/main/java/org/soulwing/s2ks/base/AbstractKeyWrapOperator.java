@@ -55,10 +55,10 @@ public abstract class AbstractKeyWrapOperator implements KeyWrapOperator {
   public final KeyDescriptor wrap(Key subjectKey, Key wrapperKey)
       throws KeyWrapException {
     try {
-      final Cipher cipher = Cipher.getInstance(wrapAlgorithm);
-      cipher.init(Cipher.WRAP_MODE, wrapperKey);
+      final Cipher cipher = newWrapCipher(wrapperKey);
+      initCipher(cipher, Cipher.WRAP_MODE, wrapperKey, null);
 
-      final String parameters = encodeParameters(cipher);
+      final String parameters = encodeParameters(cipher, wrapperKey);
 
       return KeyDescriptor.builder()
           .algorithm(subjectKey.getAlgorithm())
@@ -70,6 +70,7 @@ public abstract class AbstractKeyWrapOperator implements KeyWrapOperator {
     catch (NoSuchAlgorithmException
           | NoSuchPaddingException
           | InvalidKeyException
+          | InvalidAlgorithmParameterException
           | IllegalBlockSizeException
           | InvalidParameterSpecException ex) {
       throw new KeyWrapException(ex.toString(), ex);
@@ -94,8 +95,7 @@ public abstract class AbstractKeyWrapOperator implements KeyWrapOperator {
 
       final AlgorithmParameterSpec spec = decodeParameters(matcher);
 
-
-      cipher.init(Cipher.UNWRAP_MODE, wrapperKey, spec);
+      initCipher(cipher, Cipher.UNWRAP_MODE, wrapperKey, spec);
 
       return cipher.unwrap(descriptor.getKeyData(), descriptor.getAlgorithm(),
           descriptor.getType() == KeyDescriptor.Type.SECRET ?
@@ -110,6 +110,49 @@ public abstract class AbstractKeyWrapOperator implements KeyWrapOperator {
     }
   }
 
+  /**
+   * Creates the cipher used to wrap a key.
+   * <p>
+   * Subclasses may override this method to use a different transformation
+   * for some kinds of wrapper key, provided that the encoded parameters
+   * describe a key that can be unwrapped using the configured algorithm.
+   *
+   * @param wrapperKey the wrapper key
+   * @return cipher
+   * @throws NoSuchAlgorithmException if thrown by {@link Cipher}
+   * @throws NoSuchPaddingException if thrown by {@link Cipher}
+   */
+  protected Cipher newWrapCipher(Key wrapperKey)
+      throws NoSuchAlgorithmException, NoSuchPaddingException {
+    return Cipher.getInstance(wrapAlgorithm);
+  }
+
+  /**
+   * Initializes the cipher used to wrap or unwrap a key.
+   * <p>
+   * Subclasses may override this method to observe the initialization,
+   * which for some algorithms includes the derivation of the key used by
+   * the cipher.
+   *
+   * @param cipher the subject cipher
+   * @param mode {@link Cipher#WRAP_MODE} or {@link Cipher#UNWRAP_MODE}
+   * @param wrapperKey the wrapper key
+   * @param spec algorithm parameters, or {@code null} to let the cipher
+   *    generate the parameters
+   * @throws InvalidKeyException if thrown by {@code cipher}
+   * @throws InvalidAlgorithmParameterException if thrown by {@code cipher}
+   */
+  protected void initCipher(Cipher cipher, int mode, Key wrapperKey,
+      AlgorithmParameterSpec spec)
+      throws InvalidKeyException, InvalidAlgorithmParameterException {
+    if (spec == null) {
+      cipher.init(mode, wrapperKey);
+    }
+    else {
+      cipher.init(mode, wrapperKey, spec);
+    }
+  }
+
   /**
    * Encodes algorithm parameters to a string.
    * @param cipher the cipher that was just used to wrap a key
@@ -119,6 +162,22 @@ public abstract class AbstractKeyWrapOperator implements KeyWrapOperator {
   protected abstract String encodeParameters(Cipher cipher)
       throws InvalidParameterSpecException;
 
+  /**
+   * Encodes algorithm parameters to a string.
+   * <p>
+   * This implementation delegates to {@link #encodeParameters(Cipher)};
+   * subclasses may override it when the parameters depend on the wrapper key.
+   *
+   * @param cipher the cipher that was just used to wrap a key
+   * @param wrapperKey the wrapper key that was used
+   * @return string-encoded algorithm name and associated parameters
+   * @throws InvalidParameterSpecException if thrown by {@code cipher}
+   */
+  protected String encodeParameters(Cipher cipher, Key wrapperKey)
+      throws InvalidParameterSpecException {
+    return encodeParameters(cipher);
+  }
+
   /**
    * Decodes algorithm parameters from a string.
    * @param dekInfo value of the {@code DEK-Info} key descriptor's metadata
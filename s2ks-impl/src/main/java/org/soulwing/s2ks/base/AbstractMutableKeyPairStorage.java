@@ -0,0 +1,287 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.base;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.soulwing.s2ks.BulkOperationException;
+import org.soulwing.s2ks.KeyPairInfo;
+import org.soulwing.s2ks.KeyPairStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.MutableKeyPairStorage;
+
+/**
+ * An abstract base for {@link MutableKeyPairStorage} implementations.
+ * <p>
+ * A key pair is stored as a {@linkplain #openBundleStream(String) bundle}
+ * containing the private key, encrypted using the password for the key pair,
+ * followed by the certificate chain. Since the bundle is written using a
+ * single {@linkplain #writeBundle(String, byte[]) write} that replaces any
+ * existing bundle, and since a bundle takes precedence over separate files,
+ * readers see either the previous key pair or the new one in its entirety.
+ * Once the bundle is written, any separate files for the key pair are
+ * {@linkplain #deleteSeparateFiles(String) deleted}, so that a superseded
+ * private key does not remain in storage.
+ * <p>
+ * Key pairs are imported using the {@linkplain #getExecutor() executor} that
+ * is used to fetch key pairs, with at most {@link #getImportParallelism()}
+ * key pairs stored concurrently.
+ *
+ * @author Carl Harris
+ */
+public abstract class AbstractMutableKeyPairStorage
+    extends AbstractKeyPairStorage implements MutableKeyPairStorage {
+
+  static final String STORE_KEY_PAIR = "storeKeyPair";
+  static final String STORE_KEY_PAIR_BYTES = "storeKeyPair.bytes";
+
+  static final int DEFAULT_IMPORT_PARALLELISM = 8;
+
+  private static final byte[] KEY_CHECK_DATA =
+      "s2ks key pair check".getBytes(StandardCharsets.US_ASCII);
+
+  private final String metricsSource = getClass().getSimpleName();
+
+  private final PrivateKeyWriter privateKeyWriter;
+  private final CertificateWriter certificateWriter;
+
+  private volatile int importParallelism = DEFAULT_IMPORT_PARALLELISM;
+
+  protected AbstractMutableKeyPairStorage(
+      PrivateKeyLoader privateKeyLoader,
+      CertificateLoader certificateLoader,
+      PrivateKeyWriter privateKeyWriter,
+      CertificateWriter certificateWriter) {
+    super(privateKeyLoader, certificateLoader);
+    this.privateKeyWriter = privateKeyWriter;
+    this.certificateWriter = certificateWriter;
+  }
+
+  /**
+   * Gets the maximum number of key pairs that are stored concurrently by
+   * {@link #importKeyPairs(Iterable)}.
+   * @return import parallelism
+   */
+  public int getImportParallelism() {
+    return importParallelism;
+  }
+
+  /**
+   * Sets the maximum number of key pairs that are stored concurrently by
+   * {@link #importKeyPairs(Iterable)}.
+   * @param importParallelism import parallelism; must be positive
+   */
+  public void setImportParallelism(int importParallelism) {
+    if (importParallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+    this.importParallelism = importParallelism;
+  }
+
+  @Override
+  public void storeKeyPair(KeyPairInfo keyPair) throws KeyStorageException {
+    final String id = keyPair.getId();
+    final List<X509Certificate> certificates = keyPair.getCertificates();
+    if (id == null) {
+      throw new IllegalArgumentException("key pair ID is required");
+    }
+    if (certificates.isEmpty()) {
+      throw new IllegalArgumentException("at least one certificate is required");
+    }
+    if (!isKeyForCertificate(keyPair.getPrivateKey(), certificates.get(0))) {
+      throw new IllegalArgumentException(
+          "private key does not match the first certificate");
+    }
+    try (final StageTimer timer = StageTimer.start(getMetricsListener(),
+        metricsSource, STORE_KEY_PAIR)) {
+      final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      final char[] password = getPassword(id);
+      try {
+        privateKeyWriter.write(keyPair.getPrivateKey(), password,
+            outputStream);
+      }
+      finally {
+        Arrays.fill(password, (char) 0);
+      }
+      certificateWriter.write(certificates, outputStream);
+      final byte[] content = outputStream.toByteArray();
+      writeBundle(id, content);
+      invalidate(id);
+      deleteSeparateFiles(id);
+      timer.count(STORE_KEY_PAIR_BYTES, content.length);
+      timer.succeeded();
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  public void importKeyPairs(Iterable<KeyPairInfo> keyPairs)
+      throws KeyStorageException {
+    final int parallelism = importParallelism;
+    final Semaphore permits = new Semaphore(parallelism);
+    final Map<String, KeyStorageException> failures =
+        Collections.synchronizedMap(new LinkedHashMap<>());
+    int count = 0;
+    try {
+      for (final KeyPairInfo keyPair : keyPairs) {
+        permits.acquire();
+        count++;
+        try {
+          getExecutor().execute(() -> {
+            try {
+              storeKeyPair(keyPair);
+            }
+            catch (Throwable ex) {
+              failures.put(keyPair.getId(),
+                  AbstractMutableKeyStorage.storageException(ex));
+            }
+            finally {
+              permits.release();
+            }
+          });
+        }
+        catch (RejectedExecutionException ex) {
+          failures.put(keyPair.getId(),
+              AbstractMutableKeyStorage.storageException(ex));
+          permits.release();
+        }
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new KeyStorageException("import interrupted", ex);
+    }
+    finally {
+      permits.acquireUninterruptibly(parallelism);
+    }
+    if (!failures.isEmpty()) {
+      throw new BulkOperationException("store", "key pairs", failures,
+          count);
+    }
+  }
+
+  /**
+   * Tests whether a private key corresponds to the public key of a
+   * certificate, by verifying a signature made using the private key.
+   * @param privateKey the subject private key
+   * @param certificate the subject certificate
+   * @return {@code true} if the keys correspond, or if no signature algorithm
+   *    is available with which to test them
+   */
+  private static boolean isKeyForCertificate(PrivateKey privateKey,
+      X509Certificate certificate) {
+    final PublicKey publicKey = certificate.getPublicKey();
+    final String algorithm = keyAlgorithm(privateKey);
+    if (!algorithm.equals(keyAlgorithm(publicKey))) {
+      return false;
+    }
+    final Signature signer;
+    try {
+      signer = Signature.getInstance(signatureAlgorithm(algorithm));
+      signer.initSign(privateKey);
+    }
+    catch (NoSuchAlgorithmException | InvalidKeyException ex) {
+      assert true;  // cannot test this type of key
+      return true;
+    }
+    try {
+      signer.update(KEY_CHECK_DATA);
+      final byte[] signature = signer.sign();
+      final Signature verifier = Signature.getInstance(signer.getAlgorithm());
+      verifier.initVerify(publicKey);
+      verifier.update(KEY_CHECK_DATA);
+      return verifier.verify(signature);
+    }
+    catch (GeneralSecurityException ex) {
+      return false;
+    }
+  }
+
+  private static String keyAlgorithm(Key key) {
+    final String algorithm = key.getAlgorithm();
+    return "ECDSA".equals(algorithm) ? "EC" : algorithm;
+  }
+
+  private static String signatureAlgorithm(String keyAlgorithm) {
+    switch (keyAlgorithm) {
+      case "RSA":
+        return "SHA256withRSA";
+      case "EC":
+        return "SHA256withECDSA";
+      case "DSA":
+        return "SHA256withDSA";
+      default:
+        return keyAlgorithm;
+    }
+  }
+
+  /**
+   * Writes the bundle for a key pair, replacing any existing bundle and
+   * taking precedence over any separate files for the key pair.
+   * <p>
+   * The write must be atomic; a concurrent reader must see either the
+   * previous bundle (or separate files) or the complete new bundle.
+   *
+   * @param id ID of the key pair
+   * @param content bundle content
+   * @throws KeyStorageException if an unexpected error occurs in writing the
+   *    bundle
+   * @throws IOException if an I/O error occurs
+   * @see KeyPairStorage#BUNDLE_FILE_NAME
+   */
+  protected abstract void writeBundle(String id, byte[] content)
+      throws KeyStorageException, IOException;
+
+  /**
+   * Deletes the separate private key, certificate, and CA certificate files
+   * for a key pair, after its bundle has been written.
+   * <p>
+   * This implementation does nothing, leaving any separate files in place,
+   * where they are hidden by the bundle. Storage implementations that
+   * support separate files should override it.
+   *
+   * @param id ID of the key pair
+   * @throws KeyStorageException if an unexpected error occurs in deleting
+   *    the files
+   * @throws IOException if an I/O error occurs
+   */
+  protected void deleteSeparateFiles(String id)
+      throws KeyStorageException, IOException {
+  }
+
+}
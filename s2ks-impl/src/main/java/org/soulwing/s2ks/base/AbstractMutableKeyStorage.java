@@ -19,21 +19,95 @@
 package org.soulwing.s2ks.base;import java.io.IOException;
 import java.security.Key;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.soulwing.s2ks.BulkOperationException;
 import org.soulwing.s2ks.KeyStorageException;
 import org.soulwing.s2ks.KeyWithMetadata;
 import org.soulwing.s2ks.KeyWrapException;
 import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.NoSuchKeyException;
 import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.jfr.StorageEventType;
 
 /**
  * An abstract base for {@link MutableKeyStorage} implementations.
+ * <p>
+ * By default, a new wrapper key is obtained for each key that is stored.
+ * A storage instance can be configured to {@linkplain #setWrapperKeyReuse(int)
+ * reuse} each wrapper key for a number of keys, which reduces the cost of
+ * storing many keys when obtaining a wrapper key is expensive; e.g. when
+ * each wrapper key is a data key generated by a remote key management
+ * service.
+ * <p>
+ * Keys stored using {@link #storeAll(Map)} are wrapped concurrently using
+ * the {@linkplain #getWrapExecutor() wrap executor}, and are then written
+ * using {@link #storeContents(Map)}, which allows the subclass to issue the
+ * writes concurrently or in a batch.
+ * <p>
+ * Components that cache keys, or cache the fact that a key does not exist,
+ * can register an {@linkplain #addInvalidationListener(Consumer) invalidation
+ * listener}, which is notified of the ID of each key that is stored or
+ * deleted.
+ * <p>
+ * When the storage instance is {@linkplain #setVersioned(boolean) versioned},
+ * storing a key writes a new version of the key, and then updates its
+ * version pointer. The version pointer is updated while holding a lock
+ * that serializes stores of the same key using this storage instance. Each
+ * version is created only if it does not already exist, so that stores of
+ * the same key by different storage instances or processes never write the
+ * same version; the last pointer written determines the current version.
+ * Deleting a versioned key deletes all of its versions, and marks its
+ * version pointer as deleted, so that its version IDs are never reused.
+ *
  * @author Carl Harris
  */
 public abstract class AbstractMutableKeyStorage extends AbstractKeyStorage
     implements MutableKeyStorage {
 
+  static final String STORE = "store";
+  static final String STORE_WRAPPER_KEY = "store.wrapperKey";
+  static final String STORE_WRAP = "store.wrap";
+  static final String STORE_METADATA = "store.metadata";
+  static final String STORE_ENCODE = "store.encode";
+  static final String STORE_WRITE = "store.write";
+  static final String STORE_BYTES = "store.bytes";
+  static final String STORE_ALL = "storeAll";
+  static final String STORE_ALL_WRAP = "storeAll.wrap";
+  static final String STORE_ALL_WRITE = "storeAll.write";
+  static final String STORE_ALL_KEYS = "storeAll.keys";
+  static final String DELETE = "delete";
+  static final String DELETE_ALL = "deleteAll";
+  static final String DELETE_ALL_KEYS = "deleteAll.keys";
+
+  private static final int VERSION_LOCK_STRIPES = 64;
+
+  private final Object wrapperKeyLock = new Object();
+  private final Object[] versionLocks = new Object[VERSION_LOCK_STRIPES];
+
+  private volatile int wrapperKeyReuse = 1;
+  private SharedWrapperKey sharedWrapperKey;
+
+  private volatile Executor wrapExecutor;
+
+  private final List<Consumer<String>> invalidationListeners =
+      new CopyOnWriteArrayList<>();
+
   protected AbstractMutableKeyStorage(
       BlobEncoder blobEncoder,
       KeyWrapOperator keyWrapOperator,
@@ -43,6 +117,84 @@ public abstract class AbstractMutableKeyStorage extends AbstractKeyStorage
       MetadataRecognizer metadataRecognizer) {
     super(blobEncoder, keyWrapOperator, keyEncoder, metadataWrapOperator,
         metadataRecognizer, metadataEncoder);
+    for (int i = 0; i < versionLocks.length; i++) {
+      versionLocks[i] = new Object();
+    }
+  }
+
+  /**
+   * Gets the maximum number of keys that are wrapped using the same
+   * wrapper key.
+   * @return number of keys
+   */
+  public int getWrapperKeyReuse() {
+    return wrapperKeyReuse;
+  }
+
+  /**
+   * Sets the maximum number of keys that are wrapped using the same
+   * wrapper key.
+   * <p>
+   * Any wrapper key that is currently being reused is retired, and is
+   * destroyed as soon as the stores in progress that use it complete.
+   *
+   * @param wrapperKeyReuse number of keys; {@code 1} (the default) obtains
+   *    a new wrapper key for each key that is stored
+   */
+  public void setWrapperKeyReuse(int wrapperKeyReuse) {
+    if (wrapperKeyReuse < 1) {
+      throw new IllegalArgumentException("wrapper key reuse must be positive");
+    }
+    synchronized (wrapperKeyLock) {
+      this.wrapperKeyReuse = wrapperKeyReuse;
+      if (sharedWrapperKey != null) {
+        sharedWrapperKey.retire();
+        sharedWrapperKey = null;
+      }
+    }
+  }
+
+  /**
+   * Gets the executor used to wrap keys stored using {@link #storeAll(Map)}.
+   * @return executor
+   */
+  public Executor getWrapExecutor() {
+    final Executor executor = this.wrapExecutor;
+    return executor != null ? executor : DefaultExecutor.INSTANCE;
+  }
+
+  /**
+   * Sets the executor used to wrap keys stored using {@link #storeAll(Map)}.
+   * @param wrapExecutor executor; replaces the default shared pool of daemon
+   *    threads, which has one thread for each available processor
+   */
+  public void setWrapExecutor(Executor wrapExecutor) {
+    this.wrapExecutor = wrapExecutor;
+  }
+
+  /**
+   * Registers a listener that is notified of the ID of each key that is
+   * stored or deleted using this storage instance.
+   * <p>
+   * A listener is notified after the key has been written or removed, and
+   * also when the attempt fails, since the stored state of the key is then
+   * unknown. A listener should discard any cached copy of the key, as well
+   * as any cached record that the key does not exist. A listener is invoked
+   * on the thread that performed the operation, and must not block.
+   *
+   * @param listener the listener to register
+   */
+  public void addInvalidationListener(Consumer<String> listener) {
+    invalidationListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener previously registered using
+   * {@link #addInvalidationListener(Consumer)}.
+   * @param listener the listener to remove
+   */
+  public void removeInvalidationListener(Consumer<String> listener) {
+    invalidationListeners.remove(listener);
   }
 
   @Override
@@ -50,31 +202,445 @@ public abstract class AbstractMutableKeyStorage extends AbstractKeyStorage
     store(id, new KeyWithMetadata(key, SimpleMetadata.empty()));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * When this storage instance is versioned and {@code id} is not a version
+   * ID, the key is stored as a new version, which becomes the current
+   * version of the key.
+   */
   @Override
   public void store(String id, KeyWithMetadata keyWithMetadata)
       throws KeyStorageException {
+    if (isVersioned() && !isVersionId(id)) {
+      storeVersion(id, keyWithMetadata);
+      return;
+    }
+    final String path = idToPath(id, keyEncoder.getPathSuffix());
+    try (final StageTimer timer =
+             startTimer(STORE, StorageEventType.KEY_STORE, id)) {
+      final List<Blob> blobs = wrapContent(keyWithMetadata, timer);
+      try {
+        storeContent(blobs, path);
+      }
+      finally {
+        invalidate(id);
+      }
+      timer.lap(STORE_WRITE);
+      timer.succeeded();
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * When this storage instance is versioned, each key is stored in turn
+   * using {@link #store(String, KeyWithMetadata)}.
+   */
+  @Override
+  public void storeAll(Map<String, KeyWithMetadata> keys)
+      throws KeyStorageException {
+    if (isVersioned()) {
+      final Map<String, KeyStorageException> failures = new LinkedHashMap<>();
+      for (final Map.Entry<String, KeyWithMetadata> entry : keys.entrySet()) {
+        try {
+          store(entry.getKey(), entry.getValue());
+        }
+        catch (KeyStorageException ex) {
+          failures.put(entry.getKey(), ex);
+        }
+      }
+      if (!failures.isEmpty()) {
+        throw new BulkOperationException("store", "keys", failures,
+            keys.size());
+      }
+      return;
+    }
+    final Map<String, KeyStorageException> failures =
+        Collections.synchronizedMap(new LinkedHashMap<>());
+    try (final StageTimer timer = startTimer(STORE_ALL)) {
+      final Executor executor = getWrapExecutor();
+      final Map<String, CompletableFuture<List<Blob>>> wrapped =
+          new LinkedHashMap<>();
+      keys.forEach((id, keyWithMetadata) -> {
+        try {
+          wrapped.put(id, CompletableFuture.supplyAsync(
+              () -> wrapContent(id, keyWithMetadata), executor));
+        }
+        catch (RejectedExecutionException ex) {
+          failures.put(id, storageException(ex));
+        }
+      });
+
+      final Map<String, List<Blob>> contents = new LinkedHashMap<>();
+      final Map<String, String> pathToId = new HashMap<>();
+      wrapped.forEach((id, future) -> {
+        try {
+          final String path = idToPath(id, keyEncoder.getPathSuffix());
+          contents.put(path, future.join());
+          pathToId.put(path, id);
+        }
+        catch (CompletionException ex) {
+          failures.put(id, storageException(ex.getCause()));
+        }
+      });
+      timer.lap(STORE_ALL_WRAP);
+
+      final Map<String, IOException> writeFailures;
+      try {
+        writeFailures = storeContents(contents);
+      }
+      finally {
+        pathToId.values().forEach(this::invalidate);
+      }
+      writeFailures.forEach((path, ex) -> failures.put(
+          pathToId.get(path), new KeyStorageException(ex.getMessage(), ex)));
+      timer.lap(STORE_ALL_WRITE);
+      timer.count(STORE_ALL_KEYS, contents.size() - writeFailures.size());
+      if (failures.isEmpty()) {
+        timer.succeeded();
+      }
+    }
+    if (!failures.isEmpty()) {
+      throw new BulkOperationException("store", "keys", failures,
+          keys.size());
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * When this storage instance is versioned and {@code id} is not a version
+   * ID, the version pointer and all versions of the key are deleted, along
+   * with any content stored for the key before versioning was enabled.
+   */
+  @Override
+  public void delete(String id) throws KeyStorageException {
+    if (isVersioned() && !isVersionId(id)) {
+      deleteVersions(id);
+      return;
+    }
     final String path = idToPath(id, keyEncoder.getPathSuffix());
-    final WrapperKeyResponse response = nextWrapperKey();
-    final KeyDescriptor descriptor =
-        keyWrapOperator.wrap(keyWithMetadata.getKey(), response.getKey());
+    try (final StageTimer timer =
+             startTimer(DELETE, StorageEventType.KEY_DELETE, id)) {
+      try {
+        deleteContent(path);
+      }
+      finally {
+        invalidate(id);
+      }
+      timer.succeeded();
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
 
-    final List<Blob> blobs = new ArrayList<>();
-    if (response.getDescriptor() != null) {
-      blobs.add(keyEncoder.encode(response.getDescriptor()));
+  /**
+   * {@inheritDoc}
+   * <p>
+   * When this storage instance is versioned, each key is deleted in turn
+   * using {@link #delete(String)}.
+   */
+  @Override
+  public void deleteAll(Collection<String> ids) throws KeyStorageException {
+    final Map<String, KeyStorageException> failures = new LinkedHashMap<>();
+    if (isVersioned()) {
+      for (final String id : ids) {
+        try {
+          delete(id);
+        }
+        catch (KeyStorageException ex) {
+          failures.put(id, ex);
+        }
+      }
+      if (!failures.isEmpty()) {
+        throw new BulkOperationException("delete", "keys", failures,
+            ids.size());
+      }
+      return;
     }
-    blobs.add(keyEncoder.encode(descriptor));
-    if (!keyWithMetadata.getMetadata().isEmpty()) {
-      blobs.add(metadataEncoder.encode(
-          metadataWrapOperator.wrap(keyWithMetadata)));
+    try (final StageTimer timer = startTimer(DELETE_ALL)) {
+      final Map<String, String> pathToId = new LinkedHashMap<>();
+      for (final String id : ids) {
+        pathToId.put(idToPath(id, keyEncoder.getPathSuffix()), id);
+      }
+      final Map<String, IOException> deleteFailures;
+      try {
+        deleteFailures = deleteContents(pathToId.keySet());
+      }
+      finally {
+        pathToId.values().forEach(this::invalidate);
+      }
+      deleteFailures.forEach((path, ex) -> failures.put(
+          pathToId.get(path), new KeyStorageException(ex.getMessage(), ex)));
+      timer.count(DELETE_ALL_KEYS, pathToId.size() - deleteFailures.size());
+      if (failures.isEmpty()) {
+        timer.succeeded();
+      }
     }
-    try {
-      storeContent(blobs, path);
+    if (!failures.isEmpty()) {
+      throw new BulkOperationException("delete", "keys", failures,
+          ids.size());
+    }
+  }
+
+  /**
+   * Makes an existing version of a key the current version of the key.
+   * <p>
+   * This allows a tool that copies the versions of a key individually, such
+   * as {@link org.soulwing.s2ks.transfer.KeyMigrator}, to reproduce the
+   * version pointer of the key. The version pointer is written whether or
+   * not this storage instance is versioned.
+   *
+   * @param versionId version ID of the version to make current
+   * @throws IllegalArgumentException if {@code versionId} is not a version
+   *    ID
+   * @throws NoSuchKeyException if the given version does not exist
+   * @throws KeyStorageException if the version pointer cannot be written
+   */
+  public void setCurrentVersion(String versionId) throws KeyStorageException {
+    if (!isVersionId(versionId)) {
+      throw new IllegalArgumentException(
+          "`" + versionId + "` is not a version ID");
+    }
+    final String id = baseId(versionId);
+    synchronized (versionLocks[
+        (id.hashCode() & Integer.MAX_VALUE) % versionLocks.length]) {
+      try {
+        if (!contentExists(
+            idToPath(versionId, keyEncoder.getPathSuffix()))) {
+          throw new NoSuchKeyException(versionId);
+        }
+        storeContent(Collections.singletonList(
+            encodeVersion(versionOf(versionId), false)),
+            idToPath(id, VERSION_POINTER_SUFFIX));
+      }
+      catch (IOException ex) {
+        throw new KeyStorageException(ex.getMessage(), ex);
+      }
+      finally {
+        invalidate(id);
+      }
+    }
+  }
+
+  /**
+   * Stores a key as a new version, and makes it the current version.
+   * <p>
+   * The key is wrapped before the lock for its ID is acquired, so that
+   * stores of the same key wait only for the writes. The new version is
+   * numbered after the latest version recorded by the version pointer,
+   * including versions that have been deleted, and is
+   * {@linkplain #createContent(List, String) created} only if no content
+   * exists for it; when another writer has already created that version, the
+   * next version is tried. A version ID is therefore never reused, even by
+   * storage instances in other processes.
+   *
+   * @param id ID of the subject key
+   * @param keyWithMetadata the subject key and metadata
+   * @throws KeyStorageException if the key cannot be wrapped or written
+   */
+  private void storeVersion(String id, KeyWithMetadata keyWithMetadata)
+      throws KeyStorageException {
+    try (final StageTimer timer =
+             startTimer(STORE, StorageEventType.KEY_STORE, id)) {
+      final List<Blob> blobs = wrapContent(keyWithMetadata, timer);
+      synchronized (versionLocks[
+          (id.hashCode() & Integer.MAX_VALUE) % versionLocks.length]) {
+        int version = readLatestVersion(id);
+        String versionId = null;
+        try {
+          do {
+            versionId = versionId(id, ++version);
+          }
+          while (!createContent(blobs,
+              idToPath(versionId, keyEncoder.getPathSuffix())));
+          storeContent(Collections.singletonList(encodeVersion(version, false)),
+              idToPath(id, VERSION_POINTER_SUFFIX));
+        }
+        finally {
+          if (versionId != null) {
+            invalidate(versionId);
+          }
+          invalidate(id);
+        }
+      }
+      timer.lap(STORE_WRITE);
+      timer.succeeded();
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Deletes all versions of a key.
+   * <p>
+   * The version pointer is not deleted, but is replaced by one that marks
+   * the key as deleted while recording its latest version, so that a key
+   * stored later with the same ID never reuses a version ID. The pointer is
+   * replaced first, so that the key is no longer found by its ID even if
+   * some of its versions cannot be deleted.
+   *
+   * @param id ID of the subject key
+   * @throws KeyStorageException if the versions of the key cannot be
+   *    enumerated, or any of the content cannot be deleted
+   */
+  private void deleteVersions(String id) throws KeyStorageException {
+    final List<String> versionIds;
+    try (final Stream<String> ids =
+             listIds(id + VERSION_SEPARATOR, keyEncoder.getPathSuffix())) {
+      versionIds = ids
+          .filter(versionId -> isVersionId(versionId)
+              && versionId.lastIndexOf(VERSION_SEPARATOR) == id.length())
+          .collect(Collectors.toList());
     }
     catch (IOException ex) {
       throw new KeyStorageException(ex.getMessage(), ex);
     }
+
+    try (final StageTimer timer =
+             startTimer(DELETE, StorageEventType.KEY_DELETE, id)) {
+      final Map<String, IOException> failures;
+      try {
+        int latest = readLatestVersion(id);
+        for (final String versionId : versionIds) {
+          latest = Math.max(latest, versionOf(versionId));
+        }
+        if (latest > 0) {
+          storeContent(Collections.singletonList(encodeVersion(latest, true)),
+              idToPath(id, VERSION_POINTER_SUFFIX));
+        }
+        final List<String> paths = new ArrayList<>();
+        for (final String versionId : versionIds) {
+          paths.add(idToPath(versionId, keyEncoder.getPathSuffix()));
+        }
+        paths.add(idToPath(id, keyEncoder.getPathSuffix()));
+        failures = deleteContents(paths);
+      }
+      finally {
+        versionIds.forEach(this::invalidate);
+        invalidate(id);
+      }
+      if (!failures.isEmpty()) {
+        final IOException ex = failures.values().iterator().next();
+        throw new KeyStorageException(ex.getMessage(), ex);
+      }
+      timer.succeeded();
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Forgets any cached lookups for the key with the given ID, and notifies
+   * each invalidation listener that the key has been stored or deleted.
+   * @param id ID of the subject key
+   */
+  private void invalidate(String id) {
+    forgetLookups(id);
+    for (final Consumer<String> listener : invalidationListeners) {
+      listener.accept(id);
+    }
+  }
+
+  /**
+   * Gets a storage exception that reports the failure of a bulk operation
+   * for a single subject.
+   * @param ex the subject failure
+   * @return {@code ex} if it is a storage exception, otherwise a storage
+   *    exception whose cause is {@code ex}
+   */
+  static KeyStorageException storageException(Throwable ex) {
+    if (ex instanceof KeyStorageException) {
+      return (KeyStorageException) ex;
+    }
+    return new KeyStorageException(ex.getMessage(), ex);
+  }
+
+  /**
+   * Wraps a key and its metadata for a bulk store operation.
+   * @param id identifier of the subject key
+   * @param keyWithMetadata the subject key and metadata
+   * @return blobs to be stored
+   * @throws CompletionException that wraps any exception thrown in wrapping
+   *    the key or its metadata
+   */
+  private List<Blob> wrapContent(String id, KeyWithMetadata keyWithMetadata) {
+    try (final StageTimer timer = startTimer(STORE_ALL_WRAP)) {
+      timer.keyId(id);
+      final List<Blob> blobs = wrapContent(keyWithMetadata, timer);
+      timer.succeeded();
+      return blobs;
+    }
+    catch (KeyStorageException | IOException ex) {
+      throw new CompletionException(ex);
+    }
+  }
+
+  /**
+   * Wraps and encodes a key and its metadata.
+   * @param keyWithMetadata the subject key and metadata
+   * @param timer timer to which the stages of the operation are reported
+   * @return blobs to be stored
+   * @throws KeyStorageException if the key or its metadata cannot be wrapped
+   * @throws IOException if an error occurs in encoding the blobs
+   */
+  private List<Blob> wrapContent(KeyWithMetadata keyWithMetadata,
+      StageTimer timer) throws KeyStorageException, IOException {
+    final SharedWrapperKey wrapperKey = acquireWrapperKey();
+    try {
+      final WrapperKeyResponse response = wrapperKey.response;
+      timer.lap(STORE_WRAPPER_KEY);
+      final KeyDescriptor descriptor = recordMasterKey(
+          keyWrapOperator.wrap(keyWithMetadata.getKey(), response.getKey()));
+      timer.lap(STORE_WRAP);
+      timer.count(STORE_BYTES, descriptor.getKeyDataLength());
+
+      byte[] metadata = null;
+      if (!keyWithMetadata.getMetadata().isEmpty()) {
+        metadata = metadataWrapOperator.wrap(keyWithMetadata);
+        timer.lap(STORE_METADATA);
+      }
+
+      final List<Blob> blobs = new ArrayList<>();
+      if (response.getDescriptor() != null) {
+        blobs.add(keyEncoder.encode(response.getDescriptor()));
+      }
+      blobs.add(keyEncoder.encode(descriptor));
+      if (metadata != null) {
+        blobs.add(metadataEncoder.encode(metadata));
+      }
+      timer.lap(STORE_ENCODE);
+      return blobs;
+    }
     finally {
-      response.destroy();
+      wrapperKey.release();
+    }
+  }
+
+  /**
+   * Acquires a wrapper key for a store operation, reusing the current shared
+   * wrapper key if it has remaining uses.
+   * @return wrapper key, which must be released when the store completes
+   * @throws KeyWrapException if a new wrapper key cannot be obtained
+   */
+  private SharedWrapperKey acquireWrapperKey() throws KeyWrapException {
+    if (wrapperKeyReuse == 1) {
+      return new SharedWrapperKey(nextWrapperKey(), 1).acquire();
+    }
+    synchronized (wrapperKeyLock) {
+      if (sharedWrapperKey == null || !sharedWrapperKey.tryAcquire()) {
+        sharedWrapperKey =
+            new SharedWrapperKey(nextWrapperKey(), wrapperKeyReuse);
+        sharedWrapperKey.tryAcquire();
+      }
+      return sharedWrapperKey;
     }
   }
 
@@ -94,6 +660,24 @@ public abstract class AbstractMutableKeyStorage extends AbstractKeyStorage
    */
   protected abstract WrapperKeyResponse nextWrapperKey() throws KeyWrapException;
 
+  /**
+   * Records the master key of this storage instance in the descriptor of a
+   * key that has just been wrapped, so that it can later be
+   * {@linkplain #checkMasterKey(List) checked} without unwrapping the key.
+   * <p>
+   * The default implementation returns the descriptor unchanged, for storage
+   * that records the master key in the wrapper key descriptor, or that does
+   * not record it.
+   *
+   * @param descriptor descriptor of the wrapped subject key
+   * @return descriptor to be stored
+   * @throws KeyWrapException if the master key cannot be recorded
+   */
+  protected KeyDescriptor recordMasterKey(KeyDescriptor descriptor)
+      throws KeyWrapException {
+    return descriptor;
+  }
+
   /**
    * Stores the contents of the given blobs at the location identified by
    * the given path, overwriting any existing content at that path.
@@ -107,4 +691,146 @@ public abstract class AbstractMutableKeyStorage extends AbstractKeyStorage
   protected abstract void storeContent(List<Blob> blobs, String path)
       throws IOException;
 
+  /**
+   * Stores the contents of the given blobs at the location identified by
+   * the given path, unless content already exists at that path.
+   * <p>
+   * Versions of a key are created using this method, so that a version is
+   * never overwritten. The default implementation tests whether content
+   * exists and then stores it, which does not prevent another writer from
+   * creating the content in between; subclasses should override it to
+   * create the content atomically.
+   *
+   * @param blobs the blobs to be stored
+   * @param path virtual path identifying the storage location
+   * @return {@code true} if the content was created, {@code false} if
+   *    content already exists at the given path
+   * @throws IOException if an error occurs in storing the blob content
+   */
+  protected boolean createContent(List<Blob> blobs, String path)
+      throws IOException {
+    if (contentExists(path)) return false;
+    storeContent(blobs, path);
+    return true;
+  }
+
+  /**
+   * Stores the contents of each of the given lists of blobs at the location
+   * identified by the corresponding path, overwriting any existing content.
+   * <p>
+   * A failure to store the content at one path must not prevent the others
+   * from being stored. The default implementation stores the content for
+   * each path in turn using {@link #storeContent(List, String)}.
+   *
+   * @param contents map of virtual paths to the blobs to be stored at each
+   * @return map of paths to the corresponding exceptions for the content
+   *    that could not be stored; empty if all content was stored
+   */
+  protected Map<String, IOException> storeContents(
+      Map<String, List<Blob>> contents) {
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    contents.forEach((path, blobs) -> {
+      try {
+        storeContent(blobs, path);
+      }
+      catch (IOException ex) {
+        failures.put(path, ex);
+      }
+    });
+    return failures;
+  }
+
+  /**
+   * Deletes the content at the location identified by the given path, if
+   * any.
+   * <p>
+   * The default implementation does not support deletion.
+   *
+   * @param path virtual path identifying the storage location
+   * @throws IOException if an error occurs in deleting the content, or if
+   *    deletion is not supported
+   */
+  protected void deleteContent(String path) throws IOException {
+    throw new IOException("not supported");
+  }
+
+  /**
+   * Deletes the content at each of the locations identified by the given
+   * paths, ignoring any path at which no content exists.
+   * <p>
+   * A failure to delete the content at one path must not prevent the others
+   * from being deleted. The default implementation deletes the content at
+   * each path in turn using {@link #deleteContent(String)}.
+   *
+   * @param paths virtual paths identifying the storage locations
+   * @return map of paths to the corresponding exceptions for the content
+   *    that could not be deleted; empty if all content was deleted
+   */
+  protected Map<String, IOException> deleteContents(Collection<String> paths) {
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    for (final String path : paths) {
+      try {
+        deleteContent(path);
+      }
+      catch (IOException ex) {
+        failures.put(path, ex);
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * A wrapper key that can be used for a limited number of store operations,
+   * and that is destroyed when it has been used for the last time.
+   */
+  private static final class SharedWrapperKey {
+
+    final WrapperKeyResponse response;
+
+    private int remainingUses;
+    private int references;
+
+    SharedWrapperKey(WrapperKeyResponse response, int uses) {
+      this.response = response;
+      this.remainingUses = uses;
+    }
+
+    SharedWrapperKey acquire() {
+      tryAcquire();
+      return this;
+    }
+
+    synchronized boolean tryAcquire() {
+      if (remainingUses == 0) return false;
+      remainingUses--;
+      references++;
+      return true;
+    }
+
+    synchronized void release() {
+      if (--references == 0 && remainingUses == 0) {
+        response.destroy();
+      }
+    }
+
+    synchronized void retire() {
+      remainingUses = 0;
+      if (references == 0) {
+        response.destroy();
+      }
+    }
+
+  }
+
+  /**
+   * A holder for the default wrap executor, which is created on first use.
+   */
+  private static class DefaultExecutor {
+
+    static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new DaemonThreadFactory("s2ks-key-wrap-"));
+
+  }
+
 }
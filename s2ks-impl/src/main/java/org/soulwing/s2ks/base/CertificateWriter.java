@@ -0,0 +1,46 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.base;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import org.soulwing.s2ks.KeyStorageException;
+
+/**
+ * A service that writes a certificate chain to an output stream.
+ *
+ * @author Carl Harris
+ */
+public interface CertificateWriter {
+
+  /**
+   * Writes a certificate chain.
+   * @param certificates the certificates to write, in chain order
+   * @param outputStream stream to which the certificates are written; it is
+   *    not closed by this method
+   * @throws KeyStorageException if a certificate cannot be encoded
+   * @throws IOException if an I/O error occurs in writing to the stream
+   */
+  void write(List<X509Certificate> certificates, OutputStream outputStream)
+      throws KeyStorageException, IOException;
+
+}
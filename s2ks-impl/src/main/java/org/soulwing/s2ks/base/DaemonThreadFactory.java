@@ -0,0 +1,52 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.base;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A factory for the daemon threads of the executors that this library
+ * creates for its own use, so that they never prevent the JVM from exiting.
+ *
+ * @author Carl Harris
+ */
+public final class DaemonThreadFactory implements ThreadFactory {
+
+  private final AtomicInteger count = new AtomicInteger();
+
+  private final String namePrefix;
+
+  /**
+   * Constructs a new instance.
+   * @param namePrefix prefix for thread names, to which a sequence number
+   *    is appended
+   */
+  public DaemonThreadFactory(String namePrefix) {
+    this.namePrefix = namePrefix;
+  }
+
+  @Override
+  public Thread newThread(Runnable r) {
+    final Thread thread = new Thread(r, namePrefix + count.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  }
+
+}
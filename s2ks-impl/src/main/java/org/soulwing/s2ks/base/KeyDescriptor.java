@@ -159,6 +159,22 @@ public final class KeyDescriptor {
     return new Builder();
   }
 
+  /**
+   * Creates a copy of this descriptor with an additional metadata value.
+   * @param name name under which to return the value
+   * @param value string-encoded metadata value
+   * @return new descriptor; this descriptor is unchanged
+   */
+  public KeyDescriptor withMetadata(String name, String value) {
+    final KeyDescriptor descriptor = new KeyDescriptor();
+    descriptor.metadata.putAll(metadata);
+    descriptor.metadata.put(name, value);
+    descriptor.algorithm = algorithm;
+    descriptor.type = type;
+    descriptor.keyData = keyData;
+    return descriptor;
+  }
+
   /**
    * Gets the algorithm that was used to generate the key.
    * @return JCA algorithm name
@@ -183,6 +199,14 @@ public final class KeyDescriptor {
     return Collections.unmodifiableMap(metadata);
   }
 
+  /**
+   * Gets the length of the byte-encoded key data.
+   * @return number of bytes in the encoded key data
+   */
+  public int getKeyDataLength() {
+    return keyData.length;
+  }
+
   /**
    * Gets the byte-encoded key data.
    * <p>
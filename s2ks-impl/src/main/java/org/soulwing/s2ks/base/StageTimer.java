@@ -0,0 +1,145 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.base;
+
+import org.soulwing.s2ks.jfr.StorageEvent;
+import org.soulwing.s2ks.jfr.StorageEventType;
+import org.soulwing.s2ks.spi.MetricsListener;
+
+/**
+ * A timer that reports the elapsed time of an operation and of each of its
+ * stages to a {@link MetricsListener}.
+ * <p>
+ * A timer is started at the beginning of an operation. Each call to
+ * {@link #lap(String)} reports the time elapsed since the previous lap (or
+ * the start) as a successful stage. Closing the timer reports the time
+ * elapsed for the entire operation with its outcome, which is
+ * {@link MetricsListener.Outcome#FAILURE FAILURE} unless otherwise
+ * specified. A timer is intended to be used in a try-with-resources
+ * statement by a single thread.
+ * <p>
+ * A timer may also be associated with a {@link StorageEvent}, which is
+ * committed with the outcome of the operation when the timer is closed.
+ *
+ * @author Carl Harris
+ */
+public final class StageTimer implements AutoCloseable {
+
+  private final MetricsListener listener;
+  private final String source;
+  private final String operation;
+  private final StorageEvent event;
+  private final long start;
+
+  private long lapStart;
+  private MetricsListener.Outcome outcome = MetricsListener.Outcome.FAILURE;
+
+  private StageTimer(MetricsListener listener, String source,
+      String operation, StorageEvent event) {
+    this.listener = listener;
+    this.source = source;
+    this.operation = operation;
+    this.event = event;
+    this.start = System.nanoTime();
+    this.lapStart = start;
+  }
+
+  /**
+   * Starts a new timer.
+   * @param listener listener to which measurements will be reported
+   * @param source simple name of the reporting class
+   * @param operation name of the operation
+   * @return timer
+   */
+  public static StageTimer start(MetricsListener listener, String source,
+      String operation) {
+    return new StageTimer(listener, source, operation,
+        StorageEvent.noop());
+  }
+
+  /**
+   * Starts a new timer associated with a storage event.
+   * @param listener listener to which measurements will be reported
+   * @param source simple name of the reporting class
+   * @param operation name of the operation
+   * @param eventType type of event to record for the operation
+   * @param keyId identifier of the subject key (may be {@code null})
+   * @return timer
+   */
+  public static StageTimer start(MetricsListener listener, String source,
+      String operation, StorageEventType eventType, String keyId) {
+    final StorageEvent event = StorageEvent.begin(eventType);
+    event.setKeyId(keyId);
+    return new StageTimer(listener, source, operation, event);
+  }
+
+  /**
+   * Sets the identifier of the key that is the subject of the operation,
+   * for an operation whose subject is not known when the timer is started.
+   * @param keyId key identifier
+   */
+  public void keyId(String keyId) {
+    event.setKeyId(keyId);
+  }
+
+  /**
+   * Reports the time elapsed since the previous lap as a successful stage.
+   * @param stage name of the stage
+   */
+  public void lap(String stage) {
+    final long now = System.nanoTime();
+    listener.recordTime(source, stage, MetricsListener.Outcome.SUCCESS,
+        now - lapStart);
+    lapStart = now;
+  }
+
+  /**
+   * Reports a number of bytes transferred by the operation.
+   * @param name name of the counter
+   * @param count number of bytes
+   */
+  public void count(String name, long count) {
+    listener.recordCount(source, name, count);
+    event.addBytes(count);
+  }
+
+  /**
+   * Marks the operation as successful.
+   */
+  public void succeeded() {
+    outcome = MetricsListener.Outcome.SUCCESS;
+  }
+
+  /**
+   * Marks the operation as having failed because its subject does not exist.
+   */
+  public void notFound() {
+    outcome = MetricsListener.Outcome.NOT_FOUND;
+  }
+
+  /**
+   * Reports the time elapsed for the entire operation.
+   */
+  @Override
+  public void close() {
+    listener.recordTime(source, operation, outcome, System.nanoTime() - start);
+    event.commit(source, outcome);
+  }
+
+}
@@ -21,7 +21,11 @@ package org.soulwing.s2ks.base;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * An abstraction of a storage service that stores arbitrary objects
@@ -51,6 +55,28 @@ public interface StorageService {
   InputStream getContentStream(String path)
       throws FileNotFoundException, IOException;
 
+  /**
+   * Tests whether an object exists, without retrieving its content.
+   * <p>
+   * The default implementation opens and then closes a stream for the
+   * object's content; implementations should override it to avoid reading
+   * the content.
+   *
+   * @param path path to the subject object
+   * @return {@code true} if the object exists
+   * @throws IOException if an error occurs in determining whether the
+   *    object exists
+   */
+  default boolean exists(String path) throws IOException {
+    try {
+      getContentStream(path).close();
+      return true;
+    }
+    catch (FileNotFoundException ex) {
+      return false;
+    }
+  }
+
   /**
    * Stores the contents of the given blobs as a single object at the location
    * identified by the given path, overwriting any existing content at that path.
@@ -63,4 +89,117 @@ public interface StorageService {
    */
   void storeContent(List<Blob> blobs, String path) throws IOException;
 
+  /**
+   * Stores the contents of the given blobs as a single object at the location
+   * identified by the given path, unless an object already exists at that
+   * path.
+   * <p>
+   * The default implementation tests whether the object exists and then
+   * stores the content, which does not prevent another writer from creating
+   * the object in between; implementations should override it to create the
+   * object atomically.
+   *
+   * @param blobs the blobs to be stored
+   * @param path path identifying the storage location
+   * @return {@code true} if the object was created, {@code false} if an
+   *    object already exists at the given path
+   * @throws IOException if an error occurs in storing the content
+   */
+  default boolean createContent(List<Blob> blobs, String path)
+      throws IOException {
+    if (exists(path)) return false;
+    storeContent(blobs, path);
+    return true;
+  }
+
+  /**
+   * Stores the contents of each of the given lists of blobs as a single
+   * object, overwriting any existing content at each path.
+   * <p>
+   * A failure to store one object does not prevent the others from being
+   * stored. The default implementation stores each object in turn using
+   * {@link #storeContent(List, String)}; implementations may override it to
+   * store objects concurrently or to amortize the cost of making the writes
+   * durable.
+   *
+   * @param contents map of paths to the blobs to be stored at each path
+   * @return map of paths to the corresponding exceptions for each object
+   *    that could not be stored; empty if all objects were stored
+   */
+  default Map<String, IOException> storeContents(
+      Map<String, List<Blob>> contents) {
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    contents.forEach((path, blobs) -> {
+      try {
+        storeContent(blobs, path);
+      }
+      catch (IOException ex) {
+        failures.put(path, ex);
+      }
+    });
+    return failures;
+  }
+
+  /**
+   * Deletes the object at the location identified by the given path, if
+   * such an object exists.
+   * <p>
+   * The default implementation does not support deletion.
+   *
+   * @param path path identifying the storage location
+   * @throws IOException if an error occurs in deleting the object, or if
+   *    deletion is not supported
+   */
+  default void delete(String path) throws IOException {
+    throw new IOException("not supported");
+  }
+
+  /**
+   * Deletes the objects at each of the given paths, ignoring any path at
+   * which no object exists.
+   * <p>
+   * A failure to delete one object does not prevent the others from being
+   * deleted. The default implementation deletes each object in turn using
+   * {@link #delete(String)}; implementations may override it to delete
+   * objects in batches.
+   *
+   * @param paths paths identifying the objects to delete
+   * @return map of paths to the corresponding exceptions for each object
+   *    that could not be deleted; empty if all objects were deleted
+   */
+  default Map<String, IOException> deleteAll(Collection<String> paths) {
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    for (final String path : paths) {
+      try {
+        delete(path);
+      }
+      catch (IOException ex) {
+        failures.put(path, ex);
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Enumerates the IDs of the stored objects whose path names end with the
+   * given suffix.
+   * <p>
+   * IDs are produced in ascending lexicographic order of their path names,
+   * with the suffix removed; i.e. each ID is the inverse of
+   * {@link #idToPath(String, String)}. An error that occurs while the stream
+   * is being consumed is reported as an {@link java.io.UncheckedIOException}.
+   * <p>
+   * The default implementation does not support enumeration.
+   *
+   * @param prefix prefix that each ID must start with
+   * @param suffix name suffix of the objects to enumerate
+   * @return stream of IDs, which should be closed when no longer needed
+   * @throws IOException if an error occurs in starting the enumeration, or
+   *    if enumeration is not supported
+   */
+  default Stream<String> listIds(String prefix, String suffix)
+      throws IOException {
+    throw new IOException("not supported");
+  }
+
 }
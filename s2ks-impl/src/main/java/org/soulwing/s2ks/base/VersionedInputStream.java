@@ -0,0 +1,53 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.base;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * An input stream that reports the version of the stored object that it
+ * reads, such as an ETag obtained in the same request as the content.
+ *
+ * @author Carl Harris
+ */
+public class VersionedInputStream extends FilterInputStream {
+
+  private final Object version;
+
+  /**
+   * Constructs a new instance.
+   * @param in the stream to read
+   * @param version token that represents the version of the object read
+   *    by {@code in}, or {@code null} if the version is unknown
+   */
+  public VersionedInputStream(InputStream in, Object version) {
+    super(in);
+    this.version = version;
+  }
+
+  /**
+   * Gets the version of the object read by this stream.
+   * @return version token or {@code null} if the version is unknown
+   */
+  public Object getVersion() {
+    return version;
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.bc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.SecureRandom;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PKCS8Generator;
+import org.bouncycastle.openssl.jcajce.JcaPKCS8Generator;
+import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8EncryptorBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.util.io.pem.PemGenerationException;
+import org.bouncycastle.util.io.pem.PemWriter;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.base.PrivateKeyWriter;
+
+/**
+ * A {@link PrivateKeyWriter} that writes a private key as a PEM-encoded
+ * PKCS#8 encrypted private key, which can be read by the
+ * {@link BcEncryptedPrivateKeyLoader}.
+ * <p>
+ * The key is encrypted using AES-256-CBC with a key derived from the password
+ * using PBKDF2 with HMAC-SHA256.
+ *
+ * @author Carl Harris
+ */
+public class BcEncryptedPrivateKeyWriter implements PrivateKeyWriter {
+
+  private static final BcEncryptedPrivateKeyWriter INSTANCE =
+      new BcEncryptedPrivateKeyWriter();
+
+  private final Provider cryptoProvider;
+  private final SecureRandom random = new SecureRandom();
+
+  /**
+   * Gets the singleton instance.
+   * @return singleton instance
+   */
+  public static BcEncryptedPrivateKeyWriter getInstance() {
+    return INSTANCE;
+  }
+
+  private BcEncryptedPrivateKeyWriter() {
+    this(new BouncyCastleProvider());
+  }
+
+  private BcEncryptedPrivateKeyWriter(Provider cryptoProvider) {
+    this.cryptoProvider = cryptoProvider;
+  }
+
+  @Override
+  public void write(PrivateKey privateKey, char[] password,
+      OutputStream outputStream) throws KeyStorageException, IOException {
+    try {
+      final JcaPKCS8Generator generator = new JcaPKCS8Generator(privateKey,
+          new JceOpenSSLPKCS8EncryptorBuilder(PKCS8Generator.AES_256_CBC)
+              .setProvider(cryptoProvider)
+              .setRandom(random)
+              .setPRF(PKCS8Generator.PRF_HMACSHA256)
+              .setPasssword(password)
+              .build());
+      final PemWriter writer = new PemWriter(
+          new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+      writer.writeObject(generator.generate());
+      writer.flush();
+    }
+    catch (OperatorCreationException | PemGenerationException ex) {
+      throw new KeyStorageException(ex);
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.bc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemWriter;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.base.CertificateWriter;
+
+/**
+ * A {@link CertificateWriter} that writes PEM-encoded certificates.
+ *
+ * @author Carl Harris
+ */
+public class BcPemCertificateWriter implements CertificateWriter {
+
+  static final String CERTIFICATE_TYPE = "CERTIFICATE";
+
+  private static final BcPemCertificateWriter INSTANCE =
+      new BcPemCertificateWriter();
+
+  /**
+   * Gets the singleton instance.
+   * @return singleton instance
+   */
+  public static BcPemCertificateWriter getInstance() {
+    return INSTANCE;
+  }
+
+  private BcPemCertificateWriter() {}
+
+  @Override
+  public void write(List<X509Certificate> certificates,
+      OutputStream outputStream) throws KeyStorageException, IOException {
+    try {
+      final PemWriter writer = new PemWriter(
+          new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+      for (final X509Certificate certificate : certificates) {
+        writer.writeObject(
+            new PemObject(CERTIFICATE_TYPE, certificate.getEncoded()));
+      }
+      writer.flush();
+    }
+    catch (CertificateEncodingException ex) {
+      throw new KeyStorageException(ex);
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import java.util.Arrays;
+import javax.crypto.SecretKey;
+
+/**
+ * A secret key materialized by a {@link SecureKeyCache} for the duration of
+ * a key operation, whose key material is zeroed when it is destroyed.
+ * <p>
+ * Unlike {@link javax.crypto.spec.SecretKeySpec}, this key can be destroyed.
+ * Each invocation of {@link #getEncoded()} returns a new copy of the key
+ * material, as the {@link java.security.Key} contract requires, and such
+ * copies are not zeroed when this key is destroyed.
+ *
+ * @author Carl Harris
+ */
+final class DestroyableSecretKey implements SecretKey {
+
+  private static final long serialVersionUID = 6346212440376462271L;
+
+  private final String algorithm;
+  private final byte[] encoded;
+
+  private volatile boolean destroyed;
+
+  /**
+   * Constructs a new instance.
+   * @param algorithm key algorithm
+   * @param encoded raw key material; the new key takes ownership of this
+   *    array and zeroes it when destroyed
+   */
+  DestroyableSecretKey(String algorithm, byte[] encoded) {
+    this.algorithm = algorithm;
+    this.encoded = encoded;
+  }
+
+  @Override
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  @Override
+  public String getFormat() {
+    return "RAW";
+  }
+
+  @Override
+  public byte[] getEncoded() {
+    if (destroyed) {
+      throw new IllegalStateException("key has been destroyed");
+    }
+    return encoded.clone();
+  }
+
+  @Override
+  public void destroy() {
+    Arrays.fill(encoded, (byte) 0);
+    destroyed = true;
+  }
+
+  @Override
+  public boolean isDestroyed() {
+    return destroyed;
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+
+import org.soulwing.s2ks.Metadata;
+
+/**
+ * An operation performed using a key held by a {@link SecureKeyCache}.
+ *
+ * @param <R> operation result type
+ * @author Carl Harris
+ */
+@FunctionalInterface
+public interface KeyOperation<R> {
+
+  /**
+   * Applies this operation.
+   * <p>
+   * The given key is valid only for the duration of this method; an
+   * implementation must not retain a reference to it.
+   *
+   * @param key the subject key
+   * @param metadata metadata associated with the subject key
+   * @return operation result
+   * @throws GeneralSecurityException as needed by the operation
+   */
+  R apply(Key key, Metadata metadata) throws GeneralSecurityException;
+
+}
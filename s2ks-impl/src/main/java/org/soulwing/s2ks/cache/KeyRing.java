@@ -0,0 +1,464 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.base.AbstractKeyStorage;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+import org.soulwing.s2ks.base.DaemonThreadFactory;
+
+/**
+ * An immutable snapshot of a set of keys retrieved from a
+ * {@link KeyStorage}, refreshed in the background.
+ * <p>
+ * The keys in the ring are those with the configured IDs, and those whose
+ * IDs start with any of the configured prefixes (e.g. the prefix of a
+ * family of rotated keys). They are retrieved when the ring is
+ * {@linkplain #start() started}, and are then periodically retrieved again
+ * on a background thread. Lookups are served from an immutable map that is
+ * replaced atomically when a refresh finds a changed set of keys, so that a
+ * lookup is a single volatile read followed by a hash lookup, and never
+ * waits for a lock, for storage I/O, or for key decryption. When a key
+ * cannot be retrieved during a refresh, the previously retrieved key
+ * continues to be served; a key that no longer exists is removed.
+ * <p>
+ * When the storage is a {@linkplain AbstractKeyStorage#isVersioned()
+ * versioned} {@link AbstractKeyStorage}, a refresh resolves the current
+ * version of each key, and retrieves only the keys whose version has
+ * changed. When the storage is an {@link AbstractMutableKeyStorage}, a
+ * refresh is also requested whenever a key in the ring is stored or deleted
+ * using the storage.
+ * <p>
+ * Unlike a {@link SecureKeyCache}, a key ring holds JCA key objects on the
+ * heap, so that they can be handed to callers without copying.
+ *
+ * @author Carl Harris
+ */
+public final class KeyRing implements AutoCloseable {
+
+  static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+  private final KeyStorage storage;
+  private final Set<String> ids;
+  private final List<String> prefixes;
+  private final Duration refreshInterval;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+  private final BiConsumer<String, KeyStorageException> failureHandler;
+  private final Consumer<String> invalidationListener = this::invalidated;
+  private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+  private volatile Map<String, Entry> snapshot = Collections.emptyMap();
+  private volatile long generation;
+  private ScheduledFuture<?> refreshTask;
+
+  /**
+   * A builder that constructs a {@link KeyRing}.
+   */
+  public static class Builder {
+
+    private final List<String> ids = new ArrayList<>();
+    private final List<String> prefixes = new ArrayList<>();
+    private KeyStorage storage;
+    private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private ScheduledExecutorService scheduler;
+    private BiConsumer<String, KeyStorageException> failureHandler =
+        (id, ex) -> { };
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage from which keys are retrieved.
+     * @param storage key storage
+     * @return this builder
+     */
+    public Builder storage(KeyStorage storage) {
+      this.storage = storage;
+      return this;
+    }
+
+    /**
+     * Specifies the IDs of keys to hold in the ring.
+     * @param ids key IDs
+     * @return this builder
+     */
+    public Builder ids(String... ids) {
+      this.ids.addAll(Arrays.asList(ids));
+      return this;
+    }
+
+    /**
+     * Specifies ID prefixes of keys to hold in the ring.
+     * @param prefixes key ID prefixes; each refresh holds all keys whose IDs
+     *    start with any of these prefixes
+     * @return this builder
+     */
+    public Builder prefixes(String... prefixes) {
+      this.prefixes.addAll(Arrays.asList(prefixes));
+      return this;
+    }
+
+    /**
+     * Specifies the interval between refreshes of the ring.
+     * @param refreshInterval refresh interval
+     * @return this builder
+     */
+    public Builder refreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+      return this;
+    }
+
+    /**
+     * Specifies the scheduler used to refresh the ring.
+     * <p>
+     * If not specified, the ring creates a scheduler with a single daemon
+     * thread, which is shut down when the ring is closed.
+     *
+     * @param scheduler scheduler
+     * @return this builder
+     */
+    public Builder scheduler(ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    /**
+     * Specifies a handler that is notified when a key cannot be retrieved,
+     * or the keys with a prefix cannot be enumerated, during a refresh.
+     * @param failureHandler handler that accepts the key ID or prefix and
+     *    the exception that occurred
+     * @return this builder
+     */
+    public Builder onRefreshFailure(
+        BiConsumer<String, KeyStorageException> failureHandler) {
+      this.failureHandler = failureHandler;
+      return this;
+    }
+
+    /**
+     * Builds and returns a key ring according to the configuration of this
+     * builder.
+     * @return key ring; it must be started before use
+     */
+    public KeyRing build() {
+      if (storage == null) {
+        throw new IllegalArgumentException("storage is required");
+      }
+      if (ids.isEmpty() && prefixes.isEmpty()) {
+        throw new IllegalArgumentException(
+            "at least one ID or prefix is required");
+      }
+      if (refreshInterval == null || refreshInterval.isNegative()
+          || refreshInterval.isZero()) {
+        throw new IllegalArgumentException(
+            "refresh interval must be positive");
+      }
+      return new KeyRing(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyRing(Builder builder) {
+    this.storage = builder.storage;
+    this.ids = Collections.unmodifiableSet(new LinkedHashSet<>(builder.ids));
+    this.prefixes = Collections.unmodifiableList(
+        new ArrayList<>(new LinkedHashSet<>(builder.prefixes)));
+    this.refreshInterval = builder.refreshInterval;
+    this.ownScheduler = builder.scheduler == null;
+    this.scheduler = ownScheduler ?
+        Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("s2ks-key-ring-refresh-"))
+        : builder.scheduler;
+    this.failureHandler = builder.failureHandler;
+  }
+
+  /**
+   * Retrieves the keys to hold and schedules periodic refresh.
+   * @throws KeyStorageException if any key with a configured ID cannot be
+   *    retrieved, or if the keys with any prefix cannot be enumerated or
+   *    retrieved
+   */
+  public synchronized void start() throws KeyStorageException {
+    if (refreshTask != null) {
+      throw new IllegalStateException("already started");
+    }
+    final Map<String, Entry> entries = new HashMap<>();
+    for (final String id : ids) {
+      entries.put(id, retrieve(id, null));
+    }
+    for (final String prefix : prefixes) {
+      for (final String id : list(prefix)) {
+        try {
+          entries.putIfAbsent(id, retrieve(id, null));
+        }
+        catch (NoSuchKeyException ex) {
+          assert true;  // deleted since it was enumerated
+        }
+      }
+    }
+    snapshot = Collections.unmodifiableMap(entries);
+    generation++;
+    if (storage instanceof AbstractMutableKeyStorage) {
+      ((AbstractMutableKeyStorage) storage)
+          .addInvalidationListener(invalidationListener);
+    }
+    final long interval = refreshInterval.toNanos();
+    refreshTask = scheduler.scheduleWithFixedDelay(this::refresh,
+        interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets a key from the ring.
+   * @param id ID of the subject key
+   * @return key or {@code null} if the ring holds no key with the given ID
+   */
+  public Key get(String id) {
+    final Entry entry = snapshot.get(id);
+    return entry != null ? entry.keyWithMetadata.getKey() : null;
+  }
+
+  /**
+   * Gets a key and its metadata from the ring.
+   * @param id ID of the subject key
+   * @return key and metadata or {@code null} if the ring holds no key with
+   *    the given ID
+   */
+  public KeyWithMetadata getWithMetadata(String id) {
+    final Entry entry = snapshot.get(id);
+    return entry != null ? entry.keyWithMetadata : null;
+  }
+
+  /**
+   * Gets the IDs of the keys in the current snapshot of the ring.
+   * @return immutable set of key IDs
+   */
+  public Set<String> ids() {
+    return snapshot.keySet();
+  }
+
+  /**
+   * Gets the generation of the current snapshot of the ring.
+   * <p>
+   * The generation is incremented each time the snapshot is replaced, so
+   * that a component that derives state from the keys in the ring can
+   * cheaply determine whether any key has been added, changed, or removed.
+   * A snapshot read after the generation is at least as recent as that
+   * generation.
+   *
+   * @return snapshot generation
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Retrieves the keys to hold, replacing the current snapshot if any key
+   * has been added, changed, or removed.
+   * <p>
+   * This method is invoked periodically once the ring is started, and may
+   * also be invoked directly to refresh on demand; e.g. from a listener
+   * that is notified when a key is rotated by another storage instance.
+   */
+  public synchronized void refresh() {
+    final Map<String, Entry> current = snapshot;
+    final Map<String, Entry> entries = new HashMap<>();
+    for (final String id : ids) {
+      refresh(id, current, entries);
+    }
+    for (final String prefix : prefixes) {
+      try {
+        for (final String id : list(prefix)) {
+          if (!entries.containsKey(id)) {
+            refresh(id, current, entries);
+          }
+        }
+      }
+      catch (KeyStorageException ex) {
+        failureHandler.accept(prefix, ex);
+        current.forEach((id, entry) -> {
+          if (id.startsWith(prefix)) entries.putIfAbsent(id, entry);
+        });
+      }
+    }
+    if (!entries.equals(current)) {
+      snapshot = Collections.unmodifiableMap(entries);
+      generation++;
+    }
+  }
+
+  /**
+   * Stops periodic refresh, and stops observing changes made using the
+   * storage.
+   */
+  @Override
+  public synchronized void close() {
+    if (storage instanceof AbstractMutableKeyStorage) {
+      ((AbstractMutableKeyStorage) storage)
+          .removeInvalidationListener(invalidationListener);
+    }
+    if (refreshTask != null) {
+      refreshTask.cancel(false);
+    }
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private void refresh(String id, Map<String, Entry> current,
+      Map<String, Entry> entries) {
+    final Entry previous = current.get(id);
+    try {
+      entries.put(id, retrieve(id, previous));
+    }
+    catch (NoSuchKeyException ex) {
+      assert true;  // key was deleted
+    }
+    catch (KeyStorageException ex) {
+      failureHandler.accept(id, ex);
+      if (previous != null) {
+        entries.put(id, previous);
+      }
+    }
+    catch (RuntimeException ex) {
+      failureHandler.accept(id, new KeyStorageException(ex));
+      if (previous != null) {
+        entries.put(id, previous);
+      }
+    }
+  }
+
+  /**
+   * Retrieves a key, unless the current version of a versioned key is the
+   * version that was previously retrieved. The previous entry is returned
+   * if the key has not changed, so that an unchanged ring is not replaced.
+   * @param id ID of the subject key
+   * @param previous entry previously retrieved for the key or {@code null}
+   * @return entry for the key
+   * @throws KeyStorageException if the key cannot be retrieved
+   */
+  private Entry retrieve(String id, Entry previous)
+      throws KeyStorageException {
+    if (storage instanceof AbstractKeyStorage
+        && ((AbstractKeyStorage) storage).isVersioned()) {
+      final String versionId = ((AbstractKeyStorage) storage).resolveVersion(id);
+      if (previous != null && versionId.equals(previous.versionId)
+          && AbstractKeyStorage.isVersionId(versionId)) {
+        return previous;
+      }
+      return new Entry(versionId, storage.retrieveWithMetadata(versionId));
+    }
+    final KeyWithMetadata keyWithMetadata = storage.retrieveWithMetadata(id);
+    if (previous != null && isSame(keyWithMetadata, previous.keyWithMetadata)) {
+      return previous;
+    }
+    return new Entry(null, keyWithMetadata);
+  }
+
+  private List<String> list(String prefix) throws KeyStorageException {
+    try (final Stream<String> ids = storage.ids(prefix)) {
+      return ids.map(AbstractKeyStorage::baseId)
+          .distinct()
+          .collect(Collectors.toList());
+    }
+    catch (RuntimeException ex) {
+      throw new KeyStorageException(ex);
+    }
+  }
+
+  /**
+   * Requests a refresh when a key that may be held in the ring is stored
+   * or deleted using the storage.
+   * @param id ID of the key that was stored or deleted
+   */
+  private void invalidated(String id) {
+    if (!tracks(AbstractKeyStorage.baseId(id))
+        || !refreshRequested.compareAndSet(false, true)) return;
+    try {
+      scheduler.execute(() -> {
+        refreshRequested.set(false);
+        refresh();
+      });
+    }
+    catch (RejectedExecutionException ex) {
+      refreshRequested.set(false);
+    }
+  }
+
+  private static boolean isSame(KeyWithMetadata keyWithMetadata,
+      KeyWithMetadata previous) {
+    return keyWithMetadata.getKey().equals(previous.getKey())
+        && keyWithMetadata.getMetadata().equals(previous.getMetadata());
+  }
+
+  private boolean tracks(String id) {
+    if (ids.contains(id)) return true;
+    for (final String prefix : prefixes) {
+      if (id.startsWith(prefix)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * A key held in the ring.
+   */
+  private static final class Entry {
+
+    final String versionId;
+    final KeyWithMetadata keyWithMetadata;
+
+    Entry(String versionId, KeyWithMetadata keyWithMetadata) {
+      this.versionId = versionId;
+      this.keyWithMetadata = keyWithMetadata;
+    }
+
+  }
+
+}
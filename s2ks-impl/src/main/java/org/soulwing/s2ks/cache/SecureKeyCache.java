@@ -0,0 +1,296 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.security.auth.DestroyFailedException;
+import javax.security.auth.Destroyable;
+
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyUnwrapException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MetadataUnwrapException;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.base.AbstractKeyStorage;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+
+/**
+ * A cache of keys retrieved from a {@link KeyStorage} that holds key
+ * material outside of the Java heap.
+ * <p>
+ * The encoded form of each cached key is kept in a direct buffer, so that
+ * the cache itself holds no key material on the heap. A JCA key object is
+ * created from the buffer for each
+ * {@link #withKey(String, KeyOperation) key operation}, and this does place
+ * copies of the key material on the heap:
+ * <ul>
+ *   <li>A secret key is presented as a key whose material is zeroed when
+ *   the operation completes. However, {@link Key#getEncoded()} returns a
+ *   new copy on each invocation, and the copies made by JCA providers
+ *   (e.g. when a cipher or MAC is initialized) are not zeroed.</li>
+ *   <li>A private key is recreated by the JCA key factory for its algorithm.
+ *   The JDK's private key implementations cannot be destroyed, so each
+ *   operation leaves a copy of the key material on the heap until it is
+ *   garbage collected.</li>
+ * </ul>
+ * The cache therefore reduces, but does not eliminate, the exposure of key
+ * material in a heap dump.
+ * <p>
+ * The cache is bounded by a budget for the total size of the encoded keys
+ * it holds. When adding a key would exceed the budget, the least recently
+ * used keys are evicted, and the buffer that held each evicted key is
+ * zeroed. Only secret keys and private keys are cached; operations on other
+ * keys are performed on a key retrieved from storage every time.
+ * <p>
+ * When the storage is an {@link AbstractMutableKeyStorage}, a key that is
+ * stored or deleted using the storage is removed from the cache. Changes
+ * made by other storage instances are not observed.
+ * <p>
+ * When the storage is a {@linkplain AbstractKeyStorage#isVersioned()
+ * versioned} {@link AbstractKeyStorage}, each key ID is first resolved to
+ * the ID of its current version, and the key is cached by its version ID.
+ * Since a version never changes, a cached version remains valid until it is
+ * evicted, while a new version stored by another storage instance is
+ * observed once the storage revalidates its cached version pointer.
+ *
+ * @author Carl Harris
+ */
+public final class SecureKeyCache implements AutoCloseable {
+
+  private final Map<String, SecureKeyEntry> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final KeyStorage storage;
+  private final long memoryBudget;
+  private final Consumer<String> invalidationListener = this::invalidate;
+
+  private long memoryUsed;
+  private long generation;
+
+  /**
+   * Constructs a new instance.
+   * @param storage storage from which keys will be retrieved
+   * @param memoryBudget maximum number of bytes of encoded key material
+   *    to hold in the cache
+   */
+  public SecureKeyCache(KeyStorage storage, long memoryBudget) {
+    if (memoryBudget <= 0) {
+      throw new IllegalArgumentException("memory budget must be positive");
+    }
+    this.storage = storage;
+    this.memoryBudget = memoryBudget;
+    if (storage instanceof AbstractMutableKeyStorage) {
+      ((AbstractMutableKeyStorage) storage)
+          .addInvalidationListener(invalidationListener);
+    }
+  }
+
+  /**
+   * Performs an operation using a key.
+   * <p>
+   * If the key is not in the cache, it is retrieved from storage and added
+   * to the cache before the operation is performed.
+   *
+   * @param id unique identifier of the subject key
+   * @param operation the operation to perform
+   * @param <R> operation result type
+   * @return the result of {@code operation}
+   * @throws NoSuchKeyException if there is no key in storage with
+   *    the given identifier
+   * @throws KeyUnwrapException if an error occurs in unwrapping the
+   *    stored key
+   * @throws MetadataUnwrapException if an error occurs in decoding the
+   *    metadata
+   * @throws KeyStorageException if the underlying storage mechanism cannot
+   *    successfully read the wrapped key from persistent storage
+   * @throws GeneralSecurityException if thrown by {@code operation} or
+   *    if the cached key cannot be recreated
+   */
+  public <R> R withKey(String id, KeyOperation<R> operation)
+      throws NoSuchKeyException, KeyUnwrapException, MetadataUnwrapException,
+      KeyStorageException, GeneralSecurityException {
+
+    final String versionId = resolveVersion(id);
+    final Key key;
+    final Metadata metadata;
+    final SecureKeyEntry entry;
+    final long generation;
+    byte[] encoded = null;
+    synchronized (this) {
+      entry = entries.get(versionId);
+      if (entry != null) {
+        encoded = entry.copyKeyData();
+      }
+      generation = this.generation;
+    }
+
+    if (entry != null) {
+      key = entry.toKey(encoded);
+      metadata = entry.getMetadata();
+    }
+    else {
+      final KeyWithMetadata keyWithMetadata =
+          storage.retrieveWithMetadata(versionId);
+      key = keyWithMetadata.getKey();
+      metadata = keyWithMetadata.getMetadata();
+      put(versionId, key, metadata, generation);
+    }
+
+    try {
+      return operation.apply(key, metadata);
+    }
+    finally {
+      destroy(key);
+    }
+  }
+
+  /**
+   * Removes a key from this cache, zeroing the memory that held it.
+   * @param id unique identifier of the subject key
+   */
+  public synchronized void invalidate(String id) {
+    generation++;
+    final SecureKeyEntry entry = entries.remove(id);
+    if (entry != null) {
+      release(entry);
+    }
+  }
+
+  /**
+   * Removes all keys from this cache, zeroing the memory that held them.
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.values().forEach(this::release);
+    entries.clear();
+  }
+
+  /**
+   * Gets the number of keys in this cache.
+   * @return number of keys
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the maximum number of bytes of key material held by this cache.
+   * @return memory budget in bytes
+   */
+  public long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  /**
+   * Gets the number of bytes of key material currently held by this cache.
+   * @return memory used in bytes
+   */
+  public synchronized long getMemoryUsed() {
+    return memoryUsed;
+  }
+
+  /**
+   * Closes this cache, zeroing the memory that held all cached keys, and
+   * stops observing changes made using the storage.
+   */
+  @Override
+  public void close() {
+    if (storage instanceof AbstractMutableKeyStorage) {
+      ((AbstractMutableKeyStorage) storage)
+          .removeInvalidationListener(invalidationListener);
+    }
+    invalidateAll();
+  }
+
+  /**
+   * Resolves a key ID to the ID of the current version of the key, if the
+   * storage is versioned.
+   * @param id unique identifier of the subject key
+   * @return version ID or {@code id}
+   * @throws KeyStorageException if the version cannot be resolved
+   */
+  private String resolveVersion(String id) throws KeyStorageException {
+    if (!(storage instanceof AbstractKeyStorage)) return id;
+    return ((AbstractKeyStorage) storage).resolveVersion(id);
+  }
+
+  /**
+   * Adds a key retrieved from storage to this cache, unless a key has been
+   * invalidated since the retrieval began, in which case the retrieved key
+   * may already be stale.
+   * @param id unique identifier of the subject key
+   * @param key the subject key
+   * @param metadata metadata for the subject key
+   * @param generation invalidation generation observed before the key was
+   *    retrieved
+   */
+  private void put(String id, Key key, Metadata metadata, long generation) {
+    if (!SecureKeyEntry.isCacheable(key)) return;
+    final byte[] encoded = key.getEncoded();
+    if (encoded == null) return;
+    if (encoded.length > memoryBudget) {
+      Arrays.fill(encoded, (byte) 0);
+      return;
+    }
+
+    final SecureKeyEntry entry = new SecureKeyEntry(key, metadata, encoded);
+    synchronized (this) {
+      if (generation != this.generation) {
+        entry.clear();
+        return;
+      }
+      final SecureKeyEntry previous = entries.put(id, entry);
+      if (previous != null) {
+        release(previous);
+      }
+      memoryUsed += entry.size();
+      final Iterator<SecureKeyEntry> i = entries.values().iterator();
+      while (memoryUsed > memoryBudget && i.hasNext()) {
+        final SecureKeyEntry eldest = i.next();
+        if (eldest == entry) continue;
+        i.remove();
+        release(eldest);
+      }
+    }
+  }
+
+  private void release(SecureKeyEntry entry) {
+    memoryUsed -= entry.size();
+    entry.clear();
+  }
+
+  private static void destroy(Key key) {
+    if (!(key instanceof Destroyable)) return;
+    try {
+      ((Destroyable) key).destroy();
+    }
+    catch (DestroyFailedException ex) {
+      // not every key implementation supports destruction
+    }
+  }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+import javax.crypto.SecretKey;
+
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.base.KeyDescriptor;
+
+/**
+ * An entry of a {@link SecureKeyCache} that holds the encoded form of a key
+ * in a direct (off-heap) buffer.
+ * <p>
+ * Instances are not thread safe; the cache serializes access to them.
+ *
+ * @author Carl Harris
+ */
+final class SecureKeyEntry {
+
+  private static final String RAW_FORMAT = "RAW";
+  private static final String PKCS8_FORMAT = "PKCS#8";
+
+  private final String algorithm;
+  private final KeyDescriptor.Type type;
+  private final Metadata metadata;
+  private final ByteBuffer data;
+
+  private boolean cleared;
+
+  /**
+   * Constructs a new instance.
+   * @param key the subject key; must be cacheable as determined by
+   *    {@link #isCacheable(Key)}
+   * @param metadata metadata associated with {@code key}
+   * @param encoded encoded form of {@code key}; this array is zeroed before
+   *    this constructor returns
+   */
+  SecureKeyEntry(Key key, Metadata metadata, byte[] encoded) {
+    this.algorithm = key.getAlgorithm();
+    this.type = KeyDescriptor.Type.typeOf(key);
+    this.metadata = metadata;
+    this.data = ByteBuffer.allocateDirect(encoded.length);
+    for (int i = 0; i < encoded.length; i++) {
+      data.put(i, encoded[i]);
+    }
+    Arrays.fill(encoded, (byte) 0);
+  }
+
+  /**
+   * Tests whether the given key can be held by an entry.
+   * @param key the subject key
+   * @return {@code true} if {@code key} is a secret key in raw format or
+   *    a private key in PKCS#8 format
+   */
+  static boolean isCacheable(Key key) {
+    return (key instanceof SecretKey && RAW_FORMAT.equals(key.getFormat()))
+        || (key instanceof PrivateKey && PKCS8_FORMAT.equals(key.getFormat()));
+  }
+
+  /**
+   * Gets the number of bytes of off-heap memory held by this entry.
+   * @return size in bytes
+   */
+  int size() {
+    return data.capacity();
+  }
+
+  /**
+   * Gets the metadata associated with the key held by this entry.
+   * @return metadata
+   */
+  Metadata getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * Tests whether this entry has been cleared.
+   * @return {@code true} if {@link #clear()} has been invoked
+   */
+  boolean isCleared() {
+    return cleared;
+  }
+
+  /**
+   * Copies the encoded key held by this entry onto the heap.
+   * @return encoded key; the caller is responsible for zeroing the returned
+   *    array as soon as it is no longer needed
+   */
+  byte[] copyKeyData() {
+    if (cleared) {
+      throw new IllegalStateException("entry has been cleared");
+    }
+    final byte[] encoded = new byte[data.capacity()];
+    data.duplicate().get(encoded);
+    return encoded;
+  }
+
+  /**
+   * Creates a key from an encoded key obtained from {@link #copyKeyData()}.
+   * <p>
+   * A secret key is created as a {@link DestroyableSecretKey} that takes
+   * ownership of {@code encoded}, and zeroes it when destroyed. A private
+   * key is created by the JCA key factory for its algorithm, after which
+   * {@code encoded} is zeroed; the resulting key generally cannot be
+   * destroyed, and its copy of the key material remains on the heap until
+   * it is garbage collected.
+   *
+   * @param encoded encoded key
+   * @return key
+   * @throws GeneralSecurityException if the key cannot be created
+   */
+  Key toKey(byte[] encoded) throws GeneralSecurityException {
+    if (type == KeyDescriptor.Type.SECRET) {
+      return new DestroyableSecretKey(algorithm, encoded);
+    }
+    try {
+      return KeyFactory.getInstance(algorithm)
+          .generatePrivate(new PKCS8EncodedKeySpec(encoded));
+    }
+    finally {
+      Arrays.fill(encoded, (byte) 0);
+    }
+  }
+
+  /**
+   * Zeroes the key held by this entry.
+   */
+  void clear() {
+    for (int i = 0; i < data.capacity(); i++) {
+      data.put(i, (byte) 0);
+    }
+    cleared = true;
+  }
+
+}
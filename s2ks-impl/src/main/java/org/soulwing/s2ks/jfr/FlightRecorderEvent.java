@@ -0,0 +1,168 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.soulwing.s2ks.spi.MetricsListener;
+
+/**
+ * A {@link StorageEvent} backed by a flight recorder event.
+ * <p>
+ * This class and its nested event classes refer to the {@code jdk.jfr} API
+ * and must not be loaded unless that API is present.
+ *
+ * @author Carl Harris
+ */
+final class FlightRecorderEvent implements StorageEvent {
+
+  private final BaseEvent event;
+
+  private String keyId;
+  private long bytes;
+
+  private FlightRecorderEvent(BaseEvent event) {
+    this.event = event;
+  }
+
+  static StorageEvent begin(StorageEventType type) {
+    final BaseEvent event = newEvent(type);
+    if (!event.isEnabled()) return StorageEvents.NOOP;
+    event.begin();
+    return new FlightRecorderEvent(event);
+  }
+
+  private static BaseEvent newEvent(StorageEventType type) {
+    switch (type) {
+      case KEY_RETRIEVE:
+        return new KeyRetrieveEvent();
+      case KEY_STORE:
+        return new KeyStoreEvent();
+      case KEY_DELETE:
+        return new KeyDeleteEvent();
+      case KMS_DECRYPT:
+        return new KmsDecryptEvent();
+      case KMS_GENERATE_DATA_KEY:
+        return new KmsGenerateDataKeyEvent();
+      case S3_GET_OBJECT:
+        return new S3GetObjectEvent();
+      case S3_PUT_OBJECT:
+        return new S3PutObjectEvent();
+      case PBE_DERIVE_KEY:
+        return new PbeDeriveKeyEvent();
+      case METADATA_VERIFY:
+        return new MetadataVerifyEvent();
+      default:
+        throw new IllegalArgumentException("unrecognized event type");
+    }
+  }
+
+  @Override
+  public void setKeyId(String keyId) {
+    this.keyId = keyId;
+  }
+
+  @Override
+  public void addBytes(long count) {
+    bytes += count;
+  }
+
+  @Override
+  public void commit(String source, MetricsListener.Outcome outcome) {
+    event.end();
+    if (!event.shouldCommit()) return;
+    event.keyId = StorageEvents.recordedKeyId(keyId);
+    event.source = source;
+    event.bytes = bytes;
+    event.outcome = outcome.name();
+    event.commit();
+  }
+
+  @Category({ "s2ks" })
+  @StackTrace(false)
+  abstract static class BaseEvent extends Event {
+
+    @Label("Key ID")
+    @Description("Identifier of the subject key, or a digest of it")
+    String keyId;
+
+    @Label("Source")
+    @Description("Simple name of the reporting class")
+    String source;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    String outcome;
+
+  }
+
+  @Name("org.soulwing.s2ks.KeyRetrieve")
+  @Label("Key Retrieve")
+  static final class KeyRetrieveEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.KeyStore")
+  @Label("Key Store")
+  static final class KeyStoreEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.KeyDelete")
+  @Label("Key Delete")
+  static final class KeyDeleteEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.KmsDecrypt")
+  @Label("KMS Decrypt")
+  static final class KmsDecryptEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.KmsGenerateDataKey")
+  @Label("KMS Generate Data Key")
+  static final class KmsGenerateDataKeyEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.S3GetObject")
+  @Label("S3 Get Object")
+  static final class S3GetObjectEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.S3PutObject")
+  @Label("S3 Put Object")
+  static final class S3PutObjectEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.PbeDeriveKey")
+  @Label("PBE Derive Key")
+  static final class PbeDeriveKeyEvent extends BaseEvent {
+  }
+
+  @Name("org.soulwing.s2ks.MetadataVerify")
+  @Label("Metadata Verify")
+  static final class MetadataVerifyEvent extends BaseEvent {
+  }
+
+}
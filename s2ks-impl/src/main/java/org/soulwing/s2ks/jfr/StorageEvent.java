@@ -0,0 +1,76 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jfr;
+
+import org.soulwing.s2ks.spi.MetricsListener;
+
+/**
+ * An event describing a storage operation, which is recorded by the Java
+ * Flight Recorder when it is available in the running JVM.
+ * <p>
+ * An event is begun when the operation starts and committed when it
+ * completes. When the flight recorder is not available, or when the event
+ * type is not enabled in any active recording, {@link #begin} returns a
+ * no-op event, so the cost of instrumentation is negligible.
+ *
+ * @author Carl Harris
+ */
+public interface StorageEvent {
+
+  /**
+   * Begins an event of the given type.
+   * @param type event type
+   * @return event
+   */
+  static StorageEvent begin(StorageEventType type) {
+    return StorageEvents.begin(type);
+  }
+
+  /**
+   * Gets an event that records nothing.
+   * @return no-op event
+   */
+  static StorageEvent noop() {
+    return StorageEvents.NOOP;
+  }
+
+  /**
+   * Sets the identifier of the key that is the subject of the operation.
+   * <p>
+   * If the system property {@value StorageEvents#HASH_KEY_IDS_PROPERTY} is
+   * set to {@code true}, a digest of the identifier is recorded in its place.
+   *
+   * @param keyId key identifier
+   */
+  void setKeyId(String keyId);
+
+  /**
+   * Adds to the number of bytes transferred by the operation.
+   * @param count number of bytes
+   */
+  void addBytes(long count);
+
+  /**
+   * Ends and commits this event.
+   * @param source simple name of the reporting class
+   * @param outcome outcome of the operation
+   */
+  void commit(String source, MetricsListener.Outcome outcome);
+
+}
@@ -0,0 +1,55 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jfr;
+
+/**
+ * An enumeration of the types of events recorded for storage operations.
+ *
+ * @author Carl Harris
+ */
+public enum StorageEventType {
+
+  /** Retrieval of a stored key */
+  KEY_RETRIEVE,
+
+  /** Storage of a key */
+  KEY_STORE,
+
+  /** Deletion of a stored key */
+  KEY_DELETE,
+
+  /** Decryption of a data key using a KMS master key */
+  KMS_DECRYPT,
+
+  /** Generation of a data key using a KMS master key */
+  KMS_GENERATE_DATA_KEY,
+
+  /** Retrieval of an object from S3 */
+  S3_GET_OBJECT,
+
+  /** Storage of an object in S3 */
+  S3_PUT_OBJECT,
+
+  /** Derivation of a wrapper key from a password */
+  PBE_DERIVE_KEY,
+
+  /** Verification of the metadata associated with a stored key */
+  METADATA_VERIFY
+
+}
@@ -0,0 +1,104 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.soulwing.s2ks.spi.MetricsListener;
+
+/**
+ * Static support for {@link StorageEvent}.
+ * <p>
+ * Classes that depend on the {@code jdk.jfr} API are loaded only after it
+ * has been determined that the API is present, so that the instrumented
+ * classes can be used on a JVM without the flight recorder.
+ *
+ * @author Carl Harris
+ */
+final class StorageEvents {
+
+  static final String HASH_KEY_IDS_PROPERTY =
+      "org.soulwing.s2ks.jfr.hashKeyIds";
+
+  static final StorageEvent NOOP = new StorageEvent() {
+    @Override
+    public void setKeyId(String keyId) {
+    }
+
+    @Override
+    public void addBytes(long count) {
+    }
+
+    @Override
+    public void commit(String source, MetricsListener.Outcome outcome) {
+    }
+  };
+
+  private static final boolean AVAILABLE = isAvailable();
+
+  private static final boolean HASH_KEY_IDS =
+      Boolean.getBoolean(HASH_KEY_IDS_PROPERTY);
+
+  private static final int HASH_LENGTH = 8;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private StorageEvents() { }
+
+  static StorageEvent begin(StorageEventType type) {
+    return AVAILABLE ? FlightRecorderEvent.begin(type) : NOOP;
+  }
+
+  /**
+   * Gets the key identifier to record for an event.
+   * @param keyId the subject key identifier
+   * @return {@code keyId} or a hex-encoded prefix of its SHA-256 digest
+   *    if key identifiers are to be hashed
+   */
+  static String recordedKeyId(String keyId) {
+    if (keyId == null || !HASH_KEY_IDS) return keyId;
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(keyId.getBytes(StandardCharsets.UTF_8));
+      final char[] hex = new char[2 * HASH_LENGTH];
+      for (int i = 0; i < HASH_LENGTH; i++) {
+        hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+        hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+      }
+      return new String(hex);
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private static boolean isAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event", false,
+          StorageEvents.class.getClassLoader());
+      return true;
+    }
+    catch (ClassNotFoundException | LinkageError ex) {
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
+
+/**
+ * Encodes public keys as JSON Web Keys (RFC 7517).
+ * <p>
+ * RSA keys and elliptic curve keys on the curves registered for use with
+ * JOSE (P-256, P-384, and P-521) are supported.
+ *
+ * @author Carl Harris
+ */
+final class JwkEncoder {
+
+  private static final String[] CURVES = { "P-256", "P-384", "P-521" };
+
+  private static final Base64.Encoder encoder =
+      Base64.getUrlEncoder().withoutPadding();
+
+  private JwkEncoder() { }
+
+  /**
+   * Encodes a public key as a JWK.
+   * @param id key ID to include as the {@code kid} member
+   * @param key the subject key
+   * @return JSON object representation of the key
+   * @throws IllegalArgumentException if the key type or curve is not
+   *    supported
+   */
+  static String encode(String id, PublicKey key) {
+    if (key instanceof RSAPublicKey) {
+      final RSAPublicKey rsaKey = (RSAPublicKey) key;
+      return "{\"kty\":\"RSA\",\"kid\":" + quote(id)
+          + ",\"n\":\"" + encode(unsigned(rsaKey.getModulus())) + "\""
+          + ",\"e\":\"" + encode(unsigned(rsaKey.getPublicExponent())) + "\"}";
+    }
+    if (key instanceof ECPublicKey) {
+      final ECPublicKey ecKey = (ECPublicKey) key;
+      final ECParameterSpec params = ecKey.getParams();
+      final int length = (params.getCurve().getField().getFieldSize() + 7) / 8;
+      return "{\"kty\":\"EC\",\"kid\":" + quote(id)
+          + ",\"crv\":\"" + curveName(params) + "\""
+          + ",\"x\":\"" + encode(fixed(ecKey.getW().getAffineX(), length)) + "\""
+          + ",\"y\":\"" + encode(fixed(ecKey.getW().getAffineY(), length)) + "\"}";
+    }
+    throw new IllegalArgumentException("unsupported key type");
+  }
+
+  private static String curveName(ECParameterSpec params) {
+    for (final String name : CURVES) {
+      final ECNamedCurveParameterSpec curve =
+          ECNamedCurveTable.getParameterSpec(name);
+      if (curve != null && curve.getN().equals(params.getOrder())
+          && curve.getCurve().getFieldSize()
+              == params.getCurve().getField().getFieldSize()) {
+        return name;
+      }
+    }
+    throw new IllegalArgumentException("unsupported curve");
+  }
+
+  private static String encode(byte[] data) {
+    return encoder.encodeToString(data);
+  }
+
+  /**
+   * Gets the minimal unsigned big-endian representation of an integer.
+   */
+  private static byte[] unsigned(BigInteger value) {
+    final byte[] data = value.toByteArray();
+    if (data.length > 1 && data[0] == 0) {
+      return Arrays.copyOfRange(data, 1, data.length);
+    }
+    return data;
+  }
+
+  /**
+   * Gets the unsigned big-endian representation of an integer, padded to
+   * the given length.
+   */
+  private static byte[] fixed(BigInteger value, int length) {
+    final byte[] data = unsigned(value);
+    if (data.length >= length) return data;
+    final byte[] padded = new byte[length];
+    System.arraycopy(data, 0, padded, length - data.length, data.length);
+    return padded;
+  }
+
+  /**
+   * Encodes a string as a JSON string literal.
+   */
+  static String quote(String s) {
+    final StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int) c));
+          }
+          else {
+            sb.append(c);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+}
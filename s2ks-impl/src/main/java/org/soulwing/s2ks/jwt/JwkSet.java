@@ -0,0 +1,118 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable JSON Web Key Set (RFC 7517) document with an entity tag.
+ * <p>
+ * The entity tag is a strong validator derived from the content of the
+ * document, so that equal documents have equal tags regardless of the
+ * process that produced them.
+ *
+ * @author Carl Harris
+ */
+public final class JwkSet {
+
+  private final List<String> keyIds;
+  private final String json;
+  private final String entityTag;
+
+  /**
+   * Constructs a new instance.
+   * @param keyIds IDs of the keys in the set
+   * @param keys JSON object representations of the keys, in the same order
+   *    as {@code keyIds}
+   */
+  JwkSet(List<String> keyIds, List<String> keys) {
+    this.keyIds = Collections.unmodifiableList(keyIds);
+    this.json = "{\"keys\":[" + String.join(",", keys) + "]}";
+    this.entityTag = "\"" + Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(digest(json)) + "\"";
+  }
+
+  /**
+   * Gets the IDs of the keys in the set.
+   * @return immutable list of key IDs
+   */
+  public List<String> getKeyIds() {
+    return keyIds;
+  }
+
+  /**
+   * Gets the JSON representation of the set.
+   * @return JSON document
+   */
+  public String toJson() {
+    return json;
+  }
+
+  /**
+   * Gets the entity tag for the set, suitable for use as the value of an
+   * HTTP {@code ETag} header.
+   * @return quoted entity tag
+   */
+  public String getEntityTag() {
+    return entityTag;
+  }
+
+  /**
+   * Tests whether the value of an HTTP {@code If-None-Match} header matches
+   * this set, in which case a response with status 304 (Not Modified) can
+   * be sent in place of the document.
+   * @param ifNoneMatch header value; may be {@code null}
+   * @return {@code true} if {@code ifNoneMatch} is {@code *} or lists the
+   *    entity tag of this set, using the weak comparison required for this
+   *    header
+   */
+  public boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) return false;
+    if (ifNoneMatch.trim().equals("*")) return true;
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals(entityTag)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return json;
+  }
+
+  private static byte[] digest(String json) {
+    try {
+      return MessageDigest.getInstance("SHA-256")
+          .digest(json.getBytes(StandardCharsets.UTF_8));
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+}
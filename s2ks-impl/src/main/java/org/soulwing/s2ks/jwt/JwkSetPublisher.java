@@ -0,0 +1,185 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.cache.KeyRing;
+import org.soulwing.s2ks.metadata.JcaPublicKeyFactory;
+import org.soulwing.s2ks.metadata.PublicKeyFactory;
+
+/**
+ * A publisher of the JSON Web Key Set for the keys held in a
+ * {@link KeyRing}; e.g. to serve a JWKS endpoint for the keys used to sign
+ * tokens.
+ * <p>
+ * The set contains the public key for each private key in the ring, and
+ * each public key in the ring; secret keys are never published. The keys
+ * are ordered by ID, and each key's ID is its {@code kid}.
+ * <p>
+ * The published set is cached, and is checked against the ring each time
+ * it is requested; checking an unchanged ring costs a single comparison.
+ * When the ring has changed, the set is regenerated incrementally: public
+ * keys are derived and encoded only for keys that were added or changed,
+ * and when the resulting document is unchanged, the same set and entity tag
+ * continue to be published. The ring determines how promptly changes are
+ * observed.
+ *
+ * @author Carl Harris
+ */
+public final class JwkSetPublisher {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(JwkSetPublisher.class);
+
+  private final KeyRing ring;
+  private final PublicKeyFactory publicKeyFactory = new JcaPublicKeyFactory();
+
+  private volatile State state = new State(-1, Collections.emptyMap(),
+      new JwkSet(Collections.emptyList(), Collections.emptyList()));
+
+  /**
+   * Constructs a new instance.
+   * @param ring ring that holds the keys to publish
+   */
+  public JwkSetPublisher(KeyRing ring) {
+    if (ring == null) {
+      throw new IllegalArgumentException("ring is required");
+    }
+    this.ring = ring;
+  }
+
+  /**
+   * Gets the key set for the current snapshot of the ring.
+   * @return key set
+   */
+  public JwkSet getJwkSet() {
+    final State state = this.state;
+    if (state.generation == ring.getGeneration()) {
+      return state.jwkSet;
+    }
+    return update();
+  }
+
+  private synchronized JwkSet update() {
+    final State previous = this.state;
+    final long generation = ring.getGeneration();
+    if (previous.generation == generation) {
+      return previous.jwkSet;
+    }
+    final Map<String, Jwk> jwks = new HashMap<>();
+    final List<String> keyIds = new ArrayList<>();
+    final List<String> keys = new ArrayList<>();
+    for (final String id : new TreeSet<>(ring.ids())) {
+      final KeyWithMetadata keyWithMetadata = ring.getWithMetadata(id);
+      if (keyWithMetadata == null) continue;
+      Jwk jwk = previous.jwks.get(id);
+      if (jwk == null || jwk.source != keyWithMetadata) {
+        jwk = new Jwk(keyWithMetadata, encode(id, keyWithMetadata.getKey()));
+      }
+      jwks.put(id, jwk);
+      if (jwk.json != null) {
+        keyIds.add(id);
+        keys.add(jwk.json);
+      }
+    }
+    final JwkSet jwkSet = keyIds.equals(previous.jwkSet.getKeyIds())
+        && keys.equals(previous.keys()) ?
+            previous.jwkSet : new JwkSet(keyIds, keys);
+    this.state = new State(generation, jwks, jwkSet);
+    return jwkSet;
+  }
+
+  /**
+   * Encodes the public key corresponding to the given key.
+   * @param id ID of the subject key
+   * @param key the subject key
+   * @return JSON object representation of the public key or {@code null}
+   *    if the key is not to be published
+   */
+  private String encode(String id, Key key) {
+    try {
+      if (key instanceof PublicKey) {
+        return JwkEncoder.encode(id, (PublicKey) key);
+      }
+      if (key instanceof PrivateKey) {
+        return JwkEncoder.encode(id,
+            publicKeyFactory.generatePublic((PrivateKey) key));
+      }
+      return null;
+    }
+    catch (KeyStorageException | IllegalArgumentException ex) {
+      logger.debug("key {} cannot be published: {}", id, ex.toString());
+      return null;
+    }
+  }
+
+  /**
+   * The published representation of a key in the ring.
+   */
+  private static final class Jwk {
+
+    final KeyWithMetadata source;
+    final String json;
+
+    Jwk(KeyWithMetadata source, String json) {
+      this.source = source;
+      this.json = json;
+    }
+
+  }
+
+  /**
+   * The published set and the keys from which it was derived.
+   */
+  private static final class State {
+
+    final long generation;
+    final Map<String, Jwk> jwks;
+    final JwkSet jwkSet;
+
+    State(long generation, Map<String, Jwk> jwks, JwkSet jwkSet) {
+      this.generation = generation;
+      this.jwks = jwks;
+      this.jwkSet = jwkSet;
+    }
+
+    List<String> keys() {
+      final List<String> keys = new ArrayList<>();
+      for (final String id : jwkSet.getKeyIds()) {
+        keys.add(jwks.get(id).json);
+      }
+      return keys;
+    }
+
+  }
+
+}
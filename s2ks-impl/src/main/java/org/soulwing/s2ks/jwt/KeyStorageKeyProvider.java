@@ -0,0 +1,526 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import java.security.Key;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.soulwing.jwt.api.KeyInfo;
+import org.soulwing.jwt.api.KeyProvider;
+import org.soulwing.jwt.api.exceptions.KeyProviderException;
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+import org.soulwing.s2ks.metadata.JcaPublicKeyFactory;
+import org.soulwing.s2ks.metadata.PublicKeyFactory;
+
+/**
+ * A JWT {@link KeyProvider} that resolves key IDs (the {@code kid} header of
+ * a JWS or JWE) using a {@link KeyStorage}.
+ * <p>
+ * Keys are cached after they are first retrieved, so that validating a
+ * token does not retrieve or unwrap its key from storage. When several
+ * threads request a key that is not cached, the key is retrieved once, and
+ * the other threads wait for the result. Cached keys expire after a
+ * configurable interval, and when the storage is an
+ * {@link AbstractMutableKeyStorage}, a key that is stored or deleted using
+ * the storage is removed at once.
+ * <p>
+ * A key ID that does not exist in storage is remembered for a short
+ * {@linkplain Builder#negativeLookupTtl(Duration) interval}, so that
+ * repeated tokens with an unknown key ID do not each consult storage. Since
+ * key IDs are supplied by untrusted tokens, at most a
+ * {@linkplain Builder#negativeLookupLimit(int) limited number} of unknown
+ * IDs are remembered, apart from the cached keys.
+ * <p>
+ * This provider returns keys as they are stored, as needed to sign tokens,
+ * to validate tokens signed with a secret key, and to decrypt tokens. The
+ * {@linkplain #verificationKeys() verification view} returns the public key
+ * corresponding to each stored private key, as needed to validate tokens
+ * signed with a private key; each public key is derived once and cached with
+ * its private key.
+ *
+ * @author Carl Harris
+ */
+public final class KeyStorageKeyProvider implements KeyProvider, AutoCloseable {
+
+  static final Duration DEFAULT_EXPIRATION = Duration.ofMinutes(10);
+  static final int DEFAULT_MAX_ENTRIES = 1000;
+  static final Duration DEFAULT_NEGATIVE_LOOKUP_TTL = Duration.ofSeconds(30);
+  static final int DEFAULT_NEGATIVE_LOOKUP_LIMIT = 1000;
+
+  private final KeyStorage storage;
+  private final Supplier<String> currentKeyId;
+  private final long expiration;
+  private final int maxEntries;
+  private final long negativeLookupTtl;
+  private final int negativeLookupLimit;
+  private final PublicKeyFactory publicKeyFactory = new JcaPublicKeyFactory();
+  private final KeyProvider verificationKeys = new VerificationKeyProvider();
+  private final Consumer<String> invalidationListener = this::invalidate;
+
+  private final ConcurrentMap<String, CompletableFuture<Entry>> entries =
+      new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Long> missingKeys =
+      new ConcurrentHashMap<>();
+
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * A builder that constructs a {@link KeyStorageKeyProvider}.
+   */
+  public static class Builder {
+
+    private KeyStorage storage;
+    private Supplier<String> currentKeyId = () -> null;
+    private Duration expiration = DEFAULT_EXPIRATION;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private Duration negativeLookupTtl = DEFAULT_NEGATIVE_LOOKUP_TTL;
+    private int negativeLookupLimit = DEFAULT_NEGATIVE_LOOKUP_LIMIT;
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage from which keys are retrieved.
+     * @param storage key storage
+     * @return this builder
+     */
+    public Builder storage(KeyStorage storage) {
+      this.storage = storage;
+      return this;
+    }
+
+    /**
+     * Specifies the ID of the key returned by {@link #currentKey()}.
+     * @param currentKeyId key ID
+     * @return this builder
+     */
+    public Builder currentKeyId(String currentKeyId) {
+      return currentKeyId(() -> currentKeyId);
+    }
+
+    /**
+     * Specifies a supplier for the ID of the key returned by
+     * {@link #currentKey()}; e.g. the active key ID of a family of rotated
+     * keys.
+     * @param currentKeyId key ID supplier, which is invoked for each call to
+     *    {@link #currentKey()}
+     * @return this builder
+     */
+    public Builder currentKeyId(Supplier<String> currentKeyId) {
+      this.currentKeyId = currentKeyId;
+      return this;
+    }
+
+    /**
+     * Specifies the interval after which a cached key is retrieved again.
+     * @param expiration expiration interval; {@code null} caches keys until
+     *    they are evicted or invalidated
+     * @return this builder
+     */
+    public Builder expiration(Duration expiration) {
+      this.expiration = expiration;
+      return this;
+    }
+
+    /**
+     * Specifies the maximum number of keys to cache.
+     * @param maxEntries number of keys; defaults to
+     *    1000
+     * @return this builder
+     */
+    public Builder maxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    /**
+     * Specifies the interval for which a key ID that does not exist in
+     * storage is remembered, during which it is not looked up again.
+     * @param ttl negative lookup TTL; {@code null} looks up an unknown key
+     *    ID each time it is requested; defaults to 30 seconds
+     * @return this builder
+     */
+    public Builder negativeLookupTtl(Duration ttl) {
+      this.negativeLookupTtl = ttl;
+      return this;
+    }
+
+    /**
+     * Specifies the maximum number of key IDs that do not exist in storage
+     * to remember.
+     * @param limit number of key IDs; defaults to 1000
+     * @return this builder
+     */
+    public Builder negativeLookupLimit(int limit) {
+      this.negativeLookupLimit = limit;
+      return this;
+    }
+
+    /**
+     * Builds and returns a key provider according to the configuration of
+     * this builder.
+     * @return key provider
+     */
+    public KeyStorageKeyProvider build() {
+      if (storage == null) {
+        throw new IllegalArgumentException("storage is required");
+      }
+      if (currentKeyId == null) {
+        throw new IllegalArgumentException("current key ID is required");
+      }
+      if (expiration != null
+          && (expiration.isNegative() || expiration.isZero())) {
+        throw new IllegalArgumentException("expiration must be positive");
+      }
+      if (maxEntries < 1) {
+        throw new IllegalArgumentException("max entries must be positive");
+      }
+      if (negativeLookupTtl != null && negativeLookupTtl.isNegative()) {
+        throw new IllegalArgumentException(
+            "negative lookup TTL must not be negative");
+      }
+      if (negativeLookupLimit < 0) {
+        throw new IllegalArgumentException(
+            "negative lookup limit must not be negative");
+      }
+      return new KeyStorageKeyProvider(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyStorageKeyProvider(Builder builder) {
+    this.storage = builder.storage;
+    this.currentKeyId = builder.currentKeyId;
+    this.expiration = builder.expiration != null ?
+        builder.expiration.toNanos() : -1;
+    this.maxEntries = builder.maxEntries;
+    this.negativeLookupTtl = builder.negativeLookupTtl != null ?
+        builder.negativeLookupTtl.toNanos() : -1;
+    this.negativeLookupLimit = builder.negativeLookupLimit;
+    if (storage instanceof AbstractMutableKeyStorage) {
+      ((AbstractMutableKeyStorage) storage)
+          .addInvalidationListener(invalidationListener);
+    }
+  }
+
+  /**
+   * Gets a view of this provider that returns verification keys.
+   * <p>
+   * For a stored private key, the view returns the corresponding public
+   * key; any other key is returned as stored. The view shares the cache of
+   * this provider.
+   *
+   * @return key provider view
+   */
+  public KeyProvider verificationKeys() {
+    return verificationKeys;
+  }
+
+  @Override
+  public KeyInfo currentKey() throws KeyProviderException {
+    final String id = currentKeyId.get();
+    return KeyInfo.builder().id(id).key(currentEntry(id).key).build();
+  }
+
+  @Override
+  public Optional<Key> retrieveKey(String id) throws KeyProviderException {
+    final Entry entry = get(id, true);
+    return entry != null ? Optional.of(entry.key) : Optional.empty();
+  }
+
+  /**
+   * Removes a key from the cache, and forgets that it was found not to
+   * exist.
+   * @param id ID of the subject key
+   */
+  public void invalidate(String id) {
+    invalidations.incrementAndGet();
+    missingKeys.remove(id);
+    final CompletableFuture<Entry> future = entries.remove(id);
+    if (future != null) {
+      future.cancel(false);
+    }
+  }
+
+  /**
+   * Gets the number of keys in the cache, including keys being retrieved.
+   * Key IDs remembered as not existing are not included.
+   * @return number of keys
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Empties the cache, and stops observing changes made using the storage.
+   */
+  @Override
+  public void close() {
+    if (storage instanceof AbstractMutableKeyStorage) {
+      ((AbstractMutableKeyStorage) storage)
+          .removeInvalidationListener(invalidationListener);
+    }
+    entries.clear();
+    missingKeys.clear();
+  }
+
+  private Entry currentEntry(String id) throws KeyProviderException {
+    if (id == null) {
+      throw new KeyProviderException("no current key");
+    }
+    // the current key ID is not supplied by a token, and its key may have
+    // been stored since it was last found not to exist
+    final Entry entry = get(id, false);
+    if (entry == null) {
+      throw new KeyProviderException("current key `" + id + "` not found");
+    }
+    return entry;
+  }
+
+  /**
+   * Gets the cache entry for a key, retrieving the key if it is not cached
+   * or has expired.
+   * <p>
+   * If the key is being retrieved by another thread, this method waits for
+   * that retrieval to complete.
+   *
+   * @param id ID of the subject key
+   * @param negativeLookup whether a key recently found not to exist is
+   *    reported as not existing without consulting storage
+   * @return cache entry or {@code null} if the key does not exist
+   * @throws KeyProviderException if the key cannot be retrieved
+   */
+  private Entry get(String id, boolean negativeLookup)
+      throws KeyProviderException {
+    if (negativeLookup && isKnownMissing(id)) return null;
+    while (true) {
+      CompletableFuture<Entry> future = entries.get(id);
+      if (future != null && future.isDone()
+          && !future.isCompletedExceptionally()) {
+        final Entry entry = future.join();
+        // a key that was not found completes its loader with null
+        if (entry == null || !entry.isExpired()) return entry;
+        entries.remove(id, future);
+        future = null;
+      }
+      if (future == null) {
+        final CompletableFuture<Entry> loader = new CompletableFuture<>();
+        future = entries.putIfAbsent(id, loader);
+        if (future == null) {
+          future = loader;
+          load(id, loader);
+        }
+      }
+      try {
+        return future.join();
+      }
+      catch (CompletionException ex) {
+        if (ex.getCause() instanceof KeyStorageException) {
+          throw new KeyProviderException(ex.getCause().getMessage(),
+              ex.getCause());
+        }
+        throw new KeyProviderException(ex.getCause());
+      }
+      catch (CancellationException ex) {
+        assert true;  // invalidated while being retrieved; try again
+      }
+    }
+  }
+
+  /**
+   * Retrieves a key from storage, completing the given future with its
+   * cache entry. The future is removed from the cache unless the key is
+   * retrieved successfully.
+   * @param id ID of the subject key
+   * @param loader future to complete
+   */
+  private void load(String id, CompletableFuture<Entry> loader) {
+    final long generation = invalidations.get();
+    try {
+      final Key key = storage.retrieve(id);
+      missingKeys.remove(id);
+      loader.complete(new Entry(key, expiration >= 0 ?
+          System.nanoTime() + expiration : Long.MAX_VALUE, expiration >= 0));
+      evictIfNeeded(id);
+    }
+    catch (NoSuchKeyException ex) {
+      recordMissing(id, generation);
+      entries.remove(id, loader);
+      loader.complete(null);
+    }
+    catch (KeyStorageException | RuntimeException ex) {
+      entries.remove(id, loader);
+      loader.completeExceptionally(ex);
+    }
+  }
+
+  /**
+   * Tests whether the key with the given ID was recently found not to exist.
+   * @param id ID of the subject key
+   * @return {@code true} if the key is known not to exist
+   */
+  private boolean isKnownMissing(String id) {
+    if (negativeLookupTtl < 0) return false;
+    final Long expiry = missingKeys.get(id);
+    if (expiry == null) return false;
+    if (expiry - System.nanoTime() > 0) return true;
+    missingKeys.remove(id, expiry);
+    return false;
+  }
+
+  /**
+   * Remembers that the key with the given ID was found not to exist, unless
+   * any key was invalidated since the lookup began, or the limit on the
+   * number of absent keys has been reached.
+   * @param id ID of the subject key
+   * @param generation invalidation count observed before the lookup began
+   */
+  private void recordMissing(String id, long generation) {
+    final long ttl = negativeLookupTtl;
+    if (ttl < 0) return;
+    final long now = System.nanoTime();
+    if (missingKeys.size() >= negativeLookupLimit) {
+      missingKeys.values().removeIf(expiry -> expiry - now <= 0);
+      if (missingKeys.size() >= negativeLookupLimit) return;
+    }
+    missingKeys.put(id, now + ttl);
+    if (invalidations.get() != generation) {
+      missingKeys.remove(id);
+    }
+  }
+
+  /**
+   * Removes entries while the cache holds more than the maximum number of
+   * entries; expired entries are removed first, then entries chosen
+   * arbitrarily, other than the entry for the given ID.
+   * @param id ID of the key that was just retrieved
+   */
+  private void evictIfNeeded(String id) {
+    if (entries.size() <= maxEntries) return;
+    entries.entrySet().removeIf(e -> e.getValue().isDone()
+        && !e.getValue().isCompletedExceptionally()
+        && e.getValue().join() != null
+        && e.getValue().join().isExpired());
+    final Iterator<Map.Entry<String, CompletableFuture<Entry>>> i =
+        entries.entrySet().iterator();
+    while (entries.size() > maxEntries && i.hasNext()) {
+      final Map.Entry<String, CompletableFuture<Entry>> entry = i.next();
+      if (!entry.getKey().equals(id) && entry.getValue().isDone()) {
+        i.remove();
+      }
+    }
+  }
+
+  /**
+   * A cached key.
+   */
+  private final class Entry {
+
+    final Key key;
+    final long expiry;
+    final boolean expires;
+
+    private volatile Key verificationKey;
+
+    Entry(Key key, long expiry, boolean expires) {
+      this.key = key;
+      this.expiry = expiry;
+      this.expires = expires;
+    }
+
+    boolean isExpired() {
+      return expires && expiry - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Gets the key that verifies signatures made using this entry's key,
+     * deriving it on first use.
+     * @return verification key
+     * @throws KeyProviderException if the public key cannot be derived
+     */
+    Key getVerificationKey() throws KeyProviderException {
+      if (!(key instanceof PrivateKey)) return key;
+      Key verificationKey = this.verificationKey;
+      if (verificationKey == null) {
+        synchronized (this) {
+          verificationKey = this.verificationKey;
+          if (verificationKey == null) {
+            try {
+              verificationKey =
+                  publicKeyFactory.generatePublic((PrivateKey) key);
+            }
+            catch (KeyStorageException ex) {
+              throw new KeyProviderException(ex.getMessage(), ex);
+            }
+            this.verificationKey = verificationKey;
+          }
+        }
+      }
+      return verificationKey;
+    }
+
+  }
+
+  /**
+   * A view of the enclosing provider that returns verification keys.
+   */
+  private final class VerificationKeyProvider implements KeyProvider {
+
+    @Override
+    public KeyInfo currentKey() throws KeyProviderException {
+      final String id = currentKeyId.get();
+      return KeyInfo.builder()
+          .id(id)
+          .key(currentEntry(id).getVerificationKey())
+          .build();
+    }
+
+    @Override
+    public Optional<Key> retrieveKey(String id) throws KeyProviderException {
+      final Entry entry = get(id, true);
+      return entry != null ?
+          Optional.of(entry.getVerificationKey()) : Optional.empty();
+    }
+
+  }
+
+}
@@ -0,0 +1,360 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.keygen;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.security.auth.DestroyFailedException;
+import javax.security.auth.Destroyable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.base.DaemonThreadFactory;
+
+/**
+ * A pool of pre-generated keys, which takes the cost of generating keys
+ * that are expensive to generate (e.g. RSA keys) off the path of the
+ * callers that need new keys.
+ * <p>
+ * The pool holds up to a fixed number of keys for each {@link KeySpec}.
+ * Whenever a key is taken, the pool for its specification is refilled in
+ * the background using the {@linkplain Builder#executor(Executor) generation
+ * executor}. A specification is pooled from the first time a key for it is
+ * requested, or when the pool is {@linkplain #prefill(KeySpec) prefilled}
+ * for it. When no pre-generated key is available, a key is generated on the
+ * calling thread, so a caller never waits for a background generation.
+ * <p>
+ * Pre-generated keys are held in memory until they are taken; when the
+ * pool is closed, the keys it holds are discarded, and destroyed if the key
+ * implementation allows it.
+ *
+ * @author Carl Harris
+ */
+public final class KeyGenerationPool implements AutoCloseable {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(KeyGenerationPool.class);
+
+  static final int DEFAULT_POOL_SIZE = 4;
+
+  private final MutableKeyStorage storage;
+  private final int poolSize;
+  private final Executor executor;
+
+  private final ConcurrentMap<KeySpec, Pool> pools = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  private volatile boolean closed;
+
+  /**
+   * A builder that constructs a {@link KeyGenerationPool}.
+   */
+  public static class Builder {
+
+    private MutableKeyStorage storage;
+    private int poolSize = DEFAULT_POOL_SIZE;
+    private Executor executor;
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage used by
+     * {@link #generateAndStore(String, KeySpec, Metadata)}.
+     * @param storage key storage; if not specified, keys can only be
+     *    {@linkplain #take(KeySpec) taken} from the pool
+     * @return this builder
+     */
+    public Builder storage(MutableKeyStorage storage) {
+      this.storage = storage;
+      return this;
+    }
+
+    /**
+     * Specifies the maximum number of keys to hold for each key
+     * specification.
+     * @param poolSize number of keys; defaults to
+     *    {@value #DEFAULT_POOL_SIZE}
+     * @return this builder
+     */
+    public Builder poolSize(int poolSize) {
+      this.poolSize = poolSize;
+      return this;
+    }
+
+    /**
+     * Specifies the executor on which keys are generated to refill the pool.
+     * @param executor executor; replaces the default shared pool of daemon
+     *    threads, which has one thread for each available processor
+     * @return this builder
+     */
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Builds and returns a pool according to the configuration of this
+     * builder.
+     * @return pool
+     */
+    public KeyGenerationPool build() {
+      if (poolSize < 1) {
+        throw new IllegalArgumentException("pool size must be positive");
+      }
+      return new KeyGenerationPool(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyGenerationPool(Builder builder) {
+    this.storage = builder.storage;
+    this.poolSize = builder.poolSize;
+    this.executor = builder.executor != null ?
+        builder.executor : DefaultExecutor.INSTANCE;
+  }
+
+  /**
+   * Starts filling the pool for the given key specification in the
+   * background, if it is not already pooled.
+   * @param spec the subject key specification
+   */
+  public void prefill(KeySpec spec) {
+    pool(spec).refill();
+  }
+
+  /**
+   * Takes a key from the pool, generating it on the calling thread if no
+   * pre-generated key is available.
+   * @param spec specification of the key to take
+   * @return new key, which is never returned to any other caller
+   * @throws GeneralSecurityException if a key must be generated and cannot be
+   *    generated
+   */
+  public Key take(KeySpec spec) throws GeneralSecurityException {
+    final Pool pool = pool(spec);
+    final Key key = pool.keys.poll();
+    pool.refill();
+    if (key != null) {
+      hits.incrementAndGet();
+      return key;
+    }
+    misses.incrementAndGet();
+    return spec.generate();
+  }
+
+  /**
+   * Takes a key from the pool and stores it with empty metadata.
+   * @param id ID for the new key
+   * @param spec specification of the key to generate
+   * @return the key that was stored
+   * @throws GeneralSecurityException if a key must be generated and cannot be
+   *    generated
+   * @throws KeyStorageException if the key cannot be stored
+   * @see #generateAndStore(String, KeySpec, Metadata)
+   */
+  public Key generateAndStore(String id, KeySpec spec)
+      throws GeneralSecurityException, KeyStorageException {
+    return generateAndStore(id, spec, SimpleMetadata.empty());
+  }
+
+  /**
+   * Takes a key from the pool, and wraps and stores it with the given
+   * metadata.
+   * <p>
+   * A key that cannot be stored is discarded, never returned to the pool.
+   *
+   * @param id ID for the new key
+   * @param spec specification of the key to generate
+   * @param metadata metadata to store with the key
+   * @return the key that was stored
+   * @throws GeneralSecurityException if a key must be generated and cannot be
+   *    generated
+   * @throws KeyStorageException if the key cannot be stored
+   * @throws IllegalStateException if this pool was built without a storage
+   */
+  public Key generateAndStore(String id, KeySpec spec, Metadata metadata)
+      throws GeneralSecurityException, KeyStorageException {
+    if (storage == null) {
+      throw new IllegalStateException("pool has no storage");
+    }
+    final Key key = take(spec);
+    storage.store(id, new KeyWithMetadata(key, metadata));
+    return key;
+  }
+
+  /**
+   * Gets the number of pre-generated keys available for a key specification.
+   * @param spec the subject key specification
+   * @return number of keys
+   */
+  public int available(KeySpec spec) {
+    final Pool pool = pools.get(spec);
+    return pool != null ? pool.keys.size() : 0;
+  }
+
+  /**
+   * Gets the number of keys taken from the pool that had been
+   * pre-generated.
+   * @return number of keys
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Gets the number of keys taken from the pool that had to be generated on
+   * the calling thread.
+   * @return number of keys
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Closes this pool, discarding the keys it holds. A generation that is in
+   * progress is allowed to complete, and its key is discarded.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    pools.values().forEach(Pool::clear);
+  }
+
+  private Pool pool(KeySpec spec) {
+    if (closed) {
+      throw new IllegalStateException("pool is closed");
+    }
+    return pools.computeIfAbsent(spec, Pool::new);
+  }
+
+  private static void destroy(Key key) {
+    if (!(key instanceof Destroyable)) return;
+    try {
+      ((Destroyable) key).destroy();
+    }
+    catch (DestroyFailedException ex) {
+      assert true;  // not every key implementation supports destruction
+    }
+  }
+
+  /**
+   * The keys pre-generated for a key specification.
+   */
+  private final class Pool {
+
+    final KeySpec spec;
+    final BlockingQueue<Key> keys = new ArrayBlockingQueue<>(poolSize);
+    final AtomicInteger pending = new AtomicInteger();
+
+    Pool(KeySpec spec) {
+      this.spec = spec;
+    }
+
+    /**
+     * Submits a generation task for each key needed to fill the pool,
+     * beyond those available and those being generated.
+     * <p>
+     * The needed generations are reserved in {@code pending} before any is
+     * submitted, so that callers refilling concurrently never both submit
+     * a generation for the same vacancy.
+     */
+    void refill() {
+      if (closed) return;
+      int reserved;
+      int needed;
+      do {
+        reserved = pending.get();
+        needed = poolSize - keys.size() - reserved;
+        if (needed <= 0) return;
+      }
+      while (!pending.compareAndSet(reserved, reserved + needed));
+
+      for (int i = 0; i < needed; i++) {
+        try {
+          executor.execute(this::generate);
+        }
+        catch (RejectedExecutionException ex) {
+          pending.addAndGet(i - needed);
+          return;
+        }
+      }
+    }
+
+    void generate() {
+      try {
+        final Key key = spec.generate();
+        if (closed || !keys.offer(key)) {
+          destroy(key);
+        }
+      }
+      catch (GeneralSecurityException | RuntimeException ex) {
+        logger.warn("cannot pre-generate {} key: {}", spec, ex.toString());
+      }
+      finally {
+        pending.decrementAndGet();
+      }
+    }
+
+    void clear() {
+      final List<Key> drained = new ArrayList<>();
+      keys.drainTo(drained);
+      drained.forEach(KeyGenerationPool::destroy);
+    }
+
+  }
+
+  /**
+   * A holder for the default generation executor, which is created on first
+   * use.
+   */
+  private static class DefaultExecutor {
+
+    static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new DaemonThreadFactory("s2ks-key-gen-"));
+
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.keygen;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import javax.crypto.KeyGenerator;
+
+/**
+ * An immutable specification of the keys to generate: an algorithm and a
+ * key size.
+ * <p>
+ * The algorithm is either a secret key algorithm supported by
+ * {@link KeyGenerator} (e.g. {@code AES} or {@code HmacSHA256}), in which
+ * case a secret key is generated, or a key pair algorithm supported by
+ * {@link KeyPairGenerator} (e.g. {@code RSA} or {@code EC}), in which case
+ * a key pair is generated and its private key is used.
+ *
+ * @author Carl Harris
+ */
+public final class KeySpec {
+
+  private final String algorithm;
+  private final int keySize;
+  private final boolean keyPair;
+
+  private KeySpec(String algorithm, int keySize, boolean keyPair) {
+    this.algorithm = algorithm;
+    this.keySize = keySize;
+    this.keyPair = keyPair;
+  }
+
+  /**
+   * Creates a specification for keys of the given algorithm and size.
+   * @param algorithm key generator or key pair generator algorithm
+   * @param keySize key size in bits, in the units used by the generator
+   *    for the algorithm
+   * @return key specification
+   * @throws IllegalArgumentException if the algorithm is not supported by
+   *    a key generator or key pair generator, or if the key size is not
+   *    positive
+   */
+  public static KeySpec of(String algorithm, int keySize) {
+    if (algorithm == null) {
+      throw new IllegalArgumentException("algorithm is required");
+    }
+    if (keySize <= 0) {
+      throw new IllegalArgumentException("key size must be positive");
+    }
+    return new KeySpec(algorithm, keySize, isKeyPairAlgorithm(algorithm));
+  }
+
+  /**
+   * Gets the algorithm of the generated keys.
+   * @return algorithm
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Gets the size of the generated keys.
+   * @return key size in bits
+   */
+  public int getKeySize() {
+    return keySize;
+  }
+
+  /**
+   * Tests whether keys are generated as key pairs.
+   * @return {@code true} if a key pair is generated and its private key is
+   *    used, {@code false} if a secret key is generated
+   */
+  public boolean isKeyPair() {
+    return keyPair;
+  }
+
+  /**
+   * Generates a new key according to this specification.
+   * @return secret key, or the private key of a new key pair
+   * @throws GeneralSecurityException if the key cannot be generated
+   */
+  public Key generate() throws GeneralSecurityException {
+    if (keyPair) {
+      final KeyPairGenerator generator =
+          KeyPairGenerator.getInstance(algorithm);
+      generator.initialize(keySize);
+      return generator.generateKeyPair().getPrivate();
+    }
+    final KeyGenerator generator = KeyGenerator.getInstance(algorithm);
+    generator.init(keySize);
+    return generator.generateKey();
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * algorithm.hashCode() + keySize;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) return true;
+    if (!(obj instanceof KeySpec)) return false;
+    final KeySpec that = (KeySpec) obj;
+    return algorithm.equals(that.algorithm) && keySize == that.keySize;
+  }
+
+  @Override
+  public String toString() {
+    return algorithm + "-" + keySize;
+  }
+
+  /**
+   * Determines whether the given algorithm generates key pairs.
+   * @param algorithm the subject algorithm
+   * @return {@code true} if the algorithm is supported by a key pair
+   *    generator, {@code false} if it is supported by a key generator
+   * @throws IllegalArgumentException if neither kind of generator supports
+   *    the algorithm
+   */
+  private static boolean isKeyPairAlgorithm(String algorithm) {
+    try {
+      KeyGenerator.getInstance(algorithm);
+      return false;
+    }
+    catch (NoSuchAlgorithmException ex) {
+      assert true;  // try a key pair generator next
+    }
+    try {
+      KeyPairGenerator.getInstance(algorithm);
+      return true;
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new IllegalArgumentException(
+          "unsupported key algorithm: " + algorithm);
+    }
+  }
+
+}
@@ -19,24 +19,36 @@
 package org.soulwing.s2ks.local;
 
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.soulwing.s2ks.KeyPairStorage;
-import org.soulwing.s2ks.base.AbstractKeyPairStorage;
+import org.soulwing.s2ks.base.AbstractMutableKeyPairStorage;
 import org.soulwing.s2ks.base.CertificateLoader;
+import org.soulwing.s2ks.base.CertificateWriter;
 import org.soulwing.s2ks.base.PasswordReader;
 import org.soulwing.s2ks.base.PrivateKeyLoader;
+import org.soulwing.s2ks.base.PrivateKeyWriter;
 
 /**
- * A {@link org.soulwing.s2ks.KeyPairStorage} implementation that uses local
- * filesystem storage.
+ * A {@link org.soulwing.s2ks.MutableKeyPairStorage} implementation that uses
+ * local filesystem storage.
+ * <p>
+ * A bundle is written to a temporary file in the directory for the key pair
+ * and then moved into place atomically.
  *
  * @author Carl Harris
  */
-class LocalKeyPairStorage extends AbstractKeyPairStorage {
+class LocalKeyPairStorage extends AbstractMutableKeyPairStorage {
 
   private final String password;
   private final Path storageDirectory;
@@ -45,10 +57,13 @@ class LocalKeyPairStorage extends AbstractKeyPairStorage {
   LocalKeyPairStorage(
       PrivateKeyLoader privateKeyLoader,
       CertificateLoader certificateLoader,
+      PrivateKeyWriter privateKeyWriter,
+      CertificateWriter certificateWriter,
       Path storageDirectory,
       Path passwordFile,
       String password) {
-    super(privateKeyLoader, certificateLoader);
+    super(privateKeyLoader, certificateLoader, privateKeyWriter,
+        certificateWriter);
     this.storageDirectory = storageDirectory;
     this.passwordFile = passwordFile;
     this.password = password;
@@ -62,6 +77,76 @@ class LocalKeyPairStorage extends AbstractKeyPairStorage {
     return PasswordReader.readPassword(passwordFile.toFile());
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The version of a key pair is determined by the modification time and
+   * size of its bundle or each of its separate files, and of the password
+   * file, if any.
+   */
+  @Override
+  protected Object getVersion(String id) throws IOException {
+    final Path directory = storageDirectory.resolve(id);
+    final List<Long> version = new ArrayList<>();
+    addVersion(version, directory.resolve(BUNDLE_FILE_NAME), false);
+    if (version.get(0) == null) {
+      addVersion(version, directory.resolve(KEY_FILE_NAME), true);
+      addVersion(version, directory.resolve(CERT_FILE_NAME), true);
+      addVersion(version, directory.resolve(CA_FILE_NAME), false);
+    }
+    if (password == null) {
+      addVersion(version, passwordFile, true);
+    }
+    return version;
+  }
+
+  private static void addVersion(List<Long> version, Path file,
+      boolean required) throws IOException {
+    try {
+      final BasicFileAttributes attrs =
+          Files.readAttributes(file, BasicFileAttributes.class);
+      version.add(attrs.lastModifiedTime().toMillis());
+      version.add(attrs.size());
+    }
+    catch (NoSuchFileException ex) {
+      if (required) {
+        throw new FileNotFoundException(file.toString());
+      }
+      version.add(null);
+      version.add(null);
+    }
+  }
+
+  @Override
+  protected void writeBundle(String id, byte[] content) throws IOException {
+    final Path directory = Files.createDirectories(
+        storageDirectory.resolve(id));
+    final Path file = Files.createTempFile(directory, BUNDLE_FILE_NAME, null);
+    try {
+      Files.write(file, content);
+      Files.move(file, directory.resolve(BUNDLE_FILE_NAME),
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Override
+  protected void deleteSeparateFiles(String id) throws IOException {
+    final Path directory = storageDirectory.resolve(id);
+    Files.deleteIfExists(directory.resolve(KEY_FILE_NAME));
+    Files.deleteIfExists(directory.resolve(CERT_FILE_NAME));
+    Files.deleteIfExists(directory.resolve(CA_FILE_NAME));
+  }
+
+  @Override
+  protected InputStream openBundleStream(String id) throws IOException {
+    return new FileInputStream(
+        storageDirectory.resolve(id).resolve(BUNDLE_FILE_NAME).toFile());
+  }
+
   @Override
   protected InputStream openPrivateKeyStream(String id) throws IOException {
     return new FileInputStream(storageDirectory.resolve(id)
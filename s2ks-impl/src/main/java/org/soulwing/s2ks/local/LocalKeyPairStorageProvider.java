@@ -21,17 +21,23 @@ package org.soulwing.s2ks.local;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Properties;
 
 import org.soulwing.s2ks.KeyPairStorage;
 import org.soulwing.s2ks.ProviderConfigurationException;
 import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyWriter;
 import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateWriter;
 import org.soulwing.s2ks.spi.KeyPairStorageProvider;
 
 /**
  * A {@link KeyPairStorageProvider} that provides LOCAL storage of key pairs.
+ * <p>
+ * The storage instances it provides implement
+ * {@link org.soulwing.s2ks.MutableKeyPairStorage}.
  *
  * @author Carl Harris
  */
@@ -42,12 +48,21 @@ public class LocalKeyPairStorageProvider implements KeyPairStorageProvider {
   static final String PASSWORD = "password";
   static final String PASSWORD_FILE = "passwordFile";
   static final String STORAGE_DIRECTORY = "storageDirectory";
+  static final String CACHE_KEY_PAIRS = "cacheKeyPairs";
+  static final String CHANGE_CHECK_INTERVAL = "changeCheckInterval";
+
+  static final long DEFAULT_CHANGE_CHECK_INTERVAL = 10;
 
   @Override
   public String getName() {
     return PROVIDER_NAME;
   }
 
+  @Override
+  public boolean isMutable() {
+    return true;
+  }
+
   @Override
   public KeyPairStorage getInstance(Properties configuration)
       throws ProviderConfigurationException {
@@ -86,10 +101,37 @@ public class LocalKeyPairStorageProvider implements KeyPairStorageProvider {
       throw new ProviderConfigurationException(storagePath + ": not found");
     }
 
-    return new LocalKeyPairStorage(
+    final LocalKeyPairStorage storage = new LocalKeyPairStorage(
         BcEncryptedPrivateKeyLoader.getInstance(),
         BcPemCertificateLoader.getInstance(),
+        BcEncryptedPrivateKeyWriter.getInstance(),
+        BcPemCertificateWriter.getInstance(),
         storagePath, passwordFile, password);
+    storage.setChangeCheckInterval(getChangeCheckInterval(configuration));
+    return storage;
+  }
+
+  private static Duration getChangeCheckInterval(Properties configuration)
+      throws ProviderConfigurationException {
+    if (!Boolean.parseBoolean(
+        configuration.getProperty(CACHE_KEY_PAIRS, "true"))) {
+      return null;
+    }
+    final String value = configuration.getProperty(CHANGE_CHECK_INTERVAL);
+    if (value == null) {
+      return Duration.ofSeconds(DEFAULT_CHANGE_CHECK_INTERVAL);
+    }
+    try {
+      final long interval = Long.parseLong(value.trim());
+      if (interval < 0) {
+        throw new NumberFormatException();
+      }
+      return Duration.ofSeconds(interval);
+    }
+    catch (NumberFormatException ex) {
+      throw new ProviderConfigurationException("`" + CHANGE_CHECK_INTERVAL
+          + "` must be a non-negative number of seconds");
+    }
   }
 
 }
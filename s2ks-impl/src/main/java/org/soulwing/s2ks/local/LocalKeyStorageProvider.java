@@ -29,7 +29,7 @@ import java.util.Properties;
 import org.soulwing.s2ks.KeyStorage;
 import org.soulwing.s2ks.base.PasswordReader;
 import org.soulwing.s2ks.base.StorageService;
-import org.soulwing.s2ks.metadata.JwtMetadataWrapOperator;
+import org.soulwing.s2ks.metadata.MetadataFormat;
 import org.soulwing.s2ks.pbe.PbeKeyFactory;
 import org.soulwing.s2ks.pbe.PbeKeyStorage;
 import org.soulwing.s2ks.pbe.PbeWrapOperator;
@@ -53,6 +53,7 @@ public class LocalKeyStorageProvider implements KeyStorageProvider {
   static final String PASSWORD = "password";
   static final String PASSWORD_FILE = "passwordFile";
   static final String STORAGE_DIRECTORY = "storageDirectory";
+  static final String METADATA_FORMAT = "metadataFormat";
 
   @Override
   public String getName() {
@@ -66,6 +67,8 @@ public class LocalKeyStorageProvider implements KeyStorageProvider {
 
   @Override
   public KeyStorage getInstance(Properties properties) throws Exception {
+    final MetadataFormat metadataFormat =
+        MetadataFormat.fromProperty(properties, METADATA_FORMAT);
     final Path directory = getStorageDirectory(properties);
     final char[] password = getPassword(properties);
 
@@ -75,7 +78,7 @@ public class LocalKeyStorageProvider implements KeyStorageProvider {
     final PbeKeyStorage storage = new PbeKeyStorage(
         PemBlobEncoder.getInstance(),
         PbeWrapOperator.getInstance(), PemKeyEncoder.getInstance(),
-        JwtMetadataWrapOperator.getInstance(),
+        metadataFormat.getOperator(),
         PemMetadataEncoder.getInstance(),
         PemMetadataRecognizer.getInstance(),
         PbeKeyFactory.generateKey(password),
@@ -18,15 +18,28 @@
  */
 package org.soulwing.s2ks.local;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +77,11 @@ public class LocalStorageService implements StorageService {
     return new FileInputStream(path);
   }
 
+  @Override
+  public boolean exists(String path) {
+    return Files.exists(Paths.get(path));
+  }
+
   @Override
   public void storeContent(List<Blob> blobs, String path) throws IOException {
     logger.debug("storing key at path {}", path);
@@ -73,8 +91,137 @@ public class LocalStorageService implements StorageService {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation creates the file exclusively, so that at most one
+   * writer creates it.
+   */
+  @Override
+  public boolean createContent(List<Blob> blobs, String path)
+      throws IOException {
+    logger.debug("creating key at path {}", path);
+    final Path file = Paths.get(path);
+    createParentIfNeeded(file);
+    try (final OutputStream outputStream = Files.newOutputStream(file,
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      try {
+        blobEncoder.encode(blobs, outputStream);
+      }
+      catch (IOException ex) {
+        Files.deleteIfExists(file);
+        throw ex;
+      }
+    }
+    catch (FileAlreadyExistsException ex) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation writes each file in turn, and then synchronizes each
+   * distinct parent directory once, so that the new directory entries are
+   * durable without a synchronization for each file.
+   */
+  @Override
+  public Map<String, IOException> storeContents(
+      Map<String, List<Blob>> contents) {
+    logger.debug("storing {} keys", contents.size());
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    final Set<Path> directories = new LinkedHashSet<>();
+    contents.forEach((path, blobs) -> {
+      final Path parent = Paths.get(path).toAbsolutePath().getParent();
+      try {
+        if (!directories.contains(parent)) {
+          createParentIfNeeded(Paths.get(path));
+        }
+        try (final OutputStream outputStream = new FileOutputStream(path)) {
+          blobEncoder.encode(blobs, outputStream);
+        }
+        directories.add(parent);
+      }
+      catch (IOException ex) {
+        failures.put(path, ex);
+      }
+    });
+    directories.forEach(LocalStorageService::syncDirectory);
+    return failures;
+  }
+
+  @Override
+  public void delete(String path) throws IOException {
+    logger.debug("deleting key at path {}", path);
+    Files.deleteIfExists(Paths.get(path));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation deletes each file in turn, and then synchronizes
+   * each distinct parent directory once.
+   */
+  @Override
+  public Map<String, IOException> deleteAll(Collection<String> paths) {
+    logger.debug("deleting {} keys", paths.size());
+    final Map<String, IOException> failures = new LinkedHashMap<>();
+    final Set<Path> directories = new LinkedHashSet<>();
+    for (final String path : paths) {
+      try {
+        if (Files.deleteIfExists(Paths.get(path))) {
+          directories.add(Paths.get(path).toAbsolutePath().getParent());
+        }
+      }
+      catch (IOException ex) {
+        failures.put(path, ex);
+      }
+    }
+    directories.forEach(LocalStorageService::syncDirectory);
+    return failures;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation walks the directory tree beneath the storage
+   * directory, starting from the deepest subdirectory implied by the
+   * prefix. The IDs are collected and sorted by path name before the stream
+   * is returned.
+   */
+  @Override
+  public Stream<String> listIds(String prefix, String suffix)
+      throws IOException {
+    final int slash = prefix.lastIndexOf('/');
+    final Path start = slash == -1 ?
+        directory : directory.resolve(prefix.substring(0, slash));
+    if (!Files.isDirectory(start)) {
+      return Stream.empty();
+    }
+    final List<String> ids = new ArrayList<>();
+    try (final Stream<Path> paths = Files.walk(start)) {
+      paths.filter(Files::isRegularFile)
+          .map(path -> directory.relativize(path).toString()
+              .replace(File.separatorChar, '/'))
+          .filter(name -> name.endsWith(suffix))
+          .map(name -> name.substring(0, name.length() - suffix.length()))
+          .filter(id -> id.startsWith(prefix))
+          .forEach(ids::add);
+    }
+    catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    ids.sort(Comparator.comparing(id -> id + suffix));
+    return ids.stream();
+  }
+
   /**
    * Recursively creates the parent directory for the given path.
+   * <p>
+   * A directory that is created concurrently by another thread, e.g. by
+   * another store to the same new directory, is not an error.
+   *
    * @param path the subject path
    * @throws IOException if thrown by when creating a directory
    */
@@ -82,8 +229,29 @@ public class LocalStorageService implements StorageService {
     final Path parent = path.getParent();
     if (parent != null && !Files.exists(parent)) {
       createParentIfNeeded(parent);
-      Files.createDirectory(parent);
-      logger.debug("created directory {}", parent);
+      try {
+        Files.createDirectory(parent);
+        logger.debug("created directory {}", parent);
+      }
+      catch (FileAlreadyExistsException ex) {
+        if (!Files.isDirectory(parent)) throw ex;
+      }
+    }
+  }
+
+  /**
+   * Synchronizes the entries of the given directory with the underlying
+   * storage device, where the platform supports it.
+   * @param directory the subject directory
+   */
+  private static void syncDirectory(Path directory) {
+    try (final FileChannel channel =
+             FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+    catch (IOException ex) {
+      logger.debug("cannot synchronize directory {}: {}", directory,
+          ex.toString());
     }
   }
 
@@ -0,0 +1,286 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.metadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MetadataUnwrapException;
+import org.soulwing.s2ks.MetadataWrapException;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.base.MetadataWrapOperator;
+
+/**
+ * A {@link MetadataWrapOperator} that uses a compact, typed binary encoding
+ * authenticated by an HMAC.
+ * <p>
+ * The encoding consists of a short header, followed by the metadata
+ * properties, each of which is encoded as a name, a type tag, and a value in
+ * a fixed binary representation for the tagged type. An HMAC-SHA256 over the
+ * header and properties is appended. For a secret key, the HMAC key is the
+ * subject key itself. For a private key, the HMAC key is derived from the
+ * encoded private key, which avoids the public key derivation and signature
+ * verification that is needed to validate a JWT signed with a private key.
+ * <p>
+ * When asked to unwrap metadata that is not in the compact encoding, this
+ * operator delegates to the {@link JwtMetadataWrapOperator}, so that
+ * metadata written in either format can be read. Unlike the JWT format, no
+ * temporal claims are validated; property values are returned as stored.
+ *
+ * @author Carl Harris
+ */
+public class CompactMetadataWrapOperator implements MetadataWrapOperator {
+
+  static final byte[] MAGIC = { (byte) 0xa5, 'M' };
+  static final byte VERSION = 1;
+
+  static final byte SECRET_KEY_MAC = 1;
+  static final byte PRIVATE_KEY_MAC = 2;
+
+  static final String MAC_ALGORITHM = "HmacSHA256";
+  static final int MAC_LENGTH = 32;
+
+  private static final byte[] PRIVATE_KEY_MAC_LABEL =
+      "s2ks compact metadata".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int HEADER_LENGTH = MAGIC.length + 4;
+
+  private static final byte STRING = 'S';
+  private static final byte INTEGER = 'I';
+  private static final byte LONG = 'J';
+  private static final byte BOOLEAN = 'Z';
+  private static final byte DOUBLE = 'D';
+
+  private static final CompactMetadataWrapOperator INSTANCE =
+      new CompactMetadataWrapOperator();
+
+  /**
+   * Gets the singleton instance.
+   * @return singleton instance
+   */
+  public static CompactMetadataWrapOperator getInstance() {
+    return INSTANCE;
+  }
+
+  private CompactMetadataWrapOperator() { }
+
+  /**
+   * Tests whether the given wrapped metadata uses the compact encoding.
+   * @param encoded wrapped metadata
+   * @return {@code true} if {@code encoded} starts with the header used by
+   *    this operator
+   */
+  static boolean isCompact(byte[] encoded) {
+    return encoded.length >= HEADER_LENGTH + MAC_LENGTH
+        && encoded[0] == MAGIC[0]
+        && encoded[1] == MAGIC[1];
+  }
+
+  @Override
+  public byte[] wrap(KeyWithMetadata keyWithMetadata)
+      throws MetadataWrapException {
+    final Key key = keyWithMetadata.getKey();
+    final Metadata metadata = keyWithMetadata.getMetadata();
+    try {
+      final byte macType = macType(key);
+      if (metadata.names().size() > 0xffff) {
+        throw new IllegalArgumentException("too many metadata properties");
+      }
+      final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(bos);
+      out.write(MAGIC);
+      out.writeByte(VERSION);
+      out.writeByte(macType);
+      out.writeShort(metadata.names().size());
+      for (final String name : metadata.names()) {
+        out.writeUTF(name);
+        writeValue(out, metadata.get(name, Object.class));
+      }
+      final Mac mac = newMac(key, macType);
+      mac.update(bos.toByteArray());
+      out.write(mac.doFinal());
+      out.flush();
+      return bos.toByteArray();
+    }
+    catch (IOException | NoSuchAlgorithmException | InvalidKeyException
+        | IllegalArgumentException ex) {
+      throw new MetadataWrapException(ex.toString(), ex);
+    }
+  }
+
+  @Override
+  public Metadata unwrap(Key key, byte[] encoded)
+      throws MetadataUnwrapException {
+    if (!isCompact(encoded)) {
+      return JwtMetadataWrapOperator.getInstance().unwrap(key, encoded);
+    }
+    final int length = encoded.length - MAC_LENGTH;
+    try {
+      final Mac mac = newMac(key, encoded[MAGIC.length + 1]);
+      mac.update(encoded, 0, length);
+      final byte[] expected = mac.doFinal();
+      final byte[] actual = Arrays.copyOfRange(encoded, length, encoded.length);
+      if (!MessageDigest.isEqual(expected, actual)) {
+        throw new MetadataUnwrapException("metadata authentication failed");
+      }
+
+      final DataInputStream in = new DataInputStream(
+          new ByteArrayInputStream(encoded, 0, length));
+      in.skipBytes(MAGIC.length);
+      final byte version = in.readByte();
+      if (version != VERSION) {
+        throw new MetadataUnwrapException(
+            "unsupported metadata version " + version);
+      }
+      in.readByte();
+      final int count = in.readUnsignedShort();
+      final Metadata.Builder builder = SimpleMetadata.builder();
+      for (int i = 0; i < count; i++) {
+        builder.set(in.readUTF(), readValue(in));
+      }
+      if (in.available() != 0) {
+        throw new MetadataUnwrapException("unexpected trailing metadata");
+      }
+      return builder.build();
+    }
+    catch (IOException | NoSuchAlgorithmException | InvalidKeyException
+        | IllegalArgumentException ex) {
+      throw new MetadataUnwrapException(ex.toString(), ex);
+    }
+  }
+
+  private static byte macType(Key key) throws InvalidKeyException {
+    if (key instanceof SecretKey) {
+      return SECRET_KEY_MAC;
+    }
+    if (key instanceof PrivateKey) {
+      return PRIVATE_KEY_MAC;
+    }
+    throw new InvalidKeyException("unsupported key or algorithm type");
+  }
+
+  /**
+   * Creates a MAC initialized with the key appropriate to the given subject
+   * key and MAC type.
+   * @param key the subject key
+   * @param macType MAC type from the encoded header
+   * @return initialized MAC
+   * @throws NoSuchAlgorithmException if the MAC algorithm is not supported
+   * @throws InvalidKeyException if the subject key cannot be used with the
+   *    specified MAC type
+   */
+  private static Mac newMac(Key key, byte macType)
+      throws NoSuchAlgorithmException, InvalidKeyException {
+    if (macType(key) != macType) {
+      throw new InvalidKeyException("key type does not match metadata");
+    }
+    final byte[] encoded = key.getEncoded();
+    if (encoded == null) {
+      throw new InvalidKeyException("key encoding is not available");
+    }
+    try {
+      final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(new SecretKeySpec(encoded, MAC_ALGORITHM));
+      if (macType == SECRET_KEY_MAC) {
+        return mac;
+      }
+      final byte[] derived = mac.doFinal(PRIVATE_KEY_MAC_LABEL);
+      try {
+        mac.init(new SecretKeySpec(derived, MAC_ALGORITHM));
+        return mac;
+      }
+      finally {
+        Arrays.fill(derived, (byte) 0);
+      }
+    }
+    finally {
+      Arrays.fill(encoded, (byte) 0);
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, Object value)
+      throws IOException {
+    if (value instanceof String) {
+      final byte[] data = ((String) value).getBytes(StandardCharsets.UTF_8);
+      out.writeByte(STRING);
+      out.writeInt(data.length);
+      out.write(data);
+    }
+    else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    }
+    else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    }
+    else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    }
+    else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    }
+    else {
+      throw new IllegalArgumentException("unsupported value type");
+    }
+  }
+
+  private static Object readValue(DataInputStream in)
+      throws IOException, MetadataUnwrapException {
+    final byte type = in.readByte();
+    switch (type) {
+      case STRING:
+        final int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+          throw new MetadataUnwrapException("invalid string length");
+        }
+        final byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case BOOLEAN:
+        return in.readBoolean();
+      case DOUBLE:
+        return in.readDouble();
+      default:
+        throw new MetadataUnwrapException("unsupported value type " + type);
+    }
+  }
+
+}
@@ -28,16 +28,11 @@ import java.security.interfaces.RSAPrivateCrtKey;
 import java.security.spec.ECPublicKeySpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.RSAPublicKeySpec;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import org.bouncycastle.jcajce.provider.asymmetric.util.EC5Util;
-import org.bouncycastle.jce.ECNamedCurveTable;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.jce.spec.ECNamedCurveSpec;
 import org.bouncycastle.jce.spec.ECParameterSpec;
 import org.bouncycastle.math.ec.ECPoint;
 import org.soulwing.s2ks.MetadataUnwrapException;
@@ -47,11 +42,11 @@ import org.soulwing.s2ks.MetadataUnwrapException;
  *
  * @author Carl Harris
  */
-class JcaPublicKeyFactory implements PublicKeyFactory {
+public class JcaPublicKeyFactory implements PublicKeyFactory {
 
   private final Map<String, PublicKeyStrategy> strategies = new HashMap<>();
 
-  JcaPublicKeyFactory() {
+  public JcaPublicKeyFactory() {
     strategies.put("RSA", new RsaPublicKeyStrategy());
     strategies.put("EC", new EcPublicKeyStrategy());
   }
@@ -120,25 +115,10 @@ class JcaPublicKeyFactory implements PublicKeyFactory {
           bcW.getAffineXCoord().toBigInteger(),
           bcW.getAffineYCoord().toBigInteger());
       final ECPublicKeySpec keySpec = new ECPublicKeySpec(w,
-          findNamedSpec(bcSpec).orElse(ecKey.getParams()));
+          NamedCurveIndex.find(bcSpec).orElse(ecKey.getParams()));
       return KeyFactory.getInstance("EC", bcProvider).generatePublic(keySpec);
     }
 
-    @SuppressWarnings("unchecked")
-    private static Optional<java.security.spec.ECParameterSpec> findNamedSpec(
-        ECParameterSpec spec) {
-      final List<String> names = Collections.list(ECNamedCurveTable.getNames());
-      return names.stream()
-          .map(ECNamedCurveTable::getParameterSpec)
-          .filter(nc -> nc.getN().equals(spec.getN())
-              && nc.getH().equals(spec.getH())
-              && nc.getCurve().equals(spec.getCurve())
-              && nc.getG().equals(spec.getG()))
-          .findFirst()
-          .map(nc -> new ECNamedCurveSpec(nc.getName(), nc.getCurve(),
-              nc.getG(), nc.getN(), nc.getH(), nc.getSeed()));
-    }
-
   }
 
 
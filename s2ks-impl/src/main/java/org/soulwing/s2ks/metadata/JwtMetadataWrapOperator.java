@@ -82,6 +82,9 @@ public class JwtMetadataWrapOperator implements MetadataWrapOperator {
   @Override
   public Metadata unwrap(Key key, byte[] encoded)
       throws MetadataUnwrapException {
+    if (CompactMetadataWrapOperator.isCompact(encoded)) {
+      return CompactMetadataWrapOperator.getInstance().unwrap(key, encoded);
+    }
     try {
       return claimsToMetadata(provider.validator()
           .signatureOperator(signatureOperator(deriveValidationKey(key)))
@@ -90,7 +93,7 @@ public class JwtMetadataWrapOperator implements MetadataWrapOperator {
           .build()
           .validate(new String(encoded, StandardCharsets.UTF_8)));
     }
-    catch (JWTException ex) {
+    catch (JWTException | IllegalArgumentException ex) {
       throw new MetadataUnwrapException(ex.toString(), ex);
     }
   }
@@ -0,0 +1,85 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.metadata;
+
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.soulwing.s2ks.ProviderConfigurationException;
+import org.soulwing.s2ks.base.MetadataWrapOperator;
+
+/**
+ * An enumeration of the formats in which metadata can be wrapped.
+ * <p>
+ * Regardless of the format used to wrap metadata when storing keys, the
+ * operators for all formats can unwrap metadata in any of these formats.
+ *
+ * @author Carl Harris
+ */
+public enum MetadataFormat {
+
+  /**
+   * A JSON Web Token signed with the subject key.
+   */
+  JWT(JwtMetadataWrapOperator::getInstance),
+
+  /**
+   * A compact binary encoding authenticated with an HMAC.
+   */
+  COMPACT(CompactMetadataWrapOperator::getInstance);
+
+  private final Supplier<MetadataWrapOperator> operator;
+
+  MetadataFormat(Supplier<MetadataWrapOperator> operator) {
+    this.operator = operator;
+  }
+
+  /**
+   * Gets the metadata format specified by a provider configuration property.
+   * @param properties provider configuration properties
+   * @param name name of the property
+   * @return metadata format; defaults to {@link #JWT} if the property is not
+   *    set
+   * @throws ProviderConfigurationException if the property specifies an
+   *    unrecognized format
+   */
+  public static MetadataFormat fromProperty(Properties properties,
+      String name) throws ProviderConfigurationException {
+    final String value = properties.getProperty(name);
+    if (value == null) return JWT;
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+    }
+    catch (IllegalArgumentException ex) {
+      throw new ProviderConfigurationException("`" + name
+          + "` property specifies unrecognized metadata format `" + value
+          + "`", ex);
+    }
+  }
+
+  /**
+   * Gets the operator that wraps metadata in this format.
+   * @return metadata wrap operator
+   */
+  public MetadataWrapOperator getOperator() {
+    return operator.get();
+  }
+
+}
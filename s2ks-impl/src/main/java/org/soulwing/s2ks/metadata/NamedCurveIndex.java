@@ -0,0 +1,149 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.metadata;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
+import org.bouncycastle.jce.spec.ECNamedCurveSpec;
+import org.bouncycastle.jce.spec.ECParameterSpec;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+
+/**
+ * An immutable index of the named curves known to the Bouncy Castle
+ * named curve table, keyed by curve parameters.
+ * <p>
+ * The commonly used NIST curves are checked first; the full index of all
+ * named curves is built on first use for any other curve, and shared
+ * thereafter by all callers in the JVM.
+ *
+ * @author Carl Harris
+ */
+final class NamedCurveIndex {
+
+  private static final String[] COMMON_CURVES = {
+      "secp256r1", "secp384r1", "secp521r1"
+  };
+
+  private static final Map<CurveParameters, ECNamedCurveSpec> COMMON =
+      index(COMMON_CURVES);
+
+  private NamedCurveIndex() { }
+
+  /**
+   * Finds the named curve whose parameters match the given specification.
+   * @param spec the subject curve parameters
+   * @return optional named curve specification
+   */
+  static Optional<java.security.spec.ECParameterSpec> find(
+      ECParameterSpec spec) {
+    final CurveParameters key = new CurveParameters(spec.getN(), spec.getH(),
+        spec.getCurve(), spec.getG());
+    final ECNamedCurveSpec common = COMMON.get(key);
+    if (common != null) {
+      return Optional.of(common);
+    }
+    return Optional.ofNullable(AllCurves.INDEX.get(key));
+  }
+
+  /**
+   * Builds an index for the curves with the given names.
+   * <p>
+   * When more than one name refers to the same curve parameters, the first
+   * name wins.
+   *
+   * @param names names of the curves to index
+   * @return immutable index
+   */
+  private static Map<CurveParameters, ECNamedCurveSpec> index(
+      String... names) {
+    final Map<CurveParameters, ECNamedCurveSpec> index = new HashMap<>();
+    for (final String name : names) {
+      final ECNamedCurveParameterSpec nc =
+          ECNamedCurveTable.getParameterSpec(name);
+      if (nc == null) continue;
+      index.putIfAbsent(
+          new CurveParameters(nc.getN(), nc.getH(), nc.getCurve(), nc.getG()),
+          new ECNamedCurveSpec(nc.getName(), nc.getCurve(), nc.getG(),
+              nc.getN(), nc.getH(), nc.getSeed()));
+    }
+    return Collections.unmodifiableMap(index);
+  }
+
+  /**
+   * A holder for the index of all named curves, which is built lazily
+   * when the class is first initialized.
+   */
+  private static class AllCurves {
+
+    static final Map<CurveParameters, ECNamedCurveSpec> INDEX = index(names());
+
+    @SuppressWarnings("unchecked")
+    private static String[] names() {
+      return Collections.list((Enumeration<String>) ECNamedCurveTable.getNames())
+          .toArray(new String[0]);
+    }
+
+  }
+
+  /**
+   * An immutable index key composed of the domain parameters of a curve.
+   */
+  private static final class CurveParameters {
+
+    private final BigInteger n;
+    private final BigInteger h;
+    private final ECCurve curve;
+    private final ECPoint g;
+    private final int hashCode;
+
+    CurveParameters(BigInteger n, BigInteger h, ECCurve curve, ECPoint g) {
+      this.n = n;
+      this.h = h;
+      this.curve = curve;
+      this.g = g;
+      this.hashCode = 31 * n.hashCode() + (h != null ? h.hashCode() : 0);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) return true;
+      if (!(obj instanceof CurveParameters)) return false;
+      final CurveParameters that = (CurveParameters) obj;
+      return n.equals(that.n)
+          && (h != null ? h.equals(that.h) : that.h == null)
+          && curve.equals(that.curve)
+          && g.equals(that.g);
+    }
+
+  }
+
+}
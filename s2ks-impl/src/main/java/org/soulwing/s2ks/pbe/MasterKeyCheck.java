@@ -0,0 +1,157 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.pbe;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.base.DecodingException;
+
+/**
+ * A check value that identifies the password of a password-based
+ * encryption key, without revealing it.
+ * <p>
+ * The check value is an HMAC of a fixed label, keyed by a key derived from
+ * the password using a random salt, in the same manner as the keys that
+ * wrap stored keys. It is recorded with each stored key, so that the
+ * password that wrapped a key can be identified reliably; an attempt to
+ * unwrap a key using the wrong password succeeds by chance about one time
+ * in 256, yielding a corrupt key.
+ * <p>
+ * A single salt is used for all of the check values produced by an
+ * instance, so that the derivation is performed once, and the check values
+ * for the salts of recorded values are cached.
+ *
+ * @author Carl Harris
+ */
+final class MasterKeyCheck {
+
+  static final String HEADER = "Master-Key-Check";
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  private static final byte[] LABEL =
+      "s2ks master key check".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int CHECK_LENGTH = 16;
+
+  private static final int CACHE_LIMIT = 16;
+
+  private static final Pattern PATTERN = Pattern.compile(
+      "(\\d+),([A-Za-z0-9+/=]+),([A-Za-z0-9+/=]+)");
+
+  private final SecretKey pbeKey;
+
+  private final ConcurrentMap<String, byte[]> checks =
+      new ConcurrentHashMap<>();
+
+  private volatile String value;
+
+  MasterKeyCheck(SecretKey pbeKey) {
+    this.pbeKey = pbeKey;
+  }
+
+  /**
+   * Gets the check value to record with a stored key.
+   * @return check value
+   * @throws GeneralSecurityException if the check value cannot be computed
+   */
+  String value() throws GeneralSecurityException {
+    String value = this.value;
+    if (value == null) {
+      synchronized (this) {
+        value = this.value;
+        if (value == null) {
+          final byte[] salt = PbeKeyFactory.newSalt();
+          final int iterationCount = PbeKeyFactory.ITERATION_COUNT;
+          value = iterationCount
+              + "," + Base64.getEncoder().encodeToString(salt)
+              + "," + Base64.getEncoder().encodeToString(
+                  compute(salt, iterationCount));
+          this.value = value;
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Tests whether a recorded check value identifies the password of this
+   * instance's key.
+   * @param recorded the recorded check value
+   * @return {@code true} if the check value was computed using the same
+   *    password
+   * @throws KeyStorageException if the check value is invalid or cannot be
+   *    computed
+   */
+  boolean matches(String recorded) throws KeyStorageException {
+    final Matcher matcher = PATTERN.matcher(recorded);
+    if (!matcher.matches()) {
+      throw new DecodingException(HEADER + " header is invalid");
+    }
+    try {
+      final String key = matcher.group(1) + "," + matcher.group(2);
+      byte[] expected = checks.get(key);
+      if (expected == null) {
+        expected = compute(Base64.getDecoder().decode(matcher.group(2)),
+            Integer.parseInt(matcher.group(1)));
+        if (checks.size() >= CACHE_LIMIT) {
+          checks.clear();
+        }
+        checks.put(key, expected);
+      }
+      return MessageDigest.isEqual(expected,
+          Base64.getDecoder().decode(matcher.group(3)));
+    }
+    catch (IllegalArgumentException ex) {
+      throw new DecodingException(HEADER + " header is invalid", ex);
+    }
+    catch (GeneralSecurityException ex) {
+      throw new KeyStorageException(ex.toString(), ex);
+    }
+  }
+
+  private byte[] compute(byte[] salt, int iterationCount)
+      throws GeneralSecurityException {
+    final PbeDerivedKey derivedKey =
+        PbeKeyFactory.deriveKey(pbeKey, salt, iterationCount);
+    final byte[] keyData = derivedKey.getEncoded();
+    try {
+      final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(new SecretKeySpec(keyData, MAC_ALGORITHM));
+      return Arrays.copyOf(mac.doFinal(LABEL), CHECK_LENGTH);
+    }
+    finally {
+      Arrays.fill(keyData, (byte) 0);
+      derivedKey.destroy();
+    }
+  }
+
+}
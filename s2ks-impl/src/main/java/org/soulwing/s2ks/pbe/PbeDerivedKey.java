@@ -0,0 +1,107 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.pbe;
+
+import java.util.Arrays;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * An AES key derived from a password-based encryption key, along with the
+ * salt and iteration count used to derive it.
+ * <p>
+ * A derived key allows any number of keys to be wrapped with a single key
+ * derivation. Keys wrapped with a derived key are described by the same
+ * parameters as keys wrapped directly with the password-based key, so they
+ * can be unwrapped using the password-based key.
+ *
+ * @author Carl Harris
+ */
+final class PbeDerivedKey implements SecretKey {
+
+  private static final long serialVersionUID = 1L;
+
+  static final String ALGORITHM = "AES";
+
+  private final byte[] keyData;
+  private final byte[] salt;
+  private final int iterationCount;
+
+  private volatile boolean destroyed;
+
+  PbeDerivedKey(byte[] keyData, byte[] salt, int iterationCount) {
+    this.keyData = keyData;
+    this.salt = salt;
+    this.iterationCount = iterationCount;
+  }
+
+  /**
+   * Gets the derived key as an AES key.
+   * @return AES key
+   */
+  SecretKey getAesKey() {
+    if (destroyed) {
+      throw new IllegalStateException("key has been destroyed");
+    }
+    return new SecretKeySpec(keyData, ALGORITHM);
+  }
+
+  /**
+   * Gets the salt used to derive this key.
+   * @return salt
+   */
+  byte[] getSalt() {
+    return salt.clone();
+  }
+
+  /**
+   * Gets the iteration count used to derive this key.
+   * @return iteration count
+   */
+  int getIterationCount() {
+    return iterationCount;
+  }
+
+  @Override
+  public String getAlgorithm() {
+    return ALGORITHM;
+  }
+
+  @Override
+  public String getFormat() {
+    return "RAW";
+  }
+
+  @Override
+  public byte[] getEncoded() {
+    return destroyed ? null : keyData.clone();
+  }
+
+  @Override
+  public void destroy() {
+    Arrays.fill(keyData, (byte) 0);
+    destroyed = true;
+  }
+
+  @Override
+  public boolean isDestroyed() {
+    return destroyed;
+  }
+
+}
@@ -19,7 +19,9 @@
 package org.soulwing.s2ks.pbe;
 
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
@@ -31,6 +33,13 @@ import javax.crypto.spec.PBEKeySpec;
  */
 public class PbeKeyFactory {
 
+  static final String DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA512";
+  static final int DERIVED_KEY_LENGTH = 256;
+  static final int SALT_LENGTH = 20;
+  static final int ITERATION_COUNT = 4096;
+
+  private static final SecureRandom random = new SecureRandom();
+
   /**
    * Generates a key for password-based encryption with the given password.
    * @param password password to use in key derivation
@@ -46,4 +55,67 @@ public class PbeKeyFactory {
     return kg.generateSecret(spec);
   }
 
+  /**
+   * Derives a key from a key for password-based encryption, using a new
+   * random salt.
+   * <p>
+   * The derivation is the same as that performed by a
+   * {@value PbeWrapOperator#PBE_KEY_ALGORITHM} cipher when it is initialized
+   * with the given key, so that keys wrapped using the derived key can be
+   * unwrapped using the password-based key.
+   *
+   * @param pbeKey key for password-based encryption
+   * @return derived key
+   * @throws NoSuchAlgorithmException if the derivation algorithm is not
+   *    supported
+   * @throws InvalidKeySpecException if the key cannot be derived
+   */
+  static PbeDerivedKey deriveKey(SecretKey pbeKey)
+      throws NoSuchAlgorithmException, InvalidKeySpecException {
+    return deriveKey(pbeKey, newSalt(), ITERATION_COUNT);
+  }
+
+  /**
+   * Derives a key from a key for password-based encryption, using the
+   * given salt and iteration count.
+   * @param pbeKey key for password-based encryption
+   * @param salt salt for the derivation
+   * @param iterationCount iteration count for the derivation
+   * @return derived key
+   * @throws NoSuchAlgorithmException if the derivation algorithm is not
+   *    supported
+   * @throws InvalidKeySpecException if the key cannot be derived
+   */
+  static PbeDerivedKey deriveKey(SecretKey pbeKey, byte[] salt,
+      int iterationCount)
+      throws NoSuchAlgorithmException, InvalidKeySpecException {
+    final byte[] encoded = pbeKey.getEncoded();
+    final char[] password = new char[encoded.length];
+    for (int i = 0; i < password.length; i++) {
+      password[i] = (char) (encoded[i] & 0x7f);
+    }
+    final PBEKeySpec spec = new PBEKeySpec(password, salt, iterationCount,
+        DERIVED_KEY_LENGTH);
+    try {
+      final SecretKey derived = SecretKeyFactory.getInstance(
+          DERIVATION_ALGORITHM).generateSecret(spec);
+      return new PbeDerivedKey(derived.getEncoded(), salt, iterationCount);
+    }
+    finally {
+      spec.clearPassword();
+      Arrays.fill(password, (char) 0);
+      Arrays.fill(encoded, (byte) 0);
+    }
+  }
+
+  /**
+   * Generates a new random salt for a key derivation.
+   * @return salt
+   */
+  static byte[] newSalt() {
+    final byte[] salt = new byte[SALT_LENGTH];
+    random.nextBytes(salt);
+    return salt;
+  }
+
 }
@@ -20,11 +20,19 @@ package org.soulwing.s2ks.pbe;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 import javax.crypto.SecretKey;
 
 import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyWrapException;
 import org.soulwing.s2ks.MutableKeyStorage;
 import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
 import org.soulwing.s2ks.base.Blob;
@@ -41,6 +49,12 @@ import org.soulwing.s2ks.base.WrapperKeyResponse;
 /**
  * A {@link MutableKeyStorage} implementation that stores keys using
  * password-based encryption.
+ * <p>
+ * Each stored key records a check value that identifies the password that
+ * wrapped it, so that the password can be {@linkplain
+ * #isWrappedWithMasterKey(String) identified} without relying on an attempt
+ * to unwrap the key. Keys stored before check values were recorded have
+ * none.
  *
  * @author Carl Harris
  */
@@ -48,6 +62,7 @@ public class PbeKeyStorage extends AbstractMutableKeyStorage {
 
   private final SecretKey pbeKey;
   private final StorageService storageService;
+  private final MasterKeyCheck masterKeyCheck;
 
   public PbeKeyStorage(
       BlobEncoder blobEncoder,
@@ -61,6 +76,7 @@ public class PbeKeyStorage extends AbstractMutableKeyStorage {
         metadataEncoder, metadataRecognizer);
     this.pbeKey = pbeKey;
     this.storageService = storageService;
+    this.masterKeyCheck = new MasterKeyCheck(pbeKey);
   }
 
   @Override
@@ -73,6 +89,17 @@ public class PbeKeyStorage extends AbstractMutableKeyStorage {
     return storageService.getContentStream(path);
   }
 
+  @Override
+  protected boolean contentExists(String path) throws IOException {
+    return storageService.exists(path);
+  }
+
+  @Override
+  protected Stream<String> listIds(String prefix, String suffix)
+      throws IOException {
+    return storageService.listIds(prefix, suffix);
+  }
+
   @Override
   protected Key getWrapperKey(List<KeyDescriptor> descriptors) {
     return pbeKey;
@@ -88,9 +115,59 @@ public class PbeKeyStorage extends AbstractMutableKeyStorage {
     return descriptors.get(0);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation compares the check value recorded with the subject
+   * key to one computed using the password of this storage instance.
+   */
+  @Override
+  protected Optional<Boolean> checkMasterKey(List<KeyDescriptor> descriptors)
+      throws KeyStorageException {
+    final String recorded =
+        getSubjectKey(descriptors).getMetadata().get(MasterKeyCheck.HEADER);
+    if (recorded == null) return Optional.empty();
+    return Optional.of(masterKeyCheck.matches(recorded));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This implementation records the check value for the password of this
+   * storage instance.
+   */
+  @Override
+  protected KeyDescriptor recordMasterKey(KeyDescriptor descriptor)
+      throws KeyWrapException {
+    try {
+      return descriptor.withMetadata(MasterKeyCheck.HEADER,
+          masterKeyCheck.value());
+    }
+    catch (GeneralSecurityException ex) {
+      throw new KeyWrapException(ex.toString(), ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * When wrapper keys are reused, this implementation derives a key from the
+   * password-based key, so that a single key derivation is performed for
+   * each batch of keys rather than for each key.
+   */
   @Override
-  protected WrapperKeyResponse nextWrapperKey() {
-    return WrapperKeyResponse.with(pbeKey);
+  protected WrapperKeyResponse nextWrapperKey() throws KeyWrapException {
+    if (getWrapperKeyReuse() == 1) {
+      return WrapperKeyResponse.with(pbeKey);
+    }
+    try {
+      final PbeDerivedKey derivedKey = PbeKeyFactory.deriveKey(pbeKey);
+      return WrapperKeyResponse.with(derivedKey, null,
+          r -> derivedKey.destroy());
+    }
+    catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
+      throw new KeyWrapException(ex.toString(), ex);
+    }
   }
 
   @Override
@@ -98,4 +175,26 @@ public class PbeKeyStorage extends AbstractMutableKeyStorage {
     storageService.storeContent(blobs, path);
   }
 
+  @Override
+  protected Map<String, IOException> storeContents(
+      Map<String, List<Blob>> contents) {
+    return storageService.storeContents(contents);
+  }
+
+  @Override
+  protected boolean createContent(List<Blob> blobs, String path)
+      throws IOException {
+    return storageService.createContent(blobs, path);
+  }
+
+  @Override
+  protected void deleteContent(String path) throws IOException {
+    storageService.delete(path);
+  }
+
+  @Override
+  protected Map<String, IOException> deleteContents(Collection<String> paths) {
+    return storageService.deleteAll(paths);
+  }
+
 }
@@ -18,20 +18,34 @@
  */
 package org.soulwing.s2ks.pbe;
 
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
 import java.util.Base64;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEParameterSpec;
 
 import org.soulwing.s2ks.base.AbstractKeyWrapOperator;
 import org.soulwing.s2ks.base.KeyWrapOperator;
+import org.soulwing.s2ks.jfr.StorageEvent;
+import org.soulwing.s2ks.jfr.StorageEventType;
+import org.soulwing.s2ks.spi.MetricsListener;
 
 /**
  * A {@link KeyWrapOperator} that uses password based encryption.
+ * <p>
+ * A key can also be wrapped using a key derived in advance by
+ * {@link PbeKeyFactory#deriveKey}, which avoids the cost of a key derivation
+ * for each wrapped key. The resulting descriptor is indistinguishable from
+ * one produced using the password-based key, and is unwrapped in the same
+ * manner.
  *
  * @author Carl Harris
  */
@@ -43,6 +57,8 @@ public final class PbeWrapOperator extends AbstractKeyWrapOperator {
   private static final String ALGORITHM =
       PBE_KEY_ALGORITHM + "/CBC/PKCS5Padding";
 
+  private static final String DERIVED_KEY_ALGORITHM = "AES/CBC/PKCS5Padding";
+
   static final Pattern DEK_INFO_PATTERN = Pattern.compile(
       "([A-Za-z0-9_/]+),(\\d+),([A-Za-z0-9+/=]+),([A-Za-z0-9+/=]+)");
 
@@ -60,6 +76,43 @@ public final class PbeWrapOperator extends AbstractKeyWrapOperator {
     super(ALGORITHM, DEK_INFO_PATTERN);
   }
 
+  @Override
+  protected Cipher newWrapCipher(Key wrapperKey)
+      throws NoSuchAlgorithmException, NoSuchPaddingException {
+    if (wrapperKey instanceof PbeDerivedKey) {
+      return Cipher.getInstance(DERIVED_KEY_ALGORITHM);
+    }
+    return super.newWrapCipher(wrapperKey);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Initializing a PBE cipher derives the encryption key from the password,
+   * which dominates the cost of wrapping or unwrapping; it is recorded as a
+   * storage event.
+   */
+  @Override
+  protected void initCipher(Cipher cipher, int mode, Key wrapperKey,
+      AlgorithmParameterSpec spec)
+      throws InvalidKeyException, InvalidAlgorithmParameterException {
+    if (wrapperKey instanceof PbeDerivedKey) {
+      super.initCipher(cipher, mode, ((PbeDerivedKey) wrapperKey).getAesKey(),
+          spec);
+      return;
+    }
+    final StorageEvent event =
+        StorageEvent.begin(StorageEventType.PBE_DERIVE_KEY);
+    MetricsListener.Outcome outcome = MetricsListener.Outcome.FAILURE;
+    try {
+      super.initCipher(cipher, mode, wrapperKey, spec);
+      outcome = MetricsListener.Outcome.SUCCESS;
+    }
+    finally {
+      event.commit(PbeWrapOperator.class.getSimpleName(), outcome);
+    }
+  }
+
   @Override
   protected String encodeParameters(Cipher cipher)
       throws InvalidParameterSpecException {
@@ -76,6 +129,19 @@ public final class PbeWrapOperator extends AbstractKeyWrapOperator {
         + ',' + Base64.getEncoder().encodeToString(ivSpec.getIV());
   }
 
+  @Override
+  protected String encodeParameters(Cipher cipher, Key wrapperKey)
+      throws InvalidParameterSpecException {
+    if (!(wrapperKey instanceof PbeDerivedKey)) {
+      return encodeParameters(cipher);
+    }
+    final PbeDerivedKey derivedKey = (PbeDerivedKey) wrapperKey;
+    return ALGORITHM
+        + "," + derivedKey.getIterationCount()
+        + ',' + Base64.getEncoder().encodeToString(derivedKey.getSalt())
+        + ',' + Base64.getEncoder().encodeToString(cipher.getIV());
+  }
+
   @Override
   protected AlgorithmParameterSpec decodeParameters(Matcher dekInfo) {
     int iterationCount = Integer.parseInt(dekInfo.group(2));
@@ -0,0 +1,45 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.rotation;
+
+/**
+ * A listener that is notified when a {@link KeyRotationScheduler} publishes
+ * a new active key.
+ *
+ * @author Carl Harris
+ */
+@FunctionalInterface
+public interface KeyRotationListener {
+
+  /**
+   * Notifies the recipient that a new key has become the active key for a
+   * family of rotated keys.
+   * <p>
+   * The new key has been stored, and is returned by
+   * {@link KeyRotationScheduler#getActiveKeyId(String)}, before the listener
+   * is notified. A listener is invoked on the scheduler's background thread.
+   *
+   * @param family the family of rotated keys
+   * @param activeId ID of the new active key
+   * @param previousId ID of the key that was previously active, or
+   *    {@code null} if there was no active key
+   */
+  void keyRotated(String family, String activeId, String previousId);
+
+}
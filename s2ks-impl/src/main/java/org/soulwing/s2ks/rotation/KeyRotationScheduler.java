@@ -0,0 +1,659 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.rotation;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.base.AbstractKeyStorage;
+import org.soulwing.s2ks.base.DaemonThreadFactory;
+import org.soulwing.s2ks.keygen.KeyGenerationPool;
+
+/**
+ * A scheduler that periodically generates and stores new keys for families
+ * of rotated keys.
+ * <p>
+ * Each family is identified by an ID prefix, and each key in the family is
+ * stored with an ID composed of the prefix, a {@value #ID_SEPARATOR}, and
+ * the UTC time at which the key was generated (e.g.
+ * {@code tenant-a/20261019T120000000Z}), so that the keys of a family are
+ * enumerated by {@link MutableKeyStorage#ids(String)} in the order in which
+ * they were generated. The most recently generated key is the active key.
+ * When the storage is versioned, the version suffix of each enumerated ID
+ * is ignored.
+ * <p>
+ * Each key is stored with {@value #ISSUED_AT}, {@value #NOT_BEFORE}, and
+ * {@value #EXPIRES} metadata properties, in seconds since the epoch. A new
+ * key expires one rotation interval plus the policy's overlap window after
+ * it is generated. When a key is replaced, its expiration is brought
+ * forward, if necessary, to the end of the overlap window, so that a key
+ * rotated early does not remain valid for its full term.
+ * <p>
+ * Keys are generated and stored on a background scheduler, never on the
+ * thread of a caller of {@link #getActiveKeyId(String)}. When started, the
+ * scheduler finds the active key of each family in storage, and generates
+ * a key only if there is none or if the active key is due for rotation. A
+ * rotation that fails is retried after a delay. When a
+ * {@linkplain Builder#keyPool(KeyGenerationPool) key pool} is specified,
+ * new keys are taken from the pool, which is prefilled for each family's
+ * key specification when the scheduler is started.
+ *
+ * @author Carl Harris
+ */
+public final class KeyRotationScheduler implements AutoCloseable {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(KeyRotationScheduler.class);
+
+  /**
+   * Separator between the family prefix and the timestamp in a key ID.
+   */
+  public static final String ID_SEPARATOR = "/";
+
+  /**
+   * Metadata property for the time at which a key was generated.
+   */
+  public static final String ISSUED_AT = "iat";
+
+  /**
+   * Metadata property for the time before which a key is not valid.
+   */
+  public static final String NOT_BEFORE = "nbf";
+
+  /**
+   * Metadata property for the time after which a key is not valid.
+   */
+  public static final String EXPIRES = "exp";
+
+  static final Duration DEFAULT_RETRY_DELAY = Duration.ofMinutes(1);
+
+  private static final DateTimeFormatter TIMESTAMP =
+      DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmssSSS'Z'")
+          .withZone(ZoneOffset.UTC);
+
+  private final MutableKeyStorage storage;
+  private final Map<String, Family> families;
+  private final List<KeyRotationListener> listeners;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+  private final Clock clock;
+  private final Duration retryDelay;
+  private final KeyGenerationPool keyPool;
+
+  private volatile boolean closed;
+
+  /**
+   * A builder that constructs a {@link KeyRotationScheduler}.
+   */
+  public static class Builder {
+
+    private final Map<String, RotationPolicy> families = new LinkedHashMap<>();
+    private final List<KeyRotationListener> listeners = new ArrayList<>();
+    private MutableKeyStorage storage;
+    private ScheduledExecutorService scheduler;
+    private Clock clock = Clock.systemUTC();
+    private Duration retryDelay = DEFAULT_RETRY_DELAY;
+    private KeyGenerationPool keyPool;
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage in which rotated keys are stored.
+     * @param storage key storage
+     * @return this builder
+     */
+    public Builder storage(MutableKeyStorage storage) {
+      this.storage = storage;
+      return this;
+    }
+
+    /**
+     * Adds a family of rotated keys.
+     * @param prefix ID prefix of the keys in the family, which must not
+     *    contain {@value #ID_SEPARATOR}
+     * @param policy policy for the keys in the family
+     * @return this builder
+     */
+    public Builder family(String prefix, RotationPolicy policy) {
+      if (prefix == null || prefix.isEmpty() || prefix.contains(ID_SEPARATOR)) {
+        throw new IllegalArgumentException("invalid family prefix");
+      }
+      if (policy == null) {
+        throw new IllegalArgumentException("policy is required");
+      }
+      this.families.put(prefix, policy);
+      return this;
+    }
+
+    /**
+     * Adds a listener that is notified when a new key becomes active.
+     * @param listener listener
+     * @return this builder
+     */
+    public Builder listener(KeyRotationListener listener) {
+      this.listeners.add(listener);
+      return this;
+    }
+
+    /**
+     * Specifies the scheduler on which keys are generated and stored.
+     * <p>
+     * If not specified, the rotation scheduler creates a single daemon
+     * thread, which is shut down when the rotation scheduler is closed.
+     *
+     * @param scheduler scheduler
+     * @return this builder
+     */
+    public Builder scheduler(ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    /**
+     * Specifies the clock used to timestamp keys and to schedule rotations.
+     * @param clock clock; defaults to the system UTC clock
+     * @return this builder
+     */
+    public Builder clock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    /**
+     * Specifies the delay before a failed rotation is retried.
+     * @param retryDelay retry delay; defaults to one minute
+     * @return this builder
+     */
+    public Builder retryDelay(Duration retryDelay) {
+      this.retryDelay = retryDelay;
+      return this;
+    }
+
+    /**
+     * Specifies a pool from which new keys are taken.
+     * @param keyPool key pool; if not specified, each key is generated when
+     *    it is needed, on the scheduler's thread
+     * @return this builder
+     */
+    public Builder keyPool(KeyGenerationPool keyPool) {
+      this.keyPool = keyPool;
+      return this;
+    }
+
+    /**
+     * Builds and returns a rotation scheduler according to the configuration
+     * of this builder.
+     * @return rotation scheduler, which must be {@linkplain #start() started}
+     */
+    public KeyRotationScheduler build() {
+      if (storage == null) {
+        throw new IllegalArgumentException("storage is required");
+      }
+      if (families.isEmpty()) {
+        throw new IllegalArgumentException("at least one family is required");
+      }
+      if (clock == null) {
+        throw new IllegalArgumentException("clock is required");
+      }
+      if (retryDelay == null || retryDelay.isNegative()) {
+        throw new IllegalArgumentException(
+            "retry delay must not be negative");
+      }
+      return new KeyRotationScheduler(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyRotationScheduler(Builder builder) {
+    this.storage = builder.storage;
+    final Map<String, Family> families = new LinkedHashMap<>();
+    builder.families.forEach(
+        (prefix, policy) -> families.put(prefix, new Family(prefix, policy)));
+    this.families = Collections.unmodifiableMap(families);
+    this.listeners = new ArrayList<>(builder.listeners);
+    this.ownScheduler = builder.scheduler == null;
+    this.scheduler = ownScheduler ?
+        Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("s2ks-key-rotation-"))
+        : builder.scheduler;
+    this.clock = builder.clock;
+    this.retryDelay = builder.retryDelay;
+    this.keyPool = builder.keyPool;
+  }
+
+  /**
+   * Starts this scheduler.
+   * <p>
+   * The active key of each family is located in storage in the background;
+   * until it has been located, or generated, {@link #getActiveKeyId(String)}
+   * returns {@code null} for the family.
+   */
+  public void start() {
+    if (keyPool != null) {
+      families.values().forEach(
+          family -> keyPool.prefill(family.policy.getKeySpec()));
+    }
+    families.values().forEach(family -> submit(family, () -> resume(family)));
+  }
+
+  /**
+   * Rotates the key for a family immediately, without waiting for the
+   * rotation interval to elapse.
+   * <p>
+   * The next scheduled rotation for the family is one rotation interval
+   * after the new key is generated. Requests that are made before the
+   * requested rotation begins are satisfied by the same new key; a request
+   * made while a rotation is in progress is satisfied by a subsequent
+   * rotation.
+   *
+   * @param prefix ID prefix of the family
+   * @return future that is completed with the ID of the new active key,
+   *    completed exceptionally if the next attempt to generate or store a
+   *    key fails, or cancelled if this scheduler is closed first
+   */
+  public CompletableFuture<String> rotate(String prefix) {
+    final Family family = family(prefix);
+    final CompletableFuture<String> result = new CompletableFuture<>();
+    synchronized (family) {
+      family.requests.add(result);
+    }
+    submit(family, () -> rotate(family));
+    return result;
+  }
+
+  /**
+   * Gets the ID of the active key for a family.
+   * @param prefix ID prefix of the family
+   * @return ID of the active key, or {@code null} if the active key has not
+   *    yet been located or generated
+   */
+  public String getActiveKeyId(String prefix) {
+    return family(prefix).activeId;
+  }
+
+  /**
+   * Closes this scheduler, cancelling any scheduled rotations and any
+   * requested rotations that have not yet begun.
+   * <p>
+   * A rotation that is in progress is allowed to complete.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (final Family family : families.values()) {
+      final List<CompletableFuture<String>> requests;
+      synchronized (family) {
+        if (family.next != null) {
+          family.next.cancel(false);
+        }
+        requests = family.takeRequests();
+      }
+      requests.forEach(request -> request.cancel(false));
+    }
+    if (ownScheduler) {
+      scheduler.shutdown();
+    }
+  }
+
+  private Family family(String prefix) {
+    final Family family = families.get(prefix);
+    if (family == null) {
+      throw new IllegalArgumentException("no such family: " + prefix);
+    }
+    return family;
+  }
+
+  /**
+   * Locates the active key of a family in storage, and schedules its next
+   * rotation, rotating it immediately if it is due.
+   * <p>
+   * Version IDs enumerated by versioned storage are reduced to the IDs of
+   * the keys they are versions of.
+   * @param family the subject family
+   * @throws KeyStorageException if the keys in the family cannot be
+   *    enumerated, or if a new key cannot be stored
+   * @throws GeneralSecurityException if a new key cannot be generated
+   */
+  private void resume(Family family)
+      throws KeyStorageException, GeneralSecurityException {
+    final Optional<String> latest;
+    try (final Stream<String> ids = storage.ids(family.prefix + ID_SEPARATOR)) {
+      latest = ids.map(AbstractKeyStorage::baseId)
+          .filter(id -> issuedAt(family, id) != null)
+          .max(Comparator.naturalOrder());
+    }
+    if (!latest.isPresent()) {
+      rotate(family);
+      return;
+    }
+    final Instant due = issuedAt(family, latest.get())
+        .plus(family.policy.getInterval());
+    synchronized (family) {
+      if (family.activeId == null) {
+        family.activeId = latest.get();
+      }
+    }
+    notifyListeners(family, latest.get(), null);
+    if (!due.isAfter(clock.instant())) {
+      rotate(family);
+    }
+    else {
+      schedule(family, Duration.between(clock.instant(), due),
+          () -> rotate(family));
+    }
+  }
+
+  /**
+   * Generates and stores a new key for a family, makes it the active key,
+   * and schedules the next rotation.
+   * <p>
+   * The lock for the family is not held while the key is stored, so that
+   * requests for rotation and closing the scheduler are not delayed by
+   * storage. Each requested rotation that was pending when the rotation
+   * began is completed with the ID of the new key.
+   * <p>
+   * Rotations of a family can overlap when the scheduler has more than one
+   * thread. If a key issued later than the new key has already become the
+   * active key by the time the new key is stored, the new key is not made
+   * active; it is expired at the end of the overlap window of the active
+   * key, and pending requests are completed with the ID of the active key.
+   *
+   * @param family the subject family
+   * @return ID of the new active key
+   * @throws KeyStorageException if the new key cannot be stored
+   * @throws GeneralSecurityException if the new key cannot be generated
+   */
+  private String rotate(Family family)
+      throws KeyStorageException, GeneralSecurityException {
+    final RotationPolicy policy = family.policy;
+    final Key key = keyPool != null ?
+        keyPool.take(policy.getKeySpec()) : policy.getKeySpec().generate();
+    final Instant now;
+    final List<CompletableFuture<String>> requests;
+    synchronized (family) {
+      now = nextIssuedAt(family);
+      family.lastIssuedAt = now;
+      requests = family.takeRequests();
+    }
+    final String id = family.prefix + ID_SEPARATOR + TIMESTAMP.format(now);
+    final Metadata metadata = SimpleMetadata.builder()
+        .set(ISSUED_AT, now.getEpochSecond())
+        .set(NOT_BEFORE, now.getEpochSecond())
+        .set(EXPIRES, now.plus(policy.getInterval())
+            .plus(policy.getOverlap()).getEpochSecond())
+        .build();
+    try {
+      storage.store(id, new KeyWithMetadata(key, metadata));
+    }
+    catch (KeyStorageException | RuntimeException ex) {
+      requests.forEach(request -> request.completeExceptionally(ex));
+      throw ex;
+    }
+    final String previousId;
+    final Instant activeIssuedAt;
+    synchronized (family) {
+      previousId = family.activeId;
+      activeIssuedAt = previousId != null ? issuedAt(family, previousId) : null;
+      if (activeIssuedAt == null || activeIssuedAt.isBefore(now)) {
+        family.activeId = id;
+      }
+    }
+    if (activeIssuedAt != null && !activeIssuedAt.isBefore(now)) {
+      logger.debug("key {} for family {} was superseded by {} while stored",
+          id, family.prefix, previousId);
+      expire(id, activeIssuedAt.plus(policy.getOverlap()));
+      requests.forEach(request -> request.complete(previousId));
+      return previousId;
+    }
+    logger.debug("rotated key for family {}; active key is {}",
+        family.prefix, id);
+    notifyListeners(family, id, previousId);
+    schedule(family, policy.getInterval(), () -> rotate(family));
+    if (previousId != null) {
+      expire(previousId, now.plus(policy.getOverlap()));
+    }
+    requests.forEach(request -> request.complete(id));
+    return id;
+  }
+
+  /**
+   * Brings forward the expiration of a replaced key to the given time, if
+   * the key expires later.
+   * <p>
+   * A failure to update the key is logged, since the key remains usable
+   * until its original expiration.
+   *
+   * @param id ID of the replaced key
+   * @param expires new expiration time
+   */
+  private void expire(String id, Instant expires) {
+    try {
+      final KeyWithMetadata keyWithMetadata = storage.retrieveWithMetadata(id);
+      final Metadata metadata = keyWithMetadata.getMetadata();
+      final long exp = metadata.getLong(EXPIRES, Long.MAX_VALUE);
+      if (exp <= expires.getEpochSecond()) return;
+      final Metadata.Builder builder = SimpleMetadata.builder();
+      metadata.names().forEach(
+          name -> builder.set(name, metadata.get(name, Object.class)));
+      builder.set(EXPIRES, expires.getEpochSecond());
+      storage.store(id, new KeyWithMetadata(keyWithMetadata.getKey(),
+          builder.build()));
+    }
+    catch (KeyStorageException ex) {
+      logger.warn("cannot update expiration of replaced key {}: {}",
+          id, ex.toString());
+    }
+  }
+
+  /**
+   * Gets the issue time for a new key, which is the current time, or a
+   * millisecond after the active key or the last generated key was issued
+   * if that is later, so that key IDs in a family are unique and ordered.
+   * The caller must hold the lock for the family.
+   * @param family the subject family
+   * @return issue time
+   */
+  private Instant nextIssuedAt(Family family) {
+    final Instant now = clock.instant().truncatedTo(ChronoUnit.MILLIS);
+    Instant latest =
+        family.activeId != null ? issuedAt(family, family.activeId) : null;
+    if (latest == null || family.lastIssuedAt != null
+        && family.lastIssuedAt.isAfter(latest)) {
+      latest = family.lastIssuedAt;
+    }
+    if (latest != null && !now.isAfter(latest)) {
+      return latest.plusMillis(1);
+    }
+    return now;
+  }
+
+  /**
+   * Gets the issue time encoded in the ID of a key in a family.
+   * @param family the subject family
+   * @param id ID of the subject key
+   * @return issue time or {@code null} if {@code id} is not the ID of a key
+   *    generated for the family
+   */
+  private static Instant issuedAt(Family family, String id) {
+    final int start = family.prefix.length() + ID_SEPARATOR.length();
+    if (!id.startsWith(family.prefix + ID_SEPARATOR)) return null;
+    try {
+      return TIMESTAMP.parse(id.substring(start), Instant::from);
+    }
+    catch (DateTimeParseException ex) {
+      return null;
+    }
+  }
+
+  private void notifyListeners(Family family, String activeId,
+      String previousId) {
+    for (final KeyRotationListener listener : listeners) {
+      try {
+        listener.keyRotated(family.prefix, activeId, previousId);
+      }
+      catch (RuntimeException ex) {
+        logger.warn("rotation listener failed: {}", ex.toString(), ex);
+      }
+    }
+  }
+
+  private void submit(Family family, Task task) {
+    schedule(family, Duration.ZERO, task);
+  }
+
+  /**
+   * Schedules a task for a family, replacing any task that is scheduled
+   * for the family. A task that fails is scheduled again after the retry
+   * delay.
+   * <p>
+   * While a rotation is requested, the task is scheduled to run
+   * immediately, so that replacing a scheduled task never leaves a request
+   * waiting for a later rotation. If this scheduler is closed, or the task
+   * cannot be scheduled, pending requests are cancelled or completed
+   * exceptionally.
+   *
+   * @param family the subject family
+   * @param delay delay before the task runs
+   * @param task the task to run
+   */
+  private void schedule(Family family, Duration delay, Task task) {
+    List<CompletableFuture<String>> cancelled = Collections.emptyList();
+    synchronized (family) {
+      if (closed) {
+        cancelled = family.takeRequests();
+      }
+      else {
+        if (family.next != null) {
+          family.next.cancel(false);
+        }
+        final long millis = family.requests.isEmpty() ?
+            Math.max(0, delay.toMillis()) : 0;
+        try {
+          family.next = scheduler.schedule(() -> run(family, task),
+              millis, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ex) {
+          final List<CompletableFuture<String>> requests =
+              family.takeRequests();
+          if (!closed) {
+            requests.forEach(request -> request.completeExceptionally(ex));
+            throw ex;
+          }
+          cancelled = requests;
+        }
+      }
+    }
+    cancelled.forEach(request -> request.cancel(false));
+  }
+
+  private void run(Family family, Task task) {
+    try {
+      task.run();
+    }
+    catch (KeyStorageException | GeneralSecurityException
+        | RuntimeException ex) {
+      logger.warn("key rotation for family {} failed; retrying in {}: {}",
+          family.prefix, retryDelay, ex.toString());
+      final List<CompletableFuture<String>> requests;
+      synchronized (family) {
+        requests = family.takeRequests();
+      }
+      requests.forEach(request -> request.completeExceptionally(ex));
+      schedule(family, retryDelay, task);
+    }
+  }
+
+  /**
+   * A family of rotated keys.
+   */
+  private static final class Family {
+
+    final String prefix;
+    final RotationPolicy policy;
+
+    final List<CompletableFuture<String>> requests = new ArrayList<>();
+
+    volatile String activeId;
+    Instant lastIssuedAt;
+    ScheduledFuture<?> next;
+
+    Family(String prefix, RotationPolicy policy) {
+      this.prefix = prefix;
+      this.policy = policy;
+    }
+
+    /**
+     * Removes and returns the pending requests for rotation. The caller
+     * must hold the lock for this family.
+     * @return requests
+     */
+    List<CompletableFuture<String>> takeRequests() {
+      if (requests.isEmpty()) return Collections.emptyList();
+      final List<CompletableFuture<String>> taken = new ArrayList<>(requests);
+      requests.clear();
+      return taken;
+    }
+
+  }
+
+  /**
+   * A task run for a family on the scheduler.
+   */
+  @FunctionalInterface
+  private interface Task {
+    void run() throws KeyStorageException, GeneralSecurityException;
+  }
+
+}
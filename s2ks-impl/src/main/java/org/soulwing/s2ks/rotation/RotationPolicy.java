@@ -0,0 +1,155 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.rotation;
+
+import java.time.Duration;
+
+import org.soulwing.s2ks.keygen.KeySpec;
+
+/**
+ * A policy that describes the keys generated for a family of rotated keys,
+ * and how often they are rotated.
+ * <p>
+ * The algorithm and key size are interpreted as described for
+ * {@link KeySpec}; for a key pair algorithm, the private key of each
+ * generated key pair is stored.
+ *
+ * @author Carl Harris
+ */
+public final class RotationPolicy {
+
+  private final KeySpec keySpec;
+  private final Duration interval;
+  private final Duration overlap;
+
+  /**
+   * A builder that constructs a {@link RotationPolicy}.
+   */
+  public static class Builder {
+
+    private String algorithm;
+    private int keySize;
+    private Duration interval;
+    private Duration overlap = Duration.ZERO;
+
+    private Builder() {}
+
+    /**
+     * Specifies the algorithm of the generated keys.
+     * @param algorithm key generator or key pair generator algorithm
+     * @return this builder
+     */
+    public Builder algorithm(String algorithm) {
+      this.algorithm = algorithm;
+      return this;
+    }
+
+    /**
+     * Specifies the size of the generated keys.
+     * @param keySize key size in bits, in the units used by the generator
+     *    for the algorithm
+     * @return this builder
+     */
+    public Builder keySize(int keySize) {
+      this.keySize = keySize;
+      return this;
+    }
+
+    /**
+     * Specifies the interval between rotations.
+     * @param interval rotation interval
+     * @return this builder
+     */
+    public Builder interval(Duration interval) {
+      this.interval = interval;
+      return this;
+    }
+
+    /**
+     * Specifies the interval for which a key remains valid after it has
+     * been replaced by a new active key.
+     * @param overlap overlap window; defaults to zero
+     * @return this builder
+     */
+    public Builder overlap(Duration overlap) {
+      this.overlap = overlap;
+      return this;
+    }
+
+    /**
+     * Builds and returns a policy according to the configuration of this
+     * builder.
+     * @return policy
+     * @throws IllegalArgumentException if the algorithm is not supported by
+     *    a key generator or key pair generator
+     */
+    public RotationPolicy build() {
+      final KeySpec keySpec = KeySpec.of(algorithm, keySize);
+      if (interval == null || interval.isNegative() || interval.isZero()) {
+        throw new IllegalArgumentException("interval must be positive");
+      }
+      if (overlap == null || overlap.isNegative()) {
+        throw new IllegalArgumentException("overlap must not be negative");
+      }
+      return new RotationPolicy(keySpec, interval, overlap);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private RotationPolicy(KeySpec keySpec, Duration interval,
+      Duration overlap) {
+    this.keySpec = keySpec;
+    this.interval = interval;
+    this.overlap = overlap;
+  }
+
+  /**
+   * Gets the specification of the generated keys.
+   * @return key specification
+   */
+  public KeySpec getKeySpec() {
+    return keySpec;
+  }
+
+  /**
+   * Gets the interval between rotations.
+   * @return rotation interval
+   */
+  public Duration getInterval() {
+    return interval;
+  }
+
+  /**
+   * Gets the interval for which a key remains valid after it has been
+   * replaced.
+   * @return overlap window
+   */
+  public Duration getOverlap() {
+    return overlap;
+  }
+
+}
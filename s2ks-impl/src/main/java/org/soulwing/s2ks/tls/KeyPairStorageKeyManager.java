@@ -0,0 +1,492 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.tls;
+
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+
+import org.soulwing.s2ks.KeyPairInfo;
+import org.soulwing.s2ks.KeyPairStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.base.DaemonThreadFactory;
+
+/**
+ * An {@link X509ExtendedKeyManager} that serves key pairs retrieved from a
+ * {@link KeyPairStorage}.
+ * <p>
+ * The key pairs are retrieved when the key manager is
+ * {@linkplain #start() started}, and are then periodically retrieved again
+ * on a background thread. The key manager serves key pairs from an
+ * immutable snapshot that is replaced atomically when a refresh retrieves a
+ * changed key pair, so a TLS handshake never waits for storage I/O or key
+ * decryption. When a key pair cannot be retrieved during a refresh, the
+ * previously retrieved key pair continues to be served.
+ * <p>
+ * An alias chosen by the key manager names a key pair ID and the generation
+ * in which the key pair was retrieved (e.g. {@code rsa#3}). The private key
+ * and certificate chain for an alias are resolved from the key pair that the
+ * alias names, so a handshake in progress completes using the key pair with
+ * which it started, even if a refresh replaces the key pair in the meantime.
+ * The key pairs replaced by the most recent refresh remain available for
+ * this purpose. A bare key pair ID is also accepted as an alias, and names
+ * the key pair currently served for that ID.
+ * <p>
+ * Refresh is inexpensive when the storage caches key pairs and detects
+ * changes, as do the storage instances obtained from the bundled providers.
+ *
+ * @author Carl Harris
+ */
+public final class KeyPairStorageKeyManager extends X509ExtendedKeyManager
+    implements AutoCloseable {
+
+  static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+  static final char GENERATION_DELIMITER = '#';
+
+  private final KeyPairStorage storage;
+  private final List<String> ids;
+  private final Duration refreshInterval;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+  private final BiConsumer<String, KeyStorageException> failureHandler;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+  private ScheduledFuture<?> refreshTask;
+
+  /**
+   * A builder that constructs a {@link KeyPairStorageKeyManager}.
+   */
+  public static class Builder {
+
+    private final List<String> ids = new ArrayList<>();
+    private KeyPairStorage storage;
+    private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+    private ScheduledExecutorService scheduler;
+    private BiConsumer<String, KeyStorageException> failureHandler =
+        (id, ex) -> { };
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage from which key pairs are retrieved.
+     * @param storage key pair storage
+     * @return this builder
+     */
+    public Builder storage(KeyPairStorage storage) {
+      this.storage = storage;
+      return this;
+    }
+
+    /**
+     * Specifies the IDs of the key pairs to serve.
+     * @param ids key pair IDs, in order of preference
+     * @return this builder
+     */
+    public Builder ids(String... ids) {
+      this.ids.addAll(Arrays.asList(ids));
+      return this;
+    }
+
+    /**
+     * Specifies the interval between refreshes of the served key pairs.
+     * @param refreshInterval refresh interval
+     * @return this builder
+     */
+    public Builder refreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+      return this;
+    }
+
+    /**
+     * Specifies the scheduler used to refresh the served key pairs.
+     * <p>
+     * If not specified, the key manager creates a scheduler with a single
+     * daemon thread, which is shut down when the key manager is closed.
+     *
+     * @param scheduler scheduler
+     * @return this builder
+     */
+    public Builder scheduler(ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    /**
+     * Specifies a handler that is notified when a key pair cannot be
+     * retrieved during a refresh.
+     * @param failureHandler handler that accepts the key pair ID and the
+     *    exception that occurred
+     * @return this builder
+     */
+    public Builder onRefreshFailure(
+        BiConsumer<String, KeyStorageException> failureHandler) {
+      this.failureHandler = failureHandler;
+      return this;
+    }
+
+    /**
+     * Builds and returns a key manager according to the configuration of
+     * this builder.
+     * @return key manager; it must be started before use
+     */
+    public KeyPairStorageKeyManager build() {
+      if (storage == null) {
+        throw new IllegalArgumentException("storage is required");
+      }
+      if (ids.isEmpty()) {
+        throw new IllegalArgumentException("at least one ID is required");
+      }
+      if (refreshInterval == null || refreshInterval.isNegative()
+          || refreshInterval.isZero()) {
+        throw new IllegalArgumentException(
+            "refresh interval must be positive");
+      }
+      return new KeyPairStorageKeyManager(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyPairStorageKeyManager(Builder builder) {
+    this.storage = builder.storage;
+    this.ids = Collections.unmodifiableList(
+        new ArrayList<>(new LinkedHashSet<>(builder.ids)));
+    this.refreshInterval = builder.refreshInterval;
+    this.ownScheduler = builder.scheduler == null;
+    this.scheduler = ownScheduler ?
+        Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("s2ks-key-manager-refresh-"))
+        : builder.scheduler;
+    this.failureHandler = builder.failureHandler;
+  }
+
+  /**
+   * Retrieves the key pairs to serve and schedules periodic refresh.
+   * @throws KeyStorageException if any key pair cannot be retrieved
+   */
+  public synchronized void start() throws KeyStorageException {
+    if (refreshTask != null) {
+      throw new IllegalStateException("already started");
+    }
+    final long generation = this.generation.incrementAndGet();
+    final Map<String, Entry> entries = new LinkedHashMap<>();
+    for (final String id : ids) {
+      entries.put(id, new Entry(id, storage.retrieveKeyPair(id), generation));
+    }
+    snapshot = new Snapshot(entries, Collections.emptyMap());
+    final long interval = refreshInterval.toNanos();
+    refreshTask = scheduler.scheduleWithFixedDelay(this::refresh,
+        interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Retrieves the key pairs to serve, replacing the current snapshot if any
+   * key pair has changed.
+   * <p>
+   * This method is invoked periodically once the key manager is started,
+   * and may also be invoked directly to refresh on demand. Refreshes are
+   * serialized, so that a refresh never replaces the snapshot with key
+   * pairs older than those retrieved by an overlapping refresh.
+   */
+  public synchronized void refresh() {
+    final Snapshot current = snapshot;
+    final Map<String, Entry> entries = new LinkedHashMap<>();
+    final Map<String, Entry> retired = new LinkedHashMap<>();
+    long generation = 0;
+    for (final String id : ids) {
+      final Entry previous = current.entries.get(id);
+      try {
+        final KeyPairInfo keyPair = storage.retrieveKeyPair(id);
+        if (previous != null && isSame(keyPair, previous.keyPair)) {
+          entries.put(id, previous);
+          continue;
+        }
+        if (generation == 0) {
+          generation = this.generation.incrementAndGet();
+        }
+        entries.put(id, new Entry(id, keyPair, generation));
+        if (previous != null) {
+          retired.put(id, previous);
+        }
+      }
+      catch (KeyStorageException ex) {
+        failureHandler.accept(id, ex);
+        if (previous != null) {
+          entries.put(id, previous);
+        }
+      }
+      catch (RuntimeException ex) {
+        failureHandler.accept(id, new KeyStorageException(ex));
+        if (previous != null) {
+          entries.put(id, previous);
+        }
+      }
+    }
+    if (generation != 0) {
+      snapshot = new Snapshot(entries, retired);
+    }
+  }
+
+  /**
+   * Stops periodic refresh.
+   */
+  @Override
+  public synchronized void close() {
+    if (refreshTask != null) {
+      refreshTask.cancel(false);
+    }
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Creates an SSL context that uses this key manager and the default
+   * trust managers.
+   * @param protocol SSL context protocol (e.g. {@code TLS})
+   * @return SSL context
+   * @throws GeneralSecurityException if the context cannot be created
+   */
+  public SSLContext newSSLContext(String protocol)
+      throws GeneralSecurityException {
+    final SSLContext context = SSLContext.getInstance(protocol);
+    context.init(new KeyManager[] { this }, null, null);
+    return context;
+  }
+
+  @Override
+  public String[] getClientAliases(String keyType, Principal[] issuers) {
+    return getAliases(keyType, issuers);
+  }
+
+  @Override
+  public String chooseClientAlias(String[] keyTypes, Principal[] issuers,
+      Socket socket) {
+    return chooseAlias(keyTypes, issuers);
+  }
+
+  @Override
+  public String chooseEngineClientAlias(String[] keyTypes,
+      Principal[] issuers, SSLEngine engine) {
+    return chooseAlias(keyTypes, issuers);
+  }
+
+  @Override
+  public String[] getServerAliases(String keyType, Principal[] issuers) {
+    return getAliases(keyType, issuers);
+  }
+
+  @Override
+  public String chooseServerAlias(String keyType, Principal[] issuers,
+      Socket socket) {
+    return chooseAlias(new String[] { keyType }, issuers);
+  }
+
+  @Override
+  public String chooseEngineServerAlias(String keyType, Principal[] issuers,
+      SSLEngine engine) {
+    return chooseAlias(new String[] { keyType }, issuers);
+  }
+
+  @Override
+  public X509Certificate[] getCertificateChain(String alias) {
+    final Entry entry = snapshot.resolve(alias);
+    return entry != null ?
+        entry.keyPair.getCertificates().toArray(new X509Certificate[0]) : null;
+  }
+
+  @Override
+  public PrivateKey getPrivateKey(String alias) {
+    final Entry entry = snapshot.resolve(alias);
+    return entry != null ? entry.keyPair.getPrivateKey() : null;
+  }
+
+  private String[] getAliases(String keyType, Principal[] issuers) {
+    final List<String> aliases = new ArrayList<>();
+    for (final Entry entry : snapshot.entries.values()) {
+      if (matches(entry.keyPair, keyType, issuers)) {
+        aliases.add(entry.alias);
+      }
+    }
+    return aliases.isEmpty() ? null : aliases.toArray(new String[0]);
+  }
+
+  private String chooseAlias(String[] keyTypes, Principal[] issuers) {
+    if (keyTypes == null) return null;
+    final Snapshot snapshot = this.snapshot;
+    for (final String keyType : keyTypes) {
+      for (final Entry entry : snapshot.entries.values()) {
+        if (matches(entry.keyPair, keyType, issuers)) {
+          return entry.alias;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Tests whether a key pair is suitable for the given key type and
+   * issuers.
+   * @param keyPair the subject key pair
+   * @param keyType key type name as used by JSSE (e.g. {@code RSA} or
+   *    {@code EC_EC}); only the key algorithm before any underscore is
+   *    considered, and it matches an {@code ECDSA} key as {@code EC}
+   * @param issuers acceptable issuers, or {@code null} if any issuer is
+   *    acceptable
+   * @return {@code true} if the key pair matches
+   */
+  private static boolean matches(KeyPairInfo keyPair, String keyType,
+      Principal[] issuers) {
+    if (keyType == null) return false;
+    final int index = keyType.indexOf('_');
+    final String algorithm = index != -1 ?
+        keyType.substring(0, index) : keyType;
+    if (!algorithm.equals(keyAlgorithm(keyPair.getPrivateKey()))) {
+      return false;
+    }
+    if (issuers == null || issuers.length == 0) return true;
+    final Set<Principal> acceptable = new LinkedHashSet<>(
+        Arrays.asList(issuers));
+    for (final X509Certificate certificate : keyPair.getCertificates()) {
+      if (acceptable.contains(certificate.getIssuerX500Principal())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the algorithm of a private key, using the name that JSSE uses for
+   * the key type.
+   * @param privateKey the subject key
+   * @return key algorithm; a key loaded by BouncyCastle reports {@code ECDSA}
+   *    where JSSE uses {@code EC}
+   */
+  private static String keyAlgorithm(PrivateKey privateKey) {
+    final String algorithm = privateKey.getAlgorithm();
+    return "ECDSA".equals(algorithm) ? "EC" : algorithm;
+  }
+
+  private static boolean isSame(KeyPairInfo keyPair, KeyPairInfo previous) {
+    return previous != null
+        && (keyPair == previous
+            || keyPair.getPrivateKey().equals(previous.getPrivateKey())
+                && keyPair.getCertificates().equals(
+                    previous.getCertificates()));
+  }
+
+  /**
+   * A key pair served by the key manager, along with its alias.
+   */
+  private static final class Entry {
+
+    final String alias;
+    final KeyPairInfo keyPair;
+    final long generation;
+
+    Entry(String id, KeyPairInfo keyPair, long generation) {
+      this.alias = id + GENERATION_DELIMITER + generation;
+      this.keyPair = keyPair;
+      this.generation = generation;
+    }
+
+  }
+
+  /**
+   * An immutable snapshot of the served key pairs, along with the key pairs
+   * that were replaced when the snapshot was created.
+   */
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY =
+        new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+
+    final Map<String, Entry> entries;
+    final Map<String, Entry> retired;
+
+    Snapshot(Map<String, Entry> entries, Map<String, Entry> retired) {
+      this.entries = Collections.unmodifiableMap(entries);
+      this.retired = Collections.unmodifiableMap(retired);
+    }
+
+    /**
+     * Finds the key pair named by an alias.
+     * @param alias an alias chosen by the key manager, or a key pair ID
+     * @return the named entry or {@code null} if there is no such entry
+     */
+    Entry resolve(String alias) {
+      if (alias == null) return null;
+      final int index = alias.lastIndexOf(GENERATION_DELIMITER);
+      if (index != -1) {
+        final Entry entry = find(alias.substring(0, index),
+            alias.substring(index + 1));
+        if (entry != null) return entry;
+      }
+      return entries.get(alias);
+    }
+
+    private Entry find(String id, String generation) {
+      final long value;
+      try {
+        value = Long.parseLong(generation);
+      }
+      catch (NumberFormatException ex) {
+        return null;
+      }
+      final Entry entry = entries.get(id);
+      if (entry != null && entry.generation == value) return entry;
+      final Entry previous = retired.get(id);
+      if (previous != null && previous.generation == value) return previous;
+      return null;
+    }
+
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A persistent record of the progress of a transfer of keys.
+ * <p>
+ * Keys are transferred in the order in which the storage enumerates them.
+ * The checkpoint records a position, such that the key with that ID and
+ * every key enumerated before it has been transferred, along with the IDs of
+ * the keys that could not be transferred. The checkpoint is stored as a properties file,
+ * which is replaced atomically each time it is saved.
+ *
+ * @author Carl Harris
+ */
+final class Checkpoint {
+
+  static final String POSITION = "position";
+  static final String FAILED = "failed.";
+
+  private final Path path;
+  private final String position;
+  private final Set<String> failed;
+
+  private Checkpoint(Path path, String position, Set<String> failed) {
+    this.path = path;
+    this.position = position;
+    this.failed = Collections.unmodifiableSet(failed);
+  }
+
+  /**
+   * Loads the checkpoint at the given path.
+   * @param path path to the checkpoint file
+   * @return checkpoint; if the file does not exist, the checkpoint has no
+   *    position and no failed IDs
+   * @throws IOException if an error occurs in reading the file
+   */
+  static Checkpoint load(Path path) throws IOException {
+    final Properties properties = new Properties();
+    try (final InputStream inputStream = Files.newInputStream(path)) {
+      properties.load(inputStream);
+    }
+    catch (NoSuchFileException ex) {
+      assert true;  // no checkpoint yet
+    }
+    final Set<String> failed = new TreeSet<>();
+    for (final String name : properties.stringPropertyNames()) {
+      if (name.startsWith(FAILED)) {
+        failed.add(properties.getProperty(name));
+      }
+    }
+    return new Checkpoint(path, properties.getProperty(POSITION), failed);
+  }
+
+  /**
+   * Gets the path to the checkpoint file.
+   * @return path
+   */
+  Path getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the position of this checkpoint.
+   * @return the last ID such that it and every key enumerated before it
+   *    have been transferred or have failed; {@code null} if no key has
+   *    been transferred
+   */
+  String getPosition() {
+    return position;
+  }
+
+  /**
+   * Gets the IDs of the keys that could not be transferred.
+   * @return set of IDs in ascending order
+   */
+  Set<String> getFailed() {
+    return failed;
+  }
+
+  /**
+   * Saves a new state for this checkpoint, atomically replacing the
+   * checkpoint file.
+   * @param position new position
+   * @param failed IDs of the keys that could not be transferred
+   * @return checkpoint representing the saved state
+   * @throws IOException if an error occurs in writing the file
+   */
+  Checkpoint save(String position, Collection<String> failed)
+      throws IOException {
+    final Properties properties = new Properties();
+    if (position != null) {
+      properties.setProperty(POSITION, position);
+    }
+    int index = 0;
+    for (final String id : failed) {
+      properties.setProperty(FAILED + index++, id);
+    }
+    final Path parent = path.toAbsolutePath().getParent();
+    final Path temp = Files.createTempFile(parent,
+        path.getFileName().toString(), ".tmp");
+    try {
+      try (final OutputStream outputStream = Files.newOutputStream(temp)) {
+        properties.store(outputStream, null);
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      Files.deleteIfExists(temp);
+    }
+    return new Checkpoint(path, position, new TreeSet<>(failed));
+  }
+
+  /**
+   * Deletes the checkpoint file.
+   * @throws IOException if an error occurs in deleting the file
+   */
+  void delete() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+}
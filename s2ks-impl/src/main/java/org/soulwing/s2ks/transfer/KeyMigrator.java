@@ -0,0 +1,370 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.NoSuchProviderException;
+import org.soulwing.s2ks.ProviderConfigurationException;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+
+/**
+ * A tool that copies keys and their metadata from one storage provider to
+ * another; e.g. from the local provider used in a staging environment to the
+ * AWS provider used in production.
+ * <p>
+ * Each version of a versioned key is copied under its version ID, and once
+ * the current version has been copied, the version pointer of the key is
+ * copied, so that the key can be retrieved from the target by its ID.
+ * <p>
+ * Keys are copied in parallel, with a bounded number of keys in flight, and
+ * progress can be recorded in a checkpoint file in the same manner as for
+ * the {@link KeyRewrapper}. In a <em>dry run</em>, each key is retrieved
+ * from the source, but nothing is written to the target, and no checkpoint
+ * is used. When <em>verification</em> is enabled, each copied key is
+ * retrieved from the target and compared to the source; combined with a dry
+ * run, this verifies the result of a previous migration without writing
+ * anything, and each key that is missing from the target is reported as a
+ * failure.
+ * <p>
+ * When the target is created by the migrator from a provider name and is
+ * one of the bundled storage implementations, each wrapper key obtained by
+ * the target is reused for up to {@value #DEFAULT_WRAPPER_KEY_REUSE} keys,
+ * so that (for example) a migration to AWS requires one KMS data key request
+ * per batch of keys rather than one per key. A target instance supplied by
+ * the application is used as configured, since the application may be
+ * using it concurrently.
+ *
+ * @author Carl Harris
+ */
+public final class KeyMigrator {
+
+  static final int DEFAULT_WRAPPER_KEY_REUSE = 100;
+
+  private final TransferOptions options;
+  private final boolean dryRun;
+  private final boolean verify;
+  private final boolean ownTarget;
+  private final int wrapperKeyReuse;
+
+  /**
+   * A builder that constructs a {@link KeyMigrator}.
+   */
+  public static class Builder {
+
+    private final TransferOptions options = new TransferOptions();
+    private boolean dryRun;
+    private boolean verify;
+    private boolean ownTarget;
+    private int wrapperKeyReuse = DEFAULT_WRAPPER_KEY_REUSE;
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage from which keys are copied.
+     * @param source source storage
+     * @return this builder
+     */
+    public Builder source(KeyStorage source) {
+      options.source = source;
+      return this;
+    }
+
+    /**
+     * Specifies the storage from which keys are copied, using the named
+     * provider.
+     * @param provider name of the source provider
+     * @param properties configuration properties for the provider
+     * @return this builder
+     * @throws NoSuchProviderException if the provider cannot be found
+     * @throws ProviderConfigurationException if the provider's
+     *    configuration is invalid
+     * @see KeyStorageLocator#getInstance(String, Properties)
+     */
+    public Builder source(String provider, Properties properties)
+        throws NoSuchProviderException, ProviderConfigurationException {
+      return source(KeyStorageLocator.getInstance(provider, properties));
+    }
+
+    /**
+     * Specifies the storage to which keys are copied.
+     * @param target target storage
+     * @return this builder
+     */
+    public Builder target(MutableKeyStorage target) {
+      options.target = target;
+      ownTarget = false;
+      return this;
+    }
+
+    /**
+     * Specifies the storage to which keys are copied, using the named
+     * provider.
+     * @param provider name of the target provider, which must support
+     *    mutable storage
+     * @param properties configuration properties for the provider
+     * @return this builder
+     * @throws NoSuchProviderException if a mutable provider with the given
+     *    name cannot be found
+     * @throws ProviderConfigurationException if the provider's
+     *    configuration is invalid
+     * @see KeyStorageLocator#getMutableInstance(String, Properties)
+     */
+    public Builder target(String provider, Properties properties)
+        throws NoSuchProviderException, ProviderConfigurationException {
+      target(KeyStorageLocator.getMutableInstance(provider, properties));
+      ownTarget = true;
+      return this;
+    }
+
+    /**
+     * Specifies a prefix that limits the keys to copy.
+     * @param prefix prefix of the IDs of the keys to copy; by default,
+     *    all keys are copied
+     * @return this builder
+     */
+    public Builder prefix(String prefix) {
+      options.prefix = prefix;
+      return this;
+    }
+
+    /**
+     * Specifies the maximum number of keys to copy concurrently.
+     * @param parallelism number of keys; defaults to
+     *    {@value TransferOptions#DEFAULT_PARALLELISM}
+     * @return this builder
+     */
+    public Builder parallelism(int parallelism) {
+      options.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Specifies a file in which progress is recorded.
+     * <p>
+     * A checkpoint cannot be used in a dry run, since a dry run does not
+     * copy the keys that it records as processed.
+     *
+     * @param checkpoint path to the checkpoint file; if the file exists, the
+     *    run resumes from the recorded progress
+     * @return this builder
+     */
+    public Builder checkpoint(Path checkpoint) {
+      options.checkpoint = checkpoint;
+      return this;
+    }
+
+    /**
+     * Specifies the number of keys to copy between saves of the checkpoint.
+     * @param checkpointInterval number of keys; defaults to
+     *    {@value TransferOptions#DEFAULT_CHECKPOINT_INTERVAL}
+     * @return this builder
+     */
+    public Builder checkpointInterval(int checkpointInterval) {
+      options.checkpointInterval = checkpointInterval;
+      return this;
+    }
+
+    /**
+     * Specifies the executor on which keys are copied.
+     * <p>
+     * If not specified, each run creates a pool of daemon threads sized
+     * according to the parallelism, which is shut down when the run ends.
+     *
+     * @param executor executor
+     * @return this builder
+     */
+    public Builder executor(Executor executor) {
+      options.executor = executor;
+      return this;
+    }
+
+    /**
+     * Specifies whether keys should be retrieved from the source without
+     * being stored to the target.
+     * @param dryRun {@code true} to perform a dry run
+     * @return this builder
+     */
+    public Builder dryRun(boolean dryRun) {
+      this.dryRun = dryRun;
+      return this;
+    }
+
+    /**
+     * Specifies whether each key in the target should be compared to the
+     * corresponding key in the source.
+     * <p>
+     * In a dry run, nothing is copied, so each key that is not already in
+     * the target is reported as a failure.
+     *
+     * @param verify {@code true} to verify keys
+     * @return this builder
+     */
+    public Builder verify(boolean verify) {
+      this.verify = verify;
+      return this;
+    }
+
+    /**
+     * Specifies the number of keys the target may wrap using the same
+     * wrapper key during the run.
+     * <p>
+     * This setting applies only to a target that the migrator creates
+     * using {@link #target(String, Properties)}, and that supports wrapper
+     * key reuse. The configuration of a target instance supplied using
+     * {@link #target(MutableKeyStorage)} is not changed.
+     *
+     * @param wrapperKeyReuse number of keys; defaults to
+     *    {@value #DEFAULT_WRAPPER_KEY_REUSE}
+     * @return this builder
+     * @see AbstractMutableKeyStorage#setWrapperKeyReuse(int)
+     */
+    public Builder wrapperKeyReuse(int wrapperKeyReuse) {
+      this.wrapperKeyReuse = wrapperKeyReuse;
+      return this;
+    }
+
+    /**
+     * Builds and returns a migrator according to the configuration of
+     * this builder.
+     * @return migrator
+     */
+    public KeyMigrator build() {
+      options.validate();
+      if (dryRun && options.checkpoint != null) {
+        throw new IllegalArgumentException(
+            "checkpoint cannot be used in a dry run");
+      }
+      if (wrapperKeyReuse < 1) {
+        throw new IllegalArgumentException(
+            "wrapper key reuse must be positive");
+      }
+      return new KeyMigrator(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyMigrator(Builder builder) {
+    this.options = builder.options.copy();
+    this.dryRun = builder.dryRun;
+    this.verify = builder.verify;
+    this.ownTarget = builder.ownTarget;
+    this.wrapperKeyReuse = builder.wrapperKeyReuse;
+  }
+
+  /**
+   * Copies each key whose ID starts with the configured prefix.
+   * @return result of the run; in a dry run, the keys that would have been
+   *    copied are reported as processed, and keys that could not be
+   *    retrieved or verified are reported as failures
+   * @throws KeyStorageException if the keys cannot be enumerated, if the
+   *    checkpoint cannot be read or saved, or if the calling thread is
+   *    interrupted
+   */
+  public TransferResult run() throws KeyStorageException {
+    final AbstractMutableKeyStorage reusableTarget =
+        ownTarget && options.target instanceof AbstractMutableKeyStorage ?
+            (AbstractMutableKeyStorage) options.target : null;
+    if (reusableTarget != null) {
+      reusableTarget.setWrapperKeyReuse(wrapperKeyReuse);
+    }
+    try {
+      return options.run("s2ks-migrate-", this::migrate);
+    }
+    finally {
+      if (reusableTarget != null) {
+        // retires the last shared wrapper key, so that it is destroyed
+        reusableTarget.setWrapperKeyReuse(1);
+      }
+    }
+  }
+
+  /**
+   * Copies the key with the given ID.
+   * @param id ID of the subject key
+   * @return {@code true} to indicate that the key was processed
+   * @throws KeyStorageException if the key cannot be copied or verified
+   */
+  private boolean migrate(String id) throws KeyStorageException {
+    final KeyWithMetadata expected = options.source.retrieveWithMetadata(id);
+    if (!dryRun) {
+      options.target.store(id, expected);
+      options.copyVersionPointer(id);
+    }
+    if (verify) {
+      final KeyWithMetadata actual = options.target.retrieveWithMetadata(id);
+      if (!sameKey(expected.getKey(), actual.getKey())) {
+        throw new KeyStorageException("key " + id + " does not match source");
+      }
+      if (!sameMetadata(expected.getMetadata(), actual.getMetadata())) {
+        throw new KeyStorageException(
+            "metadata for key " + id + " does not match source");
+      }
+    }
+    return true;
+  }
+
+  private static boolean sameKey(Key expected, Key actual) {
+    final byte[] expectedEncoded = expected.getEncoded();
+    final byte[] actualEncoded = actual.getEncoded();
+    if (expectedEncoded == null || actualEncoded == null) {
+      return expected.equals(actual);
+    }
+    return MessageDigest.isEqual(expectedEncoded, actualEncoded);
+  }
+
+  /**
+   * Compares metadata, treating numeric values as equal when they have the
+   * same value; metadata formats do not all preserve numeric types.
+   */
+  private static boolean sameMetadata(Metadata expected, Metadata actual) {
+    if (!expected.names().equals(actual.names())) return false;
+    for (final String name : expected.names()) {
+      final Object expectedValue = expected.get(name, Object.class);
+      final Object actualValue = actual.get(name, Object.class);
+      if (expectedValue instanceof Number && actualValue instanceof Number) {
+        if (((Number) expectedValue).doubleValue()
+            != ((Number) actualValue).doubleValue()) return false;
+      }
+      else if (!expectedValue.equals(actualValue)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
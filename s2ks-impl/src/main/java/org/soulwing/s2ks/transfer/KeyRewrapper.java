@@ -0,0 +1,272 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyUnwrapException;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MetadataUnwrapException;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.base.AbstractKeyStorage;
+
+/**
+ * A tool that rewraps every stored key with a new master key.
+ * <p>
+ * The source and target are storage instances for the same underlying
+ * storage location, configured with the old and new master key
+ * respectively; e.g. two instances of the local provider for the same
+ * storage directory with different passwords, or two instances of the AWS
+ * provider for the same bucket and prefix with different KMS master key IDs.
+ * Each key is retrieved from the source and stored to the target, replacing
+ * it in place.
+ * <p>
+ * Keys are rewrapped in parallel, with a bounded number of keys in flight.
+ * When a checkpoint file is specified, progress is saved to it periodically,
+ * and a run that is interrupted or that fails for some keys can be resumed
+ * by running again with the same checkpoint; the checkpoint is deleted when
+ * every key has been rewrapped. A key that has already been rewrapped is
+ * counted as skipped, so it is also safe to run again without a checkpoint.
+ * <p>
+ * An attempt to unwrap a key is not a reliable test of the master key that
+ * wrapped it: password-based unwrapping with the wrong password succeeds by
+ * chance about one time in 256, and KMS decrypts a data key regardless of
+ * the configured master key. When the storage records the master key with
+ * each key, as the local and AWS providers do, that record determines
+ * whether a key is rewrapped. For a key stored without a record, the key is
+ * rewrapped only when the target cannot unwrap it; if both the source and
+ * the target can unwrap it, the key is reported as a failure rather than
+ * risk replacing it with a corrupt key.
+ *
+ * @author Carl Harris
+ */
+public final class KeyRewrapper {
+
+  private final TransferOptions options;
+
+  /**
+   * A builder that constructs a {@link KeyRewrapper}.
+   */
+  public static class Builder {
+
+    private final TransferOptions options = new TransferOptions();
+
+    private Builder() {}
+
+    /**
+     * Specifies the storage configured with the old master key.
+     * @param source source storage
+     * @return this builder
+     */
+    public Builder source(KeyStorage source) {
+      options.source = source;
+      return this;
+    }
+
+    /**
+     * Specifies the storage configured with the new master key.
+     * @param target target storage
+     * @return this builder
+     */
+    public Builder target(MutableKeyStorage target) {
+      options.target = target;
+      return this;
+    }
+
+    /**
+     * Specifies a prefix that limits the keys to rewrap.
+     * @param prefix prefix of the IDs of the keys to rewrap; by default,
+     *    all keys are rewrapped
+     * @return this builder
+     */
+    public Builder prefix(String prefix) {
+      options.prefix = prefix;
+      return this;
+    }
+
+    /**
+     * Specifies the maximum number of keys to rewrap concurrently.
+     * @param parallelism number of keys; defaults to
+     *    {@value TransferOptions#DEFAULT_PARALLELISM}
+     * @return this builder
+     */
+    public Builder parallelism(int parallelism) {
+      options.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Specifies a file in which progress is recorded.
+     * @param checkpoint path to the checkpoint file; if the file exists, the
+     *    run resumes from the recorded progress
+     * @return this builder
+     */
+    public Builder checkpoint(Path checkpoint) {
+      options.checkpoint = checkpoint;
+      return this;
+    }
+
+    /**
+     * Specifies the number of keys to rewrap between saves of the
+     * checkpoint.
+     * @param checkpointInterval number of keys; defaults to
+     *    {@value TransferOptions#DEFAULT_CHECKPOINT_INTERVAL}
+     * @return this builder
+     */
+    public Builder checkpointInterval(int checkpointInterval) {
+      options.checkpointInterval = checkpointInterval;
+      return this;
+    }
+
+    /**
+     * Specifies the executor on which keys are rewrapped.
+     * <p>
+     * If not specified, each run creates a pool of daemon threads sized
+     * according to the parallelism, which is shut down when the run ends.
+     *
+     * @param executor executor
+     * @return this builder
+     */
+    public Builder executor(Executor executor) {
+      options.executor = executor;
+      return this;
+    }
+
+    /**
+     * Builds and returns a rewrapper according to the configuration of
+     * this builder.
+     * @return rewrapper
+     */
+    public KeyRewrapper build() {
+      options.validate();
+      return new KeyRewrapper(this);
+    }
+
+  }
+
+  /**
+   * Creates a builder that constructs a new instance.
+   * @return builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private KeyRewrapper(Builder builder) {
+    this.options = builder.options.copy();
+  }
+
+  /**
+   * Rewraps each key whose ID starts with the configured prefix.
+   * @return result of the run; keys that could not be rewrapped are
+   *    reported as failures, and are retried first when the run is resumed
+   *    using the same checkpoint
+   * @throws KeyStorageException if the keys cannot be enumerated, if the
+   *    checkpoint cannot be read or saved, or if the calling thread is
+   *    interrupted
+   */
+  public TransferResult run() throws KeyStorageException {
+    return options.run("s2ks-rewrap-", this::rewrap);
+  }
+
+  /**
+   * Rewraps the key with the given ID.
+   * <p>
+   * A key is stored to the target only when it is known to be wrapped with
+   * the source master key: either its recorded master key is that of the
+   * source, or the target cannot unwrap it. When the key is the current
+   * version of a versioned key, the version pointer of the key is then
+   * copied to the target.
+   *
+   * @param id ID of the subject key
+   * @return {@code true} if the key was rewrapped, {@code false} if it had
+   *    already been rewrapped
+   * @throws KeyStorageException if the key cannot be rewrapped, or if the
+   *    master key that wrapped it cannot be determined
+   */
+  private boolean rewrap(String id) throws KeyStorageException {
+    final boolean rewrapped = rewrapKey(id);
+    options.copyVersionPointer(id);
+    return rewrapped;
+  }
+
+  /**
+   * Rewraps the key with the given ID, without its version pointer.
+   * @param id ID of the subject key
+   * @return {@code true} if the key was rewrapped
+   * @throws KeyStorageException if the key cannot be rewrapped
+   */
+  private boolean rewrapKey(String id) throws KeyStorageException {
+    final Optional<Boolean> target = wrappedWithMasterKey(options.target, id);
+    if (target.orElse(false)) return false;
+    final Optional<Boolean> source = wrappedWithMasterKey(options.source, id);
+    if (!target.isPresent() && canRetrieve(options.target, id)) {
+      if (!source.isPresent() && canRetrieve(options.source, id)) {
+        throw new KeyStorageException("cannot determine whether key `" + id
+            + "` is wrapped with the source or the target master key");
+      }
+      if (!source.orElse(false)) return false;
+    }
+    if (!source.orElse(true)) {
+      throw new KeyStorageException("key `" + id
+          + "` is not wrapped with the source master key");
+    }
+    options.target.store(id, options.source.retrieveWithMetadata(id));
+    return true;
+  }
+
+  /**
+   * Determines whether a key is recorded as wrapped with the master key of
+   * the given storage.
+   * @param storage the subject storage
+   * @param id ID of the subject key
+   * @return {@code true} or {@code false} if the master key of the stored
+   *    key is recorded, otherwise empty
+   * @throws KeyStorageException if the stored key cannot be read
+   */
+  private static Optional<Boolean> wrappedWithMasterKey(KeyStorage storage,
+      String id) throws KeyStorageException {
+    if (!(storage instanceof AbstractKeyStorage)) return Optional.empty();
+    return ((AbstractKeyStorage) storage).isWrappedWithMasterKey(id);
+  }
+
+  /**
+   * Tests whether the given storage can unwrap a key.
+   * @param storage the subject storage
+   * @param id ID of the subject key
+   * @return {@code true} if the key and its metadata were unwrapped
+   * @throws KeyStorageException if the key cannot be retrieved for any
+   *    reason other than a failure to unwrap it
+   */
+  private static boolean canRetrieve(KeyStorage storage, String id)
+      throws KeyStorageException {
+    try {
+      storage.retrieveWithMetadata(id);
+      return true;
+    }
+    catch (KeyUnwrapException | MetadataUnwrapException ex) {
+      return false;
+    }
+  }
+
+}
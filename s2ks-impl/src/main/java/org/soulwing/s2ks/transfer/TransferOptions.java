@@ -0,0 +1,152 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.base.AbstractKeyStorage;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+
+/**
+ * The configuration common to the tools that transfer keys from a source
+ * storage to a target storage, which the builder of each tool populates.
+ *
+ * @author Carl Harris
+ */
+final class TransferOptions {
+
+  static final int DEFAULT_PARALLELISM = 16;
+  static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+  KeyStorage source;
+  MutableKeyStorage target;
+  String prefix = "";
+  int parallelism = DEFAULT_PARALLELISM;
+  Path checkpoint;
+  int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+  Executor executor;
+
+  /**
+   * Creates a copy of these options, so that a tool is not affected by
+   * further use of the builder that created it.
+   * @return copy of these options
+   */
+  TransferOptions copy() {
+    final TransferOptions copy = new TransferOptions();
+    copy.source = source;
+    copy.target = target;
+    copy.prefix = prefix;
+    copy.parallelism = parallelism;
+    copy.checkpoint = checkpoint;
+    copy.checkpointInterval = checkpointInterval;
+    copy.executor = executor;
+    return copy;
+  }
+
+  /**
+   * Validates these options.
+   * @throws IllegalArgumentException if a required option is missing or
+   *    an option has an invalid value
+   */
+  void validate() {
+    if (source == null) {
+      throw new IllegalArgumentException("source is required");
+    }
+    if (target == null) {
+      throw new IllegalArgumentException("target is required");
+    }
+    if (prefix == null) {
+      throw new IllegalArgumentException("prefix must not be null");
+    }
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive");
+    }
+    if (checkpointInterval < 1) {
+      throw new IllegalArgumentException(
+          "checkpoint interval must be positive");
+    }
+  }
+
+  /**
+   * Copies the version pointer of a key to the target, when the given ID is
+   * the ID of the current version of the key in the source.
+   * <p>
+   * The IDs enumerated in a versioned source include the version IDs of
+   * each key, but not its version pointer. Without the pointer, a key whose
+   * versions have been copied cannot be retrieved from the target by its
+   * ID. The pointer is copied only after the current version itself has
+   * been copied, so that it never refers to a version that is not in the
+   * target.
+   *
+   * @param id ID of the key that was copied
+   * @throws KeyStorageException if the version pointer cannot be read or
+   *    written
+   */
+  void copyVersionPointer(String id) throws KeyStorageException {
+    if (!AbstractKeyStorage.isVersionId(id)
+        || !(source instanceof AbstractKeyStorage)
+        || !(target instanceof AbstractMutableKeyStorage)) return;
+    final String baseId = AbstractKeyStorage.baseId(id);
+    final int version =
+        ((AbstractKeyStorage) source).getCurrentVersion(baseId);
+    if (version == 0
+        || !AbstractKeyStorage.versionId(baseId, version).equals(id)) return;
+    final AbstractMutableKeyStorage versionedTarget =
+        (AbstractMutableKeyStorage) target;
+    if (versionedTarget.getCurrentVersion(baseId) != version) {
+      versionedTarget.setCurrentVersion(id);
+    }
+  }
+
+  /**
+   * Applies the given task to each key in the source whose ID starts with
+   * the configured prefix.
+   * @param threadNamePrefix prefix for the names of the threads of the
+   *    executor that is created when none is configured
+   * @param task task to apply to each key ID
+   * @return result of the run
+   * @throws KeyStorageException if the keys cannot be enumerated, if the
+   *    checkpoint cannot be read or saved, or if the calling thread is
+   *    interrupted
+   */
+  TransferResult run(String threadNamePrefix, TransferPipeline.Task task)
+      throws KeyStorageException {
+    final ExecutorService ownExecutor = executor == null ?
+        TransferPipeline.newExecutor(threadNamePrefix, parallelism) : null;
+    try (final Stream<String> ids = source.ids(prefix)) {
+      final TransferPipeline pipeline = new TransferPipeline(
+          ownExecutor != null ? ownExecutor : executor, parallelism,
+          TransferPipeline.loadCheckpoint(checkpoint),
+          checkpointInterval);
+      return pipeline.run(ids, task);
+    }
+    finally {
+      if (ownExecutor != null) {
+        ownExecutor.shutdown();
+      }
+    }
+  }
+
+}
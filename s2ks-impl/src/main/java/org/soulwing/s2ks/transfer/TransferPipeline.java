@@ -0,0 +1,355 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.base.DaemonThreadFactory;
+
+/**
+ * A pipeline that applies a task to a stream of key IDs in parallel, with
+ * bounded concurrency and optional checkpointing.
+ * <p>
+ * IDs must be produced in the order of {@link KeyStorage#ids(String)}. At
+ * most {@code parallelism} tasks are in flight at any time; the thread that
+ * consumes the stream blocks until a task completes when the limit is
+ * reached, so the stream is never read far ahead of the tasks. Periodically,
+ * the consuming thread saves the last submitted ID that precedes every task
+ * still in flight, along with the IDs of the tasks that have failed. When a
+ * pipeline is run with a checkpoint saved by a previous run, the previously
+ * failed IDs are retried first, and the IDs up to the saved position are
+ * skipped.
+ * <p>
+ * A storage mechanism may list an ID after another ID that it is a prefix
+ * of; e.g. S3 lists {@code key-1.pem} before {@code key.pem}. Because the
+ * pipeline cannot know which order the stream used, an ID is skipped only if
+ * it precedes the saved position in either order; an ID that is a prefix of
+ * the position, or that the position is a prefix of, is transferred again.
+ * <p>
+ * A pipeline is intended to be run once.
+ *
+ * @author Carl Harris
+ */
+final class TransferPipeline {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(TransferPipeline.class);
+
+  /**
+   * A task applied to each key ID.
+   */
+  @FunctionalInterface
+  interface Task {
+
+    /**
+     * Transfers the key with the given ID.
+     * @param id ID of the subject key
+     * @return {@code true} if the key was transferred, {@code false} if it
+     *    did not need to be transferred
+     * @throws KeyStorageException if the key cannot be transferred
+     */
+    boolean transfer(String id) throws KeyStorageException;
+
+  }
+
+  private final Executor executor;
+  private final int parallelism;
+  private final int checkpointInterval;
+
+  private final Object lock = new Object();
+  private final Map<String, String> inFlight = new LinkedHashMap<>();
+  private final Set<String> failedIds = new TreeSet<>();
+  private final Map<String, Exception> failures = new HashMap<>();
+  private final LongAdder processed = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+
+  private Checkpoint checkpoint;
+  private String lastSubmitted;
+  private int completedSinceCheckpoint;
+
+  /**
+   * Constructs a new instance.
+   * @param executor executor on which tasks are run
+   * @param parallelism maximum number of tasks in flight
+   * @param checkpoint checkpoint to resume from and to save progress to;
+   *    may be {@code null} to disable checkpointing
+   * @param checkpointInterval number of completed tasks between saves of
+   *    the checkpoint
+   */
+  TransferPipeline(Executor executor, int parallelism, Checkpoint checkpoint,
+      int checkpointInterval) {
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.checkpoint = checkpoint;
+    this.checkpointInterval = checkpointInterval;
+    if (checkpoint != null) {
+      this.lastSubmitted = checkpoint.getPosition();
+      this.failedIds.addAll(checkpoint.getFailed());
+    }
+  }
+
+  /**
+   * Loads the checkpoint at the given path.
+   * @param path path to the checkpoint file; may be {@code null}
+   * @return checkpoint or {@code null} if {@code path} is {@code null}
+   * @throws KeyStorageException if the checkpoint cannot be read
+   */
+  static Checkpoint loadCheckpoint(Path path) throws KeyStorageException {
+    if (path == null) return null;
+    try {
+      return Checkpoint.load(path);
+    }
+    catch (IOException ex) {
+      throw new KeyStorageException(
+          "cannot read checkpoint: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Creates an executor with a fixed pool of daemon threads.
+   * @param namePrefix prefix for thread names
+   * @param parallelism number of threads
+   * @return executor, which the caller must shut down
+   */
+  static ExecutorService newExecutor(String namePrefix, int parallelism) {
+    return Executors.newFixedThreadPool(parallelism,
+        new DaemonThreadFactory(namePrefix));
+  }
+
+  /**
+   * Runs the given task for each ID in the given stream, after first
+   * retrying the IDs that failed in a previous run.
+   * <p>
+   * When every task has succeeded, the checkpoint is deleted; otherwise it
+   * is saved with the IDs of the failed tasks, so that a subsequent run
+   * retries them.
+   *
+   * @param ids stream of IDs in the order of {@link KeyStorage#ids(String)}
+   * @param task task to apply to each ID
+   * @return result of the transfer
+   * @throws KeyStorageException if the stream cannot be consumed, if the
+   *    checkpoint cannot be saved, or if the calling thread is interrupted;
+   *    tasks in flight are allowed to complete and the checkpoint is saved
+   *    before the exception is thrown
+   */
+  TransferResult run(Stream<String> ids, Task task)
+      throws KeyStorageException {
+    final long start = System.nanoTime();
+    final Semaphore permits = new Semaphore(parallelism);
+    final String position = lastSubmitted;
+    final Set<String> retries = new TreeSet<>(failedIds);
+    KeyStorageException failure = null;
+    try {
+      for (final String id : retries) {
+        permits.acquire();
+        submit(id, false, task, permits);
+        saveIfNeeded();
+      }
+      final Iterator<String> iterator = ids
+          .filter(id -> position == null || !precedes(id, position))
+          .filter(id -> !retries.contains(id))
+          .iterator();
+      while (iterator.hasNext()) {
+        final String id = iterator.next();
+        permits.acquire();
+        submit(id, true, task, permits);
+        saveIfNeeded();
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      failure = new KeyStorageException("transfer interrupted", ex);
+    }
+    catch (UncheckedIOException ex) {
+      failure = new KeyStorageException(ex.getCause().getMessage(),
+          ex.getCause());
+    }
+    catch (IOException ex) {
+      failure = new KeyStorageException(
+          "cannot save checkpoint: " + ex.getMessage(), ex);
+    }
+    finally {
+      permits.acquireUninterruptibly(parallelism);
+    }
+
+    try {
+      finish(failure == null);
+    }
+    catch (IOException ex) {
+      final KeyStorageException saveFailure = new KeyStorageException(
+          "cannot save checkpoint: " + ex.getMessage(), ex);
+      if (failure == null) {
+        failure = saveFailure;
+      }
+      else {
+        failure.addSuppressed(saveFailure);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+
+    synchronized (lock) {
+      return new TransferResult(processed.sum(), skipped.sum(), failures,
+          Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+
+  private void submit(String id, boolean ordered, Task task,
+      Semaphore permits) {
+    if (ordered) {
+      synchronized (lock) {
+        inFlight.put(id, lastSubmitted);
+        lastSubmitted = id;
+      }
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          completed(id, ordered, task.transfer(id), null);
+        }
+        catch (KeyStorageException | RuntimeException ex) {
+          completed(id, ordered, false, ex);
+        }
+        finally {
+          permits.release();
+        }
+      });
+    }
+    catch (RejectedExecutionException ex) {
+      completed(id, ordered, false, ex);
+      permits.release();
+    }
+  }
+
+  private void completed(String id, boolean ordered, boolean transferred,
+      Exception ex) {
+    synchronized (lock) {
+      if (ordered) {
+        inFlight.remove(id);
+      }
+      if (ex != null) {
+        failedIds.add(id);
+        failures.put(id, ex);
+      }
+      else {
+        failedIds.remove(id);
+        (transferred ? processed : skipped).increment();
+      }
+      completedSinceCheckpoint++;
+    }
+    if (ex != null) {
+      logger.debug("transfer of key {} failed: {}", id, ex.toString());
+    }
+  }
+
+  /**
+   * Tests whether the given ID precedes a saved position in the order of
+   * any storage mechanism.
+   * <p>
+   * Appending the same suffix to two IDs preserves their order unless one
+   * is a prefix of the other, so such an ID is never considered to precede
+   * the position.
+   *
+   * @param id the subject ID
+   * @param position saved position
+   * @return {@code true} if {@code id} is equal to {@code position}, or
+   *    precedes it at the first character at which they differ
+   */
+  static boolean precedes(String id, String position) {
+    final int length = Math.min(id.length(), position.length());
+    for (int i = 0; i < length; i++) {
+      if (id.charAt(i) != position.charAt(i)) {
+        return id.charAt(i) < position.charAt(i);
+      }
+    }
+    return id.length() == position.length();
+  }
+
+  /**
+   * Gets the last submitted ID that precedes every task in flight.
+   * <p>
+   * Each in-flight ID maps to the ID that was submitted before it, and the
+   * map is kept in order of submission, so the entry for the earliest
+   * in-flight ID gives the position.
+   *
+   * @return position
+   */
+  private String position() {
+    return inFlight.isEmpty() ?
+        lastSubmitted : inFlight.values().iterator().next();
+  }
+
+  private void saveIfNeeded() throws IOException {
+    if (checkpoint == null) return;
+    final String position;
+    final List<String> failed;
+    synchronized (lock) {
+      if (completedSinceCheckpoint < checkpointInterval) return;
+      completedSinceCheckpoint = 0;
+      position = position();
+      failed = new ArrayList<>(failedIds);
+    }
+    checkpoint = checkpoint.save(position, failed);
+    logger.debug("saved checkpoint at position {} with {} failed keys",
+        position, failed.size());
+  }
+
+  private void finish(boolean complete) throws IOException {
+    if (checkpoint == null) return;
+    final String position;
+    final List<String> failed;
+    synchronized (lock) {
+      position = position();
+      failed = new ArrayList<>(failedIds);
+    }
+    if (complete && failed.isEmpty()) {
+      checkpoint.delete();
+      logger.debug("deleted checkpoint {}", checkpoint.getPath());
+    }
+    else {
+      checkpoint = checkpoint.save(position, failed);
+      logger.debug("saved checkpoint at position {} with {} failed keys",
+          position, failed.size());
+    }
+  }
+
+}
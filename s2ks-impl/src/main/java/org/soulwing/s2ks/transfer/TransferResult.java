@@ -0,0 +1,105 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable summary of a transfer of keys.
+ *
+ * @author Carl Harris
+ */
+public final class TransferResult {
+
+  private final long processed;
+  private final long skipped;
+  private final Map<String, Exception> failures;
+  private final Duration elapsed;
+
+  TransferResult(long processed, long skipped,
+      Map<String, Exception> failures, Duration elapsed) {
+    this.processed = processed;
+    this.skipped = skipped;
+    this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+    this.elapsed = elapsed;
+  }
+
+  /**
+   * Gets the number of keys that were transferred.
+   * @return number of keys
+   */
+  public long getProcessed() {
+    return processed;
+  }
+
+  /**
+   * Gets the number of keys that did not need to be transferred; e.g.
+   * because a previous run had already transferred them.
+   * @return number of keys
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Gets the keys that could not be transferred.
+   * @return map of key ID to the exception that occurred, in ascending
+   *    order of ID
+   */
+  public Map<String, Exception> getFailures() {
+    return failures;
+  }
+
+  /**
+   * Tests whether every key was transferred or skipped.
+   * @return {@code true} if there were no failures
+   */
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * Gets the elapsed time of the transfer.
+   * @return elapsed time
+   */
+  public Duration getElapsed() {
+    return elapsed;
+  }
+
+  /**
+   * Gets the rate at which keys were considered for transfer.
+   * @return keys processed, skipped or failed per second
+   */
+  public double getThroughput() {
+    final double seconds = elapsed.toNanos() / 1e9;
+    final long total = processed + skipped + failures.size();
+    return seconds > 0 ? total / seconds : 0.0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "processed=%d skipped=%d failed=%d elapsed=%s throughput=%.1f/s",
+        processed, skipped, failures.size(), elapsed, getThroughput());
+  }
+
+}
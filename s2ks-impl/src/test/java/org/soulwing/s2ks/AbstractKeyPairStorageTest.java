@@ -0,0 +1,417 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.soulwing.s2ks.base.AbstractKeyPairStorage;
+import org.soulwing.s2ks.base.CertificateLoader;
+import org.soulwing.s2ks.base.PrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+
+/**
+ * Unit tests for {@link AbstractKeyPairStorage}.
+ *
+ * @author Carl Harris
+ */
+public class AbstractKeyPairStorageTest {
+
+  private static final String ID = "id";
+  private static final char[] PASSWORD = "password".toCharArray();
+
+  private static final byte[] KEY_DATA = { 1 };
+  private static final byte[] CERT_DATA = { 2 };
+  private static final byte[] CA_DATA = { 3 };
+  private static final byte[] BUNDLE_DATA =
+      "\001\n-----BEGIN CERTIFICATE-----\n".getBytes(
+          StandardCharsets.US_ASCII);
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private final PrivateKey privateKey =
+      KeyUtil.rsaKeyPair().getPrivate();
+
+  private X509Certificate cert;
+  private X509Certificate caCert;
+
+  private ExecutorService executor;
+
+  private MockKeyPairStorage storage;
+
+  @Before
+  public void setUp() throws Exception {
+    cert = loadCert("local/cert.pem");
+    caCert = loadCert("local/cacerts.pem");
+    executor = Executors.newFixedThreadPool(5);
+    storage = new MockKeyPairStorage();
+    storage.setExecutor(executor);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRetrieveKeyPairFetchesConcurrently() throws Exception {
+    // once the key pair is known to be stored as separate files
+    storage.retrieveKeyPair(ID);
+    storage.barrier = new CyclicBarrier(5);
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getPrivateKey(), is(sameInstance(privateKey)));
+    assertThat(kpi.getCertificates(), contains(cert, caCert));
+    assertThat(storage.password, is(equalTo(new char[PASSWORD.length])));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenNoCACertificates() throws Exception {
+    storage.caCertsMissing = true;
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getCertificates(), contains(cert));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenNotFound() throws Exception {
+    storage.keyMissing = true;
+    expectedException.expect(NoSuchKeyException.class);
+    expectedException.expectMessage(ID);
+    storage.retrieveKeyPair(ID);
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenPasswordFails() throws Exception {
+    final KeyStorageException ex = new KeyStorageException("error");
+    storage.passwordException = ex;
+    storage.setExecutor(Runnable::run);
+    try {
+      storage.retrieveKeyPair(ID);
+    }
+    catch (KeyStorageException actual) {
+      assertThat(actual, is(sameInstance(ex)));
+      assertThat(storage.opened, is(empty()));
+      return;
+    }
+    throw new AssertionError("expected KeyStorageException");
+  }
+
+  @Test(timeout = 5000)
+  public void testRetrieveKeyPairWhenExecutorRejects() throws Exception {
+    storage.setExecutor(r -> {
+      throw new RejectedExecutionException();
+    });
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectCause(
+        is(instanceOf(RejectedExecutionException.class)));
+    storage.retrieveKeyPair(ID);
+  }
+
+  @Test(timeout = 5000)
+  public void testRetrieveKeyPairWhenExecutorRejectsAnyFetch()
+      throws Exception {
+    for (int limit = 0; ; limit++) {
+      final int accepted = limit;
+      final AtomicInteger submitted = new AtomicInteger();
+      storage.setExecutor(r -> {
+        if (submitted.incrementAndGet() > accepted) {
+          throw new RejectedExecutionException();
+        }
+        r.run();
+      });
+      try {
+        storage.retrieveKeyPair(ID);
+        assertThat(submitted.get(), is(equalTo(accepted)));
+        return;
+      }
+      catch (KeyStorageException ex) {
+        assertThat(ex.getCause(),
+            is(instanceOf(RejectedExecutionException.class)));
+      }
+    }
+  }
+
+  @Test
+  public void testRetrieveKeyPairFromBundle() throws Exception {
+    storage.bundle = BUNDLE_DATA.clone();
+    storage.keyMissing = true;
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getPrivateKey(), is(sameInstance(privateKey)));
+    assertThat(kpi.getCertificates(), contains(cert, caCert));
+    assertThat(storage.opened,
+        contains(KeyPairStorage.BUNDLE_FILE_NAME));
+    assertThat(storage.password, is(equalTo(new char[PASSWORD.length])));
+  }
+
+  @Test
+  public void testRetrieveKeyPairFromNewBundle() throws Exception {
+    storage.retrieveKeyPair(ID);
+    storage.bundle = BUNDLE_DATA.clone();
+    storage.keyMissing = true;
+    storage.opened.clear();
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getCertificates(), contains(cert, caCert));
+    storage.opened.clear();
+    storage.retrieveKeyPair(ID);
+    assertThat(storage.opened,
+        contains(KeyPairStorage.BUNDLE_FILE_NAME));
+  }
+
+  @Test
+  public void testRetrieveKeyPairFromBundleWithoutCertificates()
+      throws Exception {
+    storage.bundle = KEY_DATA.clone();
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectCause(is(instanceOf(IOException.class)));
+    storage.retrieveKeyPair(ID);
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenNoBundle() throws Exception {
+    storage.retrieveKeyPair(ID);
+    assertThat(storage.opened.contains(KeyPairStorage.BUNDLE_FILE_NAME),
+        is(true));
+    assertThat(storage.opened.contains(KeyPairStorage.KEY_FILE_NAME),
+        is(true));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenNotCached() throws Exception {
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(storage.retrieveKeyPair(ID), is(not(sameInstance(kpi))));
+    assertThat(storage.versionChecks, is(equalTo(0)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenCached() throws Exception {
+    storage.setChangeCheckInterval(Duration.ofHours(1));
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+    assertThat(storage.versionChecks, is(equalTo(1)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenCachedAndUnchanged() throws Exception {
+    storage.setChangeCheckInterval(Duration.ZERO);
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+    assertThat(storage.versionChecks, is(equalTo(2)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenCachedAndChanged() throws Exception {
+    storage.setChangeCheckInterval(Duration.ZERO);
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    storage.version = "changed";
+    final KeyPairInfo actual = storage.retrieveKeyPair(ID);
+    assertThat(actual, is(not(sameInstance(kpi))));
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(actual)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenCachedAndRemoved() throws Exception {
+    storage.setChangeCheckInterval(Duration.ZERO);
+    storage.retrieveKeyPair(ID);
+    storage.keyMissing = true;
+    expectedException.expect(NoSuchKeyException.class);
+    storage.retrieveKeyPair(ID);
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenCachedAndCheckFails() throws Exception {
+    storage.setChangeCheckInterval(Duration.ZERO);
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    storage.versionException = new IOException();
+    assertThat(storage.retrieveKeyPair(ID), is(sameInstance(kpi)));
+  }
+
+  @Test
+  public void testRetrieveKeyPairWhenInvalidated() throws Exception {
+    storage.setChangeCheckInterval(Duration.ofHours(1));
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    storage.invalidate(ID);
+    assertThat(storage.retrieveKeyPair(ID), is(not(sameInstance(kpi))));
+  }
+
+  @Test
+  public void testRetrieveCertificatesWhenCached() throws Exception {
+    storage.setChangeCheckInterval(Duration.ofHours(1));
+    storage.retrieveKeyPair(ID);
+    storage.opened.clear();
+    assertThat(storage.retrieveCertificates(ID), contains(cert, caCert));
+    assertThat(storage.opened, is(empty()));
+  }
+
+  @Test
+  public void testRetrieveCertificatesFromBundle() throws Exception {
+    storage.bundle = BUNDLE_DATA.clone();
+    storage.caCertsMissing = true;
+    assertThat(storage.retrieveCertificates(ID), contains(cert, caCert));
+    assertThat(storage.opened,
+        contains(KeyPairStorage.BUNDLE_FILE_NAME));
+  }
+
+  @Test
+  public void testRetrieveCertificatesFetchesConcurrently() throws Exception {
+    storage.retrieveCertificates(ID);
+    storage.barrier = new CyclicBarrier(3);
+    assertThat(storage.retrieveCertificates(ID), contains(cert, caCert));
+  }
+
+  private X509Certificate loadCert(String name) throws Exception {
+    try (final InputStream inputStream =
+             getClass().getResourceAsStream(name)) {
+      return BcPemCertificateLoader.getInstance().load(inputStream).get(0);
+    }
+  }
+
+  private class MockKeyPairStorage extends AbstractKeyPairStorage {
+
+    private final List<String> opened =
+        Collections.synchronizedList(new ArrayList<>());
+
+    private CyclicBarrier barrier;
+    private Object version = "version";
+    private IOException versionException;
+    private int versionChecks;
+    private char[] password;
+    private KeyStorageException passwordException;
+    private boolean keyMissing;
+    private boolean caCertsMissing;
+    private byte[] bundle;
+
+    MockKeyPairStorage() {
+      super(new MockPrivateKeyLoader(), new MockCertificateLoader());
+    }
+
+    @Override
+    protected Object getVersion(String id) throws IOException {
+      versionChecks++;
+      if (versionException != null) throw versionException;
+      if (keyMissing) throw new FileNotFoundException(id);
+      return version;
+    }
+
+    @Override
+    protected char[] getPassword(String id) throws KeyStorageException {
+      await();
+      if (passwordException != null) throw passwordException;
+      password = PASSWORD.clone();
+      return password;
+    }
+
+    @Override
+    protected InputStream openBundleStream(String id) throws IOException {
+      return open(KeyPairStorage.BUNDLE_FILE_NAME, bundle, bundle == null);
+    }
+
+    @Override
+    protected InputStream openPrivateKeyStream(String id) throws IOException {
+      return open(KeyPairStorage.KEY_FILE_NAME, KEY_DATA, keyMissing);
+    }
+
+    @Override
+    protected InputStream openCertificateStream(String id) throws IOException {
+      return open(KeyPairStorage.CERT_FILE_NAME, CERT_DATA, false);
+    }
+
+    @Override
+    protected InputStream openCACertificateStream(String id)
+        throws IOException {
+      return open(KeyPairStorage.CA_FILE_NAME, CA_DATA, caCertsMissing);
+    }
+
+    private InputStream open(String name, byte[] data, boolean missing)
+        throws IOException {
+      opened.add(name);
+      await();
+      if (missing) throw new FileNotFoundException(name);
+      return new ByteArrayInputStream(data);
+    }
+
+    private void await() {
+      if (barrier == null) return;
+      try {
+        barrier.await(5, TimeUnit.SECONDS);
+      }
+      catch (Exception ex) {
+        throw new AssertionError("fetches did not run concurrently", ex);
+      }
+    }
+
+  }
+
+  private class MockPrivateKeyLoader implements PrivateKeyLoader {
+
+    @Override
+    public PrivateKey load(InputStream inputStream, char[] password)
+        throws IOException {
+      assertThat(password, is(equalTo(PASSWORD)));
+      assertThat(inputStream.read(), is(equalTo((int) KEY_DATA[0])));
+      return privateKey;
+    }
+
+  }
+
+  private class MockCertificateLoader implements CertificateLoader {
+
+    @Override
+    public List<X509Certificate> load(InputStream inputStream)
+        throws IOException {
+      final int b = inputStream.read();
+      if (b == '-') {
+        return Arrays.asList(cert, caCert);
+      }
+      return Collections.singletonList(b == CERT_DATA[0] ? cert : caCert);
+    }
+
+  }
+
+}
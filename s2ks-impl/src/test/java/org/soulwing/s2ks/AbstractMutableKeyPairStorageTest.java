@@ -0,0 +1,322 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.soulwing.s2ks.base.AbstractMutableKeyPairStorage;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyWriter;
+import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateWriter;
+
+/**
+ * Unit tests for {@link AbstractMutableKeyPairStorage}.
+ *
+ * @author Carl Harris
+ */
+public class AbstractMutableKeyPairStorageTest {
+
+  private static final String ID = "id";
+  private static final char[] PASSWORD = "password".toCharArray();
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private List<X509Certificate> chain;
+
+  private ExecutorService executor;
+
+  private MockKeyPairStorage storage;
+
+  @Before
+  public void setUp() throws Exception {
+    chain = new ArrayList<>();
+    chain.add(KeyUtil.certificate(KeyUtil.rsaKeyPair()));
+    chain.add(loadCert("local/cacerts.pem"));
+    executor = Executors.newFixedThreadPool(8);
+    storage = new MockKeyPairStorage();
+    storage.setExecutor(executor);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testStoreKeyPair() throws Exception {
+    storage.storeKeyPair(keyPair(ID));
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    assertThat(kpi.getPrivateKey().getEncoded(),
+        is(equalTo(KeyUtil.rsaKeyPair().getPrivate().getEncoded())));
+    assertThat(kpi.getCertificates(), is(equalTo(chain)));
+    assertThat(storage.retrieveCertificates(ID), is(equalTo(chain)));
+  }
+
+  @Test
+  public void testStoreKeyPairInvalidatesCachedKeyPair() throws Exception {
+    storage.setChangeCheckInterval(Duration.ofHours(1));
+    storage.storeKeyPair(keyPair(ID));
+    final KeyPairInfo kpi = storage.retrieveKeyPair(ID);
+    final List<X509Certificate> ecChain = Collections.singletonList(
+        KeyUtil.certificate(KeyUtil.ecKeyPair()));
+    storage.storeKeyPair(KeyPairInfo.builder()
+        .id(ID)
+        .privateKey(KeyUtil.ecKeyPair().getPrivate())
+        .certificates(ecChain)
+        .build());
+    final KeyPairInfo actual = storage.retrieveKeyPair(ID);
+    assertThat(actual, is(not(sameInstance(kpi))));
+    assertThat(actual.getCertificates(), is(equalTo(ecChain)));
+  }
+
+  @Test
+  public void testStoreKeyPairDeletesSeparateFiles() throws Exception {
+    storage.storeKeyPair(keyPair(ID));
+    assertThat(storage.deleted, contains(ID));
+  }
+
+  @Test
+  public void testStoreKeyPairWhenKeyIsForOtherCertificate() throws Exception {
+    final KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+    kpg.initialize(2048);
+    final KeyPair other = kpg.generateKeyPair();
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("does not match");
+    storage.storeKeyPair(KeyPairInfo.builder()
+        .id(ID)
+        .privateKey(other.getPrivate())
+        .certificates(chain)
+        .build());
+  }
+
+  @Test
+  public void testStoreKeyPairWhenKeyTypeDoesNotMatch() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("does not match");
+    storage.storeKeyPair(KeyPairInfo.builder()
+        .id(ID)
+        .privateKey(KeyUtil.ecKeyPair().getPrivate())
+        .certificates(chain)
+        .build());
+  }
+
+  @Test
+  public void testStoreKeyPairWithBouncyCastleKey() throws Exception {
+    final KeyPair ecKeyPair = KeyUtil.ecKeyPair();
+    final PrivateKey bcKey = BcEncryptedPrivateKeyLoader.getInstance().load(
+        new ByteArrayInputStream(encrypt(ecKeyPair.getPrivate())), PASSWORD);
+    assertThat(bcKey.getAlgorithm(), is(equalTo("ECDSA")));
+    storage.storeKeyPair(KeyPairInfo.builder()
+        .id(ID)
+        .privateKey(bcKey)
+        .certificates(Collections.singletonList(
+            KeyUtil.certificate(ecKeyPair)))
+        .build());
+    assertThat(storage.bundles.containsKey(ID), is(true));
+  }
+
+  @Test
+  public void testStoreKeyPairWithoutCertificates() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    storage.storeKeyPair(KeyPairInfo.builder()
+        .id(ID)
+        .privateKey(KeyUtil.rsaKeyPair().getPrivate())
+        .build());
+  }
+
+  @Test
+  public void testStoreKeyPairWhenWriteFails() throws Exception {
+    final IOException ex = new IOException("error");
+    storage.writeException = ex;
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectCause(is(sameInstance(ex)));
+    storage.storeKeyPair(keyPair(ID));
+  }
+
+  @Test
+  public void testImportKeyPairs() throws Exception {
+    final List<KeyPairInfo> keyPairs = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      keyPairs.add(keyPair(ID + i));
+    }
+    storage.setImportParallelism(4);
+    storage.importKeyPairs(keyPairs);
+    assertThat(storage.bundles.size(), is(equalTo(keyPairs.size())));
+    assertThat(storage.maxConcurrentWrites.get(), is(lessThanOrEqualTo(4)));
+    assertThat(storage.retrieveCertificates(ID + 49), is(equalTo(chain)));
+  }
+
+  @Test
+  public void testImportKeyPairsWhenSomeFail() throws Exception {
+    final List<KeyPairInfo> keyPairs = new ArrayList<>();
+    keyPairs.add(keyPair("one"));
+    keyPairs.add(KeyPairInfo.builder()
+        .id("two")
+        .privateKey(KeyUtil.rsaKeyPair().getPrivate())
+        .build());
+    keyPairs.add(keyPair("three"));
+    try {
+      storage.importKeyPairs(keyPairs);
+      fail("expected BulkOperationException");
+    }
+    catch (BulkOperationException ex) {
+      assertThat(ex.getMessage(), containsString("1 of 3"));
+      assertThat(ex.getMessage(), containsString("two"));
+      assertThat(ex.getSuppressed(), is(arrayWithSize(1)));
+      assertThat(ex.getFailures().keySet(),
+          is(equalTo(Collections.singleton("two"))));
+    }
+    assertThat(storage.bundles.keySet(),
+        is(equalTo(new HashSet<>(Arrays.asList("one", "three")))));
+  }
+
+  private static byte[] encrypt(PrivateKey privateKey) throws Exception {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BcEncryptedPrivateKeyWriter.getInstance().write(privateKey, PASSWORD,
+        outputStream);
+    return outputStream.toByteArray();
+  }
+
+  private KeyPairInfo keyPair(String id) {
+    return KeyPairInfo.builder()
+        .id(id)
+        .privateKey(KeyUtil.rsaKeyPair().getPrivate())
+        .certificates(chain)
+        .build();
+  }
+
+  private X509Certificate loadCert(String name) throws Exception {
+    try (final InputStream inputStream =
+             getClass().getResourceAsStream(name)) {
+      return BcPemCertificateLoader.getInstance().load(inputStream).get(0);
+    }
+  }
+
+  private static class MockKeyPairStorage
+      extends AbstractMutableKeyPairStorage {
+
+    private final Map<String, byte[]> bundles = new ConcurrentHashMap<>();
+    private final List<String> deleted =
+        Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger concurrentWrites = new AtomicInteger();
+    private final AtomicInteger maxConcurrentWrites = new AtomicInteger();
+
+    private IOException writeException;
+
+    MockKeyPairStorage() {
+      super(BcEncryptedPrivateKeyLoader.getInstance(),
+          BcPemCertificateLoader.getInstance(),
+          BcEncryptedPrivateKeyWriter.getInstance(),
+          BcPemCertificateWriter.getInstance());
+    }
+
+    @Override
+    protected Object getVersion(String id) throws IOException {
+      final byte[] bundle = bundles.get(id);
+      if (bundle == null) throw new FileNotFoundException(id);
+      return System.identityHashCode(bundle);
+    }
+
+    @Override
+    protected void writeBundle(String id, byte[] content) throws IOException {
+      final int writes = concurrentWrites.incrementAndGet();
+      maxConcurrentWrites.accumulateAndGet(writes, Math::max);
+      try {
+        if (writeException != null) throw writeException;
+        Thread.yield();
+        bundles.put(id, content.clone());
+      }
+      finally {
+        concurrentWrites.decrementAndGet();
+      }
+    }
+
+    @Override
+    protected void deleteSeparateFiles(String id) {
+      deleted.add(id);
+    }
+
+    @Override
+    protected char[] getPassword(String id) {
+      return PASSWORD.clone();
+    }
+
+    @Override
+    protected InputStream openBundleStream(String id) throws IOException {
+      final byte[] bundle = bundles.get(id);
+      if (bundle == null) throw new FileNotFoundException(id);
+      return new ByteArrayInputStream(bundle);
+    }
+
+    @Override
+    protected InputStream openPrivateKeyStream(String id) throws IOException {
+      throw new FileNotFoundException(id);
+    }
+
+    @Override
+    protected InputStream openCertificateStream(String id) throws IOException {
+      throw new FileNotFoundException(id);
+    }
+
+    @Override
+    protected InputStream openCACertificateStream(String id)
+        throws IOException {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+  }
+
+}
@@ -19,23 +19,34 @@
 package org.soulwing.s2ks;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.Key;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.jmock.Expectations;
 import org.jmock.Sequence;
@@ -55,6 +66,7 @@ import org.soulwing.s2ks.base.MetadataEncoder;
 import org.soulwing.s2ks.base.MetadataRecognizer;
 import org.soulwing.s2ks.base.MetadataWrapOperator;
 import org.soulwing.s2ks.base.WrapperKeyResponse;
+import org.soulwing.s2ks.spi.MetricsListener;
 
 /**
  * Unit tests for {@link AbstractMutableKeyStorage}.
@@ -191,6 +203,139 @@ public class AbstractMutableKeyStorageTest {
   }
 
 
+  @Test
+  public void testRetrieveReportsMetrics() throws Exception {
+    final List<String> stages = recordStages();
+    context.checking(new Expectations() {
+      {
+        oneOf(blobEncoder).decode(contentStream);
+        will(returnValue(Collections.singletonList(subjectBlob)));
+        oneOf(metadataRecognizer).indexOfMetadata(Collections.singletonList(subjectBlob));
+        will(returnValue(-1));
+        oneOf(keyEncoder).decode(subjectBlob);
+        will(returnValue(subjectKeyDescriptor));
+        oneOf(keyWrapOperator).unwrap(subjectKeyDescriptor, wrapperKey);
+        will(returnValue(subjectKey));
+      }
+    });
+
+    storage.retrieve(ID);
+    assertThat(stages, contains(
+        "retrieve.open:SUCCESS",
+        "retrieve.decode:SUCCESS",
+        "retrieve.wrapperKey:SUCCESS",
+        "retrieve.unwrap:SUCCESS",
+        "retrieve.metadata:SUCCESS",
+        "retrieve:SUCCESS"));
+  }
+
+  @Test
+  public void testRetrieveWhenNotFoundReportsMetrics() throws Exception {
+    final List<String> stages = recordStages();
+    storage.ioException = new FileNotFoundException();
+    try {
+      storage.retrieve(ID);
+    }
+    catch (NoSuchKeyException ex) {
+      assertThat(stages, contains("retrieve:NOT_FOUND"));
+      return;
+    }
+    throw new AssertionError("expected NoSuchKeyException");
+  }
+
+  @Test
+  public void testRetrieveWhenNotFoundRemembersMissingKey() throws Exception {
+    storage.setNegativeLookupTtl(Duration.ofMinutes(1));
+    storage.ioException = new FileNotFoundException();
+    for (int i = 0; i < 2; i++) {
+      try {
+        storage.retrieve(ID);
+        fail("expected NoSuchKeyException");
+      }
+      catch (NoSuchKeyException ex) {
+        assert true;  // key does not exist
+      }
+    }
+    assertThat(storage.contentStreamCount, is(equalTo(1)));
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.existsCount, is(equalTo(0)));
+  }
+
+  @Test
+  public void testIsVersionId() throws Exception {
+    assertThat(AbstractMutableKeyStorage.isVersionId(
+        AbstractMutableKeyStorage.versionId(ID, 12)), is(true));
+    assertThat(AbstractMutableKeyStorage.isVersionId(ID), is(false));
+    assertThat(AbstractMutableKeyStorage.isVersionId(ID + "@v"), is(false));
+    assertThat(AbstractMutableKeyStorage.isVersionId(ID + "@v01"), is(false));
+    assertThat(AbstractMutableKeyStorage.isVersionId(ID + "@vx"), is(false));
+    assertThat(AbstractMutableKeyStorage.isVersionId("@v1"), is(false));
+  }
+
+  @Test
+  public void testExists() throws Exception {
+    final List<String> stages = recordStages();
+    storage.exists = true;
+    assertThat(storage.exists(ID), is(true));
+    storage.exists = false;
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.existsCount, is(equalTo(3)));
+    assertThat(storage.contentStreamCount, is(equalTo(0)));
+    assertThat(stages,
+        contains("exists:SUCCESS", "exists:NOT_FOUND", "exists:NOT_FOUND"));
+  }
+
+  @Test
+  public void testExistsRemembersMissingKeyUntilStored() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        oneOf(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    storage.setNegativeLookupTtl(Duration.ofMinutes(1));
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.existsCount, is(equalTo(1)));
+
+    storage.store(ID, subjectKey);
+    storage.exists = true;
+    assertThat(storage.exists(ID), is(true));
+    assertThat(storage.existsCount, is(equalTo(2)));
+
+    storage.exists = false;
+    assertThat(storage.exists(ID), is(false));
+    storage.setNegativeLookupTtl(null);
+    assertThat(storage.exists(ID), is(false));
+    assertThat(storage.existsCount, is(equalTo(4)));
+  }
+
+  @Test
+  public void testExistsRemembersLimitedNumberOfMissingKeys() throws Exception {
+    storage.setNegativeLookupTtl(Duration.ofMinutes(1));
+    storage.setNegativeLookupLimit(1);
+    assertThat(storage.exists("a"), is(false));
+    assertThat(storage.exists("b"), is(false));
+    assertThat(storage.exists("a"), is(false));
+    assertThat(storage.exists("b"), is(false));
+    assertThat(storage.existsCount, is(equalTo(3)));
+  }
+
+  @Test
+  public void testExistsForgetsExpiredMissingKeysWhenFull() throws Exception {
+    storage.setNegativeLookupTtl(Duration.ZERO);
+    storage.setNegativeLookupLimit(1);
+    assertThat(storage.exists("a"), is(false));
+    storage.setNegativeLookupTtl(Duration.ofMinutes(1));
+    assertThat(storage.exists("b"), is(false));
+    assertThat(storage.exists("b"), is(false));
+    assertThat(storage.existsCount, is(equalTo(2)));
+  }
+
   @Test
   public void testRetrieveWhenIOException() throws Exception {
     context.checking(new Expectations() {
@@ -291,6 +436,64 @@ public class AbstractMutableKeyStorageTest {
   }
 
 
+  @Test
+  public void testStoreReportsMetrics() throws Exception {
+    final List<String> stages = recordStages();
+    final KeyWithMetadata keyWithMetadata =
+        new KeyWithMetadata(subjectKey, metadata);
+
+    context.checking(new Expectations() {
+      {
+        oneOf(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        oneOf(metadata).isEmpty();
+        will(returnValue(false));
+        oneOf(metadataWrapOperator).wrap(keyWithMetadata);
+        will(returnValue(WRAPPED_METADATA));
+        oneOf(metadataEncoder).encode(WRAPPED_METADATA);
+        will(returnValue(metadataBlob));
+        oneOf(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    storage.store(ID, keyWithMetadata);
+    assertThat(stages, contains(
+        "store.wrapperKey:SUCCESS",
+        "store.wrap:SUCCESS",
+        "store.metadata:SUCCESS",
+        "store.encode:SUCCESS",
+        "store.write:SUCCESS",
+        "store:SUCCESS"));
+  }
+
+  @Test
+  public void testStoreWhenIOExceptionReportsMetrics() throws Exception {
+    final List<String> stages = recordStages();
+    context.checking(new Expectations() {
+      {
+        oneOf(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        oneOf(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    storage.ioException = new IOException("I/O error");
+    try {
+      storage.store(ID, subjectKey);
+    }
+    catch (KeyStorageException ex) {
+      assertThat(stages, contains(
+          "store.wrapperKey:SUCCESS",
+          "store.wrap:SUCCESS",
+          "store.encode:SUCCESS",
+          "store:FAILURE"));
+      return;
+    }
+    throw new AssertionError("expected KeyStorageException");
+  }
+
   @Test
   public void testStoreWhenIncludesKeyDescriptor() throws Exception {
     context.checking(new Expectations() {
@@ -336,12 +539,213 @@ public class AbstractMutableKeyStorageTest {
     assertThat(storage.path, startsWith(ID));
   }
 
+  @Test
+  public void testStoreReusesWrapperKey() throws Exception {
+    context.checking(new Expectations() {
+      {
+        exactly(3).of(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        exactly(3).of(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    final List<WrapperKeyResponse> destroyed = new ArrayList<>();
+    storage.response = WrapperKeyResponse.with(wrapperKey, null,
+        destroyed::add);
+    storage.setWrapperKeyReuse(2);
+    storage.store(ID, subjectKey);
+    storage.store(ID, subjectKey);
+    assertThat(storage.wrapperKeyCount, is(equalTo(1)));
+    assertThat(destroyed, hasSize(1));
+
+    storage.store(ID, subjectKey);
+    assertThat(storage.wrapperKeyCount, is(equalTo(2)));
+    assertThat(destroyed, hasSize(1));
+
+    storage.setWrapperKeyReuse(1);
+    assertThat(destroyed, hasSize(2));
+  }
+
+  @Test
+  public void testStoreDestroysWrapperKeyWhenWrapFails() throws Exception {
+    final KeyWrapException failure = new KeyWrapException("failed",
+        new Exception());
+    context.checking(new Expectations() {
+      {
+        oneOf(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(throwException(failure));
+      }
+    });
+
+    final List<WrapperKeyResponse> destroyed = new ArrayList<>();
+    storage.response = WrapperKeyResponse.with(wrapperKey, null,
+        destroyed::add);
+    try {
+      storage.store(ID, subjectKey);
+      fail("expected KeyWrapException");
+    }
+    catch (KeyWrapException ex) {
+      assertThat(ex, is(sameInstance(failure)));
+    }
+    assertThat(destroyed, hasSize(1));
+  }
+
+  @Test
+  public void testStoreAll() throws Exception {
+    context.checking(new Expectations() {
+      {
+        exactly(3).of(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        exactly(3).of(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    final Map<String, KeyWithMetadata> keys = new LinkedHashMap<>();
+    for (int i = 0; i < 3; i++) {
+      keys.put(ID + i, new KeyWithMetadata(subjectKey, SimpleMetadata.empty()));
+    }
+
+    storage.setWrapExecutor(Runnable::run);
+    storage.setWrapperKeyReuse(3);
+    storage.storeAll(keys);
+
+    assertThat(storage.wrapperKeyCount, is(equalTo(1)));
+    assertThat(storage.stored.keySet(),
+        contains(ID + 0 + SUFFIX, ID + 1 + SUFFIX, ID + 2 + SUFFIX));
+    assertThat(storage.stored.get(ID + 0 + SUFFIX),
+        is(equalTo(Collections.singletonList(subjectBlob))));
+  }
+
+  @Test
+  public void testStoreAllReportsFailures() throws Exception {
+    final Key otherKey = KeyUtil.aesKey(256);
+    final KeyWrapException failure = new KeyWrapException("failed",
+        new Exception());
+    context.checking(new Expectations() {
+      {
+        exactly(2).of(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        oneOf(keyWrapOperator).wrap(otherKey, wrapperKey);
+        will(throwException(failure));
+        exactly(2).of(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    final Map<String, KeyWithMetadata> keys = new LinkedHashMap<>();
+    keys.put("a", new KeyWithMetadata(subjectKey, SimpleMetadata.empty()));
+    keys.put("b", new KeyWithMetadata(otherKey, SimpleMetadata.empty()));
+    keys.put("c", new KeyWithMetadata(subjectKey, SimpleMetadata.empty()));
+
+    storage.setWrapExecutor(Runnable::run);
+    storage.failingPath = "c" + SUFFIX;
+    storage.ioException = new IOException("I/O error");
+    try {
+      storage.storeAll(keys);
+      fail("expected BulkOperationException");
+    }
+    catch (BulkOperationException ex) {
+      assertThat(ex.getMessage(), containsString("2 of 3 keys: b, c"));
+      assertThat(ex.getSuppressed(), arrayWithSize(2));
+      assertThat(ex.getSuppressed()[0], is(sameInstance(failure)));
+      assertThat(ex.getSuppressed()[1].getCause(),
+          is(sameInstance(storage.ioException)));
+      assertThat(ex.getFailures().keySet(), contains("b", "c"));
+      assertThat(ex.getFailures().get("b"), is(sameInstance(failure)));
+    }
+    assertThat(storage.stored.keySet(), contains("a" + SUFFIX));
+  }
+
+  @Test
+  public void testStoreNotifiesInvalidationListener() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(keyWrapOperator).wrap(subjectKey, wrapperKey);
+        will(returnValue(subjectKeyDescriptor));
+        oneOf(keyEncoder).encode(subjectKeyDescriptor);
+        will(returnValue(subjectBlob));
+      }
+    });
+
+    final List<String> invalidated = new ArrayList<>();
+    storage.addInvalidationListener(invalidated::add);
+    storage.ioException = new IOException("I/O error");
+    try {
+      storage.store(ID, subjectKey);
+      fail("expected KeyStorageException");
+    }
+    catch (KeyStorageException ex) {
+      assertThat(ex.getCause(), is(sameInstance(storage.ioException)));
+    }
+    assertThat(invalidated, contains(ID));
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    final List<String> invalidated = new ArrayList<>();
+    final Consumer<String> listener = invalidated::add;
+    storage.addInvalidationListener(listener);
+    storage.delete(ID);
+    assertThat(storage.deleted, contains(ID + SUFFIX));
+    assertThat(invalidated, contains(ID));
+
+    storage.removeInvalidationListener(listener);
+    storage.delete(ID);
+    assertThat(storage.deleted, hasSize(2));
+    assertThat(invalidated, hasSize(1));
+  }
+
+  @Test
+  public void testDeleteWhenIOException() throws Exception {
+    final List<String> invalidated = new ArrayList<>();
+    storage.addInvalidationListener(invalidated::add);
+    storage.ioException = new IOException("I/O error");
+    expectedException.expect(KeyStorageException.class);
+    expectedException.expectCause(is(sameInstance(storage.ioException)));
+    try {
+      storage.delete(ID);
+    }
+    finally {
+      assertThat(invalidated, contains(ID));
+    }
+  }
+
+  @Test
+  public void testDeleteAll() throws Exception {
+    final List<String> invalidated = new ArrayList<>();
+    storage.addInvalidationListener(invalidated::add);
+    storage.failingPath = "b" + SUFFIX;
+    storage.ioException = new IOException("I/O error");
+    try {
+      storage.deleteAll(Arrays.asList("a", "b", "c"));
+      fail("expected BulkOperationException");
+    }
+    catch (BulkOperationException ex) {
+      assertThat(ex.getMessage(), containsString("delete 1 of 3 keys: b"));
+      assertThat(ex.getFailures().get("b").getCause(),
+          is(sameInstance(storage.ioException)));
+    }
+    assertThat(storage.deleted, contains("a" + SUFFIX, "c" + SUFFIX));
+    assertThat(invalidated, contains("a", "b", "c"));
+  }
+
   @Test
   public void testGetBlobEncoder() throws Exception {
     assertThat(storage.getBlobEncoder(), is(not(nullValue())));
   }
 
 
+  private List<String> recordStages() {
+    final List<String> stages = new ArrayList<>();
+    storage.setMetricsListener((source, stage, outcome, elapsedNanos) -> {
+      assertThat(source, is(equalTo(MockKeyStorage.class.getSimpleName())));
+      stages.add(stage + ":" + outcome);
+    });
+    return stages;
+  }
+
   private static class MockKeyStorage extends AbstractMutableKeyStorage {
 
     private final Key wrapperKey;
@@ -349,9 +753,16 @@ public class AbstractMutableKeyStorageTest {
     private final KeyDescriptor subjectKeyDescriptor;
 
     private WrapperKeyResponse response;
+    private int wrapperKeyCount;
     private List<Blob> blobs;
     private String path;
+    private String failingPath;
     private IOException ioException;
+    private final Map<String, List<Blob>> stored = new LinkedHashMap<>();
+    private final List<String> deleted = new ArrayList<>();
+    private boolean exists;
+    private int existsCount;
+    private int contentStreamCount;
 
     MockKeyStorage(BlobEncoder blobEncoder, KeyWrapOperator keyWrapOperator,
         KeyEncoder keyEncoder, MetadataWrapOperator metadataWrapOperator,
@@ -368,6 +779,7 @@ public class AbstractMutableKeyStorageTest {
 
     @Override
     protected WrapperKeyResponse nextWrapperKey() {
+      wrapperKeyCount++;
       return response;
     }
 
@@ -376,7 +788,21 @@ public class AbstractMutableKeyStorageTest {
       assertThat(path, endsWith(SUFFIX));
       this.blobs = blobs;
       this.path = path;
-      if (ioException != null) throw ioException;
+      if (ioException != null
+          && (failingPath == null || failingPath.equals(path))) {
+        throw ioException;
+      }
+      stored.put(path, blobs);
+    }
+
+    @Override
+    protected void deleteContent(String path) throws IOException {
+      assertThat(path, endsWith(SUFFIX));
+      if (ioException != null
+          && (failingPath == null || failingPath.equals(path))) {
+        throw ioException;
+      }
+      deleted.add(path);
     }
 
     @Override
@@ -388,10 +814,23 @@ public class AbstractMutableKeyStorageTest {
     @Override
     protected InputStream getContentStream(String path) throws IOException {
       assertThat(path, endsWith(SUFFIX));
+      contentStreamCount++;
       if (ioException != null) throw ioException;
       return contentStream;
     }
 
+    @Override
+    protected boolean contentExists(String path) {
+      assertThat(path, endsWith(SUFFIX));
+      existsCount++;
+      return exists;
+    }
+
+    @Override
+    protected Stream<String> listIds(String prefix, String suffix) {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
     protected Key getWrapperKey(List<KeyDescriptor> descriptors) {
       return wrapperKey;
@@ -18,12 +18,20 @@
  */
 package org.soulwing.s2ks;
 
+import java.math.BigInteger;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Date;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
 /**
  * Utility methods for keys.
  *
@@ -68,6 +76,27 @@ public class KeyUtil {
     return kpg.generateKeyPair();
   }
 
+  public static X509Certificate certificate(KeyPair keyPair) {
+    final String algorithm = keyPair.getPrivate().getAlgorithm()
+        .startsWith("EC") ? "SHA256withECDSA" : "SHA256withRSA";
+    final X500Name name = new X500Name("CN=s2ks test");
+    final Date notBefore = new Date();
+    final Date notAfter = new Date(notBefore.getTime() + 86400000L);
+    try {
+      return new JcaX509CertificateConverter().getCertificate(
+          new JcaX509v3CertificateBuilder(name, BigInteger.ONE, notBefore,
+              notAfter, name, keyPair.getPublic())
+              .build(new JcaContentSignerBuilder(algorithm)
+                  .build(keyPair.getPrivate())));
+    }
+    catch (RuntimeException ex) {
+      throw ex;
+    }
+    catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
   public static SecretKey aesKey(int size) {
     return new SecretKeySpec(KeyUtil.randomKeyData(size / Byte.SIZE), "AES");
   }
@@ -0,0 +1,59 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.bc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BcPemCertificateWriter}.
+ *
+ * @author Carl Harris
+ */
+public class BcPemCertificateWriterTest {
+
+  private BcPemCertificateWriter writer = BcPemCertificateWriter.getInstance();
+
+  @Test
+  public void testWriteMultipleCerts() throws Exception {
+    final List<X509Certificate> certs;
+    try (final InputStream inputStream =
+             getClass().getResourceAsStream("cacerts.pem")) {
+      certs = BcPemCertificateLoader.getInstance().load(inputStream);
+    }
+    assertThat(certs.size(), is(greaterThan(1)));
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    writer.write(certs, outputStream);
+    final List<X509Certificate> actual = BcPemCertificateLoader.getInstance()
+        .load(new ByteArrayInputStream(outputStream.toByteArray()));
+    assertThat(actual, is(equalTo(certs)));
+  }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+
+/**
+ * Unit tests for {@link KeyRing}.
+ *
+ * @author Carl Harris
+ */
+public class KeyRingTest {
+
+  private static final String ID = "id";
+  private static final String PREFIX = "family/";
+
+  private Path directory;
+
+  private AbstractMutableKeyStorage storage;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    final Properties properties = new Properties();
+    properties.setProperty("password", "secret");
+    properties.setProperty("storageDirectory", directory.toString());
+    storage = (AbstractMutableKeyStorage)
+        KeyStorageLocator.getMutableInstance("LOCAL", properties);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FilesUtil.recursivelyDelete(directory);
+  }
+
+  @Test
+  public void testStartAndGet() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    storage.store(ID, key);
+    storage.store(PREFIX + "1", KeyUtil.aesKey(256));
+    storage.store(PREFIX + "2", KeyUtil.aesKey(256));
+    storage.store("other", KeyUtil.aesKey(256));
+
+    try (final KeyRing ring = newKeyRing()) {
+      ring.start();
+      assertThat(ring.ids(), containsInAnyOrder(ID, PREFIX + "1", PREFIX + "2"));
+      assertThat(ring.get(ID), is(equalTo(key)));
+      assertThat(ring.get("other"), is(nullValue()));
+    }
+  }
+
+  @Test(expected = NoSuchKeyException.class)
+  public void testStartWhenKeyNotFound() throws Exception {
+    try (final KeyRing ring = newKeyRing()) {
+      ring.start();
+    }
+  }
+
+  @Test
+  public void testRefreshWhenUnchanged() throws Exception {
+    storage.store(ID, KeyUtil.aesKey(256));
+    try (final KeyRing ring = newKeyRing()) {
+      ring.start();
+      final KeyWithMetadata keyWithMetadata = ring.getWithMetadata(ID);
+      final long generation = ring.getGeneration();
+      ring.refresh();
+      assertThat(ring.getWithMetadata(ID), is(sameInstance(keyWithMetadata)));
+      assertThat(ring.getGeneration(), is(equalTo(generation)));
+    }
+  }
+
+  @Test
+  public void testRefreshedByStorageChanges() throws Exception {
+    storage.store(ID, KeyUtil.aesKey(256));
+    try (final KeyRing ring = newKeyRing()) {
+      ring.start();
+      final Key key = KeyUtil.aesKey(256);
+      storage.store(PREFIX + "1", key);
+      awaitEqual(() -> ring.get(PREFIX + "1"), key);
+
+      storage.delete(PREFIX + "1");
+      awaitEqual(() -> ring.get(PREFIX + "1"), null);
+    }
+  }
+
+  @Test
+  public void testVersionedStorage() throws Exception {
+    storage.setVersioned(true);
+    storage.store(ID, KeyUtil.aesKey(256));
+    storage.store(PREFIX + "1", KeyUtil.aesKey(256));
+    try (final KeyRing ring = newKeyRing()) {
+      ring.start();
+      assertThat(ring.ids(), containsInAnyOrder(ID, PREFIX + "1"));
+      final KeyWithMetadata keyWithMetadata = ring.getWithMetadata(ID);
+      ring.refresh();
+      assertThat(ring.getWithMetadata(ID), is(sameInstance(keyWithMetadata)));
+
+      final Key key = KeyUtil.aesKey(256);
+      storage.store(ID, key);
+      ring.refresh();
+      assertThat(ring.get(ID), is(equalTo(key)));
+    }
+  }
+
+  private KeyRing newKeyRing() {
+    return KeyRing.builder()
+        .storage(storage)
+        .ids(ID)
+        .prefixes(PREFIX)
+        .build();
+  }
+
+  private static void awaitEqual(Supplier<Key> actual, Key expected)
+      throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (System.currentTimeMillis() < deadline) {
+      final Key key = actual.get();
+      if (expected == null ? key == null : expected.equals(key)) return;
+      Thread.sleep(10);
+    }
+    assertThat(actual.get(), is(equalTo(expected)));
+  }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.security.auth.Destroyable;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+import org.soulwing.s2ks.SimpleMetadata;
+
+/**
+ * Unit tests for {@link SecureKeyCache}.
+ *
+ * @author Carl Harris
+ */
+public class SecureKeyCacheTest {
+
+  private static final String ID = "id";
+  private static final String OTHER_ID = "otherId";
+  private static final String THIRD_ID = "thirdId";
+
+  private static final int AES_KEY_LENGTH = 32;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private KeyStorage storage;
+
+  private final Metadata metadata =
+      SimpleMetadata.builder().set("name", "value").build();
+
+  private SecureKeyCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new SecureKeyCache(storage, 2 * AES_KEY_LENGTH);
+  }
+
+  @Test
+  public void testWithSecretKey() throws Exception {
+    validateWithKey(KeyUtil.aesKey(256));
+  }
+
+  @Test
+  public void testWithRsaPrivateKey() throws Exception {
+    cache = new SecureKeyCache(storage, 8192);
+    validateWithKey(KeyUtil.rsaKeyPair().getPrivate());
+  }
+
+  @Test
+  public void testWithEcPrivateKey() throws Exception {
+    cache = new SecureKeyCache(storage, 8192);
+    validateWithKey(KeyUtil.ecKeyPair().getPrivate());
+  }
+
+  private void validateWithKey(Key key) throws Exception {
+    context.checking(retrieveExpectations(ID, key));
+
+    assertThat(cache.withKey(ID, (k, m) -> k.getEncoded()),
+        is(equalTo(key.getEncoded())));
+
+    final AtomicReference<Key> cachedKey = new AtomicReference<>();
+    final Metadata actualMetadata = cache.withKey(ID, (k, m) -> {
+      cachedKey.set(k);
+      return m;
+    });
+
+    assertThat(actualMetadata, is(equalTo(metadata)));
+    assertThat(cachedKey.get(), is(not(sameInstance(key))));
+    assertThat(cachedKey.get().getAlgorithm(),
+        is(equalTo(key.getAlgorithm())));
+    assertThat(cache.size(), is(equalTo(1)));
+    assertThat(cache.getMemoryUsed(),
+        is(equalTo((long) key.getEncoded().length)));
+  }
+
+  @Test
+  public void testCachedSecretKeyIsDestroyedAfterUse() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(retrieveExpectations(ID, key));
+    cache.withKey(ID, (k, m) -> null);
+
+    final Key cachedKey = cache.withKey(ID, (k, m) -> {
+      assertThat(k.getEncoded(), is(equalTo(key.getEncoded())));
+      return k;
+    });
+    assertThat(cachedKey, is(instanceOf(Destroyable.class)));
+    assertThat(((Destroyable) cachedKey).isDestroyed(), is(true));
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    final Key otherKey = KeyUtil.aesKey(256);
+    final Key thirdKey = KeyUtil.aesKey(256);
+    context.checking(retrieveExpectations(ID, key));
+    context.checking(retrieveExpectations(OTHER_ID, otherKey));
+    context.checking(retrieveExpectations(THIRD_ID, thirdKey));
+
+    cache.withKey(ID, (k, m) -> null);
+    cache.withKey(OTHER_ID, (k, m) -> null);
+    cache.withKey(ID, (k, m) -> null);
+    cache.withKey(THIRD_ID, (k, m) -> null);
+
+    assertThat(cache.size(), is(equalTo(2)));
+    assertThat(cache.getMemoryUsed(), is(equalTo(2L * AES_KEY_LENGTH)));
+
+    // OTHER_ID was evicted, so it must be retrieved again
+    context.checking(retrieveExpectations(OTHER_ID, otherKey));
+    assertThat(cache.withKey(OTHER_ID, (k, m) -> k.getEncoded()),
+        is(equalTo(otherKey.getEncoded())));
+  }
+
+  @Test
+  public void testKeyLargerThanBudgetIsNotCached() throws Exception {
+    final Key key = KeyUtil.rsaKeyPair().getPrivate();
+    context.checking(retrieveExpectations(ID, key));
+    context.checking(retrieveExpectations(ID, key));
+
+    cache.withKey(ID, (k, m) -> null);
+    assertThat(cache.size(), is(equalTo(0)));
+    cache.withKey(ID, (k, m) -> null);
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(retrieveExpectations(ID, key));
+    context.checking(retrieveExpectations(ID, key));
+
+    cache.withKey(ID, (k, m) -> null);
+    cache.invalidate(ID);
+    assertThat(cache.size(), is(equalTo(0)));
+    assertThat(cache.getMemoryUsed(), is(equalTo(0L)));
+    cache.withKey(ID, (k, m) -> null);
+  }
+
+  @Test
+  public void testInvalidatedByStorageChanges() throws Exception {
+    final Path directory = Files.createTempDirectory(
+        getClass().getSimpleName());
+    try {
+      final Properties properties = new Properties();
+      properties.setProperty("password", "secret");
+      properties.setProperty("storageDirectory", directory.toString());
+      final MutableKeyStorage mutableStorage =
+          KeyStorageLocator.getMutableInstance("LOCAL", properties);
+      final Key key = KeyUtil.aesKey(256);
+      final Key newKey = KeyUtil.aesKey(256);
+      mutableStorage.store(ID, key);
+
+      try (final SecureKeyCache cache =
+               new SecureKeyCache(mutableStorage, 1024)) {
+        assertThat(cache.withKey(ID, (k, m) -> k), is(equalTo(key)));
+        mutableStorage.store(ID, newKey);
+        assertThat(cache.size(), is(equalTo(0)));
+        assertThat(cache.withKey(ID, (k, m) -> k), is(equalTo(newKey)));
+
+        mutableStorage.delete(ID);
+        assertThat(cache.size(), is(equalTo(0)));
+        try {
+          cache.withKey(ID, (k, m) -> k);
+          fail("expected NoSuchKeyException");
+        }
+        catch (NoSuchKeyException ex) {
+          assert true;  // key was deleted
+        }
+      }
+    }
+    finally {
+      FilesUtil.recursivelyDelete(directory);
+    }
+  }
+
+  @Test
+  public void testCloseClearsEntries() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    final SecureKeyEntry entry = new SecureKeyEntry(key, metadata,
+        key.getEncoded());
+    assertThat(entry.copyKeyData(), is(equalTo(key.getEncoded())));
+    entry.clear();
+    assertThat(entry.isCleared(), is(true));
+
+    context.checking(retrieveExpectations(ID, key));
+    cache.withKey(ID, (k, m) -> null);
+    cache.close();
+    assertThat(cache.size(), is(equalTo(0)));
+    assertThat(cache.getMemoryUsed(), is(equalTo(0L)));
+  }
+
+  private Expectations retrieveExpectations(String id, Key key)
+      throws Exception {
+    return new Expectations() {
+      {
+        oneOf(storage).retrieveWithMetadata(id);
+        will(returnValue(new KeyWithMetadata(key, metadata)));
+      }
+    };
+  }
+
+  @Test
+  public void testCachesVersionsOfVersionedStorage() throws Exception {
+    final Path directory = Files.createTempDirectory(
+        getClass().getSimpleName());
+    try {
+      final Properties properties = new Properties();
+      properties.setProperty("password", "secret");
+      properties.setProperty("storageDirectory", directory.toString());
+      final AbstractMutableKeyStorage mutableStorage =
+          (AbstractMutableKeyStorage)
+              KeyStorageLocator.getMutableInstance("LOCAL", properties);
+      mutableStorage.setVersioned(true);
+      final Key key = KeyUtil.aesKey(256);
+      final Key newKey = KeyUtil.aesKey(256);
+      mutableStorage.store(ID, key);
+
+      try (final SecureKeyCache cache =
+               new SecureKeyCache(mutableStorage, 1024)) {
+        assertThat(cache.withKey(ID, (k, m) -> k), is(equalTo(key)));
+        mutableStorage.store(ID, newKey);
+        assertThat(cache.size(), is(equalTo(1)));
+        assertThat(cache.withKey(ID, (k, m) -> k), is(equalTo(newKey)));
+        assertThat(cache.withKey(ID + "@v1", (k, m) -> k.getEncoded()),
+            is(equalTo(key.getEncoded())));
+        assertThat(cache.size(), is(equalTo(2)));
+
+        mutableStorage.delete(ID);
+        assertThat(cache.size(), is(equalTo(0)));
+      }
+    }
+    finally {
+      FilesUtil.recursivelyDelete(directory);
+    }
+  }
+
+}
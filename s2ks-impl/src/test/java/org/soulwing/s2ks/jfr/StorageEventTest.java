@@ -0,0 +1,133 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jfr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.spi.MetricsListener;
+
+/**
+ * Unit tests for {@link StorageEvent}.
+ *
+ * @author Carl Harris
+ */
+public class StorageEventTest {
+
+  private static final String PREFIX = "org.soulwing.s2ks.";
+
+  private Path directory;
+  private Recording recording;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    recording = new Recording();
+    recording.enable(PREFIX + "KeyRetrieve");
+    recording.enable(PREFIX + "KeyStore");
+    recording.enable(PREFIX + "PbeDeriveKey");
+    recording.enable(PREFIX + "MetadataVerify");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    recording.close();
+  }
+
+  @Test
+  public void testBeginWhenNotRecording() throws Exception {
+    assertThat(StorageEvent.begin(StorageEventType.KEY_RETRIEVE),
+        is(sameInstance(StorageEvent.noop())));
+  }
+
+  @Test
+  public void testCommit() throws Exception {
+    recording.start();
+    final StorageEvent event = StorageEvent.begin(StorageEventType.KEY_STORE);
+    event.setKeyId("id");
+    event.addBytes(2);
+    event.addBytes(3);
+    event.commit("source", MetricsListener.Outcome.NOT_FOUND);
+
+    final List<RecordedEvent> events = stopAndRead();
+    assertThat(events.size(), is(equalTo(1)));
+    final RecordedEvent actual = events.get(0);
+    assertThat(actual.getEventType().getName(),
+        is(equalTo(PREFIX + "KeyStore")));
+    assertThat(actual.getString("keyId"), is(equalTo("id")));
+    assertThat(actual.getString("source"), is(equalTo("source")));
+    assertThat(actual.getLong("bytes"), is(equalTo(5L)));
+    assertThat(actual.getString("outcome"), is(equalTo("NOT_FOUND")));
+  }
+
+  @Test
+  public void testStoreAndRetrieve() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("storageDirectory",
+        directory.toString());
+    properties.setProperty("password", "secret");
+    final MutableKeyStorage storage = (MutableKeyStorage)
+        KeyStorageLocator.getInstance("LOCAL",
+            properties);
+
+    recording.start();
+    storage.store("id", new KeyWithMetadata(KeyUtil.aesKey(256),
+        SimpleMetadata.builder().set("name", "value").build()));
+    storage.retrieveWithMetadata("id");
+
+    final List<String> names = stopAndRead().stream()
+        .map(e -> e.getEventType().getName() + ":"
+            + e.getString("outcome"))
+        .collect(Collectors.toList());
+
+    assertThat(names, hasItems(
+        PREFIX + "KeyStore:SUCCESS",
+        PREFIX + "KeyRetrieve:SUCCESS",
+        PREFIX + "PbeDeriveKey:SUCCESS",
+        PREFIX + "MetadataVerify:SUCCESS"));
+  }
+
+  private List<RecordedEvent> stopAndRead() throws Exception {
+    recording.stop();
+    final Path file = Files.createTempFile(directory, "recording", ".jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file);
+  }
+
+}
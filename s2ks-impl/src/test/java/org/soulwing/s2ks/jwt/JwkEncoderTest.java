@@ -0,0 +1,84 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+
+import org.junit.Test;
+import org.soulwing.s2ks.KeyUtil;
+
+/**
+ * Unit tests for {@link JwkEncoder}.
+ *
+ * @author Carl Harris
+ */
+public class JwkEncoderTest {
+
+  @Test
+  public void testEncodeRsaKey() throws Exception {
+    final RSAPublicKey key = (RSAPublicKey) KeyUtil.rsaKeyPair().getPublic();
+    final String json = JwkEncoder.encode("id", key);
+    assertThat(json, containsString("\"kty\":\"RSA\""));
+    assertThat(json, containsString("\"kid\":\"id\""));
+    assertThat(decode(member(json, "n")), is(equalTo(key.getModulus())));
+    assertThat(decode(member(json, "e")),
+        is(equalTo(key.getPublicExponent())));
+  }
+
+  @Test
+  public void testEncodeEcKey() throws Exception {
+    final KeyPair keyPair = KeyUtil.ecKeyPair();
+    final ECPublicKey key = (ECPublicKey) keyPair.getPublic();
+    final String json = JwkEncoder.encode("id", key);
+    assertThat(json, containsString("\"kty\":\"EC\""));
+    assertThat(json, containsString("\"crv\":\"P-256\""));
+    assertThat(Base64.getUrlDecoder().decode(member(json, "x")).length,
+        is(equalTo(32)));
+    assertThat(decode(member(json, "x")),
+        is(equalTo(key.getW().getAffineX())));
+    assertThat(decode(member(json, "y")),
+        is(equalTo(key.getW().getAffineY())));
+  }
+
+  @Test
+  public void testQuote() throws Exception {
+    assertThat(JwkEncoder.quote("a\"b\\c\n"),
+        is(equalTo("\"a\\\"b\\\\c\\u000a\"")));
+  }
+
+  private static String member(String json, String name) {
+    final String prefix = "\"" + name + "\":\"";
+    final int start = json.indexOf(prefix) + prefix.length();
+    return json.substring(start, json.indexOf('"', start));
+  }
+
+  private static BigInteger decode(String value) {
+    return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.cache.KeyRing;
+
+/**
+ * Unit tests for {@link JwkSetPublisher}.
+ *
+ * @author Carl Harris
+ */
+public class JwkSetPublisherTest {
+
+  private static final String PREFIX = "signing/";
+
+  private Path directory;
+
+  private MutableKeyStorage storage;
+
+  private KeyRing ring;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    final Properties properties = new Properties();
+    properties.setProperty("password", "secret");
+    properties.setProperty("storageDirectory", directory.toString());
+    storage = KeyStorageLocator.getMutableInstance("LOCAL", properties);
+    ring = KeyRing.builder().storage(storage).prefixes(PREFIX).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    ring.close();
+    FilesUtil.recursivelyDelete(directory);
+  }
+
+  @Test
+  public void testPublishesPublicKeys() throws Exception {
+    storage.store(PREFIX + "1", KeyUtil.rsaKeyPair().getPrivate());
+    storage.store(PREFIX + "2", KeyUtil.ecKeyPair().getPrivate());
+    storage.store(PREFIX + "3", KeyUtil.aesKey(256));
+    ring.start();
+
+    final JwkSet jwkSet = new JwkSetPublisher(ring).getJwkSet();
+    assertThat(jwkSet.getKeyIds(), contains(PREFIX + "1", PREFIX + "2"));
+    assertThat(jwkSet.toJson(), containsString("\"kty\":\"RSA\""));
+    assertThat(jwkSet.toJson(), containsString("\"kty\":\"EC\""));
+    assertThat(jwkSet.toJson(), not(containsString("\"d\"")));
+  }
+
+  @Test
+  public void testCachesUnchangedSet() throws Exception {
+    storage.store(PREFIX + "1", KeyUtil.ecKeyPair().getPrivate());
+    ring.start();
+
+    final JwkSetPublisher publisher = new JwkSetPublisher(ring);
+    final JwkSet jwkSet = publisher.getJwkSet();
+    assertThat(publisher.getJwkSet(), is(sameInstance(jwkSet)));
+    ring.refresh();
+    assertThat(publisher.getJwkSet(), is(sameInstance(jwkSet)));
+  }
+
+  @Test
+  public void testRegeneratesWhenKeysChange() throws Exception {
+    storage.store(PREFIX + "1", KeyUtil.ecKeyPair().getPrivate());
+    ring.start();
+
+    final JwkSetPublisher publisher = new JwkSetPublisher(ring);
+    final JwkSet jwkSet = publisher.getJwkSet();
+
+    storage.store(PREFIX + "2", KeyUtil.ecKeyPair().getPrivate());
+    ring.refresh();
+    final JwkSet updated = publisher.getJwkSet();
+    assertThat(updated.getKeyIds(), contains(PREFIX + "1", PREFIX + "2"));
+    assertThat(updated.getEntityTag(),
+        is(not(equalTo(jwkSet.getEntityTag()))));
+    assertThat(updated.matches(jwkSet.getEntityTag()), is(false));
+
+    storage.delete(PREFIX + "2");
+    ring.refresh();
+    assertThat(publisher.getJwkSet().getEntityTag(),
+        is(equalTo(jwkSet.getEntityTag())));
+  }
+
+  @Test
+  public void testUnpublishedKeyChangeKeepsSet() throws Exception {
+    storage.store(PREFIX + "1", KeyUtil.ecKeyPair().getPrivate());
+    ring.start();
+
+    final JwkSetPublisher publisher = new JwkSetPublisher(ring);
+    final JwkSet jwkSet = publisher.getJwkSet();
+
+    storage.store(PREFIX + "secret", KeyUtil.aesKey(256));
+    ring.refresh();
+    assertThat(publisher.getJwkSet(), is(sameInstance(jwkSet)));
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JwkSet}.
+ *
+ * @author Carl Harris
+ */
+public class JwkSetTest {
+
+  private final JwkSet jwkSet = new JwkSet(Collections.singletonList("id"),
+      Collections.singletonList("{\"kid\":\"id\"}"));
+
+  @Test
+  public void testToJson() throws Exception {
+    assertThat(jwkSet.toJson(), is(equalTo("{\"keys\":[{\"kid\":\"id\"}]}")));
+    assertThat(new JwkSet(Collections.emptyList(), Collections.emptyList())
+        .toJson(), is(equalTo("{\"keys\":[]}")));
+  }
+
+  @Test
+  public void testEntityTag() throws Exception {
+    assertThat(jwkSet.getEntityTag().startsWith("\""), is(true));
+    assertThat(jwkSet.getEntityTag().endsWith("\""), is(true));
+    assertThat(new JwkSet(Collections.singletonList("id"),
+            Collections.singletonList("{\"kid\":\"id\"}")).getEntityTag(),
+        is(equalTo(jwkSet.getEntityTag())));
+    assertThat(new JwkSet(Arrays.asList("id", "other"),
+            Arrays.asList("{\"kid\":\"id\"}", "{\"kid\":\"other\"}"))
+            .getEntityTag(),
+        is(not(equalTo(jwkSet.getEntityTag()))));
+  }
+
+  @Test
+  public void testMatches() throws Exception {
+    final String tag = jwkSet.getEntityTag();
+    assertThat(jwkSet.matches(null), is(false));
+    assertThat(jwkSet.matches("*"), is(true));
+    assertThat(jwkSet.matches(tag), is(true));
+    assertThat(jwkSet.matches("W/" + tag), is(true));
+    assertThat(jwkSet.matches("\"other\", " + tag), is(true));
+    assertThat(jwkSet.matches("\"other\""), is(false));
+  }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.jwt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jmock.Expectations;
+import org.jmock.api.Invocation;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.jmock.lib.action.CustomAction;
+import org.jmock.lib.concurrent.Synchroniser;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.jwt.api.Claims;
+import org.soulwing.jwt.api.JWS;
+import org.soulwing.jwt.api.JWTProvider;
+import org.soulwing.jwt.api.JWTProviderLocator;
+import org.soulwing.jwt.api.KeyProvider;
+import org.soulwing.jwt.api.exceptions.KeyProviderException;
+import org.soulwing.s2ks.KeyStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.NoSuchKeyException;
+
+/**
+ * Unit tests for {@link KeyStorageKeyProvider}.
+ *
+ * @author Carl Harris
+ */
+public class KeyStorageKeyProviderTest {
+
+  private static final String ID = "id";
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery() {
+    {
+      setThreadingPolicy(new Synchroniser());
+    }
+  };
+
+  @Mock
+  private KeyStorage storage;
+
+  private KeyStorageKeyProvider provider;
+
+  @After
+  public void tearDown() throws Exception {
+    if (provider != null) {
+      provider.close();
+    }
+  }
+
+  @Test
+  public void testRetrieveKeyCachesKey() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    assertThat(provider.retrieveKey(ID).orElse(null), is(sameInstance(key)));
+    assertThat(provider.retrieveKey(ID).orElse(null), is(sameInstance(key)));
+    assertThat(provider.size(), is(equalTo(1)));
+  }
+
+  @Test
+  public void testRetrieveKeyWhenNotFound() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(throwException(new NoSuchKeyException(ID)));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    assertThat(provider.retrieveKey(ID), is(equalTo(Optional.empty())));
+    assertThat(provider.size(), is(equalTo(0)));
+    assertThat(provider.retrieveKey(ID), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  public void testRetrieveKeyWhenNotFoundWithoutNegativeLookup()
+      throws Exception {
+    context.checking(new Expectations() {
+      {
+        exactly(2).of(storage).retrieve(ID);
+        will(throwException(new NoSuchKeyException(ID)));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder()
+        .storage(storage)
+        .negativeLookupTtl(null)
+        .build();
+    assertThat(provider.retrieveKey(ID), is(equalTo(Optional.empty())));
+    assertThat(provider.retrieveKey(ID), is(equalTo(Optional.empty())));
+  }
+
+  @Test
+  public void testNegativeLookupLimit() throws Exception {
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve("1");
+        will(throwException(new NoSuchKeyException("1")));
+        exactly(2).of(storage).retrieve("2");
+        will(throwException(new NoSuchKeyException("2")));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder()
+        .storage(storage)
+        .negativeLookupLimit(1)
+        .build();
+    provider.retrieveKey("1");
+    provider.retrieveKey("2");
+    provider.retrieveKey("1");
+    provider.retrieveKey("2");
+  }
+
+  @Test
+  public void testInvalidateForgetsMissingKey() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(throwException(new NoSuchKeyException(ID)));
+        oneOf(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    assertThat(provider.retrieveKey(ID), is(equalTo(Optional.empty())));
+    provider.invalidate(ID);
+    assertThat(provider.retrieveKey(ID).orElse(null), is(sameInstance(key)));
+  }
+
+  @Test
+  public void testCurrentKeyAfterNotFound() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(throwException(new NoSuchKeyException(ID)));
+        oneOf(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder()
+        .storage(storage)
+        .currentKeyId(ID)
+        .build();
+    assertThat(provider.retrieveKey(ID), is(equalTo(Optional.empty())));
+    assertThat(provider.currentKey().getKey(), is(sameInstance(key)));
+    assertThat(provider.retrieveKey(ID).orElse(null), is(sameInstance(key)));
+  }
+
+  @Test
+  public void testRetrieveKeyWhenStorageFails() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(throwException(new KeyStorageException("failed")));
+        oneOf(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    try {
+      provider.retrieveKey(ID);
+      fail("expected KeyProviderException");
+    }
+    catch (KeyProviderException ex) {
+      assertThat(ex.getCause(), is(instanceOf(KeyStorageException.class)));
+    }
+    assertThat(provider.retrieveKey(ID).orElse(null), is(sameInstance(key)));
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(new Expectations() {
+      {
+        exactly(2).of(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    provider.retrieveKey(ID);
+    provider.invalidate(ID);
+    assertThat(provider.size(), is(equalTo(0)));
+    provider.retrieveKey(ID);
+  }
+
+  @Test
+  public void testEvictsWhenFull() throws Exception {
+    context.checking(new Expectations() {
+      {
+        allowing(storage).retrieve(with(any(String.class)));
+        will(returnValue(KeyUtil.aesKey(256)));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder()
+        .storage(storage)
+        .maxEntries(2)
+        .build();
+    provider.retrieveKey("1");
+    provider.retrieveKey("2");
+    provider.retrieveKey("3");
+    assertThat(provider.size(), is(equalTo(2)));
+  }
+
+  @Test
+  public void testCurrentKey() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    final AtomicReference<String> currentId = new AtomicReference<>();
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder()
+        .storage(storage)
+        .currentKeyId(currentId::get)
+        .build();
+
+    try {
+      provider.currentKey();
+      fail("expected KeyProviderException");
+    }
+    catch (KeyProviderException ex) {
+      assert true;
+    }
+
+    currentId.set(ID);
+    assertThat(provider.currentKey().getId(), is(equalTo(ID)));
+    assertThat(provider.currentKey().getKey(), is(sameInstance(key)));
+  }
+
+  @Test
+  public void testVerificationKeyForPrivateKey() throws Exception {
+    final KeyPair keyPair = KeyUtil.ecKeyPair();
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(returnValue(keyPair.getPrivate()));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    final Key publicKey =
+        provider.verificationKeys().retrieveKey(ID).orElse(null);
+    assertThat(publicKey, is(instanceOf(PublicKey.class)));
+    assertThat(publicKey.getEncoded(),
+        is(equalTo(keyPair.getPublic().getEncoded())));
+    assertThat(provider.verificationKeys().retrieveKey(ID).orElse(null),
+        is(sameInstance(publicKey)));
+    assertThat(provider.retrieveKey(ID).orElse(null),
+        is(sameInstance(keyPair.getPrivate())));
+  }
+
+  @Test
+  public void testVerificationKeyForSecretKey() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(returnValue(key));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    assertThat(provider.verificationKeys().retrieveKey(ID).orElse(null),
+        is(sameInstance(key)));
+  }
+
+  @Test
+  public void testConcurrentRetrievalLoadsOnce() throws Exception {
+    final Key key = KeyUtil.aesKey(256);
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(new CustomAction("retrieve slowly") {
+          @Override
+          public Object invoke(Invocation invocation) throws Throwable {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return key;
+          }
+        });
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder().storage(storage).build();
+    final AtomicReference<Key> first = new AtomicReference<>();
+    final AtomicReference<Key> second = new AtomicReference<>();
+    final Thread t1 = retrieveInThread(first);
+    t1.start();
+    assertThat(loading.await(5, TimeUnit.SECONDS), is(true));
+    final Thread t2 = retrieveInThread(second);
+    t2.start();
+    release.countDown();
+    t1.join(5000);
+    t2.join(5000);
+
+    assertThat(first.get(), is(sameInstance(key)));
+    assertThat(second.get(), is(sameInstance(key)));
+  }
+
+  @Test
+  public void testSignAndValidateToken() throws Exception {
+    final KeyPair keyPair = KeyUtil.ecKeyPair();
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).retrieve(ID);
+        will(returnValue(keyPair.getPrivate()));
+      }
+    });
+
+    provider = KeyStorageKeyProvider.builder()
+        .storage(storage)
+        .currentKeyId(ID)
+        .build();
+
+    final JWTProvider jwt = JWTProviderLocator.getProvider();
+    final String token = jwt.generator()
+        .signature(signatureOperator(jwt, provider))
+        .build()
+        .generate(jwt.claims().set("name", "value").build());
+
+    final Claims claims = jwt.validator()
+        .signatureOperator(
+            signatureOperator(jwt, provider.verificationKeys()))
+        .claimsAssertions(jwt.assertions().build())
+        .clock(Clock.systemUTC())
+        .build()
+        .validate(token);
+
+    assertThat(claims.get("name", String.class), is(equalTo("value")));
+  }
+
+  private static JWS signatureOperator(JWTProvider jwt,
+      KeyProvider keyProvider) throws Exception {
+    return jwt.signatureOperator()
+        .algorithm(JWS.Algorithm.ES256)
+        .keyProvider(keyProvider)
+        .build();
+  }
+
+  private Thread retrieveInThread(AtomicReference<Key> result) {
+    return new Thread(() -> {
+      try {
+        result.set(provider.retrieveKey(ID).orElse(null));
+      }
+      catch (KeyProviderException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.keygen;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jmock.Expectations;
+import org.jmock.api.Invocation;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.jmock.lib.action.CustomAction;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.SimpleMetadata;
+
+/**
+ * Unit tests for {@link KeyGenerationPool}.
+ *
+ * @author Carl Harris
+ */
+public class KeyGenerationPoolTest {
+
+  private static final String ID = "id";
+
+  private static final KeySpec SPEC = KeySpec.of("AES", 256);
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private MutableKeyStorage storage;
+
+  private final List<Runnable> tasks = new ArrayList<>();
+
+  private final Executor executor = tasks::add;
+
+  @Test
+  public void testPrefill() throws Exception {
+    try (final KeyGenerationPool pool = newPool(Runnable::run)) {
+      pool.prefill(SPEC);
+      assertThat(pool.available(SPEC), is(equalTo(2)));
+      pool.take(SPEC);
+      assertThat(pool.getHitCount(), is(equalTo(1L)));
+      assertThat(pool.getMissCount(), is(equalTo(0L)));
+      assertThat(pool.available(SPEC), is(equalTo(2)));
+    }
+  }
+
+  @Test
+  public void testTakeWhenEmptyGeneratesAndRefills() throws Exception {
+    try (final KeyGenerationPool pool = newPool(executor)) {
+      final Key key = pool.take(SPEC);
+      assertThat(key.getAlgorithm(), is(equalTo("AES")));
+      assertThat(pool.getMissCount(), is(equalTo(1L)));
+      assertThat(tasks.size(), is(equalTo(2)));
+
+      pool.take(SPEC);
+      assertThat(tasks.size(), is(equalTo(2)));
+
+      tasks.forEach(Runnable::run);
+      assertThat(pool.available(SPEC), is(equalTo(2)));
+      assertThat(pool.take(SPEC), is(not(sameInstance(key))));
+      assertThat(pool.getHitCount(), is(equalTo(1L)));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testConcurrentTakeDuringRefillSubmitsNoExtraGeneration()
+      throws Exception {
+    final CountDownLatch submitting = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean first = new AtomicBoolean(true);
+    final List<Runnable> submitted =
+        Collections.synchronizedList(new ArrayList<>());
+    final Executor blocking = task -> {
+      if (first.getAndSet(false)) {
+        submitting.countDown();
+        try {
+          release.await();
+        }
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      submitted.add(task);
+    };
+
+    try (final KeyGenerationPool pool = newPool(blocking)) {
+      final Thread taker = new Thread(() -> {
+        try {
+          pool.take(SPEC);
+        }
+        catch (Exception ex) {
+          throw new RuntimeException(ex);
+        }
+      });
+      taker.start();
+      submitting.await();
+      pool.take(SPEC);
+      release.countDown();
+      taker.join();
+      assertThat(pool.getMissCount(), is(equalTo(2L)));
+      assertThat(submitted.size(), is(equalTo(2)));
+    }
+  }
+
+  @Test
+  public void testGenerateAndStore() throws Exception {
+    final Metadata metadata = SimpleMetadata.builder().set("name", "value")
+        .build();
+    final List<KeyWithMetadata> stored = new ArrayList<>();
+    context.checking(new Expectations() {
+      {
+        oneOf(storage).store(with(ID), with(any(KeyWithMetadata.class)));
+        will(new CustomAction("capture key") {
+          @Override
+          public Object invoke(Invocation invocation) {
+            stored.add((KeyWithMetadata) invocation.getParameter(1));
+            return null;
+          }
+        });
+      }
+    });
+
+    try (final KeyGenerationPool pool = newPool(Runnable::run)) {
+      pool.prefill(SPEC);
+      final Key key = pool.generateAndStore(ID, SPEC, metadata);
+      assertThat(stored.get(0).getKey(), is(sameInstance(key)));
+      assertThat(stored.get(0).getMetadata(), is(equalTo(metadata)));
+      assertThat(pool.getHitCount(), is(equalTo(1L)));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGenerateAndStoreWithoutStorage() throws Exception {
+    try (final KeyGenerationPool pool = KeyGenerationPool.builder().build()) {
+      pool.generateAndStore(ID, SPEC);
+    }
+  }
+
+  @Test
+  public void testCloseDiscardsKeys() throws Exception {
+    final KeyGenerationPool pool = newPool(Runnable::run);
+    pool.prefill(SPEC);
+    pool.close();
+    assertThat(pool.available(SPEC), is(equalTo(0)));
+  }
+
+  private KeyGenerationPool newPool(Executor executor) {
+    return KeyGenerationPool.builder()
+        .storage(storage)
+        .poolSize(2)
+        .executor(executor)
+        .build();
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.keygen;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.security.Key;
+import java.security.interfaces.ECPrivateKey;
+import javax.crypto.SecretKey;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link KeySpec}.
+ *
+ * @author Carl Harris
+ */
+public class KeySpecTest {
+
+  @Test
+  public void testGenerateSecretKey() throws Exception {
+    final KeySpec spec = KeySpec.of("AES", 256);
+    assertThat(spec.isKeyPair(), is(false));
+    final Key key = spec.generate();
+    assertThat(key, is(instanceOf(SecretKey.class)));
+    assertThat(key.getAlgorithm(), is(equalTo("AES")));
+    assertThat(key.getEncoded().length, is(equalTo(32)));
+  }
+
+  @Test
+  public void testGeneratePrivateKey() throws Exception {
+    final KeySpec spec = KeySpec.of("EC", 256);
+    assertThat(spec.isKeyPair(), is(true));
+    assertThat(spec.generate(), is(instanceOf(ECPrivateKey.class)));
+  }
+
+  @Test
+  public void testEquals() throws Exception {
+    assertThat(KeySpec.of("AES", 256), is(equalTo(KeySpec.of("AES", 256))));
+    assertThat(KeySpec.of("AES", 256).hashCode(),
+        is(equalTo(KeySpec.of("AES", 256).hashCode())));
+    assertThat(KeySpec.of("AES", 256), is(not(equalTo(KeySpec.of("AES", 128)))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedAlgorithm() throws Exception {
+    KeySpec.of("NoSuchAlgorithm", 256);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testKeySizeMustBePositive() throws Exception {
+    KeySpec.of("AES", 0);
+  }
+
+}
@@ -29,6 +29,7 @@ import java.util.Properties;
 import org.junit.Test;
 import org.soulwing.s2ks.KeyPairStorage;
 import org.soulwing.s2ks.KeyPairStorageLocator;
+import org.soulwing.s2ks.MutableKeyPairStorage;
 
 /**
  * Unit tests for {@link org.soulwing.s2ks.KeyPairStorageLocator}.
@@ -57,4 +58,25 @@ public class KeyPairStorageLocatorTest {
     }
   }
 
+  @Test
+  public void testLocateMutable() throws Exception {
+    final Path storageDirectory = Files.createTempDirectory("storageDirectory");
+    try {
+      final Properties properties = new Properties();
+      properties.setProperty(LocalKeyPairStorageProvider.STORAGE_DIRECTORY,
+          storageDirectory.toString());
+      properties.setProperty(LocalKeyPairStorageProvider.PASSWORD,
+          "secret");
+
+      final MutableKeyPairStorage storage =
+          KeyPairStorageLocator.getMutableInstance(
+              LocalKeyPairStorageProvider.PROVIDER_NAME, properties);
+
+      assertThat(storage, is(instanceOf(LocalKeyPairStorage.class)));
+    }
+    finally {
+      Files.deleteIfExists(storageDirectory);
+    }
+  }
+
 }
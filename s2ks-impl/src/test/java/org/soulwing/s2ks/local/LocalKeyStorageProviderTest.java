@@ -49,6 +49,7 @@ import org.soulwing.s2ks.SimpleMetadata;
 import org.soulwing.s2ks.base.AbstractKeyWrapOperator;
 import org.soulwing.s2ks.base.KeyDescriptor;
 import org.soulwing.s2ks.base.PasswordWriter;
+import org.soulwing.s2ks.metadata.MetadataFormat;
 import org.soulwing.s2ks.pem.PemBlobEncoder;
 import org.soulwing.s2ks.pem.PemKeyEncoder;
 
@@ -180,6 +181,34 @@ public class LocalKeyStorageProviderTest {
     validateKeyMetadata(descriptor);
   }
 
+  @Test
+  public void testStoreAndRetrieveWithCompactMetadata() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty(LocalKeyStorageProvider.PASSWORD, "secret");
+    properties.setProperty(LocalKeyStorageProvider.STORAGE_DIRECTORY,
+        parent.toString());
+    properties.setProperty(LocalKeyStorageProvider.METADATA_FORMAT,
+        MetadataFormat.COMPACT.name());
+
+    validateStoreAndRetrieve(KeyStorageLocator.getMutableInstance(
+        LocalKeyStorageProvider.NAME, properties),
+        KeyUtil.ecKeyPair().getPrivate());
+  }
+
+  @Test
+  public void testGetInstanceWithInvalidMetadataFormat() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty(LocalKeyStorageProvider.PASSWORD, "secret");
+    properties.setProperty(LocalKeyStorageProvider.STORAGE_DIRECTORY,
+        parent.toString());
+    properties.setProperty(LocalKeyStorageProvider.METADATA_FORMAT, "XML");
+
+    expectedException.expect(ProviderConfigurationException.class);
+    expectedException.expectMessage(LocalKeyStorageProvider.METADATA_FORMAT);
+
+    new LocalKeyStorageProvider().getInstance(properties);
+  }
+
   @Test(expected = NoSuchKeyException.class)
   public void testRetrieveWhenNotFound() throws Exception {
     getStorageInstance().retrieve(UUID.randomUUID().toString());
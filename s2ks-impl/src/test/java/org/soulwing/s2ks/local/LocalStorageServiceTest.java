@@ -19,6 +19,7 @@
 package org.soulwing.s2ks.local;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
@@ -27,9 +28,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.apache.commons.io.IOUtils;
 import org.jmock.auto.Mock;
@@ -94,6 +105,144 @@ public class LocalStorageServiceTest {
     assertThat(actual, is(equalTo(expected)));
   }
 
+  @Test
+  public void testStoreConcurrentlyInNewDirectory() throws Exception {
+    blobEncoder.data = new byte[0];
+    final int threads = 16;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 50; round++) {
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+          final String path =
+              storageService.idToPath("r" + round + "/d/e/" + i, ".test");
+          futures.add(executor.submit(() -> {
+            barrier.await();
+            storageService.storeContent(Collections.singletonList(blob), path);
+            return null;
+          }));
+        }
+        for (final Future<?> future : futures) {
+          future.get();
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    assertThat(storageService.listIds("", ".test").count(),
+        is(equalTo(50L * threads)));
+  }
+
+  @Test
+  public void testStoreContents() throws Exception {
+    final byte[] expected = KeyUtil.randomKeyData(128);
+    blobEncoder.data = expected;
+    storageService.storeContent(Collections.singletonList(blob),
+        storageService.idToPath("f", ""));
+
+    final Map<String, List<Blob>> contents = new LinkedHashMap<>();
+    for (final String id : Arrays.asList("x/1", "x/2", "y", "f/z")) {
+      contents.put(storageService.idToPath(id, ".test"),
+          Collections.singletonList(blob));
+    }
+
+    final Map<String, IOException> failures =
+        storageService.storeContents(contents);
+    assertThat(failures.keySet(),
+        contains(storageService.idToPath("f/z", ".test")));
+
+    assertThat(storageService.listIds("", ".test")
+            .collect(Collectors.toList()),
+        is(equalTo(Arrays.asList("x/1", "x/2", "y"))));
+    final byte[] actual = IOUtils.toByteArray(storageService.getContentStream(
+        storageService.idToPath("x/2", ".test")));
+    assertThat(actual, is(equalTo(expected)));
+  }
+
+  @Test
+  public void testExists() throws Exception {
+    blobEncoder.data = new byte[0];
+    final String path = storageService.idToPath("x/1", ".test");
+    assertThat(storageService.exists(path), is(false));
+    storageService.storeContent(Collections.singletonList(blob), path);
+    assertThat(storageService.exists(path), is(true));
+  }
+
+  @Test
+  public void testCreateContent() throws Exception {
+    final String path = storageService.idToPath("x/1", ".test");
+    blobEncoder.data = new byte[] { 1 };
+    assertThat(storageService.createContent(
+        Collections.singletonList(blob), path), is(true));
+    blobEncoder.data = new byte[] { 2 };
+    assertThat(storageService.createContent(
+        Collections.singletonList(blob), path), is(false));
+    assertThat(Files.readAllBytes(Paths.get(path)),
+        is(equalTo(new byte[] { 1 })));
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    blobEncoder.data = new byte[0];
+    final String path = storageService.idToPath("x/1", ".test");
+    storageService.storeContent(Collections.singletonList(blob), path);
+
+    storageService.delete(path);
+    assertThat(storageService.listIds("", ".test").count(), is(equalTo(0L)));
+    storageService.delete(path);
+  }
+
+  @Test
+  public void testDeleteAll() throws Exception {
+    blobEncoder.data = new byte[0];
+    for (final String id : Arrays.asList("x/1", "x/2", "y")) {
+      storageService.storeContent(Collections.singletonList(blob),
+          storageService.idToPath(id, ".test"));
+    }
+    Files.createDirectories(
+        Paths.get(storageService.idToPath("z", ".test"), "nonEmpty"));
+
+    final Map<String, IOException> failures = storageService.deleteAll(
+        Arrays.asList("x/1", "y", "w", "z").stream()
+            .map(id -> storageService.idToPath(id, ".test"))
+            .collect(Collectors.toList()));
+    assertThat(failures.keySet(),
+        contains(storageService.idToPath("z", ".test")));
+    assertThat(storageService.listIds("", ".test")
+            .collect(Collectors.toList()),
+        is(equalTo(Collections.singletonList("x/2"))));
+  }
+
+  @Test
+  public void testListIds() throws Exception {
+    blobEncoder.data = new byte[0];
+    for (final String id : Arrays.asList("b", "a/2", "a/1", "c/d/e")) {
+      storageService.storeContent(Collections.singletonList(blob),
+          storageService.idToPath(id, ".test"));
+    }
+    storageService.storeContent(Collections.singletonList(blob),
+        storageService.idToPath("a/3", ".other"));
+
+    assertThat(storageService.listIds("", ".test")
+            .collect(Collectors.toList()),
+        is(equalTo(Arrays.asList("a/1", "a/2", "b", "c/d/e"))));
+    assertThat(storageService.listIds("a/", ".test")
+            .collect(Collectors.toList()),
+        is(equalTo(Arrays.asList("a/1", "a/2"))));
+    assertThat(storageService.listIds("c/d", ".test")
+            .collect(Collectors.toList()),
+        is(equalTo(Collections.singletonList("c/d/e"))));
+    assertThat(storageService.listIds("x/", ".test").count(),
+        is(equalTo(0L)));
+  }
+
+  @Test
+  public void testListIdsWhenDirectoryDoesNotExist() throws Exception {
+    assertThat(storageService.listIds("", ".test").count(), is(equalTo(0L)));
+  }
+
   private static class MockBlobEncoder implements BlobEncoder {
 
     private List<Blob> blobs;
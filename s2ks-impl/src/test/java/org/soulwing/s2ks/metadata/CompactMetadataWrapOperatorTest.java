@@ -0,0 +1,111 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.metadata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.security.KeyPair;
+import javax.crypto.SecretKey;
+
+import org.junit.Test;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MetadataUnwrapException;
+import org.soulwing.s2ks.SimpleMetadata;
+
+/**
+ * Unit tests for {@link CompactMetadataWrapOperator}.
+ *
+ * @author Carl Harris
+ */
+public class CompactMetadataWrapOperatorTest {
+
+  private final CompactMetadataWrapOperator operator =
+      CompactMetadataWrapOperator.getInstance();
+
+  private Metadata metadata = SimpleMetadata.builder()
+      .set("string", "value")
+      .set("int", 1)
+      .set("long", 2L)
+      .set("boolean", true)
+      .set("double", 3.0)
+      .build();
+
+  @Test
+  public void testWrapAndUnwrapWithAesKey() throws Exception {
+    final SecretKey key = KeyUtil.aesKey(256);
+    final Metadata actual = operator.unwrap(key,
+        operator.wrap(new KeyWithMetadata(key, metadata)));
+    assertThat(actual, is(equalTo(metadata)));
+    assertThat(actual.get("long", Object.class), is(equalTo(2L)));
+  }
+
+  @Test
+  public void testWrapAndUnwrapWithRsaKey() throws Exception {
+    final KeyPair key = KeyUtil.rsaKeyPair();
+    final Metadata actual = operator.unwrap(key.getPrivate(),
+        operator.wrap(new KeyWithMetadata(key.getPrivate(), metadata)));
+    assertThat(actual, is(equalTo(metadata)));
+  }
+
+  @Test
+  public void testWrapAndUnwrapWithEcKey() throws Exception {
+    final KeyPair key = KeyUtil.ecKeyPair();
+    final Metadata actual = operator.unwrap(key.getPrivate(),
+        operator.wrap(new KeyWithMetadata(key.getPrivate(), metadata)));
+    assertThat(actual, is(equalTo(metadata)));
+  }
+
+  @Test
+  public void testUnwrapJwtMetadata() throws Exception {
+    final Metadata expected = SimpleMetadata.builder()
+        .set("name", "value").build();
+    final SecretKey key = KeyUtil.aesKey(256);
+    final byte[] encoded = JwtMetadataWrapOperator.getInstance()
+        .wrap(new KeyWithMetadata(key, expected));
+    assertThat(operator.unwrap(key, encoded), is(equalTo(expected)));
+  }
+
+  @Test
+  public void testJwtOperatorUnwrapsCompactMetadata() throws Exception {
+    final SecretKey key = KeyUtil.aesKey(256);
+    final byte[] encoded = operator.wrap(new KeyWithMetadata(key, metadata));
+    assertThat(JwtMetadataWrapOperator.getInstance().unwrap(key, encoded),
+        is(equalTo(metadata)));
+  }
+
+  @Test(expected = MetadataUnwrapException.class)
+  public void testUnwrapWhenTampered() throws Exception {
+    final SecretKey key = KeyUtil.aesKey(256);
+    final byte[] encoded = operator.wrap(new KeyWithMetadata(key, metadata));
+    encoded[encoded.length - CompactMetadataWrapOperator.MAC_LENGTH - 1] ^= 1;
+    operator.unwrap(key, encoded);
+  }
+
+  @Test(expected = MetadataUnwrapException.class)
+  public void testUnwrapWithWrongKey() throws Exception {
+    final byte[] encoded = operator.wrap(
+        new KeyWithMetadata(KeyUtil.aesKey(256), metadata));
+    operator.unwrap(KeyUtil.aesKey(256), encoded);
+  }
+
+}
@@ -23,9 +23,13 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
 import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Provider;
 import java.security.PublicKey;
 import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
 
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.Test;
 import org.soulwing.s2ks.KeyUtil;
 
@@ -46,7 +50,26 @@ public class JcaPublicKeyFactoryTest {
 
   @Test
   public void testEcPrivateKey() throws Exception {
-    final KeyPair kp = KeyUtil.ecKeyPair();
+    validateEcPrivateKey(KeyUtil.ecKeyPair());
+  }
+
+  @Test
+  public void testEcPrivateKeyP384() throws Exception {
+    validateEcPrivateKey(ecKeyPair(new ECGenParameterSpec("secp384r1"), null));
+  }
+
+  @Test
+  public void testEcPrivateKeyP521() throws Exception {
+    validateEcPrivateKey(ecKeyPair(new ECGenParameterSpec("secp521r1"), null));
+  }
+
+  @Test
+  public void testEcPrivateKeyUncommonCurve() throws Exception {
+    validateEcPrivateKey(ecKeyPair(new ECGenParameterSpec("brainpoolP256r1"),
+        new BouncyCastleProvider()));
+  }
+
+  private void validateEcPrivateKey(KeyPair kp) throws Exception {
     final ECPublicKey actual = (ECPublicKey) factory.generatePublic(kp.getPrivate());
     final ECPublicKey expected = (ECPublicKey) kp.getPublic();
     assertThat(actual.getW(), is(equalTo(expected.getW())));
@@ -60,6 +83,13 @@ public class JcaPublicKeyFactoryTest {
         is(equalTo(expected.getParams().getOrder())));
   }
 
+  private static KeyPair ecKeyPair(ECGenParameterSpec spec, Provider provider)
+      throws Exception {
+    final KeyPairGenerator kpg = provider != null ?
+        KeyPairGenerator.getInstance("EC", provider) :
+        KeyPairGenerator.getInstance("EC");
+    kpg.initialize(spec);
+    return kpg.generateKeyPair();
+  }
 
-
-}
\ No newline at end of file
+}
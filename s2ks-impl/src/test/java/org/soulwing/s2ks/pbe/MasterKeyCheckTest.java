@@ -0,0 +1,65 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.pbe;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.Test;
+import org.soulwing.s2ks.base.DecodingException;
+
+/**
+ * Unit tests for {@link MasterKeyCheck}.
+ *
+ * @author Carl Harris
+ */
+public class MasterKeyCheckTest {
+
+  @Test
+  public void testMatchesSamePassword() throws Exception {
+    final String value = new MasterKeyCheck(
+        PbeKeyFactory.generateKey("secret".toCharArray())).value();
+    assertThat(new MasterKeyCheck(PbeKeyFactory.generateKey(
+        "secret".toCharArray())).matches(value), is(true));
+  }
+
+  @Test
+  public void testDoesNotMatchOtherPassword() throws Exception {
+    final String value = new MasterKeyCheck(
+        PbeKeyFactory.generateKey("secret".toCharArray())).value();
+    assertThat(new MasterKeyCheck(PbeKeyFactory.generateKey(
+        "other".toCharArray())).matches(value), is(false));
+  }
+
+  @Test
+  public void testValuesAreSalted() throws Exception {
+    final char[] password = "secret".toCharArray();
+    assertThat(new MasterKeyCheck(PbeKeyFactory.generateKey(password)).value(),
+        is(not(new MasterKeyCheck(
+            PbeKeyFactory.generateKey(password)).value())));
+  }
+
+  @Test(expected = DecodingException.class)
+  public void testMatchesMalformedValue() throws Exception {
+    new MasterKeyCheck(PbeKeyFactory.generateKey("secret".toCharArray()))
+        .matches("not a check value");
+  }
+
+}
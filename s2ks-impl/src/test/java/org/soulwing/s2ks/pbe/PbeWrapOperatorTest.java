@@ -18,11 +18,19 @@
  */
 package org.soulwing.s2ks.pbe;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
 import java.security.Key;
 import java.util.regex.Pattern;
+import javax.crypto.SecretKey;
 
+import org.junit.Test;
+import org.soulwing.s2ks.KeyUtil;
 import org.soulwing.s2ks.base.AbstractKeyWrapOperator;
 import org.soulwing.s2ks.AbstractKeyWrapOperatorTest;
+import org.soulwing.s2ks.base.KeyDescriptor;
 
 
 /**
@@ -47,4 +55,19 @@ public class PbeWrapOperatorTest extends AbstractKeyWrapOperatorTest {
     return PbeWrapOperator.DEK_INFO_PATTERN;
   }
 
+  @Test
+  public void testWrapWithDerivedKeyAndUnwrapWithPbeKey() throws Exception {
+    final SecretKey pbeKey = (SecretKey) wrapperKey();
+    final PbeDerivedKey derivedKey = PbeKeyFactory.deriveKey(pbeKey);
+    final SecretKey subjectKey = KeyUtil.aesKey(256);
+
+    final KeyDescriptor descriptor = operator().wrap(subjectKey, derivedKey);
+    final String dekInfo =
+        descriptor.getMetadata().get(AbstractKeyWrapOperator.DEK_INFO_HEADER);
+    assertThat(dekInfoPattern().matcher(dekInfo).matches(), is(true));
+
+    assertThat(operator().unwrap(descriptor, pbeKey),
+        is(equalTo(subjectKey)));
+  }
+
 }
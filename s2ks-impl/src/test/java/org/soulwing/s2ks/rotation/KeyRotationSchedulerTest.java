@@ -0,0 +1,355 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.rotation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.Metadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.base.AbstractKeyStorage;
+import org.soulwing.s2ks.keygen.KeyGenerationPool;
+
+/**
+ * Unit tests for {@link KeyRotationScheduler}.
+ *
+ * @author Carl Harris
+ */
+public class KeyRotationSchedulerTest {
+
+  private static final String FAMILY = "tenant";
+
+  private static final RotationPolicy POLICY = RotationPolicy.builder()
+      .algorithm("AES")
+      .keySize(256)
+      .interval(Duration.ofHours(1))
+      .overlap(Duration.ofMinutes(10))
+      .build();
+
+  private final BlockingQueue<String> rotations = new LinkedBlockingQueue<>();
+
+  private Path directory;
+
+  private MutableKeyStorage storage;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    final Properties properties = new Properties();
+    properties.setProperty("password", "secret");
+    properties.setProperty("storageDirectory", directory.toString());
+    storage = KeyStorageLocator.getMutableInstance("LOCAL", properties);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FilesUtil.recursivelyDelete(directory);
+  }
+
+  @Test
+  public void testStartGeneratesInitialKey() throws Exception {
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      scheduler.start();
+      final String id = rotations.poll(10, TimeUnit.SECONDS);
+      assertThat(id, startsWith(FAMILY + KeyRotationScheduler.ID_SEPARATOR));
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(equalTo(id)));
+
+      final Metadata metadata = storage.retrieveWithMetadata(id).getMetadata();
+      final long iat = metadata.getLong(KeyRotationScheduler.ISSUED_AT, 0);
+      assertThat(Math.abs(iat - Instant.now().getEpochSecond()) < 60, is(true));
+      assertThat(metadata.getLong(KeyRotationScheduler.NOT_BEFORE, 0),
+          is(equalTo(iat)));
+      assertThat(metadata.getLong(KeyRotationScheduler.EXPIRES, 0),
+          is(equalTo(iat + Duration.ofMinutes(70).getSeconds())));
+    }
+  }
+
+  @Test
+  public void testRotateShortensExpirationOfPreviousKey() throws Exception {
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      final String first = scheduler.rotate(FAMILY).get(10, TimeUnit.SECONDS);
+      final String second = scheduler.rotate(FAMILY).get(10, TimeUnit.SECONDS);
+      assertThat(second, is(not(equalTo(first))));
+      assertThat(second.compareTo(first) > 0, is(true));
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(equalTo(second)));
+
+      final long iat = storage.retrieveWithMetadata(second).getMetadata()
+          .getLong(KeyRotationScheduler.ISSUED_AT, 0);
+      assertThat(storage.retrieveWithMetadata(first).getMetadata()
+              .getLong(KeyRotationScheduler.EXPIRES, 0),
+          is(equalTo(iat + Duration.ofMinutes(10).getSeconds())));
+    }
+  }
+
+  @Test
+  public void testStartResumesWithStoredActiveKey() throws Exception {
+    final String id;
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      id = scheduler.rotate(FAMILY).get(10, TimeUnit.SECONDS);
+    }
+    rotations.clear();
+
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(nullValue()));
+      scheduler.start();
+      assertThat(rotations.poll(10, TimeUnit.SECONDS), is(equalTo(id)));
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(equalTo(id)));
+    }
+    try (final Stream<String> ids = storage.ids(FAMILY)) {
+      final List<String> stored = ids.collect(Collectors.toList());
+      assertThat(stored.size(), is(equalTo(1)));
+    }
+  }
+
+  @Test
+  public void testStartResumesWithVersionedActiveKey() throws Exception {
+    ((AbstractKeyStorage) storage).setVersioned(true);
+    final String id;
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      id = scheduler.rotate(FAMILY).get(10, TimeUnit.SECONDS);
+    }
+    rotations.clear();
+
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      scheduler.start();
+      assertThat(rotations.poll(10, TimeUnit.SECONDS), is(equalTo(id)));
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(equalTo(id)));
+    }
+    try (final Stream<String> ids = storage.ids(FAMILY)) {
+      final List<String> stored = ids.collect(Collectors.toList());
+      assertThat(stored.size(), is(equalTo(1)));
+      assertThat(stored.get(0),
+          is(equalTo(AbstractKeyStorage.versionId(id, 1))));
+    }
+  }
+
+  @Test
+  public void testRotationStoredLateDoesNotReplaceNewerKey()
+      throws Exception {
+    final ScheduledExecutorService executor =
+        Executors.newScheduledThreadPool(2);
+    final CountDownLatch storing = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final MutableKeyStorage slowStorage = new MutableKeyStorage() {
+      @Override
+      public void store(String id, Key key) throws KeyStorageException {
+        storage.store(id, key);
+      }
+
+      @Override
+      public void store(String id, KeyWithMetadata keyWithMetadata)
+          throws KeyStorageException {
+        if (storing.getCount() > 0) {
+          storing.countDown();
+          awaitQuietly(release);
+        }
+        storage.store(id, keyWithMetadata);
+      }
+
+      @Override
+      public Key retrieve(String id) throws KeyStorageException {
+        return storage.retrieve(id);
+      }
+
+      @Override
+      public KeyWithMetadata retrieveWithMetadata(String id)
+          throws KeyStorageException {
+        return storage.retrieveWithMetadata(id);
+      }
+
+      @Override
+      public Stream<String> ids(String prefix) throws KeyStorageException {
+        return storage.ids(prefix);
+      }
+    };
+    try (final KeyRotationScheduler scheduler = KeyRotationScheduler.builder()
+             .storage(slowStorage)
+             .family(FAMILY, POLICY)
+             .scheduler(executor)
+             .build()) {
+      final CompletableFuture<String> first = scheduler.rotate(FAMILY);
+      assertThat(storing.await(10, TimeUnit.SECONDS), is(true));
+      final String second =
+          scheduler.rotate(FAMILY).get(10, TimeUnit.SECONDS);
+      release.countDown();
+      assertThat(first.get(10, TimeUnit.SECONDS), is(equalTo(second)));
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(equalTo(second)));
+
+      final String late;
+      try (final Stream<String> ids = storage.ids(FAMILY)) {
+        late = ids.filter(id -> !id.equals(second)).findFirst().orElse(null);
+      }
+      assertThat(late, is(not(nullValue())));
+      assertThat(late.compareTo(second) < 0, is(true));
+      final long iat = storage.retrieveWithMetadata(second).getMetadata()
+          .getLong(KeyRotationScheduler.ISSUED_AT, 0);
+      assertThat(storage.retrieveWithMetadata(late).getMetadata()
+              .getLong(KeyRotationScheduler.EXPIRES, 0),
+          is(equalTo(iat + Duration.ofMinutes(10).getSeconds())));
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRotateTakesKeysFromPool() throws Exception {
+    try (final KeyGenerationPool keyPool = KeyGenerationPool.builder()
+             .poolSize(1)
+             .executor(Runnable::run)
+             .build();
+         final KeyRotationScheduler scheduler = KeyRotationScheduler.builder()
+             .storage(storage)
+             .family(FAMILY, POLICY)
+             .keyPool(keyPool)
+             .listener((family, activeId, previousId) -> rotations.add(activeId))
+             .build()) {
+      scheduler.start();
+      assertThat(rotations.poll(10, TimeUnit.SECONDS), is(not(nullValue())));
+      assertThat(keyPool.getHitCount(), is(equalTo(1L)));
+      assertThat(keyPool.available(POLICY.getKeySpec()), is(equalTo(1)));
+    }
+  }
+
+  @Test
+  public void testRotateRequestsBeforeRotationRuns() throws Exception {
+    final ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor();
+    final CountDownLatch release = new CountDownLatch(1);
+    try (final KeyRotationScheduler scheduler = KeyRotationScheduler.builder()
+             .storage(storage)
+             .family(FAMILY, POLICY)
+             .scheduler(executor)
+             .build()) {
+      executor.execute(() -> awaitQuietly(release));
+      final CompletableFuture<String> first = scheduler.rotate(FAMILY);
+      final CompletableFuture<String> second = scheduler.rotate(FAMILY);
+      release.countDown();
+      assertThat(first.get(10, TimeUnit.SECONDS),
+          is(equalTo(second.get(10, TimeUnit.SECONDS))));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRotateWhileResuming() throws Exception {
+    final String id;
+    try (final KeyRotationScheduler scheduler = newScheduler()) {
+      id = scheduler.rotate(FAMILY).get(10, TimeUnit.SECONDS);
+    }
+
+    final CountDownLatch resuming = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    try (final KeyRotationScheduler scheduler = KeyRotationScheduler.builder()
+             .storage(storage)
+             .family(FAMILY, POLICY)
+             .listener((family, activeId, previousId) -> {
+               if (activeId.equals(id)) {
+                 resuming.countDown();
+                 awaitQuietly(release);
+               }
+             })
+             .build()) {
+      scheduler.start();
+      assertThat(resuming.await(10, TimeUnit.SECONDS), is(true));
+      final CompletableFuture<String> rotation = scheduler.rotate(FAMILY);
+      release.countDown();
+      final String rotated = rotation.get(10, TimeUnit.SECONDS);
+      assertThat(rotated, is(not(equalTo(id))));
+      assertThat(scheduler.getActiveKeyId(FAMILY), is(equalTo(rotated)));
+    }
+  }
+
+  @Test
+  public void testCloseCancelsRequestedRotation() throws Exception {
+    final ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor();
+    final CountDownLatch release = new CountDownLatch(1);
+    try {
+      final CompletableFuture<String> rotation;
+      try (final KeyRotationScheduler scheduler = KeyRotationScheduler.builder()
+               .storage(storage)
+               .family(FAMILY, POLICY)
+               .scheduler(executor)
+               .build()) {
+        executor.execute(() -> awaitQuietly(release));
+        rotation = scheduler.rotate(FAMILY);
+      }
+      assertThat(rotation.isCancelled(), is(true));
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFamilyPrefix() throws Exception {
+    KeyRotationScheduler.builder().family("a/b", POLICY);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private KeyRotationScheduler newScheduler() {
+    return KeyRotationScheduler.builder()
+        .storage(storage)
+        .family(FAMILY, POLICY)
+        .listener((family, activeId, previousId) -> rotations.add(activeId))
+        .build();
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.rotation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.soulwing.s2ks.keygen.KeySpec;
+
+/**
+ * Unit tests for {@link RotationPolicy}.
+ *
+ * @author Carl Harris
+ */
+public class RotationPolicyTest {
+
+  @Test
+  public void testBuild() throws Exception {
+    final RotationPolicy policy = RotationPolicy.builder()
+        .algorithm("AES")
+        .keySize(256)
+        .interval(Duration.ofDays(1))
+        .overlap(Duration.ofHours(1))
+        .build();
+    assertThat(policy.getKeySpec(), is(equalTo(KeySpec.of("AES", 256))));
+    assertThat(policy.getInterval(), is(equalTo(Duration.ofDays(1))));
+    assertThat(policy.getOverlap(), is(equalTo(Duration.ofHours(1))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedAlgorithm() throws Exception {
+    RotationPolicy.builder()
+        .algorithm("NoSuchAlgorithm")
+        .keySize(256)
+        .interval(Duration.ofDays(1))
+        .build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIntervalRequired() throws Exception {
+    RotationPolicy.builder()
+        .algorithm("AES")
+        .keySize(256)
+        .build();
+  }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.tls;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.InputStream;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.soulwing.s2ks.KeyPairInfo;
+import org.soulwing.s2ks.KeyPairStorage;
+import org.soulwing.s2ks.KeyStorageException;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.bc.BcEncryptedPrivateKeyLoader;
+import org.soulwing.s2ks.bc.BcPemCertificateLoader;
+
+/**
+ * Unit tests for {@link KeyPairStorageKeyManager}.
+ *
+ * @author Carl Harris
+ */
+public class KeyPairStorageKeyManagerTest {
+
+  private static final String RSA_ID = "rsa";
+  private static final String EC_ID = "ec";
+
+  @Rule
+  public final ExpectedException expectedException = ExpectedException.none();
+
+  private final PrivateKey rsaKey = KeyUtil.rsaKeyPair().getPrivate();
+  private final PrivateKey ecKey = KeyUtil.ecKeyPair().getPrivate();
+
+  private final StubKeyPairStorage storage = new StubKeyPairStorage();
+  private final List<String> failures = new ArrayList<>();
+
+  private X509Certificate cert;
+  private X509Certificate caCert;
+
+  private KeyPairStorageKeyManager keyManager;
+
+  @Before
+  public void setUp() throws Exception {
+    cert = loadCert("/org/soulwing/s2ks/local/cert.pem");
+    caCert = loadCert("/org/soulwing/s2ks/local/cacerts.pem");
+    storage.put(RSA_ID, rsaKey, cert, caCert);
+    storage.put(EC_ID, ecKey, cert);
+    keyManager = KeyPairStorageKeyManager.builder()
+        .storage(storage)
+        .ids(RSA_ID, EC_ID)
+        .refreshInterval(Duration.ofHours(1))
+        .onRefreshFailure((id, ex) -> failures.add(id))
+        .build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    keyManager.close();
+  }
+
+  @Test
+  public void testStart() throws Exception {
+    keyManager.start();
+    assertThat(keyManager.getPrivateKey(RSA_ID), is(sameInstance(rsaKey)));
+    assertThat(keyManager.getCertificateChain(RSA_ID),
+        is(arrayContaining(cert, caCert)));
+    assertThat(keyManager.getPrivateKey(EC_ID), is(sameInstance(ecKey)));
+    assertThat(keyManager.getCertificateChain(EC_ID),
+        is(arrayContaining(cert)));
+    assertThat(keyManager.getPrivateKey("other"), is(nullValue()));
+    assertThat(keyManager.getCertificateChain("other"), is(nullValue()));
+  }
+
+  @Test
+  public void testStartWhenNotFound() throws Exception {
+    storage.keyPairs.remove(EC_ID);
+    expectedException.expect(NoSuchKeyException.class);
+    keyManager.start();
+  }
+
+  @Test
+  public void testChooseServerAlias() throws Exception {
+    keyManager.start();
+    assertThat(keyManager.chooseServerAlias("RSA", null, null),
+        isAliasOf(RSA_ID));
+    assertThat(keyManager.chooseEngineServerAlias("EC", null, null),
+        isAliasOf(EC_ID));
+    assertThat(keyManager.chooseServerAlias("DSA", null, null),
+        is(nullValue()));
+  }
+
+  @Test
+  public void testChooseClientAlias() throws Exception {
+    keyManager.start();
+    assertThat(keyManager.chooseClientAlias(
+        new String[] { "DSA", "EC" }, null, null), isAliasOf(EC_ID));
+    assertThat(keyManager.chooseEngineClientAlias(
+        new String[] { "RSA", "EC" }, null, null), isAliasOf(RSA_ID));
+  }
+
+  @Test
+  public void testChooseAliasWithIssuers() throws Exception {
+    keyManager.start();
+    final Principal issuer = cert.getIssuerX500Principal();
+    final Principal other = caCert.getIssuerX500Principal();
+    assertThat(keyManager.chooseServerAlias("EC_EC",
+        new Principal[] { issuer }, null), isAliasOf(EC_ID));
+    assertThat(keyManager.chooseServerAlias("EC_EC",
+        new Principal[] { cert.getSubjectX500Principal() }, null),
+        is(nullValue()));
+    assertThat(keyManager.getServerAliases("RSA",
+        new Principal[] { other }), arrayContaining(isAliasOf(RSA_ID)));
+    assertThat(keyManager.getClientAliases("DSA", null), is(nullValue()));
+  }
+
+  @Test
+  public void testRefreshWhenChanged() throws Exception {
+    keyManager.start();
+    storage.put(RSA_ID, rsaKey, cert);
+    keyManager.refresh();
+    assertThat(keyManager.getCertificateChain(RSA_ID),
+        is(arrayContaining(cert)));
+    assertThat(failures.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testRefreshWhenFails() throws Exception {
+    keyManager.start();
+    storage.keyPairs.remove(RSA_ID);
+    storage.put(EC_ID, ecKey, cert, caCert);
+    keyManager.refresh();
+    assertThat(failures, contains(RSA_ID));
+    assertThat(keyManager.getPrivateKey(RSA_ID), is(sameInstance(rsaKey)));
+    assertThat(keyManager.getCertificateChain(EC_ID),
+        is(arrayContaining(cert, caCert)));
+  }
+
+  @Test
+  public void testChooseAliasWithBouncyCastleKey() throws Exception {
+    final PrivateKey bcKey = loadKey("/org/soulwing/s2ks/bc/eckey.pem");
+    assertThat(bcKey.getAlgorithm(), is(equalTo("ECDSA")));
+    storage.put(EC_ID, bcKey, cert);
+    keyManager.start();
+    final String alias = keyManager.chooseServerAlias("EC", null, null);
+    assertThat(alias, isAliasOf(EC_ID));
+    assertThat(keyManager.getPrivateKey(alias), is(sameInstance(bcKey)));
+    assertThat(keyManager.getServerAliases("EC_EC", null),
+        arrayContaining(isAliasOf(EC_ID)));
+  }
+
+  @Test
+  public void testAliasResolvesAcrossRefresh() throws Exception {
+    keyManager.start();
+    final String alias = keyManager.chooseServerAlias("RSA", null, null);
+    final PrivateKey otherKey = KeyUtil.ecKeyPair().getPrivate();
+    storage.put(RSA_ID, otherKey, cert);
+    keyManager.refresh();
+    assertThat(keyManager.getPrivateKey(alias), is(sameInstance(rsaKey)));
+    assertThat(keyManager.getCertificateChain(alias),
+        is(arrayContaining(cert, caCert)));
+
+    final String updated = keyManager.chooseServerAlias("EC", null, null);
+    assertThat(updated, isAliasOf(RSA_ID));
+    assertThat(updated, is(not(equalTo(alias))));
+    assertThat(keyManager.getPrivateKey(updated), is(sameInstance(otherKey)));
+    assertThat(keyManager.getCertificateChain(updated),
+        is(arrayContaining(cert)));
+    assertThat(keyManager.getPrivateKey(RSA_ID), is(sameInstance(otherKey)));
+  }
+
+  @Test
+  public void testAliasUnchangedWhenRefreshFindsNoChange() throws Exception {
+    keyManager.start();
+    final String alias = keyManager.chooseServerAlias("RSA", null, null);
+    keyManager.refresh();
+    assertThat(keyManager.chooseServerAlias("RSA", null, null),
+        is(equalTo(alias)));
+  }
+
+  @Test
+  public void testHandshakeDoesNotAccessStorage() throws Exception {
+    keyManager.start();
+    final int retrievals = storage.retrievals.get();
+    keyManager.chooseServerAlias("RSA", null, null);
+    keyManager.getPrivateKey(RSA_ID);
+    keyManager.getCertificateChain(RSA_ID);
+    assertThat(storage.retrievals.get(), is(equalTo(retrievals)));
+  }
+
+  @Test
+  public void testCertificateChainIsCopy() throws Exception {
+    keyManager.start();
+    keyManager.getCertificateChain(RSA_ID)[0] = null;
+    assertThat(keyManager.getCertificateChain(RSA_ID)[0],
+        is(not(nullValue())));
+  }
+
+  @Test
+  public void testNewSSLContext() throws Exception {
+    keyManager.start();
+    final SSLContext context = keyManager.newSSLContext("TLS");
+    assertThat(context.getProtocol(), is(equalTo("TLS")));
+  }
+
+  @Test
+  public void testStartWhenAlreadyStarted() throws Exception {
+    keyManager.start();
+    expectedException.expect(IllegalStateException.class);
+    keyManager.start();
+  }
+
+  @Test
+  public void testBuildWithoutIds() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    KeyPairStorageKeyManager.builder().storage(storage).build();
+  }
+
+  private static Matcher<String> isAliasOf(String id) {
+    return startsWith(id + KeyPairStorageKeyManager.GENERATION_DELIMITER);
+  }
+
+  private PrivateKey loadKey(String name) throws Exception {
+    try (final InputStream inputStream =
+             getClass().getResourceAsStream(name)) {
+      return BcEncryptedPrivateKeyLoader.getInstance().load(inputStream,
+          "secret".toCharArray());
+    }
+  }
+
+  private X509Certificate loadCert(String name) throws Exception {
+    try (final InputStream inputStream =
+             getClass().getResourceAsStream(name)) {
+      return BcPemCertificateLoader.getInstance().load(inputStream).get(0);
+    }
+  }
+
+  private static class StubKeyPairStorage implements KeyPairStorage {
+
+    final Map<String, KeyPairInfo> keyPairs =
+        Collections.synchronizedMap(new HashMap<>());
+
+    final AtomicInteger retrievals = new AtomicInteger();
+
+    void put(String id, PrivateKey privateKey,
+        X509Certificate... certificates) {
+      final List<X509Certificate> chain = new ArrayList<>();
+      Collections.addAll(chain, certificates);
+      keyPairs.put(id, KeyPairInfo.builder()
+          .id(id)
+          .privateKey(privateKey)
+          .certificates(chain)
+          .build());
+    }
+
+    @Override
+    public KeyPairInfo retrieveKeyPair(String id)
+        throws KeyStorageException {
+      retrievals.incrementAndGet();
+      final KeyPairInfo keyPair = keyPairs.get(id);
+      if (keyPair == null) {
+        throw new NoSuchKeyException(id);
+      }
+      return keyPair;
+    }
+
+    @Override
+    public List<X509Certificate> retrieveCertificates(String id)
+        throws KeyStorageException {
+      return retrieveKeyPair(id).getCertificates();
+    }
+
+  }
+
+}
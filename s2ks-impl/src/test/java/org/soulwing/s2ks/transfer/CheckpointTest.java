@@ -0,0 +1,100 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+
+/**
+ * Unit tests for {@link Checkpoint}.
+ *
+ * @author Carl Harris
+ */
+public class CheckpointTest {
+
+  private Path directory;
+  private Path path;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    path = directory.resolve("checkpoint.properties");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FilesUtil.recursivelyDelete(directory);
+  }
+
+  @Test
+  public void testLoadWhenNotFound() throws Exception {
+    final Checkpoint checkpoint = Checkpoint.load(path);
+    assertThat(checkpoint.getPosition(), is(nullValue()));
+    assertThat(checkpoint.getFailed(), is(empty()));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    final Checkpoint saved = Checkpoint.load(path)
+        .save("a/b", Arrays.asList("z", "a = 1"));
+    assertThat(saved.getPosition(), is(equalTo("a/b")));
+    assertThat(saved.getFailed(), contains("a = 1", "z"));
+
+    final Checkpoint loaded = Checkpoint.load(path);
+    assertThat(loaded.getPosition(), is(equalTo("a/b")));
+    assertThat(loaded.getFailed(), contains("a = 1", "z"));
+    try (final Stream<Path> files = Files.list(directory)) {
+      assertThat(files.count(), is(equalTo(1L)));
+    }
+  }
+
+  @Test
+  public void testSaveReplacesPreviousState() throws Exception {
+    Checkpoint.load(path).save("a", Collections.singletonList("b"));
+    Checkpoint.load(path).save(null, Collections.emptyList());
+
+    final Checkpoint loaded = Checkpoint.load(path);
+    assertThat(loaded.getPosition(), is(nullValue()));
+    assertThat(loaded.getFailed(), is(empty()));
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    final Checkpoint checkpoint =
+        Checkpoint.load(path).save("a", Collections.emptyList());
+    checkpoint.delete();
+    assertThat(Files.exists(path), is(false));
+  }
+
+}
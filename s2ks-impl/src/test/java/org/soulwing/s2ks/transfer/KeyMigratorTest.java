@@ -0,0 +1,225 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.NoSuchKeyException;
+import org.soulwing.s2ks.SimpleMetadata;
+import org.soulwing.s2ks.base.AbstractMutableKeyStorage;
+
+/**
+ * Tests for {@link KeyMigrator} using local storage.
+ *
+ * @author Carl Harris
+ */
+public class KeyMigratorTest {
+
+  private static final int KEY_COUNT = 20;
+
+  private Path parent;
+  private Properties sourceProperties;
+  private Properties targetProperties;
+  private MutableKeyStorage source;
+  private MutableKeyStorage target;
+  private Map<String, Key> keys = new LinkedHashMap<>();
+
+  @Before
+  public void setUp() throws Exception {
+    parent = Files.createTempDirectory(getClass().getSimpleName());
+    sourceProperties = properties("source", "source secret");
+    targetProperties = properties("target", "target secret");
+    source = KeyStorageLocator.getMutableInstance("LOCAL", sourceProperties);
+    target = KeyStorageLocator.getMutableInstance("LOCAL", targetProperties);
+    for (int i = 0; i < KEY_COUNT; i++) {
+      final String id = String.format("key%02d", i);
+      final Key key = i % 2 == 0 ?
+          KeyUtil.aesKey(256) : KeyUtil.ecKeyPair().getPrivate();
+      source.store(id, new KeyWithMetadata(key,
+          SimpleMetadata.builder()
+              .set("index", i)
+              .set("name", id)
+              .build()));
+      keys.put(id, key);
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FilesUtil.recursivelyDelete(parent);
+  }
+
+  @Test
+  public void testRunWithProviderNames() throws Exception {
+    final TransferResult result = KeyMigrator.builder()
+        .source("LOCAL", sourceProperties)
+        .target("LOCAL", targetProperties)
+        .parallelism(4)
+        .verify(true)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT)));
+    assertThat(result.isSuccessful(), is(true));
+    for (final String id : keys.keySet()) {
+      final KeyWithMetadata actual = target.retrieveWithMetadata(id);
+      assertThat(actual.getKey().getAlgorithm(),
+          is(equalTo(source.retrieve(id).getAlgorithm())));
+      assertThat(actual.getMetadata().get("name", String.class),
+          is(equalTo(id)));
+    }
+  }
+
+  @Test
+  public void testRunDoesNotChangeSuppliedTarget() throws Exception {
+    KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .wrapperKeyReuse(10)
+        .build()
+        .run();
+
+    assertThat(((AbstractMutableKeyStorage) target).getWrapperKeyReuse(),
+        is(equalTo(1)));
+  }
+
+  @Test
+  public void testRunWithVersionedKeys() throws Exception {
+    ((AbstractMutableKeyStorage) source).setVersioned(true);
+    ((AbstractMutableKeyStorage) target).setVersioned(true);
+    final Key key1 = KeyUtil.aesKey(256);
+    final Key key2 = KeyUtil.aesKey(256);
+    source.store("versioned", key1);
+    source.store("versioned", key2);
+
+    final TransferResult result = KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .verify(true)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT + 2)));
+    assertThat(result.isSuccessful(), is(true));
+    assertThat(target.retrieve("versioned"), is(equalTo(key2)));
+    assertThat(target.retrieve("versioned@v1"), is(equalTo(key1)));
+
+    final Key key3 = KeyUtil.aesKey(256);
+    target.store("versioned", key3);
+    assertThat(((AbstractMutableKeyStorage) target).resolveVersion("versioned"),
+        is(equalTo("versioned@v3")));
+    assertThat(target.retrieve("versioned@v2"), is(equalTo(key2)));
+  }
+
+  @Test
+  public void testDryRun() throws Exception {
+    final TransferResult result = KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .dryRun(true)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT)));
+    try {
+      target.retrieve("key00");
+      fail("expected NoSuchKeyException");
+    }
+    catch (NoSuchKeyException ex) {
+      assert true;  // nothing was written
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDryRunWithCheckpoint() throws Exception {
+    KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .checkpoint(parent.resolve("checkpoint.properties"))
+        .dryRun(true)
+        .build();
+  }
+
+  @Test
+  public void testDryRunWithVerify() throws Exception {
+    KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .prefix("key1")
+        .build()
+        .run();
+
+    final TransferResult result = KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .dryRun(true)
+        .verify(true)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT / 2)));
+    assertThat(result.getFailures().size(), is(equalTo(KEY_COUNT / 2)));
+    assertThat(result.getFailures().get("key00"),
+        is(instanceOf(NoSuchKeyException.class)));
+  }
+
+  @Test
+  public void testVerifyWhenKeyDiffers() throws Exception {
+    target.store("key00", KeyUtil.aesKey(256));
+    final TransferResult result = KeyMigrator.builder()
+        .source(source)
+        .target(target)
+        .prefix("key00")
+        .dryRun(true)
+        .verify(true)
+        .build()
+        .run();
+
+    assertThat(result.getFailures().get("key00").getMessage(),
+        is(equalTo("key key00 does not match source")));
+  }
+
+  private Properties properties(String directory, String password) {
+    final Properties properties = new Properties();
+    properties.setProperty("password", password);
+    properties.setProperty("storageDirectory",
+        parent.resolve(directory).toString());
+    return properties;
+  }
+
+}
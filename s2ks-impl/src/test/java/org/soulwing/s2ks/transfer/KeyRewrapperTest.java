@@ -0,0 +1,225 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorageLocator;
+import org.soulwing.s2ks.KeyUnwrapException;
+import org.soulwing.s2ks.KeyUtil;
+import org.soulwing.s2ks.KeyWithMetadata;
+import org.soulwing.s2ks.MetadataUnwrapException;
+import org.soulwing.s2ks.MutableKeyStorage;
+import org.soulwing.s2ks.SimpleMetadata;
+
+/**
+ * Tests for {@link KeyRewrapper} using local storage.
+ *
+ * @author Carl Harris
+ */
+public class KeyRewrapperTest {
+
+  private static final int KEY_COUNT = 20;
+
+  private Path directory;
+  private MutableKeyStorage oldStorage;
+  private MutableKeyStorage newStorage;
+  private Map<String, Key> keys = new LinkedHashMap<>();
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    oldStorage = newStorage("old secret");
+    newStorage = newStorage("new secret");
+    for (int i = 0; i < KEY_COUNT; i++) {
+      final String id = String.format("group%d/key%02d", i % 2, i);
+      final Key key = KeyUtil.aesKey(256);
+      oldStorage.store(id, new KeyWithMetadata(key,
+          SimpleMetadata.builder().set("index", i).build()));
+      keys.put(id, key);
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FilesUtil.recursivelyDelete(directory);
+  }
+
+  @Test
+  public void testRun() throws Exception {
+    final TransferResult result = KeyRewrapper.builder()
+        .source(oldStorage)
+        .target(newStorage)
+        .parallelism(4)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT)));
+    assertThat(result.isSuccessful(), is(true));
+    assertRewrapped();
+  }
+
+  @Test
+  public void testRunWithPrefix() throws Exception {
+    final TransferResult result = KeyRewrapper.builder()
+        .source(oldStorage)
+        .target(newStorage)
+        .prefix("group1/")
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT / 2)));
+    assertThat(newStorage.retrieve("group1/key01"),
+        is(equalTo(keys.get("group1/key01"))));
+    assertThat(oldStorage.retrieve("group0/key00"),
+        is(equalTo(keys.get("group0/key00"))));
+  }
+
+  @Test
+  public void testRunAgainSkipsRewrappedKeys() throws Exception {
+    final KeyRewrapper rewrapper = KeyRewrapper.builder()
+        .source(oldStorage)
+        .target(newStorage)
+        .build();
+    rewrapper.run();
+
+    final TransferResult result = rewrapper.run();
+    assertThat(result.getProcessed(), is(equalTo(0L)));
+    assertThat(result.getSkipped(), is(equalTo((long) KEY_COUNT)));
+    assertRewrapped();
+  }
+
+  @Test
+  public void testRunAgainNeverReplacesKeysWithoutMetadata()
+      throws Exception {
+    // without metadata, nothing but the padding check detects an unwrap
+    // with the wrong password, which passes about one time in 256
+    final Map<String, Key> bareKeys = new LinkedHashMap<>();
+    for (int i = 0; i < 256; i++) {
+      final String id = String.format("bare/key%03d", i);
+      bareKeys.put(id, KeyUtil.aesKey(128));
+    }
+    oldStorage.storeAll(bareKeys.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey,
+            e -> new KeyWithMetadata(e.getValue(), SimpleMetadata.empty()))));
+    final KeyRewrapper rewrapper = KeyRewrapper.builder()
+        .source(oldStorage)
+        .target(newStorage)
+        .prefix("bare/")
+        .build();
+    assertThat(rewrapper.run().getProcessed(),
+        is(equalTo((long) bareKeys.size())));
+
+    final TransferResult result = rewrapper.run();
+    assertThat(result.getProcessed(), is(equalTo(0L)));
+    assertThat(result.getSkipped(), is(equalTo((long) bareKeys.size())));
+    for (final Map.Entry<String, Key> entry : bareKeys.entrySet()) {
+      assertThat(newStorage.retrieve(entry.getKey()),
+          is(equalTo(entry.getValue())));
+    }
+  }
+
+  @Test
+  public void testRunWhenMasterKeyIsNotRecorded() throws Exception {
+    try (final Stream<Path> files = Files.walk(directory)) {
+      for (final Path file : files.filter(Files::isRegularFile)
+          .collect(Collectors.toList())) {
+        Files.write(file, Files.readAllLines(file).stream()
+            .filter(line -> !line.startsWith("Master-Key-Check:"))
+            .collect(Collectors.toList()));
+      }
+    }
+
+    final TransferResult result = KeyRewrapper.builder()
+        .source(oldStorage)
+        .target(newStorage)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT)));
+    assertThat(result.isSuccessful(), is(true));
+    assertRewrapped();
+  }
+
+  @Test
+  public void testRunResumesFromCheckpoint() throws Exception {
+    final Path checkpoint = directory.resolve("rewrap.checkpoint");
+    Checkpoint.load(checkpoint).save("group0/key18",
+        Collections.singletonList("group0/key04"));
+
+    final TransferResult result = KeyRewrapper.builder()
+        .source(oldStorage)
+        .target(newStorage)
+        .checkpoint(checkpoint)
+        .build()
+        .run();
+
+    assertThat(result.getProcessed(), is(equalTo((long) KEY_COUNT / 2 + 1)));
+    assertThat(newStorage.retrieve("group0/key04"),
+        is(equalTo(keys.get("group0/key04"))));
+    assertThat(newStorage.retrieve("group1/key01"),
+        is(equalTo(keys.get("group1/key01"))));
+    assertThat(oldStorage.retrieve("group0/key00"),
+        is(equalTo(keys.get("group0/key00"))));
+    assertThat(Files.exists(checkpoint), is(false));
+  }
+
+  private void assertRewrapped() throws Exception {
+    for (final Map.Entry<String, Key> entry : keys.entrySet()) {
+      final KeyWithMetadata actual =
+          newStorage.retrieveWithMetadata(entry.getKey());
+      assertThat(actual.getKey(), is(equalTo(entry.getValue())));
+      assertThat(actual.getMetadata().get("index", Integer.class),
+          is(equalTo(Integer.parseInt(
+              entry.getKey().substring(entry.getKey().length() - 2)))));
+      try {
+        oldStorage.retrieveWithMetadata(entry.getKey());
+        fail("expected unwrap to fail");
+      }
+      catch (KeyUnwrapException | MetadataUnwrapException ex) {
+        assert true;  // key is no longer wrapped with the old password
+      }
+    }
+  }
+
+  private MutableKeyStorage newStorage(String password) throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("password", password);
+    properties.setProperty("storageDirectory", directory.toString());
+    return KeyStorageLocator.getMutableInstance("LOCAL", properties);
+  }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * File created on Oct 19, 2026
+ *
+ * Copyright (c) 2026 Carl Harris, Jr
+ * and others as noted
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.soulwing.s2ks.transfer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.s2ks.FilesUtil;
+import org.soulwing.s2ks.KeyStorageException;
+
+/**
+ * Unit tests for {@link TransferPipeline}.
+ *
+ * @author Carl Harris
+ */
+public class TransferPipelineTest {
+
+  private static final List<String> IDS = Arrays.asList("a", "b", "c", "d");
+
+  private final List<String> transferred =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private Path directory;
+  private Path path;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory(getClass().getSimpleName());
+    path = directory.resolve("checkpoint.properties");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FilesUtil.recursivelyDelete(directory);
+  }
+
+  @Test
+  public void testRun() throws Exception {
+    final TransferResult result =
+        new TransferPipeline(Runnable::run, 2, null, 1)
+            .run(IDS.stream(), id -> transferred.add(id) && !id.equals("c"));
+
+    assertThat(transferred, is(equalTo(IDS)));
+    assertThat(result.getProcessed(), is(equalTo(3L)));
+    assertThat(result.getSkipped(), is(equalTo(1L)));
+    assertThat(result.isSuccessful(), is(true));
+  }
+
+  @Test
+  public void testRunWithFailureSavesCheckpoint() throws Exception {
+    final KeyStorageException failure = new KeyStorageException("failed");
+    final TransferResult result =
+        new TransferPipeline(Runnable::run, 2, Checkpoint.load(path), 1)
+            .run(IDS.stream(), id -> {
+              if (id.equals("b")) throw failure;
+              return true;
+            });
+
+    assertThat(result.getProcessed(), is(equalTo(3L)));
+    assertThat(result.getFailures().keySet(), contains("b"));
+    assertThat(result.getFailures().get("b"), is(failure));
+
+    final Checkpoint checkpoint = Checkpoint.load(path);
+    assertThat(checkpoint.getPosition(), is(equalTo("d")));
+    assertThat(checkpoint.getFailed(), contains("b"));
+  }
+
+  @Test
+  public void testRunResumesFromCheckpoint() throws Exception {
+    Checkpoint.load(path).save("b", Collections.singletonList("a"));
+
+    final TransferResult result =
+        new TransferPipeline(Runnable::run, 2, Checkpoint.load(path), 1)
+            .run(IDS.stream(), transferred::add);
+
+    assertThat(transferred, contains("a", "c", "d"));
+    assertThat(result.getProcessed(), is(equalTo(3L)));
+    assertThat(Files.exists(path), is(false));
+  }
+
+  @Test
+  public void testRunWhenEnumerationFails() throws Exception {
+    final Stream<String> ids = Stream.of("a", "b").map(id -> {
+      if (id.equals("b")) {
+        throw new UncheckedIOException(new IOException("failed"));
+      }
+      return id;
+    });
+
+    try {
+      new TransferPipeline(Runnable::run, 2, Checkpoint.load(path), 1)
+          .run(ids, transferred::add);
+      fail("expected KeyStorageException");
+    }
+    catch (KeyStorageException ex) {
+      assertThat(ex.getCause(), is(instanceOf(IOException.class)));
+    }
+
+    assertThat(transferred, contains("a"));
+    assertThat(Checkpoint.load(path).getPosition(), is(equalTo("a")));
+  }
+
+  @Test
+  public void testRunBoundsParallelism() throws Exception {
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicInteger maxActive = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final TransferResult result = new TransferPipeline(executor, 3, null, 1)
+          .run(Stream.iterate(0, i -> i + 1).limit(50)
+              .map(i -> String.format("%02d", i)), id -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+              Thread.sleep(1);
+            }
+            catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            return true;
+          });
+      assertThat(result.getProcessed(), is(equalTo(50L)));
+      assertThat(maxActive.get(), is(lessThanOrEqualTo(3)));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCheckpointDoesNotPassTaskInFlight() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<String> positions = new ArrayList<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final TransferResult result = new TransferPipeline(executor, 2,
+          Checkpoint.load(path), 1).run(IDS.stream(), id -> {
+        try {
+          if (id.equals("a")) {
+            assertThat(release.await(10, TimeUnit.SECONDS), is(true));
+          }
+          if (id.equals("d")) {
+            positions.add(Checkpoint.load(path).getPosition());
+            release.countDown();
+          }
+          return true;
+        }
+        catch (InterruptedException | IOException ex) {
+          throw new KeyStorageException(ex);
+        }
+      });
+      assertThat(result.getProcessed(), is(equalTo(4L)));
+      assertThat(positions, contains(nullValue()));
+      assertThat(Files.exists(path), is(false));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCheckpointFollowsEnumerationOrder() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<String> positions = new ArrayList<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      final TransferResult result = new TransferPipeline(executor, 3,
+          Checkpoint.load(path), 1).run(
+              Stream.of("a-b", "a", "c", "d", "e"), id -> {
+        try {
+          if (id.startsWith("a")) {
+            assertThat(release.await(10, TimeUnit.SECONDS), is(true));
+          }
+          if (id.equals("e")) {
+            positions.add(Checkpoint.load(path).getPosition());
+            release.countDown();
+          }
+          return true;
+        }
+        catch (InterruptedException | IOException ex) {
+          throw new KeyStorageException(ex);
+        }
+      });
+      assertThat(result.getProcessed(), is(equalTo(5L)));
+      assertThat(positions, contains(nullValue()));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRunResumesWhenPrefixFollowsInEnumeration() throws Exception {
+    Checkpoint.load(path).save("a-b", Collections.emptyList());
+
+    final TransferResult result =
+        new TransferPipeline(Runnable::run, 2, Checkpoint.load(path), 1)
+            .run(Stream.of("a-a", "a-b", "a-c", "a", "b"), transferred::add);
+
+    assertThat(transferred, contains("a-c", "a", "b"));
+    assertThat(result.getProcessed(), is(equalTo(3L)));
+  }
+
+  @Test
+  public void testPrecedes() throws Exception {
+    assertThat(TransferPipeline.precedes("a", "a"), is(true));
+    assertThat(TransferPipeline.precedes("a-a", "a-b"), is(true));
+    assertThat(TransferPipeline.precedes("a-c", "a-b"), is(false));
+    assertThat(TransferPipeline.precedes("a", "a-b"), is(false));
+    assertThat(TransferPipeline.precedes("a-b", "a"), is(false));
+    assertThat(TransferPipeline.precedes("b", "a-b"), is(false));
+  }
+
+}